@@ -0,0 +1,35 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks with the GC profiler attached (the equivalent of -prof gc), so every result
+ * reports its allocation rate next to its running time. Results are written as JSON under
+ * benchmarks/results so runs from different releases can be compared.
+ * <p>
+ * Accepts the usual JMH command line options, for example {@code SolverBenchmark.solveMatrix -p size=500}
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        File resultDir = new File("benchmarks/results");
+        resultDir.mkdirs();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(resultDir, "jmh-" + timestamp + ".json").getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import main.DenseMatrix;
+
+import java.util.Random;
+
+/**
+ * Kinds of augmented matrices [A | b] used as benchmark inputs
+ */
+public enum MatrixShape {
+    // n x n, entries uniform in [-1, 1]
+    DENSE_RANDOM,
+    // n x n, each diagonal entry larger than the rest of its row combined
+    DIAGONALLY_DOMINANT,
+    // n x n of rank n / 2, every odd row is a combination of the rows before it
+    RANK_DEFICIENT,
+    // 2n x n, overdetermined
+    TALL,
+    // n x 2n, underdetermined
+    WIDE,
+    // n x n, zero below the diagonal
+    UPPER_TRIANGULAR,
+    // n x n, dominant diagonal and one diagonal on either side
+    TRIDIAGONAL,
+    // n x n, 4 diagonals on either side of the main one
+    BANDED;
+
+    /**
+     * @return the coefficient block A for a given size, without the constants column
+     */
+    public DenseMatrix coefficients(int n, long seed) {
+        Random random = new Random(seed);
+        int rows = this == TALL ? 2 * n : n;
+        int cols = this == WIDE ? 2 * n : n;
+        DenseMatrix matrix = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) matrix.set(r, c, random.nextDouble() * 2 - 1);
+        }
+        if (this == DIAGONALLY_DOMINANT) {
+            for (int r = 0; r < rows; r++) matrix.set(r, r, cols + random.nextDouble());
+        } else if (this == UPPER_TRIANGULAR || this == TRIDIAGONAL || this == BANDED) {
+            int lower = this == UPPER_TRIANGULAR ? 0 : this == TRIDIAGONAL ? 1 : 4;
+            int upper = this == UPPER_TRIANGULAR ? cols : lower;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (c < r - lower || c > r + upper) matrix.set(r, c, 0);
+                }
+                if (this != BANDED) matrix.set(r, r, lower + upper + 1 + random.nextDouble());
+            }
+        } else if (this == RANK_DEFICIENT) {
+            for (int r = 1; r < rows; r += 2) {
+                double scale = random.nextDouble() * 2 - 1;
+                for (int c = 0; c < cols; c++) {
+                    matrix.set(r, c, matrix.get(r - 1, c) * scale + (r > 1 ? matrix.get(r - 2, c) : 0));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * @return the augmented matrix [A | b], b is chosen so the system is consistent
+     */
+    public DenseMatrix augmented(int n, long seed) {
+        DenseMatrix coefficients = coefficients(n, seed);
+        int rows = coefficients.getRows();
+        int cols = coefficients.getCols();
+        Random random = new Random(seed + 1);
+        double[] x = new double[cols];
+        for (int c = 0; c < cols; c++) x[c] = random.nextDouble() * 10 - 5;
+
+        DenseMatrix augmented = new DenseMatrix(rows, cols + 1);
+        coefficients.copyTo(augmented.view(0, 0, rows, cols));
+        for (int r = 0; r < rows; r++) {
+            double sum = 0;
+            for (int c = 0; c < cols; c++) sum += coefficients.get(r, c) * x[c];
+            augmented.set(r, cols, sum);
+        }
+        return augmented;
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import main.RowKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The row kernels under elimination, scalar loops against the Vector API.
+ * Forks add the jdk.incubator.vector module, the vector kernels use 256-bit registers on AVX2 hosts
+ * and 512-bit registers on AVX-512 hosts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class RowKernelBenchmark {
+    @Param({"16", "101", "500", "2001"})
+    public int length;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private RowKernels kernels;
+    private double[] data;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        kernels = kernel.equals("scalar") ? RowKernels.SCALAR : RowKernels.vector();
+        if (kernels == null) throw new IllegalStateException("The Vector API is not available on this JVM or host");
+        Random random = new Random(42);
+        data = new double[2 * length];
+        for (int i = 0; i < data.length; i++) data[i] = random.nextDouble() * 2 - 1;
+    }
+
+    @Benchmark
+    public void axpy() {
+        kernels.axpy(data, 0, length, length, (invocation++ & 1) == 0 ? 1.0 : -1.0);
+    }
+
+    @Benchmark
+    public void scale() {
+        kernels.scale(data, 0, length, (invocation++ & 1) == 0 ? 2.0 : 0.5);
+    }
+
+    @Benchmark
+    public void swap() {
+        kernels.swap(data, 0, length, length);
+    }
+}
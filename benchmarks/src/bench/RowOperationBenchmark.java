@@ -0,0 +1,71 @@
+package bench;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three elementary row operations on list and dense storage.
+ * Scalars alternate between a value and its inverse so repeated invocations do not overflow.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class RowOperationBenchmark {
+    @Param({"10", "100", "500", "1000", "2000"})
+    public int size;
+
+    @Param({"DENSE_RANDOM", "WIDE"})
+    public MatrixShape shape;
+
+    private final LinearSolver solver = new LinearSolver();
+    private DenseMatrix dense;
+    private ArrayList<ArrayList<Double>> list;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void createMatrix() {
+        dense = shape.augmented(size, 42);
+        list = dense.toList();
+    }
+
+    private double alternatingScalar() {
+        return (invocation++ & 1) == 0 ? 2.0 : 0.5;
+    }
+
+    @Benchmark
+    public void swapRowsList() {
+        solver.swapRows(list, 0, size - 1);
+    }
+
+    @Benchmark
+    public void swapRowsDense() {
+        solver.swapRows(dense, 0, size - 1);
+    }
+
+    @Benchmark
+    public void scaleRowList() throws Exception {
+        solver.scaleRow(list, 0, alternatingScalar());
+    }
+
+    @Benchmark
+    public void scaleRowDense() throws Exception {
+        solver.scaleRow(dense, 0, alternatingScalar());
+    }
+
+    @Benchmark
+    public void addRowsList() {
+        solver.addRows(list, 0, size - 1, (invocation++ & 1) == 0 ? 1.0 : -1.0);
+    }
+
+    @Benchmark
+    public void addRowsDense() {
+        solver.addRows(dense, 0, size - 1, (invocation++ & 1) == 0 ? 1.0 : -1.0);
+    }
+}
@@ -0,0 +1,115 @@
+package bench;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-system operations of LinearSolver: solving, solution spaces, determinants and inverses.
+ * Mutating operations get a fresh copy of their input before every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SolverBenchmark {
+
+    @State(Scope.Thread)
+    public static class SystemState {
+        @Param({"10", "100", "500", "1000", "2000"})
+        public int size;
+
+        @Param({"DENSE_RANDOM", "DIAGONALLY_DOMINANT", "RANK_DEFICIENT", "TALL", "WIDE", "UPPER_TRIANGULAR", "TRIDIAGONAL", "BANDED"})
+        public MatrixShape shape;
+
+        DenseMatrix original;
+        DenseMatrix dense;
+        ArrayList<ArrayList<Double>> list;
+        DenseMatrix reduced;
+
+        @Setup(Level.Trial)
+        public void createSystem() {
+            original = shape.augmented(size, 42);
+            reduced = original.copy();
+            new LinearSolver().solveMatrix(reduced);
+        }
+
+        // solving is O(n^3), so the O(n^2) copy barely affects the measurement except for tiny sizes
+        @Setup(Level.Invocation)
+        public void resetInput() {
+            dense = original.copy();
+            list = original.toList();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DeterminantState {
+        @Param({"10", "100", "500", "1000", "2000"})
+        public int size;
+
+        @Param({"DENSE_RANDOM", "DIAGONALLY_DOMINANT", "RANK_DEFICIENT"})
+        public MatrixShape shape;
+
+        DenseMatrix dense;
+
+        @Setup(Level.Trial)
+        public void createMatrix() {
+            dense = shape.coefficients(size, 42);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InverseState {
+        @Param({"10", "100", "500", "1000", "2000"})
+        public int size;
+
+        // rank deficient matrices have no inverse
+        @Param({"DENSE_RANDOM", "DIAGONALLY_DOMINANT"})
+        public MatrixShape shape;
+
+        DenseMatrix dense;
+        ArrayList<ArrayList<Double>> list;
+
+        @Setup(Level.Trial)
+        public void createMatrix() {
+            dense = shape.coefficients(size, 42);
+            list = dense.toList();
+        }
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<Double>> solveMatrixList(SystemState state) {
+        new LinearSolver().solveMatrix(state.list);
+        return state.list;
+    }
+
+    @Benchmark
+    public DenseMatrix solveMatrixDense(SystemState state) {
+        new LinearSolver().solveMatrix(state.dense);
+        return state.dense;
+    }
+
+    @Benchmark
+    public DenseMatrix findSolutionSpace(SystemState state) {
+        return LinearSolver.findSolutionSpace(state.reduced);
+    }
+
+    @Benchmark
+    public double calcDeterminant(DeterminantState state) {
+        return LinearSolver.calcDeterminant(state.dense);
+    }
+
+    @Benchmark
+    public DenseMatrix invertMatrix(InverseState state) {
+        return LinearSolver.invertMatrix(state.dense);
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<Double>> invertMatrixList(InverseState state) {
+        return LinearSolver.invertMatrix(state.list);
+    }
+}
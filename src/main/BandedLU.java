@@ -0,0 +1,128 @@
+package main;
+
+/**
+ * LU decomposition with partial pivoting of a banded matrix, held in compact band storage.
+ * Only the kl diagonals below the main one and the ku above it are stored, plus kl more above for the fill
+ * row interchanges cause, so factoring takes O(n * kl * (kl + ku)) time and O(n * (2kl + ku + 1)) memory.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class BandedLU {
+    private final int n;
+    private final int lower;
+    private final int upper;
+    // row i holds columns i - lower through i + lower + upper, entry (i, j) is at i * width + j - i + lower
+    private final int width;
+    private final double[] band;
+    // row k was interchanged with row pivots[k] before column k was eliminated
+    private final int[] pivots;
+    private boolean singular = false;
+
+    /**
+     * Factor a square matrix whose entries more than lower below or upper above the diagonal are zero,
+     * the matrix itself is not modified
+     */
+    public BandedLU(DenseMatrix matrix, int lower, int upper) {
+        this.n = matrix.getRows();
+        if (matrix.getCols() != n) throw new IllegalArgumentException("Matrix is not square");
+        if (lower < 0 || upper < 0) throw new IllegalArgumentException("Bandwidths must not be negative");
+        this.lower = Math.min(lower, Math.max(n - 1, 0));
+        this.upper = Math.min(upper, Math.max(n - 1, 0));
+        this.width = 2 * this.lower + this.upper + 1;
+        this.band = new double[n * width];
+        this.pivots = new int[n];
+        double maxAbs = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = Math.max(0, r - this.lower); c <= Math.min(n - 1, r + this.upper); c++) {
+                double value = matrix.get(r, c);
+                band[index(r, c)] = value;
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+        }
+        factor(n * Math.ulp(maxAbs));
+    }
+
+    private int index(int row, int col) {
+        return row * width + col - row + lower;
+    }
+
+    private void factor(double tolerance) {
+        for (int k = 0; k < n; k++) {
+            final int lastRow = Math.min(n - 1, k + lower);
+            final int lastCol = Math.min(n - 1, k + lower + upper);
+            //search for the largest pivot within the band
+            int pivotRow = k;
+            double pivotAbs = Math.abs(band[index(k, k)]);
+            for (int row = k + 1; row <= lastRow; row++) {
+                double value = Math.abs(band[index(row, k)]);
+                if (value > pivotAbs) {
+                    pivotAbs = value;
+                    pivotRow = row;
+                }
+            }
+            pivots[k] = pivotRow;
+            if (pivotRow != k) {
+                for (int c = k; c <= lastCol; c++) {
+                    double temp = band[index(k, c)];
+                    band[index(k, c)] = band[index(pivotRow, c)];
+                    band[index(pivotRow, c)] = temp;
+                }
+            }
+            if (pivotAbs <= tolerance) singular = true;
+            if (pivotAbs == 0) continue; // nothing to eliminate
+
+            final double pivot = band[index(k, k)];
+            for (int row = k + 1; row <= lastRow; row++) {
+                final double multiplier = band[index(row, k)] / pivot;
+                band[index(row, k)] = multiplier;
+                if (multiplier == 0) continue;
+                final int target = index(row, 0);
+                final int source = index(k, 0);
+                for (int c = k + 1; c <= lastCol; c++) band[target + c] -= multiplier * band[source + c];
+            }
+        }
+    }
+
+    /**
+     * @return true if the matrix has no unique inverse, within rounding error
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Solve Ax = b
+     *
+     * @return a new array holding x
+     * @throws ArithmeticException the matrix is singular
+     */
+    public double[] solve(double[] b) {
+        if (singular) throw new ArithmeticException("Matrix is singular");
+        if (b.length != n) throw new IllegalArgumentException("Expected a vector of length " + n);
+        double[] x = b.clone();
+        //forward substitution, replaying the interchanges in the order they were made
+        for (int k = 0; k < n; k++) {
+            if (pivots[k] != k) {
+                double temp = x[k];
+                x[k] = x[pivots[k]];
+                x[pivots[k]] = temp;
+            }
+            final double value = x[k];
+            if (value == 0) continue;
+            for (int row = k + 1; row <= Math.min(n - 1, k + lower); row++) x[row] -= band[index(row, k)] * value;
+        }
+        //back substitution with U, which has lower + upper diagonals above the main one
+        for (int i = n - 1; i >= 0; i--) {
+            final int start = index(i, 0);
+            double sum = x[i];
+            for (int c = i + 1; c <= Math.min(n - 1, i + lower + upper); c++) sum -= band[start + c] * x[c];
+            x[i] = sum / band[start + i];
+        }
+        return x;
+    }
+}
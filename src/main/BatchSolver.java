@@ -0,0 +1,312 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Solves one coefficient matrix A against many right-hand sides.
+ * A is factored once on construction, after which every block of right-hand sides costs one
+ * blocked triangular solve (square nonsingular A) or one blocked matrix product (any other A).
+ * <p>
+ * For a general m by n matrix the solver keeps the m by m transform E with EA = R, R being the reduced
+ * row echelon form of A. Then [A | b] reduces to [R | Eb], so the rows of Eb below the rank must be
+ * zero for b to be consistent, and the solution with every free variable set to zero reads the
+ * pivot variables straight out of Eb, the same base solution that findSolutionSpace returns.
+ * <p>
+ * Square nonsingular matrices can instead be factored in single precision, see {@link MixedPrecisionSolver},
+ * each solution then being refined to double precision.
+ * <p>
+ * A BatchSolver is immutable once constructed and may be shared between threads.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class BatchSolver {
+    // number of right-hand side columns multiplied at once by the general path
+    static final int TILE_SIZE = 128;
+    // entries this small relative to the largest entry are treated as zero when deciding rank and consistency
+    static final double EPSILON = 1e-10;
+
+    private final int rows;
+    private final int cols;
+    // set when A is square and nonsingular, mixed instead of lu in mixed precision
+    private final LUDecomposition lu;
+    private final MixedPrecisionSolver mixed;
+    // set otherwise, the transform E, the pivot column of each of its first rank rows and the largest row sum of E
+    private final DenseMatrix transform;
+    private final int[] pivotCols;
+    private final int rank;
+    private final double transformNorm;
+
+    /**
+     * Factor the coefficient matrix, it is not modified
+     */
+    public BatchSolver(DenseMatrix coefficients) {
+        this(coefficients, false);
+    }
+
+    /**
+     * Factor the coefficient matrix, it is not modified
+     *
+     * @param mixedPrecision factor a square matrix with a {@link MixedPrecisionSolver}, in float, and refine each
+     *                       solution to double precision
+     */
+    public BatchSolver(DenseMatrix coefficients, boolean mixedPrecision) {
+        this.rows = coefficients.getRows();
+        this.cols = coefficients.getCols();
+        LUDecomposition factors = null;
+        MixedPrecisionSolver refined = null;
+        if (rows == cols && rows > 0 && mixedPrecision) {
+            refined = new MixedPrecisionSolver(coefficients);
+            if (!refined.isUsable()) refined = null;
+        }
+        if (rows == cols && rows > 0 && refined == null) {
+            factors = new LUDecomposition(coefficients);
+            if (factors.isSingular()) factors = null;
+        }
+        this.lu = factors;
+        this.mixed = refined;
+        if (lu != null || mixed != null) {
+            this.transform = null;
+            this.pivotCols = new int[rows];
+            for (int i = 0; i < rows; i++) pivotCols[i] = i;
+            this.rank = rows;
+            this.transformNorm = 0;
+            return;
+        }
+
+        //reduce [A | I] to [R | E]
+        final int width = cols + rows;
+        DenseMatrix augmented = new DenseMatrix(rows, width);
+        coefficients.copyTo(augmented.view(0, 0, rows, cols));
+        for (int r = 0; r < rows; r++) augmented.set(r, cols + r, 1.0);
+        int[] pivots = new int[Math.min(rows, cols)];
+        int numPivots = reduce(augmented, pivots);
+
+        this.rank = numPivots;
+        this.pivotCols = Arrays.copyOf(pivots, numPivots);
+        this.transform = augmented.view(0, cols, rows, rows).copy();
+        double norm = 0;
+        for (int r = 0; r < rows; r++) {
+            double rowSum = 0;
+            for (int c = 0; c < rows; c++) rowSum += Math.abs(transform.get(r, c));
+            norm = Math.max(norm, rowSum);
+        }
+        this.transformNorm = norm;
+    }
+
+    /**
+     * Gauss-Jordan with partial pivoting, pivots are only searched for among the first cols columns
+     *
+     * @return the rank, the pivot column of each pivot row is written to pivots
+     */
+    private int reduce(DenseMatrix augmented, int[] pivots) {
+        final int width = augmented.getCols();
+        final double[] data = augmented.getData();
+        double maxAbs = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) maxAbs = Math.max(maxAbs, Math.abs(data[r * width + c]));
+        }
+        final double tolerance = EPSILON * maxAbs;
+
+        int pivotRow = 0;
+        for (int col = 0; col < cols && pivotRow < rows; col++) {
+            int best = pivotRow;
+            for (int row = pivotRow + 1; row < rows; row++) {
+                if (Math.abs(data[row * width + col]) > Math.abs(data[best * width + col])) best = row;
+            }
+            if (Math.abs(data[best * width + col]) <= tolerance) {
+                //treat the column as zero, it belongs to a free variable
+                for (int row = pivotRow; row < rows; row++) data[row * width + col] = 0;
+                continue;
+            }
+            final int pivotStart = pivotRow * width;
+            if (best != pivotRow) {
+                final int bestStart = best * width;
+                for (int c = 0; c < width; c++) {
+                    double temp = data[pivotStart + c];
+                    data[pivotStart + c] = data[bestStart + c];
+                    data[bestStart + c] = temp;
+                }
+            }
+            final double scalar = 1 / data[pivotStart + col];
+            for (int c = col; c < width; c++) data[pivotStart + c] *= scalar;
+            for (int row = 0; row < rows; row++) {
+                if (row == pivotRow) continue;
+                final int rowStart = row * width;
+                final double c0 = -data[rowStart + col];
+                if (c0 == 0) continue;
+                for (int c = col; c < width; c++) data[rowStart + c] += c0 * data[pivotStart + c];
+            }
+            pivots[pivotRow++] = col;
+        }
+        return pivotRow;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the column of each pivot, in row order
+     */
+    public int[] getPivotColumns() {
+        return pivotCols.clone();
+    }
+
+    /**
+     * Solve AX = B for every column of B
+     *
+     * @param rhs m by k matrix, one right-hand side per column, not modified
+     */
+    public BatchSolution solve(DenseMatrix rhs) {
+        if (rhs.getRows() != rows) throw new IllegalArgumentException("Expected " + rows + " rows of right-hand sides");
+        final int k = rhs.getCols();
+        boolean[] consistent = new boolean[k];
+        Arrays.fill(consistent, true);
+
+        if (lu != null) {
+            DenseMatrix solutions = rhs.copy();
+            lu.solve(solutions, null);
+            return new BatchSolution(solutions, consistent);
+        }
+        if (mixed != null) {
+            DenseMatrix solutions = rhs.copy();
+            int[] iterations = mixed.solve(solutions);
+            return new BatchSolution(solutions, consistent, iterations);
+        }
+
+        DenseMatrix transformed = multiplyTransform(rhs);
+        DenseMatrix solutions = new DenseMatrix(cols, k);
+        for (int j = 0; j < k; j++) {
+            double maxAbs = 0;
+            for (int r = 0; r < rows; r++) maxAbs = Math.max(maxAbs, Math.abs(rhs.get(r, j)));
+            //rounding error left in the rows that should be zero scales with the size of E times b
+            final double tolerance = EPSILON * transformNorm * maxAbs;
+            for (int r = rank; r < rows; r++) {
+                if (Math.abs(transformed.get(r, j)) > tolerance) {
+                    consistent[j] = false;
+                    break;
+                }
+            }
+        }
+        //pivot variable's value = constant, free variables are zero
+        for (int i = 0; i < rank; i++) {
+            System.arraycopy(transformed.getData(), transformed.index(i, 0), solutions.getData(), solutions.index(pivotCols[i], 0), k);
+        }
+        return new BatchSolution(solutions, consistent);
+    }
+
+    /**
+     * E * rhs, one tile of columns at a time so the rows of the tile stay in cache
+     */
+    private DenseMatrix multiplyTransform(DenseMatrix rhs) {
+        final int k = rhs.getCols();
+        DenseMatrix product = new DenseMatrix(rows, k);
+        final double[] out = product.getData();
+        final double[] in = rhs.getData();
+        for (int tileStart = 0; tileStart < k; tileStart += TILE_SIZE) {
+            final int tileEnd = Math.min(tileStart + TILE_SIZE, k);
+            for (int i = 0; i < rows; i++) {
+                final int target = product.index(i, 0);
+                for (int p = 0; p < rows; p++) {
+                    final double multiplier = transform.get(i, p);
+                    if (multiplier == 0) continue;
+                    final int source = rhs.index(p, 0);
+                    for (int c = tileStart; c < tileEnd; c++) out[target + c] += multiplier * in[source + c];
+                }
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Solve a stream of right-hand side vectors, grouping them into blocks of batchSize columns.
+     * The stream is lazy, each block is solved when it is reached.
+     */
+    public Stream<BatchSolution> solveAll(Stream<double[]> vectors, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+        final Iterator<double[]> source = vectors.iterator();
+        Iterator<BatchSolution> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public BatchSolution next() {
+                double[][] block = new double[batchSize][];
+                int count = 0;
+                while (count < batchSize && source.hasNext()) block[count++] = source.next();
+                DenseMatrix rhs = new DenseMatrix(rows, count);
+                for (int j = 0; j < count; j++) {
+                    if (block[j].length != rows) throw new IllegalArgumentException("Expected vectors of length " + rows);
+                    for (int r = 0; r < rows; r++) rhs.set(r, j, block[j][r]);
+                }
+                return solve(rhs);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .onClose(vectors::close);
+    }
+
+    /**
+     * Solutions to a block of right-hand sides
+     */
+    public static class BatchSolution {
+        private final DenseMatrix solutions;
+        private final boolean[] consistent;
+        private final int[] iterations;
+
+        BatchSolution(DenseMatrix solutions, boolean[] consistent) {
+            this(solutions, consistent, null);
+        }
+
+        BatchSolution(DenseMatrix solutions, boolean[] consistent, int[] iterations) {
+            this.solutions = solutions;
+            this.consistent = consistent;
+            this.iterations = iterations;
+        }
+
+        /**
+         * @return n by k matrix, column j solves right-hand side j with every free variable set to zero.
+         * Columns of inconsistent right-hand sides hold meaningless values.
+         */
+        public DenseMatrix getSolutions() {
+            return solutions;
+        }
+
+        public double[] getSolution(int column) {
+            double[] solution = new double[solutions.getRows()];
+            for (int r = 0; r < solution.length; r++) solution[r] = solutions.get(r, column);
+            return solution;
+        }
+
+        /**
+         * @return false if right-hand side j has no solution, as existsSolution would report
+         */
+        public boolean isConsistent(int column) {
+            return consistent[column];
+        }
+
+        public boolean[] getConsistency() {
+            return consistent.clone();
+        }
+
+        public int size() {
+            return consistent.length;
+        }
+
+        /**
+         * @return refinement steps taken for right-hand side j, or -1 if it was not solved in mixed precision
+         */
+        public int getRefinementIterations(int column) {
+            if (column < 0 || column >= consistent.length) throw new IndexOutOfBoundsException(column);
+            return iterations == null ? -1 : iterations[column];
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package main;
+
+/**
+ * Cholesky factorization A = LL^T of a symmetric positive definite matrix. It reads only the lower triangle, takes
+ * n^3 / 3 flops, half of LU, and is stable without row interchanges. An indefinite matrix meets a pivot that is not
+ * positive and is reported as not positive definite; it should be solved with LU instead, since eliminating it without
+ * interchanges can lose most of the digits to a tiny pivot.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class CholeskyDecomposition {
+    private final int n;
+    // L row-major, lower triangle only
+    private final double[] factors;
+    private final boolean positiveDefinite;
+
+    /**
+     * Factor a symmetric matrix, the matrix itself is not modified and only its lower triangle is read
+     */
+    public CholeskyDecomposition(DenseMatrix matrix) {
+        this.n = matrix.getRows();
+        if (matrix.getCols() != n) throw new IllegalArgumentException("Matrix is not square");
+        this.factors = new double[n * n];
+        double maxAbs = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c <= r; c++) maxAbs = Math.max(maxAbs, Math.abs(matrix.get(r, c)));
+        }
+        // pivots this small relative to the largest entry are indistinguishable from rounding error
+        final double tolerance = n * Math.ulp(maxAbs);
+        positiveDefinite = factor(matrix, tolerance);
+    }
+
+    /**
+     * @return false if a pivot is not positive, the matrix is not positive definite
+     */
+    private boolean factor(DenseMatrix matrix, double tolerance) {
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c <= r; c++) factors[r * n + c] = matrix.get(r, c);
+        }
+        for (int j = 0; j < n; j++) {
+            final int rowJ = j * n;
+            double diagonal = factors[rowJ + j];
+            for (int p = 0; p < j; p++) diagonal -= factors[rowJ + p] * factors[rowJ + p];
+            if (!(diagonal > tolerance)) return false;
+            final double pivot = Math.sqrt(diagonal);
+            factors[rowJ + j] = pivot;
+            for (int i = j + 1; i < n; i++) {
+                final int rowI = i * n;
+                double sum = factors[rowI + j];
+                for (int p = 0; p < j; p++) sum -= factors[rowI + p] * factors[rowJ + p];
+                factors[rowI + j] = sum / pivot;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the matrix was factored, false if it is indefinite or singular
+     */
+    public boolean isPositiveDefinite() {
+        return positiveDefinite;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Solve Ax = b
+     *
+     * @return a new array holding x
+     * @throws ArithmeticException the matrix is not positive definite
+     */
+    public double[] solve(double[] b) {
+        if (!positiveDefinite) throw new ArithmeticException("Matrix is not positive definite");
+        if (b.length != n) throw new IllegalArgumentException("Expected a vector of length " + n);
+        double[] x = b.clone();
+        //forward substitution, Ly = b
+        for (int i = 0; i < n; i++) {
+            final int rowStart = i * n;
+            double sum = x[i];
+            for (int p = 0; p < i; p++) sum -= factors[rowStart + p] * x[p];
+            x[i] = sum / factors[rowStart + i];
+        }
+        //back substitution with L^T, walking the columns of L
+        for (int i = n - 1; i >= 0; i--) {
+            x[i] /= factors[i * n + i];
+            final double value = x[i];
+            for (int p = 0; p < i; p++) x[p] -= factors[i * n + p] * value;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,242 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense matrix of primitive doubles stored row-major in a flat array.
+ * Element (r, c) lives at data[offset + r * stride + c], so a view of a sub-block
+ * can share the backing array of its parent without copying.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class DenseMatrix implements LinearOperator {
+    private final double[] data;
+    private final int rows;
+    private final int cols;
+    private final int offset;
+    private final int stride;
+
+    /**
+     * Create a zero-filled matrix
+     */
+    public DenseMatrix(int rows, int cols) {
+        this(rows, cols, new double[rows * cols], 0, cols);
+    }
+
+    /**
+     * Wrap an existing array, no copy is made
+     *
+     * @param offset index of element (0, 0)
+     * @param stride distance between the starts of two consecutive rows
+     */
+    public DenseMatrix(int rows, int cols, double[] data, int offset, int stride) {
+        if (rows < 0 || cols < 0) throw new IllegalArgumentException("Negative matrix dimensions");
+        if (stride < cols) throw new IllegalArgumentException("Row stride is smaller than the number of columns");
+        if (rows > 0 && offset + (long) (rows - 1) * stride + cols > data.length)
+            throw new IllegalArgumentException("Backing array is too small for a " + rows + "x" + cols + " matrix");
+        this.data = data;
+        this.rows = rows;
+        this.cols = cols;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    /**
+     * Copy a list of rows into a new dense matrix
+     *
+     * @throws IllegalArgumentException the rows are not all the same length
+     */
+    public static DenseMatrix fromList(List<? extends List<Double>> matrix) {
+        int rows = matrix.size();
+        int cols = rows == 0 ? 0 : matrix.get(0).size();
+        DenseMatrix dense = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            List<Double> row = matrix.get(r);
+            if (row.size() != cols) throw new IllegalArgumentException("Row #" + r + " has the wrong number of columns");
+            int base = r * cols;
+            for (int c = 0; c < cols; c++) dense.data[base + c] = row.get(c);
+        }
+        return dense;
+    }
+
+    /**
+     * Copy a two-dimensional array into a new dense matrix
+     */
+    public static DenseMatrix fromArray(double[][] matrix) {
+        int rows = matrix.length;
+        int cols = rows == 0 ? 0 : matrix[0].length;
+        DenseMatrix dense = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            if (matrix[r].length != cols) throw new IllegalArgumentException("Row #" + r + " has the wrong number of columns");
+            System.arraycopy(matrix[r], 0, dense.data, r * cols, cols);
+        }
+        return dense;
+    }
+
+    /**
+     * Create an n by n identity matrix
+     */
+    public static DenseMatrix identity(int n) {
+        DenseMatrix identity = new DenseMatrix(n, n);
+        for (int i = 0; i < n; i++) identity.data[i * n + i] = 1.0;
+        return identity;
+    }
+
+    /**
+     * Copy this matrix into a new list of rows
+     */
+    public ArrayList<ArrayList<Double>> toList() {
+        ArrayList<ArrayList<Double>> matrix = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            ArrayList<Double> row = new ArrayList<>(cols);
+            int base = index(r, 0);
+            for (int c = 0; c < cols; c++) row.add(data[base + c]);
+            matrix.add(row);
+        }
+        return matrix;
+    }
+
+    /**
+     * Overwrite the values of a list of rows with the values of this matrix.
+     * The list must already have the same dimensions as this matrix.
+     */
+    public void copyInto(List<? extends List<Double>> matrix) {
+        for (int r = 0; r < rows; r++) {
+            List<Double> row = matrix.get(r);
+            int base = index(r, 0);
+            for (int c = 0; c < cols; c++) row.set(c, data[base + c]);
+        }
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return the backing array, shared with this matrix
+     */
+    public double[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * @return position of element (row, col) in the backing array
+     */
+    public int index(int row, int col) {
+        return offset + row * stride + col;
+    }
+
+    public double get(int row, int col) {
+        return data[offset + row * stride + col];
+    }
+
+    public void set(int row, int col, double value) {
+        data[offset + row * stride + col] = value;
+    }
+
+    /**
+     * y = this * x
+     */
+    @Override
+    public void multiply(double[] x, double[] y) {
+        for (int r = 0; r < rows; r++) {
+            int base = index(r, 0);
+            double sum = 0;
+            for (int c = 0; c < cols; c++) sum += data[base + c] * x[c];
+            y[r] = sum;
+        }
+    }
+
+    /**
+     * Create a view of a sub-block of this matrix that shares the same backing array
+     */
+    public DenseMatrix view(int rowStart, int colStart, int numRows, int numCols) {
+        if (rowStart < 0 || colStart < 0 || rowStart + numRows > rows || colStart + numCols > cols)
+            throw new IndexOutOfBoundsException("View is outside of the matrix");
+        return new DenseMatrix(numRows, numCols, data, index(rowStart, colStart), stride);
+    }
+
+    /**
+     * Create a compact deep copy of this matrix
+     */
+    public DenseMatrix copy() {
+        DenseMatrix copy = new DenseMatrix(rows, cols);
+        copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * Copy the values of this matrix into another matrix of the same dimensions
+     */
+    public void copyTo(DenseMatrix target) {
+        if (target.rows != rows || target.cols != cols) throw new IllegalArgumentException("Matrix dimensions do not match");
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(data, index(r, 0), target.data, target.index(r, 0), cols);
+        }
+    }
+
+    /**
+     * Copy a single row into a new array
+     */
+    public double[] getRow(int row) {
+        return Arrays.copyOfRange(data, index(row, 0), index(row, 0) + cols);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DenseMatrix)) return false;
+        DenseMatrix other = (DenseMatrix) o;
+        if (rows != other.rows || cols != other.cols) return false;
+        for (int r = 0; r < rows; r++) {
+            if (!Arrays.equals(data, index(r, 0), index(r, 0) + cols,
+                    other.data, other.index(r, 0), other.index(r, 0) + cols)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * rows + cols;
+        for (int r = 0; r < rows; r++) {
+            int base = index(r, 0);
+            for (int c = 0; c < cols; c++) {
+                long bits = Double.doubleToLongBits(data[base + c]);
+                hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            builder.append('[');
+            int base = index(r, 0);
+            for (int c = 0; c < cols; c++) {
+                if (c > 0) builder.append(", ");
+                builder.append(data[base + c]);
+            }
+            builder.append("]\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package main;
+
+import java.util.function.Supplier;
+
+/**
+ * Determinant of a square matrix computed by elimination in O(n^3).
+ * The magnitude is kept as a mantissa and a binary exponent so that the log-determinant and sign
+ * stay accurate for large matrices whose determinant would overflow or underflow a double.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class Determinant {
+    // |determinant| = mantissa * 2^exponent, with mantissa in [1, 2)
+    private final int sign;
+    private final double mantissa;
+    private final long exponent;
+
+    private static final Determinant ZERO = new Determinant(0, 0, 0);
+
+    private Determinant(int sign, double mantissa, long exponent) {
+        this.sign = sign;
+        this.mantissa = mantissa;
+        this.exponent = exponent;
+    }
+
+    /**
+     * Calculate the determinant of a square matrix, the matrix is not modified.
+     * Integer matrices small enough to stay below 2^53 during elimination are evaluated exactly with
+     * fraction-free (Bareiss) elimination, everything else through an LU decomposition.
+     */
+    public static Determinant of(DenseMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) throw new IllegalArgumentException("Matrix is not square");
+        if (matrix.getRows() == 0) return fromValue(1.0);
+        if (isExactlyRepresentable(matrix)) return fromValue(bareiss(matrix));
+        return of(new LUDecomposition(matrix));
+    }
+
+    /**
+     * Same result as {@link #of(DenseMatrix)}, but factors are taken from the supplier when the LU path applies
+     */
+    static Determinant of(DenseMatrix matrix, Supplier<LUDecomposition> factors) {
+        if (matrix.getRows() != matrix.getCols()) throw new IllegalArgumentException("Matrix is not square");
+        if (matrix.getRows() == 0) return fromValue(1.0);
+        if (isExactlyRepresentable(matrix)) return fromValue(bareiss(matrix));
+        return of(factors.get());
+    }
+
+    /**
+     * Read the determinant off an existing LU decomposition, product of the pivots times the permutation sign
+     */
+    public static Determinant of(LUDecomposition lu) {
+        if (lu.isSingular()) return ZERO;
+        final int n = lu.size();
+        DenseMatrix factors = lu.getPackedFactors();
+        int sign = lu.getPivotSign();
+        double mantissa = 1.0;
+        long exponent = 0;
+        for (int i = 0; i < n; i++) {
+            double pivot = factors.get(i, i);
+            if (pivot < 0) sign = -sign;
+            Determinant factor = fromValue(Math.abs(pivot));
+            mantissa *= factor.mantissa;
+            exponent += factor.exponent;
+            //keep the mantissa in [1, 2)
+            if (mantissa >= 2) {
+                mantissa /= 2;
+                exponent++;
+            }
+        }
+        return new Determinant(sign, mantissa, exponent);
+    }
+
+    private static Determinant fromValue(double value) {
+        if (value == 0) return ZERO;
+        int sign = value < 0 ? -1 : 1;
+        double abs = Math.abs(value);
+        long exponent = 0;
+        if (abs < Double.MIN_NORMAL) {
+            //subnormal, scale up so getExponent is accurate
+            abs = Math.scalb(abs, 64);
+            exponent = -64;
+        }
+        int binaryExponent = Math.getExponent(abs);
+        return new Determinant(sign, Math.scalb(abs, -binaryExponent), exponent + binaryExponent);
+    }
+
+    /**
+     * Every intermediate value of Bareiss elimination is a minor of the matrix times another minor,
+     * which Hadamard's inequality bounds by the square of the product of the row norms.
+     * When the entries are integers and that bound is below 2^53, doubles hold every value exactly.
+     */
+    private static boolean isExactlyRepresentable(DenseMatrix matrix) {
+        double log2Bound = 0;
+        for (int r = 0; r < matrix.getRows(); r++) {
+            double sumSquares = 0;
+            for (int c = 0; c < matrix.getCols(); c++) {
+                double value = matrix.get(r, c);
+                if (value != Math.rint(value) || Double.isInfinite(value)) return false;
+                sumSquares += value * value;
+            }
+            if (sumSquares > 1) log2Bound += Math.log(sumSquares) / Math.log(2) / 2;
+        }
+        return 2 * log2Bound < 52;
+    }
+
+    /**
+     * Fraction-free elimination, every division is exact for integer input
+     */
+    private static double bareiss(DenseMatrix matrix) {
+        final int n = matrix.getRows();
+        DenseMatrix a = matrix.copy();
+        double[] data = a.getData();
+        int sign = 1;
+        double previousPivot = 1;
+        for (int k = 0; k < n; k++) {
+            if (data[k * n + k] == 0) {
+                //any nonzero entry below works as a pivot since the arithmetic is exact
+                int row = k + 1;
+                while (row < n && data[row * n + k] == 0) row++;
+                if (row == n) return 0;
+                for (int c = k; c < n; c++) {
+                    double temp = data[k * n + c];
+                    data[k * n + c] = data[row * n + c];
+                    data[row * n + c] = temp;
+                }
+                sign = -sign;
+            }
+            final double pivot = data[k * n + k];
+            for (int i = k + 1; i < n; i++) {
+                final double factor = data[i * n + k];
+                for (int j = k + 1; j < n; j++) {
+                    data[i * n + j] = (pivot * data[i * n + j] - factor * data[k * n + j]) / previousPivot;
+                }
+            }
+            previousPivot = pivot;
+        }
+        return sign * data[n * n - 1];
+    }
+
+    /**
+     * @return -1, 0 or +1
+     */
+    public int getSign() {
+        return sign;
+    }
+
+    public boolean isZero() {
+        return sign == 0;
+    }
+
+    /**
+     * @return natural logarithm of the absolute value of the determinant, negative infinity if it is zero
+     */
+    public double getLogAbs() {
+        if (sign == 0) return Double.NEGATIVE_INFINITY;
+        return Math.log(mantissa) + exponent * Math.log(2);
+    }
+
+    /**
+     * @return the determinant, which may overflow to infinity or underflow to zero for large matrices
+     */
+    public double getValue() {
+        if (sign == 0) return 0.0;
+        int clamped = (int) Math.max(Math.min(exponent, 2 * Double.MAX_EXPONENT), 2 * Double.MIN_EXPONENT);
+        return sign * Math.scalb(mantissa, clamped);
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(getValue());
+    }
+}
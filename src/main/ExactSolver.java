@@ -0,0 +1,330 @@
+package main;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Exact rational elimination, for systems where the 5 decimal rounding of {@link LinearSolver} is not good enough.
+ * <p>
+ * Each row is scaled by the common denominator of its entries, which leaves the solutions unchanged, and the integer
+ * matrix is brought to row echelon form by fraction-free (Bareiss) elimination: every entry stays an integer, a minor of
+ * the matrix, and the divisions are exact. Entries are longs until a product overflows, after which the elimination
+ * carries on from the same row with BigIntegers. The reduced row echelon form is then read off the echelon form with a
+ * fraction-free back substitution, so fractions, and their gcds, are only formed once per result entry.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class ExactSolver {
+    private final int rows;
+    private final int cols;
+    // echelon form, in longs until promoted to BigIntegers, when small is set to null
+    private long[] small;
+    private BigInteger[] big;
+    // the factor each original row was multiplied by to clear its denominators
+    private final BigInteger[] rowScales;
+    private final int[] pivotColumns;
+    private int rank = 0;
+    // sign of the row permutation
+    private int sign = 1;
+
+    /**
+     * Bring a matrix to row echelon form, any column may hold a pivot, including the constants column of a system
+     */
+    public ExactSolver(Fraction[][] matrix) {
+        this(matrix, matrix.length == 0 ? 0 : matrix[0].length);
+    }
+
+    public ExactSolver(DenseMatrix matrix) {
+        this(toFractions(matrix));
+    }
+
+    /**
+     * @param pivotLimit pivots are only searched for in the first pivotLimit columns
+     */
+    private ExactSolver(Fraction[][] matrix, int pivotLimit) {
+        this.rows = matrix.length;
+        this.cols = rows == 0 ? 0 : matrix[0].length;
+        this.rowScales = new BigInteger[rows];
+        this.pivotColumns = new int[Math.min(rows, pivotLimit)];
+        toIntegers(matrix);
+        eliminate(pivotLimit);
+    }
+
+    /**
+     * Convert every entry with {@link Fraction#valueOf(double)}
+     */
+    public static Fraction[][] toFractions(DenseMatrix matrix) {
+        Fraction[][] fractions = new Fraction[matrix.getRows()][matrix.getCols()];
+        for (int r = 0; r < matrix.getRows(); r++) {
+            for (int c = 0; c < matrix.getCols(); c++) fractions[r][c] = Fraction.valueOf(matrix.get(r, c));
+        }
+        return fractions;
+    }
+
+    /**
+     * @return the nearest doubles
+     */
+    public static DenseMatrix toDense(Fraction[][] matrix) {
+        DenseMatrix dense = new DenseMatrix(matrix.length, matrix.length == 0 ? 0 : matrix[0].length);
+        for (int r = 0; r < dense.getRows(); r++) {
+            for (int c = 0; c < dense.getCols(); c++) dense.set(r, c, matrix[r][c].doubleValue());
+        }
+        return dense;
+    }
+
+    /**
+     * Multiply each row by the least common multiple of its denominators into the long (or BigInteger) storage
+     */
+    private void toIntegers(Fraction[][] matrix) {
+        small = new long[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            if (matrix[r].length != cols) throw new IllegalArgumentException("Row #" + r + " has the wrong number of columns");
+            BigInteger scale = BigInteger.ONE;
+            for (Fraction entry : matrix[r]) {
+                BigInteger denominator = entry.getDenominator();
+                if (!denominator.equals(BigInteger.ONE)) scale = scale.divide(scale.gcd(denominator)).multiply(denominator);
+            }
+            rowScales[r] = scale;
+            for (int c = 0; c < cols; c++) {
+                Fraction entry = matrix[r][c];
+                BigInteger value = entry.getNumerator().multiply(scale.divide(entry.getDenominator()));
+                if (small != null && value.bitLength() < 64) {
+                    small[r * cols + c] = value.longValue();
+                } else {
+                    if (small != null) promote();
+                    big[r * cols + c] = value;
+                }
+            }
+        }
+    }
+
+    private void promote() {
+        big = new BigInteger[small.length];
+        for (int i = 0; i < small.length; i++) big[i] = BigInteger.valueOf(small[i]);
+        small = null;
+    }
+
+    /**
+     * Fraction-free forward elimination, taking the first nonzero entry of each column as its pivot
+     */
+    private void eliminate(int pivotLimit) {
+        long previousSmall = 1;
+        BigInteger previousBig = BigInteger.ONE;
+        long[] rowBuffer = new long[cols];
+        for (int col = 0; col < pivotLimit && rank < rows; col++) {
+            int pivotRow = rank;
+            while (pivotRow < rows && isZero(pivotRow, col)) pivotRow++;
+            if (pivotRow == rows) continue; // free column
+            if (pivotRow != rank) {
+                swapRows(pivotRow, rank);
+                sign = -sign;
+            }
+            for (int row = rank + 1; row < rows; row++) {
+                if (small != null) {
+                    try {
+                        // a[row][j] = (pivot * a[row][j] - a[row][col] * a[rank][j]) / previous pivot
+                        final long pivot = small[rank * cols + col];
+                        final long multiplier = small[row * cols + col];
+                        for (int j = col + 1; j < cols; j++) {
+                            long value = Math.subtractExact(Math.multiplyExact(pivot, small[row * cols + j]),
+                                    Math.multiplyExact(multiplier, small[rank * cols + j]));
+                            rowBuffer[j] = value / previousSmall;
+                        }
+                        //only commit whole rows, so an overflow can resume on BigIntegers from this row
+                        System.arraycopy(rowBuffer, col + 1, small, row * cols + col + 1, cols - col - 1);
+                        small[row * cols + col] = 0;
+                        continue;
+                    } catch (ArithmeticException overflow) {
+                        promote();
+                        previousBig = BigInteger.valueOf(previousSmall);
+                    }
+                }
+                final BigInteger pivot = big[rank * cols + col];
+                final BigInteger multiplier = big[row * cols + col];
+                for (int j = col + 1; j < cols; j++) {
+                    BigInteger value = pivot.multiply(big[row * cols + j]);
+                    if (multiplier.signum() != 0) value = value.subtract(multiplier.multiply(big[rank * cols + j]));
+                    big[row * cols + j] = previousBig.equals(BigInteger.ONE) ? value : value.divide(previousBig);
+                }
+                big[row * cols + col] = BigInteger.ZERO;
+            }
+            if (small != null) {
+                previousSmall = small[rank * cols + col];
+                previousBig = BigInteger.valueOf(previousSmall);
+            } else {
+                previousBig = big[rank * cols + col];
+            }
+            pivotColumns[rank++] = col;
+        }
+    }
+
+    private boolean isZero(int row, int col) {
+        return small != null ? small[row * cols + col] == 0 : big[row * cols + col].signum() == 0;
+    }
+
+    private BigInteger get(int row, int col) {
+        return small != null ? BigInteger.valueOf(small[row * cols + col]) : big[row * cols + col];
+    }
+
+    private void swapRows(int row1, int row2) {
+        for (int c = 0; c < cols; c++) {
+            if (small != null) {
+                long temp = small[row1 * cols + c];
+                small[row1 * cols + c] = small[row2 * cols + c];
+                small[row2 * cols + c] = temp;
+            } else {
+                BigInteger temp = big[row1 * cols + c];
+                big[row1 * cols + c] = big[row2 * cols + c];
+                big[row2 * cols + c] = temp;
+            }
+        }
+        BigInteger temp = rowScales[row1];
+        rowScales[row1] = rowScales[row2];
+        rowScales[row2] = temp;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the pivot column of each pivot row, in increasing order
+     */
+    public int[] getPivotColumns() {
+        return Arrays.copyOf(pivotColumns, rank);
+    }
+
+    /**
+     * @return true if the scaled matrix was too large for longs
+     */
+    public boolean isPromoted() {
+        return small == null;
+    }
+
+    /**
+     * The reduced row echelon form, the same matrix {@link LinearSolver#solveMatrix(DenseMatrix)} approximates
+     */
+    public Fraction[][] getReducedRowEchelon() {
+        Fraction[][] reduced = new Fraction[rows][cols];
+        for (Fraction[] row : reduced) Arrays.fill(row, Fraction.ZERO);
+        boolean[] isPivot = new boolean[cols];
+        for (int i = 0; i < rank; i++) {
+            isPivot[pivotColumns[i]] = true;
+            reduced[i][pivotColumns[i]] = Fraction.ONE;
+        }
+        if (rank == 0) return reduced;
+        final BigInteger determinant = get(rank - 1, pivotColumns[rank - 1]);
+        for (int col = 0; col < cols; col++) {
+            if (isPivot[col]) continue;
+            BigInteger[] scaled = backSubstitute(col);
+            for (int i = 0; i < rank; i++) reduced[i][col] = Fraction.of(scaled[i], determinant);
+        }
+        return reduced;
+    }
+
+    /**
+     * Express a column in terms of the pivot columns, without fractions. Cramer's rule makes d times each
+     * coefficient an integer, d being the last pivot, so every division below is exact.
+     *
+     * @return d times the coefficient of each pivot column
+     */
+    private BigInteger[] backSubstitute(int col) {
+        final BigInteger determinant = get(rank - 1, pivotColumns[rank - 1]);
+        BigInteger[] scaled = new BigInteger[rank];
+        for (int i = rank - 1; i >= 0; i--) {
+            BigInteger sum = determinant.multiply(get(i, col));
+            for (int k = i + 1; k < rank; k++) {
+                BigInteger entry = get(i, pivotColumns[k]);
+                if (entry.signum() != 0) sum = sum.subtract(entry.multiply(scaled[k]));
+            }
+            scaled[i] = sum.divide(get(i, pivotColumns[i]));
+        }
+        return scaled;
+    }
+
+    /**
+     * @return false if the matrix, read as an augmented system, has a pivot in its constants column
+     */
+    public boolean existsSolution() {
+        return rank == 0 || pivotColumns[rank - 1] != cols - 1;
+    }
+
+    /**
+     * Solution space of the matrix read as an augmented system, in the layout of
+     * {@link LinearSolver#findSolutionSpace(DenseMatrix)}: row 0 solves the system with every free variable set to zero,
+     * the following rows are a basis of the null space, each with a different free variable set to one.
+     *
+     * @throws ArithmeticException the system has no solution
+     */
+    public Fraction[][] findSolutionSpace() {
+        if (!existsSolution()) throw new ArithmeticException("System has no solution");
+        Fraction[][] reduced = getReducedRowEchelon();
+        final int numVars = cols - 1;
+        final int numFree = numVars - rank;
+        Fraction[][] space = new Fraction[1 + numFree][numVars];
+        for (Fraction[] row : space) Arrays.fill(row, Fraction.ZERO);
+        // pivot variable's value = constant
+        for (int i = 0; i < rank; i++) space[0][pivotColumns[i]] = reduced[i][numVars];
+        int free = 0;
+        for (int col = 0, pivot = 0; col < numVars; col++) {
+            if (pivot < rank && pivotColumns[pivot] == col) {
+                pivot++;
+                continue;
+            }
+            // one free variable is 1, others are 0, pivot + free variable = 0
+            space[1 + free][col] = Fraction.ONE;
+            for (int i = 0; i < rank; i++) space[1 + free][pivotColumns[i]] = reduced[i][col].negate();
+            free++;
+        }
+        return space;
+    }
+
+    public static Fraction determinant(DenseMatrix matrix) {
+        return determinant(toFractions(matrix));
+    }
+
+    /**
+     * @return the determinant of a square matrix, the last pivot of its fraction-free elimination
+     */
+    public static Fraction determinant(Fraction[][] matrix) {
+        if (matrix.length > 0 && matrix.length != matrix[0].length) throw new IllegalArgumentException("Matrix is not square");
+        ExactSolver solver = new ExactSolver(matrix);
+        final int n = solver.rows;
+        if (n == 0) return Fraction.ONE;
+        if (solver.rank < n) return Fraction.ZERO;
+        //undo the row scaling
+        BigInteger scale = BigInteger.ONE;
+        for (BigInteger rowScale : solver.rowScales) scale = scale.multiply(rowScale);
+        return Fraction.of(solver.get(n - 1, n - 1).multiply(BigInteger.valueOf(solver.sign)), scale);
+    }
+
+    public static Fraction[][] invert(DenseMatrix matrix) {
+        return invert(toFractions(matrix));
+    }
+
+    /**
+     * Invert a square matrix by reducing [matrix | I] to [I | inverse]
+     *
+     * @throws ArithmeticException the matrix is singular
+     */
+    public static Fraction[][] invert(Fraction[][] matrix) {
+        final int n = matrix.length;
+        if (n > 0 && matrix[0].length != n) throw new IllegalArgumentException("Matrix is not square");
+        Fraction[][] augmented = new Fraction[n][2 * n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(matrix[r], 0, augmented[r], 0, n);
+            for (int c = 0; c < n; c++) augmented[r][n + c] = r == c ? Fraction.ONE : Fraction.ZERO;
+        }
+        ExactSolver solver = new ExactSolver(augmented, n);
+        if (solver.rank < n) throw new ArithmeticException("Matrix is singular");
+        Fraction[][] inverse = new Fraction[n][n];
+        if (n == 0) return inverse;
+        final BigInteger determinant = solver.get(n - 1, n - 1);
+        for (int c = 0; c < n; c++) {
+            BigInteger[] scaled = solver.backSubstitute(n + c);
+            for (int r = 0; r < n; r++) inverse[r][c] = Fraction.of(scaled[r], determinant);
+        }
+        return inverse;
+    }
+}
@@ -0,0 +1,303 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of the work done on coefficient matrices that are solved, inverted or evaluated repeatedly.
+ * Each entry is keyed by an exact copy of the matrix and its hash, so a lookup costs one pass over the matrix
+ * and a hit is only returned for a bitwise equal matrix. An entry holds the LU factors, rank, pivot columns,
+ * determinant and inverse, each computed the first time it is asked for.
+ * <p>
+ * Entries are charged their size in bytes, and the least recently used ones are evicted once the total exceeds
+ * the capacity. Results read from the cache are the same as those computed without it.
+ * All methods are thread-safe, so one cache can serve many solvers.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class FactorizationCache {
+    // bytes charged to every entry on top of its arrays
+    static final long ENTRY_OVERHEAD = 128;
+
+    private final long capacity;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    // in access order, the eldest entry is the least recently used
+    private final LinkedHashMap<Key, Factorization> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param capacity total size of the cached entries in bytes
+     */
+    public FactorizationCache(long capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity must not be negative");
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the entry of a coefficient matrix, created empty on a miss. The matrix is copied, not kept.
+     */
+    public Factorization factorization(DenseMatrix coefficients) {
+        Key probe = new Key(coefficients);
+        synchronized (this) {
+            Factorization entry = entries.get(probe);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            misses++;
+        }
+        //copy outside the lock, a racing miss on the same matrix simply replaces this entry
+        Factorization entry = new Factorization(this, coefficients.copy(), probe.hash);
+        synchronized (this) {
+            Factorization previous = entries.put(entry.key, entry);
+            if (previous != null) bytes -= previous.chargedBytes;
+            entry.chargedBytes = entry.bytes();
+            bytes += entry.chargedBytes;
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Same as {@link LinearSolver#calcDeterminant(DenseMatrix)}, computed once per matrix
+     */
+    public Determinant determinant(DenseMatrix matrix) {
+        return factorization(matrix).getDeterminant();
+    }
+
+    /**
+     * Same as {@link LinearSolver#invertMatrix(DenseMatrix)}, computed once per matrix
+     *
+     * @return a new matrix, which may be modified freely
+     * @throws ArithmeticException the matrix is singular
+     */
+    public DenseMatrix inverse(DenseMatrix matrix) {
+        return factorization(matrix).getInverse();
+    }
+
+    /**
+     * Charge an entry its current size after one of its parts was computed
+     */
+    private synchronized void resize(Factorization entry) {
+        if (entries.get(entry.key) != entry) return; // already evicted or replaced
+        long size = entry.bytes();
+        bytes += size - entry.chargedBytes;
+        entry.chargedBytes = size;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Factorization> eldest = entries.values().iterator();
+        while (bytes > capacity && eldest.hasNext()) {
+            bytes -= eldest.next().chargedBytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return bytes charged to the cached entries
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return fraction of lookups that found their matrix, 0 before the first lookup
+     */
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * A matrix with its hash computed once, so map lookups and rehashing do not walk the matrix again
+     */
+    private static final class Key {
+        private final DenseMatrix matrix;
+        private final int hash;
+
+        Key(DenseMatrix matrix) {
+            this(matrix, matrix.hashCode());
+        }
+
+        Key(DenseMatrix matrix, int hash) {
+            this.matrix = matrix;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && matrix.equals(other.matrix);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Everything known about one coefficient matrix. Parts are computed on first use under the entry's own lock,
+     * so concurrent requests for the same part wait for a single computation.
+     */
+    public static final class Factorization {
+        private final FactorizationCache owner;
+        private final Key key;
+        private final DenseMatrix matrix;
+        // read without the entry's lock when the owner charges the entry's size
+        private volatile LUDecomposition lu = null;
+        private volatile int[] pivotColumns = null;
+        private volatile DenseMatrix inverse = null;
+        private Determinant determinant = null;
+        private boolean singular = false;
+        // size last added to the owner's total, guarded by the owner
+        private long chargedBytes = 0;
+
+        private Factorization(FactorizationCache owner, DenseMatrix matrix, int hash) {
+            this.owner = owner;
+            this.matrix = matrix;
+            this.key = new Key(matrix, hash);
+        }
+
+        private long bytes() {
+            final long elements = (long) matrix.getRows() * matrix.getCols();
+            long size = ENTRY_OVERHEAD + 8 * elements;
+            if (lu != null) size += 8 * elements + 4L * matrix.getRows();
+            int[] pivots = pivotColumns;
+            if (pivots != null) size += 4L * pivots.length;
+            if (inverse != null) size += 8 * elements;
+            return size;
+        }
+
+        public boolean isSquare() {
+            return matrix.getRows() == matrix.getCols();
+        }
+
+        /**
+         * @return true if the LU factors have been computed
+         */
+        public boolean hasLU() {
+            return lu != null;
+        }
+
+        /**
+         * @return LU factors of a square matrix, which must not be refactored, or null if the matrix is not square
+         */
+        public LUDecomposition getLU() {
+            if (!isSquare()) return null;
+            boolean computed = false;
+            synchronized (this) {
+                if (lu == null) {
+                    lu = new LUDecomposition(matrix);
+                    computed = true;
+                }
+            }
+            if (computed) owner.resize(this);
+            return lu;
+        }
+
+        /**
+         * @return the pivot columns of the row echelon form {@link LinearSolver} finds, its length is the rank
+         */
+        public int[] getPivotColumns() {
+            boolean computed = false;
+            synchronized (this) {
+                if (pivotColumns == null) {
+                    pivotColumns = findPivotColumns();
+                    computed = true;
+                }
+            }
+            if (computed) owner.resize(this);
+            return pivotColumns.clone();
+        }
+
+        private int[] findPivotColumns() {
+            LUDecomposition factors = lu;
+            if (factors != null && !factors.isSingular()) {
+                int[] pivots = new int[matrix.getRows()];
+                for (int i = 0; i < pivots.length; i++) pivots[i] = i;
+                return pivots;
+            }
+            LinearSolver solver = new LinearSolver();
+            try {
+                solver.convertToRowEchelon(matrix.copy());
+            } catch (Exception e) {
+                // only a scale by zero throws, which a pivot never is
+                throw new IllegalStateException(e);
+            }
+            return solver.getPivotColumns();
+        }
+
+        public int getRank() {
+            return getPivotColumns().length;
+        }
+
+        public synchronized Determinant getDeterminant() {
+            if (determinant == null) determinant = Determinant.of(matrix, this::getLU);
+            return determinant;
+        }
+
+        /**
+         * @return a copy of the inverse, computed by the same Gauss-Jordan elimination as invertMatrix
+         * @throws ArithmeticException the matrix is singular
+         */
+        public DenseMatrix getInverse() {
+            boolean computed = false;
+            synchronized (this) {
+                if (singular) throw new ArithmeticException("Matrix is singular");
+                if (inverse == null) {
+                    if (!isSquare()) throw new IllegalArgumentException("Matrix is not square");
+                    DenseMatrix result = new DenseMatrix(matrix.getRows(), matrix.getCols());
+                    if (!new MatrixInverter(matrix.getRows()).invertGaussJordan(matrix, result)) {
+                        singular = true;
+                        throw new ArithmeticException("Matrix is singular");
+                    }
+                    inverse = result;
+                    computed = true;
+                }
+            }
+            if (computed) owner.resize(this);
+            return inverse.copy();
+        }
+
+        @Override
+        public String toString() {
+            int[] pivots = pivotColumns;
+            return matrix.getRows() + "x" + matrix.getCols() + " factorization, LU " + (lu != null)
+                    + ", pivots " + (pivots == null ? "unknown" : Arrays.toString(pivots))
+                    + ", inverse " + (inverse != null);
+        }
+    }
+}
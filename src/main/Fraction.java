@@ -0,0 +1,141 @@
+package main;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Exact rational number, always kept in lowest terms with a positive denominator
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class Fraction implements Comparable<Fraction> {
+    public static final Fraction ZERO = new Fraction(BigInteger.ZERO, BigInteger.ONE);
+    public static final Fraction ONE = new Fraction(BigInteger.ONE, BigInteger.ONE);
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    private Fraction(BigInteger numerator, BigInteger denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    public static Fraction of(long value) {
+        return new Fraction(BigInteger.valueOf(value), BigInteger.ONE);
+    }
+
+    public static Fraction of(long numerator, long denominator) {
+        return of(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    /**
+     * @throws ArithmeticException the denominator is zero
+     */
+    public static Fraction of(BigInteger numerator, BigInteger denominator) {
+        if (denominator.signum() == 0) throw new ArithmeticException("Denominator is zero");
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+            numerator = numerator.divide(gcd);
+            denominator = denominator.divide(gcd);
+        }
+        return new Fraction(numerator, numerator.signum() == 0 ? BigInteger.ONE : denominator);
+    }
+
+    /**
+     * The shortest decimal that rounds to the value, so a typed 0.1 becomes 1/10 rather than the binary fraction
+     * nearest to it
+     *
+     * @throws NumberFormatException the value is infinite or NaN
+     */
+    public static Fraction valueOf(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) throw new NumberFormatException("Not a finite number: " + value);
+        BigDecimal decimal = new BigDecimal(Double.toString(value));
+        if (decimal.scale() <= 0) return new Fraction(decimal.toBigIntegerExact(), BigInteger.ONE);
+        return of(decimal.unscaledValue(), BigInteger.TEN.pow(decimal.scale()));
+    }
+
+    public BigInteger getNumerator() {
+        return numerator;
+    }
+
+    public BigInteger getDenominator() {
+        return denominator;
+    }
+
+    public int signum() {
+        return numerator.signum();
+    }
+
+    public boolean isZero() {
+        return numerator.signum() == 0;
+    }
+
+    public boolean isInteger() {
+        return denominator.equals(BigInteger.ONE);
+    }
+
+    public Fraction add(Fraction other) {
+        if (denominator.equals(other.denominator)) return of(numerator.add(other.numerator), denominator);
+        return of(numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)), denominator.multiply(other.denominator));
+    }
+
+    public Fraction subtract(Fraction other) {
+        return add(other.negate());
+    }
+
+    public Fraction multiply(Fraction other) {
+        return of(numerator.multiply(other.numerator), denominator.multiply(other.denominator));
+    }
+
+    /**
+     * @throws ArithmeticException other is zero
+     */
+    public Fraction divide(Fraction other) {
+        return of(numerator.multiply(other.denominator), denominator.multiply(other.numerator));
+    }
+
+    public Fraction negate() {
+        return new Fraction(numerator.negate(), denominator);
+    }
+
+    /**
+     * @return the fraction rounded to a double
+     */
+    public double doubleValue() {
+        //both parts are exact doubles, so one division rounds correctly
+        if (numerator.bitLength() <= 53 && denominator.bitLength() <= 53) return numerator.doubleValue() / denominator.doubleValue();
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), MathContext.DECIMAL128).doubleValue();
+    }
+
+    @Override
+    public int compareTo(Fraction other) {
+        return numerator.multiply(other.denominator).compareTo(other.numerator.multiply(denominator));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fraction)) return false;
+        Fraction other = (Fraction) o;
+        return numerator.equals(other.numerator) && denominator.equals(other.denominator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numerator.hashCode() + denominator.hashCode();
+    }
+
+    /**
+     * @return "p/q", or "p" for integers
+     */
+    @Override
+    public String toString() {
+        return isInteger() ? numerator.toString() : numerator + "/" + denominator;
+    }
+}
@@ -0,0 +1,80 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Incomplete LU factorization with zero fill-in, ILU(0).
+ * Elimination is carried out as usual but every update that would land outside the sparsity pattern
+ * of A is dropped, so L and U together take exactly the storage of A.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class ILU0Preconditioner implements Preconditioner {
+    private final int n;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    // L below the diagonal (unit diagonal not stored) and U on and above it, in the pattern of A
+    private final double[] factors;
+    private final int[] diagonal;
+
+    /**
+     * Factor a dense matrix through its nonzero pattern
+     */
+    public ILU0Preconditioner(DenseMatrix matrix) {
+        this(SparseMatrix.fromDense(matrix));
+    }
+
+    /**
+     * @throws ArithmeticException a pivot is zero or missing from the pattern
+     */
+    public ILU0Preconditioner(SparseMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) throw new IllegalArgumentException("Matrix is not square");
+        this.n = matrix.getRows();
+        this.rowPtr = matrix.getRowPointers();
+        this.colIdx = matrix.getColumnIndices();
+        this.factors = matrix.getValues().clone();
+        this.diagonal = new int[n];
+
+        //position of each column within the current row, -1 when outside the pattern
+        int[] positions = new int[n];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < n; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) positions[colIdx[p]] = p;
+            diagonal[i] = positions[i];
+            if (diagonal[i] == -1) throw new ArithmeticException("Zero on the diagonal at row #" + i);
+
+            //eliminate the entries left of the diagonal, in column order
+            for (int p = rowPtr[i]; p < rowPtr[i + 1] && colIdx[p] < i; p++) {
+                final int k = colIdx[p];
+                final double multiplier = factors[p] / factors[diagonal[k]];
+                factors[p] = multiplier;
+                for (int q = diagonal[k] + 1; q < rowPtr[k + 1]; q++) {
+                    int target = positions[colIdx[q]];
+                    if (target != -1) factors[target] -= multiplier * factors[q];
+                }
+            }
+            if (factors[diagonal[i]] == 0) throw new ArithmeticException("Zero pivot at row #" + i);
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) positions[colIdx[p]] = -1;
+        }
+    }
+
+    /**
+     * z = inverse(U) * inverse(L) * r
+     */
+    @Override
+    public void apply(double[] r, double[] z) {
+        //forward substitution with unit L
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int p = rowPtr[i]; p < diagonal[i]; p++) sum -= factors[p] * z[colIdx[p]];
+            z[i] = sum;
+        }
+        //back substitution with U
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int p = diagonal[i] + 1; p < rowPtr[i + 1]; p++) sum -= factors[p] * z[colIdx[p]];
+            z[i] = sum / factors[diagonal[i]];
+        }
+    }
+}
@@ -0,0 +1,612 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a system's factorization up to date while its coefficient matrix changes a little at a time, so each
+ * change and the following solve cost O(n^2) instead of the O(n^3) of solving from scratch.
+ * <p>
+ * The state is the m by m transform E with EA = R for the m by n coefficient matrix A, as in {@link BatchSolver}.
+ * R starts as the reduced row echelon form of A. Appending, removing or replacing an equation or a variable only
+ * touches a few rows of E and R, choosing new pivots by size rather than position, so afterwards R is a reduced form
+ * in which every pivot column is a unit vector, the form {@link LinearSolver#findSolutionSpace(DenseMatrix, int[])}
+ * accepts, and the free variables may differ from those of a fresh reduction. A rank-one (Sherman-Morrison) or rank-k (Woodbury) update of a square nonsingular
+ * A updates E = A^-1 directly; for other matrices, or when the update makes A singular, the whole state is refactored.
+ * <p>
+ * Entries smaller than {@value #EPSILON} relative to the largest entry of A count as zero when deciding the rank.
+ * Rounding error grows with every update, {@link #refactor()} starts again from A.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class IncrementalSolver {
+    static final double EPSILON = 1e-10;
+
+    private DenseMatrix coefficients;
+    private DenseMatrix transform;
+    private DenseMatrix reduced;
+    // pivot column of each row of reduced, -1 for zero rows. Pivot rows come first, ordered by column.
+    private int[] rowPivots;
+    private int rank;
+    private int refactorCount = 0;
+
+    /**
+     * Factor a coefficient matrix, which is copied
+     */
+    public IncrementalSolver(DenseMatrix coefficients) {
+        this.coefficients = coefficients.copy();
+        refactor();
+    }
+
+    public int getRows() {
+        return coefficients.getRows();
+    }
+
+    public int getCols() {
+        return coefficients.getCols();
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the pivot column of each pivot row, in increasing order
+     */
+    public int[] getPivotColumns() {
+        return Arrays.copyOf(rowPivots, rank);
+    }
+
+    /**
+     * @return a copy of the current coefficient matrix
+     */
+    public DenseMatrix getCoefficients() {
+        return coefficients.copy();
+    }
+
+    /**
+     * @return a copy of the reduced form R of the coefficient matrix, pivot rows first in order of their pivot column
+     */
+    public DenseMatrix getReduced() {
+        return reduced.copy();
+    }
+
+    /**
+     * @return number of full refactorizations, including the initial one
+     */
+    public int getRefactorCount() {
+        return refactorCount;
+    }
+
+    /**
+     * @return the inverse of a square nonsingular coefficient matrix
+     * @throws ArithmeticException the matrix is not square or is singular
+     */
+    public DenseMatrix getInverse() {
+        if (!isInvertible()) throw new ArithmeticException("Matrix is not invertible");
+        return transform.copy();
+    }
+
+    private boolean isInvertible() {
+        return getRows() == getCols() && rank == getRows();
+    }
+
+    /**
+     * Factor the current coefficient matrix from scratch, reducing [A | I] to [R | E] with partial pivoting
+     */
+    public void refactor() {
+        final int m = getRows();
+        final int n = getCols();
+        reduced = coefficients.copy();
+        transform = DenseMatrix.identity(m);
+        rowPivots = new int[m];
+        Arrays.fill(rowPivots, -1);
+        rank = 0;
+        final double tolerance = EPSILON * maxAbs(coefficients);
+        for (int col = 0; col < n && rank < m; col++) {
+            int best = rank;
+            for (int row = rank + 1; row < m; row++) {
+                if (Math.abs(reduced.get(row, col)) > Math.abs(reduced.get(best, col))) best = row;
+            }
+            if (Math.abs(reduced.get(best, col)) <= tolerance) {
+                //treat the column as zero, it belongs to a free variable
+                for (int row = rank; row < m; row++) reduced.set(row, col, 0);
+                continue;
+            }
+            swapRows(rank, best);
+            eliminate(rank, col);
+            rowPivots[rank++] = col;
+        }
+        //below the rank only rounding error is left
+        for (int row = rank; row < m; row++) clearRow(reduced, row);
+        refactorCount++;
+    }
+
+    /**
+     * Add an equation as the last row, keeping every existing row
+     */
+    public void appendEquation(double[] row) {
+        insertEquation(getRows(), row);
+    }
+
+    /**
+     * Insert an equation before row index of the coefficient matrix
+     */
+    public void insertEquation(int index, double[] row) {
+        final int m = getRows();
+        final int n = getCols();
+        if (index < 0 || index > m) throw new IndexOutOfBoundsException("Row " + index + " of " + m);
+        if (row.length != n) throw new IllegalArgumentException("Expected " + n + " coefficients");
+        coefficients = insertRow(coefficients, index, row);
+        reduced = insertRow(reduced, m, row);
+        transform = insertColumn(insertRow(transform, m, null), index, null);
+        transform.set(m, index, 1.0);
+        rowPivots = Arrays.copyOf(rowPivots, m + 1);
+        rowPivots[m] = -1;
+
+        //the new row of R is the equation minus its part in the span of the pivot rows
+        final double[] r = reduced.getData();
+        final double[] e = transform.getData();
+        for (int pivotRow = 0; pivotRow < rank; pivotRow++) {
+            final int p = rowPivots[pivotRow];
+            final double f = reduced.get(m, p);
+            if (f == 0) continue;
+            RowKernels.SELECTED.axpy(r, reduced.index(m, 0), reduced.index(pivotRow, 0), n, -f);
+            RowKernels.SELECTED.axpy(e, transform.index(m, 0), transform.index(pivotRow, 0), m + 1, -f);
+            reduced.set(m, p, 0);
+        }
+        pivotNewRow(m);
+        sortRows();
+    }
+
+    /**
+     * Remove row index of the coefficient matrix
+     */
+    public void removeEquation(int index) {
+        final int m = getRows();
+        final int n = getCols();
+        if (index < 0 || index >= m) throw new IndexOutOfBoundsException("Row " + index + " of " + m);
+        //pick the row of E that carries the most of this equation, preferably a zero row of R so the rank is kept
+        int k = -1;
+        for (int row = rank; row < m; row++) {
+            double weight = Math.abs(transform.get(row, index));
+            if (weight > EPSILON * rowAbsSum(transform, row) && (k < 0 || weight > Math.abs(transform.get(k, index)))) k = row;
+        }
+        if (k < 0) {
+            for (int row = 0; row < rank; row++) {
+                if (k < 0 || Math.abs(transform.get(row, index)) > Math.abs(transform.get(k, index))) k = row;
+            }
+        }
+        //clear column index of E from every other row, then row k no longer depends on the others
+        final double[] r = reduced.getData();
+        final double[] e = transform.getData();
+        final double pivot = transform.get(k, index);
+        for (int row = 0; row < m; row++) {
+            if (row == k) continue;
+            final double f = transform.get(row, index) / pivot;
+            if (f == 0) continue;
+            RowKernels.SELECTED.axpy(e, transform.index(row, 0), transform.index(k, 0), m, -f);
+            transform.set(row, index, 0);
+            //zero rows stay zero in exact arithmetic
+            if (rowPivots[row] < 0) continue;
+            RowKernels.SELECTED.axpy(r, reduced.index(row, 0), reduced.index(k, 0), n, -f);
+        }
+        //when row k was a pivot row the equation was independent of the others, and its pivot column becomes free
+        if (rowPivots[k] >= 0) rank--;
+        coefficients = removeRow(coefficients, index);
+        reduced = removeRow(reduced, k);
+        transform = removeColumn(removeRow(transform, k), index);
+        rowPivots = removeIndex(rowPivots, k);
+        sortRows();
+    }
+
+    /**
+     * Replace row index of the coefficient matrix, a remove followed by an insert
+     */
+    public void replaceEquation(int index, double[] row) {
+        if (row.length != getCols()) throw new IllegalArgumentException("Expected " + getCols() + " coefficients");
+        removeEquation(index);
+        insertEquation(index, row);
+    }
+
+    /**
+     * Add a variable as the last column
+     */
+    public void appendVariable(double[] column) {
+        insertVariable(getCols(), column);
+    }
+
+    /**
+     * Insert a variable before column index of the coefficient matrix
+     */
+    public void insertVariable(int index, double[] column) {
+        final int m = getRows();
+        final int n = getCols();
+        if (index < 0 || index > n) throw new IndexOutOfBoundsException("Column " + index + " of " + n);
+        if (column.length != m) throw new IllegalArgumentException("Expected " + m + " coefficients");
+        coefficients = insertColumn(coefficients, index, column);
+        double[] w = new double[m];
+        transform.multiply(column, w);
+        reduced = insertColumn(reduced, index, w);
+        for (int row = 0; row < rank; row++) {
+            if (rowPivots[row] >= index) rowPivots[row]++;
+        }
+        //the column adds to the rank if it reaches a zero row of R
+        final double tolerance = EPSILON * maxAbs(coefficients);
+        int k = -1;
+        for (int row = rank; row < m; row++) {
+            double value = Math.abs(w[row]);
+            if (value > tolerance * rowAbsSum(transform, row) && (k < 0 || value > Math.abs(w[k]))) k = row;
+        }
+        if (k >= 0) {
+            eliminate(k, index);
+            rowPivots[k] = index;
+            rank++;
+        } else {
+            for (int row = rank; row < m; row++) reduced.set(row, index, 0);
+        }
+        sortRows();
+    }
+
+    /**
+     * Remove column index of the coefficient matrix
+     */
+    public void removeVariable(int index) {
+        final int m = getRows();
+        final int n = getCols();
+        if (index < 0 || index >= n) throw new IndexOutOfBoundsException("Column " + index + " of " + n);
+        int k = -1;
+        for (int row = 0; row < rank; row++) {
+            if (rowPivots[row] == index) k = row;
+        }
+        if (k >= 0) {
+            //move the pivot of row k to its largest free entry, if any is left
+            final double tolerance = EPSILON * maxAbs(coefficients) * rowAbsSum(transform, k);
+            int best = -1;
+            for (int col = 0; col < n; col++) {
+                if (col == index || isPivotColumn(col)) continue;
+                if (Math.abs(reduced.get(k, col)) > tolerance && (best < 0 || Math.abs(reduced.get(k, col)) > Math.abs(reduced.get(k, best)))) best = col;
+            }
+            if (best >= 0) {
+                eliminate(k, best);
+                rowPivots[k] = best;
+            } else {
+                clearRow(reduced, k);
+                rowPivots[k] = -1;
+                rank--;
+            }
+        }
+        coefficients = removeColumn(coefficients, index);
+        reduced = removeColumn(reduced, index);
+        for (int row = 0; row < m; row++) {
+            if (rowPivots[row] > index) rowPivots[row]--;
+        }
+        sortRows();
+    }
+
+    /**
+     * Replace column index of the coefficient matrix, a remove followed by an insert
+     */
+    public void replaceVariable(int index, double[] column) {
+        if (column.length != getRows()) throw new IllegalArgumentException("Expected " + getRows() + " coefficients");
+        removeVariable(index);
+        insertVariable(index, column);
+    }
+
+    /**
+     * A += u * v^T, by Sherman-Morrison when A is square and stays nonsingular
+     */
+    public void update(double[] u, double[] v) {
+        final int m = getRows();
+        final int n = getCols();
+        if (u.length != m || v.length != n) throw new IllegalArgumentException("Expected vectors of length " + m + " and " + n);
+        addOuterProduct(coefficients, u, v, 1.0);
+        if (!isInvertible()) {
+            refactor();
+            return;
+        }
+        //(A + uv^T)^-1 = A^-1 - A^-1 u v^T A^-1 / (1 + v^T A^-1 u)
+        double[] eu = new double[n];
+        transform.multiply(u, eu);
+        double[] ve = new double[n];
+        for (int row = 0; row < n; row++) {
+            final double f = v[row];
+            if (f == 0) continue;
+            for (int col = 0; col < n; col++) ve[col] += f * transform.get(row, col);
+        }
+        double denominator = 1;
+        for (int i = 0; i < n; i++) denominator += v[i] * eu[i];
+        if (Math.abs(denominator) <= EPSILON * (1 + Math.abs(denominator - 1))) {
+            //the update makes A singular
+            refactor();
+            return;
+        }
+        addOuterProduct(transform, eu, ve, -1 / denominator);
+    }
+
+    /**
+     * A += U * V^T for an m by k matrix U and an n by k matrix V, by the Woodbury identity when A is square
+     * and stays nonsingular. Costs O(n^2 k + k^3).
+     */
+    public void update(DenseMatrix u, DenseMatrix v) {
+        final int m = getRows();
+        final int n = getCols();
+        final int k = u.getCols();
+        if (u.getRows() != m || v.getRows() != n || v.getCols() != k) throw new IllegalArgumentException("Expected " + m + "xk and " + n + "xk matrices");
+        for (int j = 0; j < k; j++) addOuterProduct(coefficients, column(u, j), column(v, j), 1.0);
+        if (!isInvertible()) {
+            refactor();
+            return;
+        }
+        //(A + UV^T)^-1 = A^-1 - A^-1 U (I + V^T A^-1 U)^-1 V^T A^-1
+        DenseMatrix eu = multiply(transform, u);
+        DenseMatrix vt = transpose(v);
+        DenseMatrix vte = multiply(vt, transform);
+        DenseMatrix capacitance = multiply(vt, eu);
+        for (int i = 0; i < k; i++) capacitance.set(i, i, capacitance.get(i, i) + 1);
+        DenseMatrix inverse = new DenseMatrix(k, k);
+        if (!new MatrixInverter(k).invertGaussJordan(capacitance, inverse)) {
+            refactor();
+            return;
+        }
+        DenseMatrix correction = multiply(eu, multiply(inverse, vte));
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) transform.set(row, col, transform.get(row, col) - correction.get(row, col));
+        }
+    }
+
+    /**
+     * @return false if Ax = b has no solution
+     */
+    public boolean existsSolution(double[] b) {
+        return isConsistent(transformed(b), b);
+    }
+
+    /**
+     * Solve Ax = b against the current factorization
+     *
+     * @return the solution space in the layout of {@link LinearSolver#findSolutionSpace(DenseMatrix)}: row 0 is the
+     * solution with every free variable set to zero, the following rows are a basis of the null space
+     * @throws ArithmeticException there is no solution
+     */
+    public DenseMatrix solve(double[] b) {
+        double[] y = transformed(b);
+        if (!isConsistent(y, b)) throw new ArithmeticException("System has no solution");
+        DenseMatrix space = nullSpace(1);
+        for (int row = 0; row < rank; row++) space.set(0, rowPivots[row], y[row]);
+        return space;
+    }
+
+    /**
+     * @return a basis of the null space of A, one vector per row, each with a different free variable set to one
+     */
+    public DenseMatrix getNullSpace() {
+        return nullSpace(0);
+    }
+
+    private DenseMatrix nullSpace(int firstRow) {
+        final int n = getCols();
+        DenseMatrix space = new DenseMatrix(firstRow + n - rank, n);
+        int row = firstRow;
+        for (int col = 0; col < n; col++) {
+            if (isPivotColumn(col)) continue;
+            // free variable = 1, each pivot variable cancels its row
+            space.set(row, col, 1.0);
+            for (int r = 0; r < rank; r++) {
+                double value = -reduced.get(r, col);
+                space.set(row, rowPivots[r], value == 0 ? 0.0 : value);
+            }
+            row++;
+        }
+        return space;
+    }
+
+    private double[] transformed(double[] b) {
+        if (b.length != getRows()) throw new IllegalArgumentException("Expected " + getRows() + " constants");
+        double[] y = new double[b.length];
+        transform.multiply(b, y);
+        return y;
+    }
+
+    private boolean isConsistent(double[] y, double[] b) {
+        double maxAbs = 0;
+        for (double value : b) maxAbs = Math.max(maxAbs, Math.abs(value));
+        for (int row = rank; row < y.length; row++) {
+            if (Math.abs(y[row]) > EPSILON * rowAbsSum(transform, row) * maxAbs) return false;
+        }
+        return true;
+    }
+
+    private boolean isPivotColumn(int col) {
+        for (int row = 0; row < rank; row++) {
+            if (rowPivots[row] == col) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Give a freshly reduced zero row a pivot if it has an entry above the tolerance
+     */
+    private void pivotNewRow(int row) {
+        final double tolerance = EPSILON * maxAbs(coefficients) * rowAbsSum(transform, row);
+        int best = -1;
+        for (int col = 0; col < getCols(); col++) {
+            if (Math.abs(reduced.get(row, col)) > tolerance && (best < 0 || Math.abs(reduced.get(row, col)) > Math.abs(reduced.get(row, best)))) best = col;
+        }
+        if (best < 0) {
+            clearRow(reduced, row);
+            return;
+        }
+        eliminate(row, best);
+        rowPivots[row] = best;
+        rank++;
+    }
+
+    /**
+     * Scale row k to a pivot of 1 in column col and clear that column from every other row of R, applying
+     * the same operations to E
+     */
+    private void eliminate(int k, int col) {
+        final int m = getRows();
+        final int n = getCols();
+        final double[] r = reduced.getData();
+        final double[] e = transform.getData();
+        final double scalar = 1 / reduced.get(k, col);
+        RowKernels.SELECTED.scale(r, reduced.index(k, 0), n, scalar);
+        RowKernels.SELECTED.scale(e, transform.index(k, 0), m, scalar);
+        reduced.set(k, col, 1.0);
+        for (int row = 0; row < m; row++) {
+            if (row == k) continue;
+            final double f = reduced.get(row, col);
+            if (f == 0) continue;
+            RowKernels.SELECTED.axpy(r, reduced.index(row, 0), reduced.index(k, 0), n, -f);
+            RowKernels.SELECTED.axpy(e, transform.index(row, 0), transform.index(k, 0), m, -f);
+            reduced.set(row, col, 0);
+        }
+    }
+
+    private void swapRows(int row1, int row2) {
+        if (row1 == row2) return;
+        RowKernels.SELECTED.swap(reduced.getData(), reduced.index(row1, 0), reduced.index(row2, 0), getCols());
+        RowKernels.SELECTED.swap(transform.getData(), transform.index(row1, 0), transform.index(row2, 0), getRows());
+        int temp = rowPivots[row1];
+        rowPivots[row1] = rowPivots[row2];
+        rowPivots[row2] = temp;
+    }
+
+    /**
+     * Restore the row order of a reduced row echelon form, pivot rows by column and then zero rows, in O(m (m + n))
+     */
+    private void sortRows() {
+        final int m = getRows();
+        Integer[] order = new Integer[m];
+        for (int i = 0; i < m; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(rowPivots[a] < 0 ? Integer.MAX_VALUE : rowPivots[a],
+                rowPivots[b] < 0 ? Integer.MAX_VALUE : rowPivots[b]));
+        DenseMatrix sortedReduced = new DenseMatrix(m, getCols());
+        DenseMatrix sortedTransform = new DenseMatrix(m, m);
+        int[] sortedPivots = new int[m];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(reduced.getData(), reduced.index(order[i], 0), sortedReduced.getData(), sortedReduced.index(i, 0), getCols());
+            System.arraycopy(transform.getData(), transform.index(order[i], 0), sortedTransform.getData(), sortedTransform.index(i, 0), m);
+            sortedPivots[i] = rowPivots[order[i]];
+        }
+        reduced = sortedReduced;
+        transform = sortedTransform;
+        rowPivots = sortedPivots;
+    }
+
+    private static void clearRow(DenseMatrix matrix, int row) {
+        final int start = matrix.index(row, 0);
+        Arrays.fill(matrix.getData(), start, start + matrix.getCols(), 0.0);
+    }
+
+    private static double maxAbs(DenseMatrix matrix) {
+        double max = 0;
+        for (int row = 0; row < matrix.getRows(); row++) {
+            for (int col = 0; col < matrix.getCols(); col++) max = Math.max(max, Math.abs(matrix.get(row, col)));
+        }
+        return max;
+    }
+
+    private static double rowAbsSum(DenseMatrix matrix, int row) {
+        double sum = 0;
+        for (int col = 0; col < matrix.getCols(); col++) sum += Math.abs(matrix.get(row, col));
+        return sum;
+    }
+
+    /**
+     * matrix += scalar * u * v^T
+     */
+    private static void addOuterProduct(DenseMatrix matrix, double[] u, double[] v, double scalar) {
+        final int cols = matrix.getCols();
+        final double[] data = matrix.getData();
+        for (int row = 0; row < matrix.getRows(); row++) {
+            final double f = scalar * u[row];
+            if (f == 0) continue;
+            final int start = matrix.index(row, 0);
+            for (int col = 0; col < cols; col++) data[start + col] += f * v[col];
+        }
+    }
+
+    private static double[] column(DenseMatrix matrix, int col) {
+        double[] column = new double[matrix.getRows()];
+        for (int row = 0; row < column.length; row++) column[row] = matrix.get(row, col);
+        return column;
+    }
+
+    private static DenseMatrix transpose(DenseMatrix matrix) {
+        DenseMatrix transposed = new DenseMatrix(matrix.getCols(), matrix.getRows());
+        for (int row = 0; row < matrix.getRows(); row++) {
+            for (int col = 0; col < matrix.getCols(); col++) transposed.set(col, row, matrix.get(row, col));
+        }
+        return transposed;
+    }
+
+    private static DenseMatrix multiply(DenseMatrix a, DenseMatrix b) {
+        DenseMatrix product = new DenseMatrix(a.getRows(), b.getCols());
+        final double[] out = product.getData();
+        final double[] in = b.getData();
+        for (int i = 0; i < a.getRows(); i++) {
+            for (int p = 0; p < a.getCols(); p++) {
+                final double f = a.get(i, p);
+                if (f == 0) continue;
+                final int target = product.index(i, 0);
+                final int source = b.index(p, 0);
+                for (int j = 0; j < b.getCols(); j++) out[target + j] += f * in[source + j];
+            }
+        }
+        return product;
+    }
+
+    private static DenseMatrix insertRow(DenseMatrix matrix, int index, double[] row) {
+        final int cols = matrix.getCols();
+        DenseMatrix result = new DenseMatrix(matrix.getRows() + 1, cols);
+        for (int r = 0; r < matrix.getRows(); r++) {
+            System.arraycopy(matrix.getData(), matrix.index(r, 0), result.getData(), result.index(r < index ? r : r + 1, 0), cols);
+        }
+        if (row != null) System.arraycopy(row, 0, result.getData(), result.index(index, 0), cols);
+        return result;
+    }
+
+    private static DenseMatrix removeRow(DenseMatrix matrix, int index) {
+        final int cols = matrix.getCols();
+        DenseMatrix result = new DenseMatrix(matrix.getRows() - 1, cols);
+        for (int r = 0; r < result.getRows(); r++) {
+            System.arraycopy(matrix.getData(), matrix.index(r < index ? r : r + 1, 0), result.getData(), result.index(r, 0), cols);
+        }
+        return result;
+    }
+
+    private static DenseMatrix insertColumn(DenseMatrix matrix, int index, double[] column) {
+        final int cols = matrix.getCols();
+        DenseMatrix result = new DenseMatrix(matrix.getRows(), cols + 1);
+        for (int r = 0; r < matrix.getRows(); r++) {
+            final int source = matrix.index(r, 0);
+            final int target = result.index(r, 0);
+            System.arraycopy(matrix.getData(), source, result.getData(), target, index);
+            System.arraycopy(matrix.getData(), source + index, result.getData(), target + index + 1, cols - index);
+            if (column != null) result.getData()[target + index] = column[r];
+        }
+        return result;
+    }
+
+    private static DenseMatrix removeColumn(DenseMatrix matrix, int index) {
+        final int cols = matrix.getCols();
+        DenseMatrix result = new DenseMatrix(matrix.getRows(), cols - 1);
+        for (int r = 0; r < matrix.getRows(); r++) {
+            final int source = matrix.index(r, 0);
+            final int target = result.index(r, 0);
+            System.arraycopy(matrix.getData(), source, result.getData(), target, index);
+            System.arraycopy(matrix.getData(), source + index + 1, result.getData(), target + index, cols - index - 1);
+        }
+        return result;
+    }
+
+    private static int[] removeIndex(int[] array, int index) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
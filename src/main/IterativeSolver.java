@@ -0,0 +1,409 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Krylov subspace solvers for large systems Ax = b where A is square and usually sparse.
+ * Unlike elimination they never modify A or create fill-in, each iteration costs one product with A
+ * (two for BiCGSTAB) and one application of the preconditioner.
+ * <ul>
+ * <li>conjugate gradient for symmetric positive definite A</li>
+ * <li>BiCGSTAB for general nonsymmetric A, short recurrences so constant memory</li>
+ * <li>restarted GMRES for general A, monotone residual at the cost of storing restart vectors</li>
+ * </ul>
+ * Iteration stops when ||b - Ax|| <= tolerance * ||b|| or after maxIterations iterations.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class IterativeSolver {
+    static final double DEFAULT_TOLERANCE = 1e-10;
+    static final int DEFAULT_MAX_ITERATIONS = 1000;
+    static final int DEFAULT_RESTART = 30;
+
+    private double tolerance = DEFAULT_TOLERANCE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private int restart = DEFAULT_RESTART;
+    private Preconditioner preconditioner;
+
+    public IterativeSolver() {
+    }
+
+    public IterativeSolver(double tolerance, int maxIterations) {
+        setTolerance(tolerance);
+        setMaxIterations(maxIterations);
+    }
+
+    /**
+     * @param tolerance target relative residual ||b - Ax|| / ||b||
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance > 0)) throw new IllegalArgumentException("Tolerance must be positive");
+        this.tolerance = tolerance;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) throw new IllegalArgumentException("Iteration limit must not be negative");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param restart number of GMRES iterations between restarts
+     */
+    public void setRestart(int restart) {
+        if (restart < 1) throw new IllegalArgumentException("Restart length must be positive");
+        this.restart = restart;
+    }
+
+    /**
+     * @param preconditioner approximate inverse of A, or null for none
+     */
+    public void setPreconditioner(Preconditioner preconditioner) {
+        this.preconditioner = preconditioner;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public int getRestart() {
+        return restart;
+    }
+
+    public Preconditioner getPreconditioner() {
+        return preconditioner;
+    }
+
+    public IterativeResult conjugateGradient(LinearOperator matrix, double[] b) {
+        return conjugateGradient(matrix, b, new double[b.length]);
+    }
+
+    /**
+     * Preconditioned conjugate gradient, A and the preconditioner must be symmetric positive definite
+     *
+     * @param x initial guess, overwritten with the solution
+     */
+    public IterativeResult conjugateGradient(LinearOperator matrix, double[] b, double[] x) {
+        final int n = checkDimensions(matrix, b, x);
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+        final double bNorm = normOrOne(b);
+        residual(matrix, b, x, r);
+        History history = new History(maxIterations);
+        double relative = norm(r) / bNorm;
+        history.add(relative);
+        if (relative <= tolerance) return history.result(x, true);
+
+        precondition(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rho = dot(r, z);
+        for (int k = 0; k < maxIterations; k++) {
+            matrix.multiply(p, q);
+            double pq = dot(p, q);
+            if (pq == 0) break;
+            double alpha = rho / pq;
+            axpy(alpha, p, x);
+            axpy(-alpha, q, r);
+            relative = norm(r) / bNorm;
+            history.add(relative);
+            if (relative <= tolerance) return history.result(x, true);
+
+            precondition(r, z);
+            double rhoNext = dot(r, z);
+            double beta = rhoNext / rho;
+            rho = rhoNext;
+            for (int i = 0; i < n; i++) p[i] = z[i] + beta * p[i];
+        }
+        return history.result(x, false);
+    }
+
+    public IterativeResult biCGSTAB(LinearOperator matrix, double[] b) {
+        return biCGSTAB(matrix, b, new double[b.length]);
+    }
+
+    /**
+     * Right preconditioned BiCGSTAB, so the residual monitored is the true residual of the original system
+     *
+     * @param x initial guess, overwritten with the solution
+     */
+    public IterativeResult biCGSTAB(LinearOperator matrix, double[] b, double[] x) {
+        final int n = checkDimensions(matrix, b, x);
+        double[] r = new double[n];
+        double[] shadow = new double[n];
+        double[] p = new double[n];
+        double[] v = new double[n];
+        double[] s = new double[n];
+        double[] t = new double[n];
+        double[] pHat = new double[n];
+        double[] sHat = new double[n];
+        final double bNorm = normOrOne(b);
+        residual(matrix, b, x, r);
+        System.arraycopy(r, 0, shadow, 0, n);
+        History history = new History(maxIterations);
+        double relative = norm(r) / bNorm;
+        history.add(relative);
+        if (relative <= tolerance) return history.result(x, true);
+
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+        for (int k = 0; k < maxIterations; k++) {
+            double rhoNext = dot(shadow, r);
+            //breakdown, the shadow residual became orthogonal to the residual
+            if (rhoNext == 0) break;
+            if (k == 0) {
+                System.arraycopy(r, 0, p, 0, n);
+            } else {
+                double beta = (rhoNext / rho) * (alpha / omega);
+                for (int i = 0; i < n; i++) p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+            rho = rhoNext;
+
+            precondition(p, pHat);
+            matrix.multiply(pHat, v);
+            double shadowV = dot(shadow, v);
+            if (shadowV == 0) break;
+            alpha = rho / shadowV;
+            for (int i = 0; i < n; i++) s[i] = r[i] - alpha * v[i];
+            if (norm(s) / bNorm <= tolerance) {
+                axpy(alpha, pHat, x);
+                history.add(norm(s) / bNorm);
+                return history.result(x, true);
+            }
+
+            precondition(s, sHat);
+            matrix.multiply(sHat, t);
+            double tt = dot(t, t);
+            if (tt == 0) break;
+            omega = dot(t, s) / tt;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            relative = norm(r) / bNorm;
+            history.add(relative);
+            if (relative <= tolerance) return history.result(x, true);
+            if (omega == 0) break;
+        }
+        return history.result(x, false);
+    }
+
+    public IterativeResult gmres(LinearOperator matrix, double[] b) {
+        return gmres(matrix, b, new double[b.length]);
+    }
+
+    /**
+     * Restarted, right preconditioned GMRES. The least squares problem of each cycle is kept in
+     * upper triangular form with Givens rotations, which gives the residual norm of every iteration
+     * without forming x.
+     *
+     * @param x initial guess, overwritten with the solution
+     */
+    public IterativeResult gmres(LinearOperator matrix, double[] b, double[] x) {
+        final int n = checkDimensions(matrix, b, x);
+        final int m = Math.min(restart, Math.max(n, 1));
+        double[][] basis = new double[m + 1][n];
+        double[][] preconditioned = preconditioner == null ? null : new double[m][n];
+        // Hessenberg matrix, column j is h[j][0 .. j + 1]
+        double[][] h = new double[m][m + 1];
+        double[] cosines = new double[m];
+        double[] sines = new double[m];
+        double[] g = new double[m + 1];
+        double[] y = new double[m];
+        double[] r = new double[n];
+        final double bNorm = normOrOne(b);
+        History history = new History(maxIterations);
+
+        residual(matrix, b, x, r);
+        double beta = norm(r);
+        history.add(beta / bNorm);
+        if (beta / bNorm <= tolerance) return history.result(x, true);
+
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            for (int i = 0; i < n; i++) basis[0][i] = r[i] / beta;
+            Arrays.fill(g, 0);
+            g[0] = beta;
+
+            int j = 0;
+            boolean converged = false;
+            while (j < m && iterations < maxIterations) {
+                double[] w = basis[j + 1];
+                if (preconditioned == null) {
+                    matrix.multiply(basis[j], w);
+                } else {
+                    preconditioner.apply(basis[j], preconditioned[j]);
+                    matrix.multiply(preconditioned[j], w);
+                }
+                //modified Gram-Schmidt
+                for (int i = 0; i <= j; i++) {
+                    h[j][i] = dot(w, basis[i]);
+                    axpy(-h[j][i], basis[i], w);
+                }
+                h[j][j + 1] = norm(w);
+                boolean lucky = h[j][j + 1] == 0;
+                if (!lucky) for (int i = 0; i < n; i++) w[i] /= h[j][j + 1];
+
+                //apply the previous rotations to the new column, then eliminate its subdiagonal entry
+                for (int i = 0; i < j; i++) {
+                    double temp = cosines[i] * h[j][i] + sines[i] * h[j][i + 1];
+                    h[j][i + 1] = -sines[i] * h[j][i] + cosines[i] * h[j][i + 1];
+                    h[j][i] = temp;
+                }
+                double radius = Math.hypot(h[j][j], h[j][j + 1]);
+                cosines[j] = radius == 0 ? 1 : h[j][j] / radius;
+                sines[j] = radius == 0 ? 0 : h[j][j + 1] / radius;
+                h[j][j] = radius;
+                h[j][j + 1] = 0;
+                g[j + 1] = -sines[j] * g[j];
+                g[j] = cosines[j] * g[j];
+
+                j++;
+                iterations++;
+                double relative = Math.abs(g[j]) / bNorm;
+                history.add(relative);
+                if (relative <= tolerance || lucky) {
+                    converged = true;
+                    break;
+                }
+            }
+
+            //x += M * V * y, where H y = g
+            for (int i = j - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int k = i + 1; k < j; k++) sum -= h[k][i] * y[k];
+                y[i] = h[i][i] == 0 ? 0 : sum / h[i][i];
+            }
+            if (preconditioned == null) {
+                for (int i = 0; i < j; i++) axpy(y[i], basis[i], x);
+            } else {
+                for (int i = 0; i < j; i++) axpy(y[i], preconditioned[i], x);
+            }
+
+            //the rotated residual drifts from the true one, so each restart starts from b - Ax
+            residual(matrix, b, x, r);
+            beta = norm(r);
+            if (beta / bNorm <= tolerance) return history.result(x, true);
+            if (converged || beta == 0) return history.result(x, beta / bNorm <= tolerance);
+        }
+        return history.result(x, false);
+    }
+
+    private int checkDimensions(LinearOperator matrix, double[] b, double[] x) {
+        final int n = matrix.getRows();
+        if (matrix.getCols() != n) throw new IllegalArgumentException("Matrix is not square");
+        if (b.length != n || x.length != n) throw new IllegalArgumentException("Vector length does not match the matrix");
+        return n;
+    }
+
+    private void precondition(double[] r, double[] z) {
+        if (preconditioner == null) System.arraycopy(r, 0, z, 0, r.length);
+        else preconditioner.apply(r, z);
+    }
+
+    /**
+     * r = b - Ax
+     */
+    private static void residual(LinearOperator matrix, double[] b, double[] x, double[] r) {
+        matrix.multiply(x, r);
+        for (int i = 0; i < r.length; i++) r[i] = b[i] - r[i];
+    }
+
+    /**
+     * ||b||, or 1 when b is zero so the residual is measured absolutely
+     */
+    private static double normOrOne(double[] b) {
+        double norm = norm(b);
+        return norm == 0 ? 1 : norm;
+    }
+
+    static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) sum += x[i] * y[i];
+        return sum;
+    }
+
+    static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+    /**
+     * y += alpha * x
+     */
+    static void axpy(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++) y[i] += alpha * x[i];
+    }
+
+    /**
+     * Residual history that grows as needed, so a high iteration limit costs nothing up front
+     */
+    private static class History {
+        private double[] values;
+        private int size;
+
+        History(int maxIterations) {
+            values = new double[Math.min(maxIterations, 64) + 1];
+        }
+
+        void add(double value) {
+            if (size == values.length) values = Arrays.copyOf(values, 2 * size);
+            values[size++] = value;
+        }
+
+        IterativeResult result(double[] x, boolean converged) {
+            return new IterativeResult(x, size - 1, converged, Arrays.copyOf(values, size));
+        }
+    }
+
+    /**
+     * Outcome of an iterative solve
+     */
+    public static class IterativeResult {
+        private final double[] solution;
+        private final int iterations;
+        private final boolean converged;
+        private final double[] residualHistory;
+
+        IterativeResult(double[] solution, int iterations, boolean converged, double[] residualHistory) {
+            this.solution = solution;
+            this.iterations = iterations;
+            this.converged = converged;
+            this.residualHistory = residualHistory;
+        }
+
+        /**
+         * @return the last iterate, the same array passed in as the initial guess
+         */
+        public double[] getSolution() {
+            return solution;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return true if the tolerance was reached within the iteration limit
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+        /**
+         * @return relative residual ||b - Ax|| / ||b|| of the initial guess followed by one entry per iteration
+         */
+        public double[] getResidualHistory() {
+            return residualHistory.clone();
+        }
+
+        public double getFinalResidual() {
+            return residualHistory[residualHistory.length - 1];
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package main;
+
+/**
+ * Diagonal (Jacobi) preconditioner, M = inverse(diag(A))
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class JacobiPreconditioner implements Preconditioner {
+    private final double[] inverseDiagonal;
+
+    public JacobiPreconditioner(DenseMatrix matrix) {
+        this(diagonal(matrix));
+    }
+
+    public JacobiPreconditioner(SparseMatrix matrix) {
+        this(diagonal(matrix));
+    }
+
+    /**
+     * @throws ArithmeticException a diagonal entry is zero
+     */
+    private JacobiPreconditioner(double[] diagonal) {
+        inverseDiagonal = new double[diagonal.length];
+        for (int i = 0; i < diagonal.length; i++) {
+            if (diagonal[i] == 0) throw new ArithmeticException("Zero on the diagonal at row #" + i);
+            inverseDiagonal[i] = 1 / diagonal[i];
+        }
+    }
+
+    private static double[] diagonal(DenseMatrix matrix) {
+        double[] diagonal = new double[Math.min(matrix.getRows(), matrix.getCols())];
+        for (int i = 0; i < diagonal.length; i++) diagonal[i] = matrix.get(i, i);
+        return diagonal;
+    }
+
+    private static double[] diagonal(SparseMatrix matrix) {
+        double[] diagonal = new double[Math.min(matrix.getRows(), matrix.getCols())];
+        for (int i = 0; i < diagonal.length; i++) diagonal[i] = matrix.get(i, i);
+        return diagonal;
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        for (int i = 0; i < inverseDiagonal.length; i++) z[i] = r[i] * inverseDiagonal[i];
+    }
+}
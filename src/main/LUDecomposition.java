@@ -0,0 +1,281 @@
+package main;
+
+/**
+ * LU decomposition with partial pivoting, PA = LU.
+ * The factorization is computed in cache-sized tiles: a narrow panel of columns is factored first,
+ * then the rest of the matrix is updated one tile at a time. Once factored, each right-hand side
+ * can be solved in O(n^2) by forward and back substitution.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class LUDecomposition {
+    // width of the column panel factored before each trailing update
+    static final int PANEL_SIZE = 64;
+    // number of columns of the trailing matrix updated at once (PANEL_SIZE x TILE_SIZE doubles = 64KB)
+    static final int TILE_SIZE = 128;
+
+    private final int n;
+    // L (unit lower, diagonal not stored) and U packed row-major into one n by n array
+    private final double[] lu;
+    // row i of the factored matrix is row perm[i] of the original matrix
+    private final int[] perm;
+    private int pivotSign;
+    private boolean singular;
+
+    /**
+     * Allocate storage for factoring n by n matrices, call {@link #factor(DenseMatrix)} before solving.
+     * The same object can be refactored any number of times without allocating.
+     */
+    public LUDecomposition(int n) {
+        this.n = n;
+        this.lu = new double[n * n];
+        this.perm = new int[n];
+        this.singular = true;
+    }
+
+    /**
+     * Factor a square matrix, the matrix itself is not modified
+     */
+    public LUDecomposition(DenseMatrix matrix) {
+        this(matrix.getRows());
+        factor(matrix);
+    }
+
+    /**
+     * Factor a square matrix into this object's storage, replacing any previous factorization
+     */
+    public void factor(DenseMatrix matrix) {
+        if (matrix.getRows() != n || matrix.getCols() != n)
+            throw new IllegalArgumentException("Expected a " + n + "x" + n + " matrix");
+        double[] data = matrix.getData();
+        double maxAbs = 0;
+        for (int r = 0; r < n; r++) {
+            int start = matrix.index(r, 0);
+            System.arraycopy(data, start, lu, r * n, n);
+            for (int c = 0; c < n; c++) maxAbs = Math.max(maxAbs, Math.abs(data[start + c]));
+            perm[r] = r;
+        }
+        pivotSign = 1;
+        singular = false;
+        // pivots this small relative to the largest entry are indistinguishable from rounding error
+        final double tolerance = n * Math.ulp(maxAbs);
+
+        for (int k = 0; k < n; k += PANEL_SIZE) {
+            int panelEnd = Math.min(k + PANEL_SIZE, n);
+            factorPanel(k, panelEnd, tolerance);
+            if (panelEnd < n) {
+                solveUpperPanel(k, panelEnd);
+                updateTrailingMatrix(k, panelEnd);
+            }
+        }
+    }
+
+    /**
+     * Unblocked elimination of columns [start, end), only touching the panel's own columns
+     */
+    private void factorPanel(int start, int end, double tolerance) {
+        for (int j = start; j < end; j++) {
+            //search for the largest pivot in this column
+            int pivotRow = j;
+            double pivotAbs = Math.abs(lu[j * n + j]);
+            for (int row = j + 1; row < n; row++) {
+                double value = Math.abs(lu[row * n + j]);
+                if (value > pivotAbs) {
+                    pivotAbs = value;
+                    pivotRow = row;
+                }
+            }
+            if (pivotRow != j) {
+                swapRows(j, pivotRow);
+                pivotSign = -pivotSign;
+            }
+            if (pivotAbs <= tolerance) singular = true;
+            if (pivotAbs == 0) continue; // nothing to eliminate
+
+            final double pivot = lu[j * n + j];
+            final int pivotStart = j * n;
+            for (int row = j + 1; row < n; row++) {
+                final int rowStart = row * n;
+                final double multiplier = lu[rowStart + j] / pivot;
+                lu[rowStart + j] = multiplier;
+                if (multiplier == 0) continue;
+                for (int c = j + 1; c < end; c++) {
+                    lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * U12 = inverse(L11) * A12 for the rows of the panel and the columns to the right of it
+     */
+    private void solveUpperPanel(int start, int end) {
+        for (int j = start; j < end; j++) {
+            final int pivotStart = j * n;
+            for (int row = j + 1; row < end; row++) {
+                final int rowStart = row * n;
+                final double multiplier = lu[rowStart + j];
+                if (multiplier == 0) continue;
+                for (int c = end; c < n; c++) {
+                    lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * A22 = A22 - L21 * U12, one column tile at a time so the tile of U12 stays in cache
+     */
+    private void updateTrailingMatrix(int start, int end) {
+        for (int tileStart = end; tileStart < n; tileStart += TILE_SIZE) {
+            final int tileEnd = Math.min(tileStart + TILE_SIZE, n);
+            for (int row = end; row < n; row++) {
+                final int rowStart = row * n;
+                for (int p = start; p < end; p++) {
+                    final double multiplier = lu[rowStart + p];
+                    if (multiplier == 0) continue;
+                    final int pivotStart = p * n;
+                    for (int c = tileStart; c < tileEnd; c++) {
+                        lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+                    }
+                }
+            }
+        }
+    }
+
+    private void swapRows(int row1, int row2) {
+        final int start1 = row1 * n;
+        final int start2 = row2 * n;
+        for (int c = 0; c < n; c++) {
+            double temp = lu[start1 + c];
+            lu[start1 + c] = lu[start2 + c];
+            lu[start2 + c] = temp;
+        }
+        int tempIndex = perm[row1];
+        perm[row1] = perm[row2];
+        perm[row2] = tempIndex;
+    }
+
+    /**
+     * @return true if the matrix has no unique inverse, within rounding error
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return +1 or -1, the sign of the row permutation
+     */
+    public int getPivotSign() {
+        return pivotSign;
+    }
+
+    /**
+     * @return the row permutation, row i of PA is row getPermutation()[i] of A. The array is shared.
+     */
+    public int[] getPermutation() {
+        return perm;
+    }
+
+    /**
+     * @return the packed factors, L below the diagonal (unit diagonal not stored) and U on and above it.
+     * The returned matrix shares this object's storage.
+     */
+    public DenseMatrix getPackedFactors() {
+        return new DenseMatrix(n, n, lu, 0, n);
+    }
+
+    /**
+     * Solve Ax = b
+     *
+     * @return a new array holding x
+     * @throws ArithmeticException the matrix is singular
+     */
+    public double[] solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        return x;
+    }
+
+    /**
+     * Solve Ax = b into a caller supplied array. b and x must not be the same array.
+     *
+     * @throws ArithmeticException the matrix is singular
+     */
+    public void solve(double[] b, double[] x) {
+        if (singular) throw new ArithmeticException("Matrix is singular");
+        if (b.length != n || x.length != n) throw new IllegalArgumentException("Expected vectors of length " + n);
+        //forward substitution, Ly = Pb
+        for (int i = 0; i < n; i++) {
+            final int rowStart = i * n;
+            double sum = b[perm[i]];
+            for (int p = 0; p < i; p++) sum -= lu[rowStart + p] * x[p];
+            x[i] = sum;
+        }
+        //back substitution, Ux = y
+        for (int i = n - 1; i >= 0; i--) {
+            final int rowStart = i * n;
+            double sum = x[i];
+            for (int p = i + 1; p < n; p++) sum -= lu[rowStart + p] * x[p];
+            x[i] = sum / lu[rowStart + i];
+        }
+    }
+
+    /**
+     * Solve AX = B for every column of B at once, overwriting B with X.
+     * Columns are processed in tiles so the rows of the current tile stay in cache.
+     *
+     * @param rhs n by k matrix of right-hand sides
+     * @param workspace array of at least n * min(k, TILE_SIZE) doubles, or null to allocate one
+     * @throws ArithmeticException the matrix is singular
+     */
+    public void solve(DenseMatrix rhs, double[] workspace) {
+        if (singular) throw new ArithmeticException("Matrix is singular");
+        if (rhs.getRows() != n) throw new IllegalArgumentException("Expected " + n + " rows of right-hand sides");
+        final int k = rhs.getCols();
+        final int tileWidth = Math.min(k, TILE_SIZE);
+        if (workspace == null || workspace.length < n * tileWidth) workspace = new double[n * tileWidth];
+        final double[] data = rhs.getData();
+
+        for (int tileStart = 0; tileStart < k; tileStart += TILE_SIZE) {
+            final int width = Math.min(TILE_SIZE, k - tileStart);
+            //gather the permuted rows of this tile, Pb
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(data, rhs.index(perm[i], tileStart), workspace, i * width, width);
+            }
+            //forward substitution with unit L
+            for (int i = 1; i < n; i++) {
+                final int rowStart = i * n;
+                final int target = i * width;
+                for (int p = 0; p < i; p++) {
+                    final double multiplier = lu[rowStart + p];
+                    if (multiplier == 0) continue;
+                    final int source = p * width;
+                    for (int c = 0; c < width; c++) workspace[target + c] -= multiplier * workspace[source + c];
+                }
+            }
+            //back substitution with U
+            for (int i = n - 1; i >= 0; i--) {
+                final int rowStart = i * n;
+                final int target = i * width;
+                for (int p = i + 1; p < n; p++) {
+                    final double multiplier = lu[rowStart + p];
+                    if (multiplier == 0) continue;
+                    final int source = p * width;
+                    for (int c = 0; c < width; c++) workspace[target + c] -= multiplier * workspace[source + c];
+                }
+                final double pivot = lu[rowStart + i];
+                for (int c = 0; c < width; c++) workspace[target + c] /= pivot;
+            }
+            //scatter the solutions back
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(workspace, i * width, data, rhs.index(i, tileStart), width);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package main;
+
+/**
+ * Anything that can be multiplied by a vector. Iterative solvers only need this,
+ * so they run unchanged on dense, sparse or matrix-free representations.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public interface LinearOperator {
+    int getRows();
+
+    int getCols();
+
+    /**
+     * y = this * x, y must not be the same array as x
+     */
+    void multiply(double[] x, double[] y);
+}
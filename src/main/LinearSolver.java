@@ -1,12 +1,16 @@
 package main;
 
 import java.io.IOException;
-import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
+ * A LinearSolver keeps its options and the pivots of its last solve, so each thread should use its own instance.
+ * The static methods keep no state and may be called from any thread.
+ *
  * @author Arthur Zarins
  * @author Muneeb Chaudhary
  */
@@ -18,6 +22,161 @@ public class LinearSolver {
         logOperations = true;
     }
 
+    // when recorder is set, every elementary row operation is recorded to it
+    private OperationRecorder recorder = null;
+
+    /**
+     * Record each row operation as a compact record instead of printing the matrix after it.
+     * Every solve starts a new recording with {@link OperationRecorder#begin(DenseMatrix)}.
+     *
+     * @param recorder the recorder, or null to stop recording
+     */
+    public void enableRecording(OperationRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // when metrics is set, operation counts and phase timings are added to it
+    private SolverMetrics metrics = null;
+
+    /**
+     * Count row operations and time each phase of every solve
+     *
+     * @param metrics the metrics to add to, or null to stop measuring
+     */
+    public void enableMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // when cache is set, LU factors of square coefficient matrices are reused across solves
+    private FactorizationCache cache = null;
+
+    /**
+     * Reuse the LU factors of coefficient matrices that were solved before, the results are unchanged
+     *
+     * @param cache the cache to look factors up in, or null to factor every matrix
+     */
+    public void enableCache(FactorizationCache cache) {
+        this.cache = cache;
+    }
+
+    // when exact is true, solves use rational arithmetic instead of doubles
+    private boolean exact = false;
+
+    /**
+     * Solve with {@link ExactSolver}, the reduced matrix is then exact up to one rounding per entry and is not
+     * rounded to 5 decimals. Logging and recording still use floating point elimination.
+     */
+    public void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    // when detectStructure is true, triangular, banded and symmetric systems skip general elimination
+    private boolean detectStructure = true;
+
+    /**
+     * Analyze each square system with a {@link StructureAnalyzer} and solve triangular, banded and symmetric ones
+     * with a specialized solver, on by default. Singular systems always go through general elimination.
+     */
+    public void setStructureDetection(boolean detectStructure) {
+        this.detectStructure = detectStructure;
+    }
+
+    public boolean isStructureDetection() {
+        return detectStructure;
+    }
+
+    // when mixedPrecision is true, square systems are factored in float and refined to double
+    private boolean mixedPrecision = false;
+    // refinement steps of the last solve, -1 if it did not use mixed precision
+    private int refinementIterations = -1;
+
+    /**
+     * Solve square systems with a {@link MixedPrecisionSolver}: a float LU refined to double precision,
+     * falling back to a double LU when refinement stalls
+     */
+    public void setMixedPrecision(boolean mixedPrecision) {
+        this.mixedPrecision = mixedPrecision;
+    }
+
+    public boolean isMixedPrecision() {
+        return mixedPrecision;
+    }
+
+    /**
+     * @return refinement steps taken by the last solve, or -1 if it was not solved in mixed precision
+     */
+    public int getRefinementIterations() {
+        return refinementIterations;
+    }
+
+    // how pivots are chosen, and the relative size below which entries count as zero
+    private PivotStrategy pivotStrategy = PivotStrategy.FIRST_NONZERO;
+    private double epsilon = 0;
+
+    // pivot column of each pivot row found by the last forward elimination, and the shape and contents
+    // fingerprint of the matrix they belong to, so a changed matrix is scanned again and none is kept alive
+    private int[] pivotColumns = new int[0];
+    private int pivotRows = -1;
+    private int pivotCols = -1;
+    private long pivotFingerprint = 0;
+
+    public void setPivotStrategy(PivotStrategy pivotStrategy) {
+        this.pivotStrategy = pivotStrategy;
+    }
+
+    public PivotStrategy getPivotStrategy() {
+        return pivotStrategy;
+    }
+
+    /**
+     * Treat entries with |x| <= epsilon * (largest |entry| of the matrix) as zero when choosing pivots,
+     * which decides the rank. The default of 0 only treats exact zeros as zero. A positive epsilon, like
+     * complete pivoting, sends square systems through elimination instead of the LU, structured and
+     * mixed precision fast paths, whose own singularity tests would ignore it.
+     */
+    public void setEpsilon(double epsilon) {
+        if (!(epsilon >= 0)) throw new IllegalArgumentException("Epsilon must not be negative");
+        this.epsilon = epsilon;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * @return the pivot column of each pivot row found by the last forward elimination, its length is the rank
+     */
+    public int[] getPivotColumns() {
+        return pivotColumns.clone();
+    }
+
+    // number of elements updated per pivot step below which elimination stays sequential
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    // when pool is set, eliminations on large dense matrices are split across its threads
+    private ForkJoinPool pool = null;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Run row elimination of large dense matrices on a pool of threads.
+     * Results are bitwise identical to the sequential path. Ignored while logging is enabled.
+     */
+    public void enableParallelism(ForkJoinPool pool) {
+        enableParallelism(pool, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param threshold minimum number of matrix elements updated in one pivot step to go parallel
+     */
+    public void enableParallelism(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.parallelThreshold = threshold;
+    }
+
     /**
      * Operation 1. Swapping two rows
      */
@@ -29,6 +188,8 @@ public class LinearSolver {
             matrix.get(row1).set(i, row2val);
             matrix.get(row2).set(i, row1val);
         }
+        if (recorder != null) recorder.swap(row1, row2);
+        if (metrics != null) metrics.rowSwaps++;
         if (logOperations) {
             System.out.println("Swapping rows #" + row1 + " and #" + row2);
             printMatrix(matrix);
@@ -46,6 +207,11 @@ public class LinearSolver {
         for (int i = 0; i < matrix.get(row).size(); i++) {
             matrix.get(row).set(i, matrix.get(row).get(i) * scalar);
         }
+        if (recorder != null) recorder.scale(row, scalar);
+        if (metrics != null) {
+            metrics.rowScales++;
+            metrics.flops += matrix.get(row).size();
+        }
         if (logOperations) {
             System.out.println("Scaling row #" + row + " by " + scalar);
             printMatrix(matrix);
@@ -66,6 +232,70 @@ public class LinearSolver {
             Double addedValue = c * matrix.get(row_delta).get(i);
             matrix.get(row_i).set(i, ogValue + addedValue);
         }
+        if (recorder != null) recorder.add(row_i, row_delta, c);
+        if (metrics != null) {
+            metrics.rowAdds++;
+            metrics.flops += 2L * matrix.get(row_i).size();
+        }
+        if (logOperations) {
+            System.out.println("Row #" + row_i + " -> row #" + row_i + " + row #" + row_delta + " * " + c);
+            printMatrix(matrix);
+        }
+    }
+
+    /**
+     * Operation 1 on a dense matrix. Swapping two rows
+     */
+    public void swapRows(DenseMatrix matrix, int row1, int row2) {
+        if (row1 == row2) return; // no effect
+        double[] data = matrix.getData();
+        int start1 = matrix.index(row1, 0);
+        int start2 = matrix.index(row2, 0);
+        RowKernels.SELECTED.swap(data, start1, start2, matrix.getCols());
+        if (recorder != null) recorder.swap(row1, row2);
+        if (metrics != null) metrics.rowSwaps++;
+        if (logOperations) {
+            System.out.println("Swapping rows #" + row1 + " and #" + row2);
+            printMatrix(matrix);
+        }
+    }
+
+    /**
+     * Operation 2 on a dense matrix. Multiplying a row by a nonzero scalar
+     *
+     * @throws Exception scalar = 0
+     */
+    public void scaleRow(DenseMatrix matrix, int row, double scalar) throws Exception {
+        if (scalar == 1) return; // no effect
+        if (scalar == 0) throw new Exception("Attempted to multiply row by zero");
+        double[] data = matrix.getData();
+        int start = matrix.index(row, 0);
+        RowKernels.SELECTED.scale(data, start, matrix.getCols(), scalar);
+        if (recorder != null) recorder.scale(row, scalar);
+        if (metrics != null) {
+            metrics.rowScales++;
+            metrics.flops += matrix.getCols();
+        }
+        if (logOperations) {
+            System.out.println("Scaling row #" + row + " by " + scalar);
+            printMatrix(matrix);
+        }
+    }
+
+    /**
+     * Operation 3 on a dense matrix. Adding rows
+     * row_i -> row_i + (c * row_delta)
+     */
+    public void addRows(DenseMatrix matrix, int row_i, int row_delta, double c) {
+        double[] data = matrix.getData();
+        int start = matrix.index(row_i, 0);
+        int deltaStart = matrix.index(row_delta, 0);
+        RowKernels.SELECTED.axpy(data, start, deltaStart, matrix.getCols(), c);
+        if (recorder != null) recorder.add(row_i, row_delta, c);
+        if (metrics != null) {
+            metrics.rowAdds++;
+            metrics.flops += 2L * matrix.getCols();
+        }
         if (logOperations) {
             System.out.println("Row #" + row_i + " -> row #" + row_i + " + row #" + row_delta + " * " + c);
             printMatrix(matrix);
@@ -91,48 +321,422 @@ public class LinearSolver {
         }
     }
 
+    private static void printMatrix(DenseMatrix matrix) {
+        printMatrix(matrix, true); //include the bar by default
+    }
+
+    private static void printMatrix(DenseMatrix matrix, boolean includeBar) {
+        for (int r = 0; r < matrix.getRows(); r++) {
+            System.out.print("[");
+            for (int i = 0; i < matrix.getCols(); i++) {
+                System.out.print(matrix.get(r, i) + " \t");
+                if (includeBar) {
+                    // add line between variables and constants
+                    if (i == matrix.getCols() - 2)
+                        System.out.print("| ");
+                }
+            }
+            System.out.println("]");
+        }
+    }
+
     /**
      * Solve matrix by converting to reduced row echelon form
      */
     public void solveMatrix(ArrayList<ArrayList<Double>> matrix) {
+        DenseMatrix dense = DenseMatrix.fromList(matrix);
+        solveMatrix(dense);
+        dense.copyInto(matrix);
+    }
+
+    /**
+     * Solve a dense matrix in place by converting to reduced row echelon form
+     */
+    public void solveMatrix(DenseMatrix matrix) {
+        final SolverMetrics metrics = this.metrics;
+        if (metrics == null) {
+            try {
+                reduce(matrix, null);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        final long allocated = SolverMetrics.allocatedByThisThread();
+        final long swaps = metrics.rowSwaps;
+        final long scales = metrics.rowScales;
+        final long adds = metrics.rowAdds;
+        final long flops = metrics.flops;
+        final long[] phases = metrics.phaseNanos.clone();
+        metrics.solves++;
         try {
+            reduce(matrix, metrics);
+        } catch (Exception e) {
+            metrics.recordError(e);
+            event.failed = true;
+            e.printStackTrace();
+        }
+        metrics.allocatedBytes += SolverMetrics.allocatedByThisThread() - allocated;
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = matrix.getRows();
+            event.cols = matrix.getCols();
+            event.rowSwaps = metrics.rowSwaps - swaps;
+            event.rowScales = metrics.rowScales - scales;
+            event.rowAdds = metrics.rowAdds - adds;
+            event.flops = metrics.flops - flops;
+            event.allocatedBytes = SolverMetrics.allocatedByThisThread() - allocated;
+            event.factorizationNanos = metrics.phaseNanos[SolverMetrics.Phase.FACTORIZATION.ordinal()] - phases[SolverMetrics.Phase.FACTORIZATION.ordinal()];
+            event.echelonNanos = metrics.phaseNanos[SolverMetrics.Phase.ECHELON.ordinal()] - phases[SolverMetrics.Phase.ECHELON.ordinal()];
+            event.reducedEchelonNanos = metrics.phaseNanos[SolverMetrics.Phase.REDUCED_ECHELON.ordinal()] - phases[SolverMetrics.Phase.REDUCED_ECHELON.ordinal()];
+            event.roundingNanos = metrics.phaseNanos[SolverMetrics.Phase.ROUNDING.ordinal()] - phases[SolverMetrics.Phase.ROUNDING.ordinal()];
+            event.commit();
+        }
+    }
+
+    /**
+     * @param metrics phases are timed into metrics unless it is null
+     */
+    private void reduce(DenseMatrix matrix, SolverMetrics metrics) throws Exception {
+        if (recorder != null) recorder.begin(matrix);
+        long time = metrics == null ? 0 : System.nanoTime();
+        if (exact && !logOperations && recorder == null) {
+            ExactSolver solver = new ExactSolver(matrix);
+            time = lap(metrics, SolverMetrics.Phase.ECHELON, time);
+            ExactSolver.toDense(solver.getReducedRowEchelon()).copyTo(matrix);
+            recordPivots(matrix, solver.getPivotColumns());
+            lap(metrics, SolverMetrics.Phase.REDUCED_ECHELON, time);
+            return;
+        }
+        //a square coefficient block with a unique solution can skip Gauss-Jordan, unless the pivot tolerance
+        //or complete pivoting must decide the rank and pivot order
+        refinementIterations = -1;
+        boolean solved = !logOperations && recorder == null && epsilon == 0 && pivotStrategy != PivotStrategy.COMPLETE
+                && (detectStructure && solveStructuredSystem(matrix, metrics, cache != null)
+                || mixedPrecision && solveMixedPrecision(matrix, metrics)
+                || solveSquareSystem(matrix, metrics, cache));
+        time = lap(metrics, SolverMetrics.Phase.FACTORIZATION, time);
+        if (solved) {
+            pivotColumns = new int[matrix.getRows()];
+            for (int i = 0; i < pivotColumns.length; i++) pivotColumns[i] = i;
+        } else {
             //convert to row echelon form
             convertToRowEchelon(matrix);
+            time = lap(metrics, SolverMetrics.Phase.ECHELON, time);
 
             if (logOperations) System.out.println("\nConverting to Reduced Row Echelon form");
             convertToReducedRowEchelon(matrix);
+            time = lap(metrics, SolverMetrics.Phase.REDUCED_ECHELON, time);
+        }
 
-            //round the values in the matrix
-            roundMatrix(matrix);
-        } catch (Exception e) {
-            e.printStackTrace();
+        //round the values in the matrix
+        roundMatrix(matrix);
+        if (recorder != null) recorder.round();
+        //rounding keeps the pivots, they now belong to the rounded matrix
+        recordPivots(matrix, pivotColumns);
+        lap(metrics, SolverMetrics.Phase.ROUNDING, time);
+    }
+
+    /**
+     * Keep the pivots found for a matrix, with a fingerprint of the matrix rather than a reference to it
+     */
+    private void recordPivots(DenseMatrix matrix, int[] pivots) {
+        pivotColumns = pivots;
+        pivotRows = matrix.getRows();
+        pivotCols = matrix.getCols();
+        pivotFingerprint = fingerprint(matrix);
+    }
+
+    /**
+     * @return true if the recorded pivots were found for a matrix with the same shape and contents
+     */
+    private boolean hasPivotsFor(DenseMatrix matrix) {
+        return matrix.getRows() == pivotRows && matrix.getCols() == pivotCols && fingerprint(matrix) == pivotFingerprint;
+    }
+
+    /**
+     * 64-bit hash of the entries, one pass over the matrix like the pivot scan it replaces
+     */
+    private static long fingerprint(DenseMatrix matrix) {
+        final double[] data = matrix.getData();
+        long hash = 0;
+        for (int r = 0; r < matrix.getRows(); r++) {
+            final int start = matrix.index(r, 0);
+            for (int c = 0; c < matrix.getCols(); c++) {
+                hash = (hash ^ Double.doubleToLongBits(data[start + c])) * 0x9E3779B97F4A7C15L;
+                hash ^= hash >>> 29;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Add the time since start to a phase
+     *
+     * @return the current time, the start of the next phase
+     */
+    private static long lap(SolverMetrics metrics, SolverMetrics.Phase phase, long start) {
+        if (metrics == null) return 0;
+        long now = System.nanoTime();
+        metrics.addPhase(phase, now - start);
+        return now;
+    }
+
+    /**
+     * Solve [A | b] with the solver for A's structure when A is square, nonsingular and structured,
+     * leaving [I | x] in the matrix
+     *
+     * @param cached symmetric matrices are left to the cached LU factors, which solve a repeated matrix in O(n^2)
+     * @return false if no structured solver applies and the matrix was left untouched
+     */
+    private static boolean solveStructuredSystem(DenseMatrix matrix, SolverMetrics metrics, boolean cached) {
+        final int n = matrix.getRows();
+        if (n == 0 || matrix.getCols() != n + 1) return false;
+        StructureAnalyzer analyzer = new StructureAnalyzer(matrix.view(0, 0, n, n));
+        StructureAnalyzer.Structure structure = analyzer.getStructure();
+        if (structure == StructureAnalyzer.Structure.GENERAL || cached && structure == StructureAnalyzer.Structure.SYMMETRIC) return false;
+
+        double[] b = new double[n];
+        for (int r = 0; r < n; r++) b[r] = matrix.get(r, n);
+        double[] x = analyzer.solve(b);
+        if (metrics != null) metrics.flops += analyzer.getSolveFlops();
+        if (x == null) return false;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) matrix.set(r, c, r == c ? 1.0 : 0.0);
+            matrix.set(r, n, x[r]);
         }
+        return true;
+    }
+
+    /**
+     * Solve [A | b] with a float LU of A and iterative refinement when A is square and nonsingular,
+     * leaving [I | x] in the matrix
+     *
+     * @return false if A is not square or is singular to float precision, and the matrix was left untouched
+     */
+    private boolean solveMixedPrecision(DenseMatrix matrix, SolverMetrics metrics) {
+        final int n = matrix.getRows();
+        if (n == 0 || matrix.getCols() != n + 1) return false;
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(matrix.view(0, 0, n, n));
+        if (!solver.isUsable()) return false;
+
+        double[] b = new double[n];
+        for (int r = 0; r < n; r++) b[r] = matrix.get(r, n);
+        double[] x = new double[n];
+        refinementIterations = solver.solve(b, x);
+        //float factorization, then a residual and a float solve per step, then the double LU of a fallback
+        if (metrics != null) {
+            metrics.flops += 2L * n * n * n / 3 + 2L * n * n + 4L * n * n * refinementIterations
+                    + (solver.getFallbacks() > 0 ? 2L * n * n * n / 3 + 2L * n * n : 0);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) matrix.set(r, c, r == c ? 1.0 : 0.0);
+            matrix.set(r, n, x[r]);
+        }
+        return true;
+    }
+
+    /**
+     * Solve [A | b] with an LU factorization of A when A is square and nonsingular,
+     * leaving [I | x] in the matrix, which is its reduced row echelon form
+     *
+     * @param cache where the factors are looked up and kept, or null
+     * @return false if the fast path does not apply and the matrix was left untouched
+     */
+    private static boolean solveSquareSystem(DenseMatrix matrix, SolverMetrics metrics, FactorizationCache cache) {
+        final int n = matrix.getRows();
+        if (n == 0 || matrix.getCols() != n + 1) return false;
+        DenseMatrix coefficients = matrix.view(0, 0, n, n);
+        FactorizationCache.Factorization cached = cache == null ? null : cache.factorization(coefficients);
+        boolean factored = cached == null || !cached.hasLU();
+        LUDecomposition lu = cached == null ? new LUDecomposition(coefficients) : cached.getLU();
+        //factorization, then forward and back substitution
+        if (metrics != null) metrics.flops += (factored ? 2L * n * n * n / 3 : 0) + 2L * n * n;
+        if (lu.isSingular()) return false;
+
+        double[] b = new double[n];
+        for (int r = 0; r < n; r++) b[r] = matrix.get(r, n);
+        double[] x = lu.solve(b);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) matrix.set(r, c, r == c ? 1.0 : 0.0);
+            matrix.set(r, n, x[r]);
+        }
+        return true;
+    }
+
+    /**
+     * @return the LU factors a LinearSolver with default options solves [A | b] with, for every b, or null if it
+     * would solve A's systems another way: a structured solver, or elimination when A is singular or not square
+     */
+    static LUDecomposition defaultFactors(DenseMatrix coefficients) {
+        final int n = coefficients.getRows();
+        if (n == 0 || coefficients.getCols() != n) return null;
+        //whether a structured solver applies depends on A alone, so any b tells
+        if (new StructureAnalyzer(coefficients).solve(new double[n]) != null) return null;
+        LUDecomposition lu = new LUDecomposition(coefficients);
+        return lu.isSingular() ? null : lu;
     }
 
     public void convertToRowEchelon(ArrayList<ArrayList<Double>> matrix) throws Exception {
+        DenseMatrix dense = DenseMatrix.fromList(matrix);
+        convertToRowEchelon(dense);
+        dense.copyInto(matrix);
+    }
+
+    /**
+     * Convert a dense matrix to row echelon form with the selected pivot strategy, every pivot scaled to 1.
+     * The pivot positions are recorded for {@link #convertToReducedRowEchelon(DenseMatrix)} and {@link #getPivotColumns()}.
+     */
+    public void convertToRowEchelon(DenseMatrix matrix) throws Exception {
+        final int rows = matrix.getRows();
+        final int cols = matrix.getCols();
+        final double tolerance = epsilon == 0 ? 0 : epsilon * maxAbs(matrix);
+        final boolean complete = pivotStrategy == PivotStrategy.COMPLETE;
+        double[] rowScales = pivotStrategy == PivotStrategy.SCALED_PARTIAL ? rowScales(matrix) : null;
+        boolean[] usedCols = complete ? new boolean[cols] : null;
+        int[] pivots = new int[Math.min(rows, cols)];
         int pivotCol = 0;
         int pivotRow = 0;
-        while (pivotRow < matrix.size() && pivotCol < matrix.get(0).size()) {
+        while (pivotRow < rows && pivotCol < cols) {
             //begin below the pivot row, search for a pivot
-            boolean pivotFound = false;
-            for (int row = pivotRow; row < matrix.size(); row++) {
-                if (matrix.get(row).get(pivotCol) != 0) {
-                    //place this row at the top
-                    swapRows(matrix, pivotRow, row);
-                    pivotFound = true;
-                    break;
-                }
+            if (metrics != null) metrics.pivotSearches++;
+            int row;
+            if (complete) {
+                long position = findCompletePivot(matrix, pivotRow, usedCols, tolerance);
+                if (position < 0) break;
+                row = (int) (position >>> 32);
+                pivotCol = (int) position;
+                usedCols[pivotCol] = true;
+            } else {
+                row = findPivot(matrix, pivotRow, pivotCol, tolerance, rowScales);
             }
-            if (pivotFound) {
+            if (row >= 0) {
+                //place this row at the top
+                swapRows(matrix, pivotRow, row);
+                if (rowScales != null) {
+                    double scale = rowScales[pivotRow];
+                    rowScales[pivotRow] = rowScales[row];
+                    rowScales[row] = scale;
+                }
                 //scale the pivot to 1
-                scaleRow(matrix, pivotRow, (1 / matrix.get(pivotRow).get(pivotCol)));
+                scaleRow(matrix, pivotRow, (1 / matrix.get(pivotRow, pivotCol)));
                 //eliminate all elements under the pivot
-                for (int row = pivotRow + 1; row < matrix.size(); row++) {
-                    addRows(matrix, row, pivotRow, -matrix.get(row).get(pivotCol));
+                eliminateRows(matrix, pivotRow, pivotCol, pivotRow + 1, rows);
+                pivots[pivotRow++] = pivotCol; // move onto the next row
+            }
+            if (!complete) pivotCol++; // move to next column
+        }
+        recordPivots(matrix, Arrays.copyOf(pivots, pivotRow));
+    }
+
+    private static boolean isZero(double value, double tolerance) {
+        //NaN is not zero, as with the original != 0 test
+        return Math.abs(value) <= tolerance;
+    }
+
+    /**
+     * @return the pivot row for pivotCol among rows [pivotRow, rows), or -1 if the column is zero there
+     */
+    private int findPivot(DenseMatrix matrix, int pivotRow, int pivotCol, double tolerance, double[] rowScales) {
+        final int rows = matrix.getRows();
+        if (pivotStrategy == PivotStrategy.FIRST_NONZERO) {
+            for (int row = pivotRow; row < rows; row++) {
+                if (!isZero(matrix.get(row, pivotCol), tolerance)) return row;
+            }
+            return -1;
+        }
+        //the constants column of an augmented matrix is not scaled
+        boolean scaled = rowScales != null && pivotCol < matrix.getCols() - 1;
+        int best = -1;
+        double bestSize = 0;
+        for (int row = pivotRow; row < rows; row++) {
+            double value = matrix.get(row, pivotCol);
+            if (isZero(value, tolerance)) continue;
+            double size = scaled ? Math.abs(value) / rowScales[row] : Math.abs(value);
+            if (best == -1 || size > bestSize) {
+                best = row;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find the largest entry among rows [pivotRow, rows) and the unused coefficient columns.
+     * When those are all zero, the constants column is searched, a pivot there means there is no solution.
+     *
+     * @return row << 32 | column, or -1 if no pivot is left
+     */
+    private static long findCompletePivot(DenseMatrix matrix, int pivotRow, boolean[] usedCols, double tolerance) {
+        final int rows = matrix.getRows();
+        final int cols = matrix.getCols();
+        final int coefficientCols = Math.max(cols - 1, 1);
+        long best = -1;
+        double bestSize = tolerance;
+        for (int row = pivotRow; row < rows; row++) {
+            for (int col = 0; col < coefficientCols; col++) {
+                if (usedCols[col]) continue;
+                double size = Math.abs(matrix.get(row, col));
+                if (size > bestSize || (best == -1 && Double.isNaN(size))) {
+                    best = ((long) row << 32) | col;
+                    bestSize = size;
                 }
-                pivotRow++; // move onto the next row
             }
-            pivotCol++; // move to next column
+        }
+        if (best != -1 || coefficientCols == cols || usedCols[cols - 1]) return best;
+        for (int row = pivotRow; row < rows; row++) {
+            double size = Math.abs(matrix.get(row, cols - 1));
+            if (size > bestSize) {
+                best = ((long) row << 32) | (cols - 1);
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the largest magnitude of the coefficients of each row, 1 for rows that are all zero
+     */
+    private static double[] rowScales(DenseMatrix matrix) {
+        final int coefficientCols = Math.max(matrix.getCols() - 1, 1);
+        double[] scales = new double[matrix.getRows()];
+        for (int row = 0; row < scales.length; row++) {
+            double max = 0;
+            for (int col = 0; col < Math.min(coefficientCols, matrix.getCols()); col++) max = Math.max(max, Math.abs(matrix.get(row, col)));
+            scales[row] = max == 0 ? 1 : max;
+        }
+        return scales;
+    }
+
+    private static double maxAbs(DenseMatrix matrix) {
+        double max = 0;
+        for (int row = 0; row < matrix.getRows(); row++) {
+            for (int col = 0; col < matrix.getCols(); col++) max = Math.max(max, Math.abs(matrix.get(row, col)));
+        }
+        return max;
+    }
+
+    /**
+     * Clear the pivot column from rows [fromRow, toRow) using the pivot row, which has a 1 in that column
+     */
+    private void eliminateRows(DenseMatrix matrix, int pivotRow, int pivotCol, int fromRow, int toRow) {
+        if (pool != null && !logOperations && (long) (toRow - fromRow) * matrix.getCols() >= parallelThreshold) {
+            //the parallel path computes the same multipliers, which are recorded up front
+            if (recorder != null) {
+                for (int row = fromRow; row < toRow; row++) recorder.add(row, pivotRow, -matrix.get(row, pivotCol));
+            }
+            if (metrics != null) {
+                metrics.rowAdds += toRow - fromRow;
+                metrics.flops += 2L * (toRow - fromRow) * matrix.getCols();
+            }
+            ParallelElimination.eliminate(pool, matrix, pivotRow, pivotCol, fromRow, toRow);
+            return;
+        }
+        for (int row = fromRow; row < toRow; row++) {
+            addRows(matrix, row, pivotRow, -matrix.get(row, pivotCol));
         }
     }
 
@@ -140,15 +744,38 @@ public class LinearSolver {
      * @param matrix a matrix in row echelon form
      */
     public void convertToReducedRowEchelon(ArrayList<ArrayList<Double>> matrix) {
+        DenseMatrix dense = DenseMatrix.fromList(matrix);
+        convertToReducedRowEchelon(dense);
+        dense.copyInto(matrix);
+    }
+
+    /**
+     * Clear every pivot column above its pivot. When the matrix is unchanged since convertToRowEchelon
+     * of this solver reduced it, the recorded pivot positions are used, otherwise each row is scanned for its pivot:
+     * the first entry equal to 1 with the FIRST_NONZERO strategy, the first nonzero entry with the others.
+     *
+     * @param matrix a dense matrix in row echelon form
+     */
+    public void convertToReducedRowEchelon(DenseMatrix matrix) {
+        if (hasPivotsFor(matrix)) {
+            for (int pivotRow = pivotColumns.length - 1; pivotRow >= 0; pivotRow--) {
+                //reduce all rows above the pivot row
+                eliminateRows(matrix, pivotRow, pivotColumns[pivotRow], 0, pivotRow);
+            }
+            //the pivots are the same in the reduced matrix
+            recordPivots(matrix, pivotColumns);
+            return;
+        }
+        final double tolerance = epsilon == 0 ? 0 : epsilon * maxAbs(matrix);
         //begin at last row, back substitution
-        for (int pivotRow = matrix.size() - 1; pivotRow >= 0; pivotRow--) {
+        for (int pivotRow = matrix.getRows() - 1; pivotRow >= 0; pivotRow--) {
             //find pivot column
-            for (int col = 0; col < matrix.get(pivotRow).size(); col++) {
-                if (matrix.get(pivotRow).get(col) == 1) {
+            if (metrics != null) metrics.pivotSearches++;
+            for (int col = 0; col < matrix.getCols(); col++) {
+                double value = matrix.get(pivotRow, col);
+                if (pivotStrategy == PivotStrategy.FIRST_NONZERO ? value == 1 : !isZero(value, tolerance)) {
                     //reduce all rows above the pivot row
-                    for (int row = 0; row < pivotRow; row++) {
-                        addRows(matrix, row, pivotRow, -matrix.get(row).get(col));
-                    }
+                    eliminateRows(matrix, pivotRow, col, 0, pivotRow);
                     break;
                 }
             }
@@ -157,14 +784,15 @@ public class LinearSolver {
     }
 
     /**
-     * Round all elements to 5 decimal places
+     * Round all elements of a dense matrix to 5 decimal places
      */
-    private static void roundMatrix(ArrayList<ArrayList<Double>> matrix) {
+    static void roundMatrix(DenseMatrix matrix) {
         final double multi = Math.pow(10, 5);
-        for (int r = 0; r < matrix.size(); r++) {
-            for (int c = 0; c < matrix.get(0).size(); c++) {
-                double ogValue = matrix.get(r).get(c);
-                matrix.get(r).set(c, Math.round(ogValue * multi) / multi);
+        double[] data = matrix.getData();
+        for (int r = 0; r < matrix.getRows(); r++) {
+            int start = matrix.index(r, 0);
+            for (int c = 0; c < matrix.getCols(); c++) {
+                data[start + c] = Math.round(data[start + c] * multi) / multi;
             }
         }
     }
@@ -192,71 +820,144 @@ public class LinearSolver {
         return true;
     }
 
-    public static Double calcDeterminant(ArrayList<ArrayList<Double>> matrix) {
-        int n = matrix.size();
-        //base case
-        if (n == 1) {
-            return matrix.get(0).get(0);
-        }
-        double total = 0.0;
-        for (int i = 0; i < n; i++) {
-            ArrayList<ArrayList<Double>> sub = new ArrayList<>();
-            //creates appropriate submatrix
-            for (int r = 1; r < n; r++) {
-                ArrayList<Double> row = new ArrayList<>();
-                for (int c = 0; c < n; c++) {
-                    if (c != i) {
-                        row.add(matrix.get(r).get(c));
+    public static boolean existsSolution(DenseMatrix matrix) {
+        int C = matrix.getCols();
+        int R = matrix.getRows();
+        boolean solutionRow;
+
+        for (int r = 0; r < R; r++) {
+            if (matrix.get(r, C - 1) != 0) {
+                solutionRow = false;
+                for (int c = 0; c < C - 1; c++) {
+                    if (matrix.get(r, c) != 0) {
+                        solutionRow = true;
                     }
                 }
-                sub.add((ArrayList) row.clone());
-            }
-            //recursively calculates determinant
-            if (i % 2 == 0) {
-                total += matrix.get(0).get(i) * calcDeterminant(sub);
-            } else {
-                total -= matrix.get(0).get(i) * calcDeterminant(sub);
+                if (!solutionRow) return false;
             }
         }
-        return total;
+        return true;
+    }
+
+    public static Double calcDeterminant(ArrayList<ArrayList<Double>> matrix) {
+        return calcDeterminant(DenseMatrix.fromList(matrix));
+    }
+
+    /**
+     * Calculate the determinant by elimination, see {@link Determinant} for the sign and log-determinant
+     */
+    public static double calcDeterminant(DenseMatrix matrix) {
+        return Determinant.of(matrix).getValue();
+    }
+
+    /**
+     * {@link #calcDeterminant(DenseMatrix)} looked up in a cache, computed only the first time a matrix is seen
+     */
+    public static double calcDeterminant(DenseMatrix matrix, FactorizationCache cache) {
+        return cache.determinant(matrix).getValue();
     }
 
     public static boolean existsInversion(ArrayList<ArrayList<Double>> matrix) {
-        return calcDeterminant(matrix) != 0.0;
+        return existsInversion(DenseMatrix.fromList(matrix));
+    }
+
+    public static boolean existsInversion(DenseMatrix matrix) {
+        return !Determinant.of(matrix).isZero();
     }
 
     public static ArrayList<ArrayList<Double>> invertMatrix(ArrayList<ArrayList<Double>> matrix) {
-        int n = matrix.size();
-        LinearSolver rref = new LinearSolver();
-        ArrayList<ArrayList<Double>> inverted = new ArrayList<>();
-        //creates augmented matrix
-        for (int r = 0; r < n; r++) {
-            for (int c = 0; c < n; c++) {
-                if (r == c) {
-                    matrix.get(r).add(1.0);
-                } else {
-                    matrix.get(r).add(0.0);
-                }
-            }
-        }
-        try {
-            //convert to rref
-            rref.convertToRowEchelon(matrix);
-            rref.convertToReducedRowEchelon(matrix);
-            //separates the second half of the rref matrix
-            for (int i = 0; i < n; i++) {
-                ArrayList<Double> row = new ArrayList<>();
-                for (int j = n; j < 2 * n; j++) {
-                    row.add(matrix.get(i).get(j));
-                }
-                inverted.add((ArrayList) row.clone());
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        return invertMatrix(DenseMatrix.fromList(matrix)).toList();
+    }
+
+    /**
+     * Invert a square dense matrix by reducing [matrix | I] to [I | inverse].
+     * Use a {@link MatrixInverter} directly to invert repeatedly without allocating.
+     *
+     * @return a new matrix, the input is not modified
+     * @throws ArithmeticException the matrix is singular
+     */
+    public static DenseMatrix invertMatrix(DenseMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) throw new IllegalArgumentException("Matrix is not square");
+        DenseMatrix inverted = new DenseMatrix(matrix.getRows(), matrix.getCols());
+        if (!new MatrixInverter(matrix.getRows()).invertGaussJordan(matrix, inverted))
+            throw new ArithmeticException("Matrix is singular");
         return inverted;
     }
 
+    /**
+     * {@link #invertMatrix(DenseMatrix)} looked up in a cache, computed only the first time a matrix is seen
+     *
+     * @return a new matrix, the input is not modified
+     * @throws ArithmeticException the matrix is singular
+     */
+    public static DenseMatrix invertMatrix(DenseMatrix matrix, FactorizationCache cache) {
+        if (matrix.getRows() != matrix.getCols()) throw new IllegalArgumentException("Matrix is not square");
+        return cache.inverse(matrix);
+    }
+
+    /**
+     * Solve AX = B for a coefficient matrix and a block of right-hand sides, factoring A only once.
+     * Keep a {@link BatchSolver} to reuse the factorization across calls.
+     *
+     * @param rhs one right-hand side per column
+     */
+    public static BatchSolver.BatchSolution solveBatch(DenseMatrix coefficients, DenseMatrix rhs) {
+        return new BatchSolver(coefficients).solve(rhs);
+    }
+
+    /**
+     * {@link #solveBatch(DenseMatrix, DenseMatrix)}, factoring a square A in float and refining each solution to
+     * double precision when mixedPrecision is true
+     */
+    public static BatchSolver.BatchSolution solveBatch(DenseMatrix coefficients, DenseMatrix rhs, boolean mixedPrecision) {
+        return new BatchSolver(coefficients, mixedPrecision).solve(rhs);
+    }
+
+    /**
+     * Least squares solution of an augmented matrix [A | b], the x minimizing |Ax - b|, which solves the system
+     * exactly when it is consistent. Independent columns, the usual case for tall systems, are solved by
+     * {@link QRDecomposition}; otherwise, as for every wide system, {@link SingularValueDecomposition} gives the
+     * solution of least norm.
+     */
+    public static double[] solveLeastSquares(DenseMatrix augmented) {
+        final int n = augmented.getCols() - 1;
+        DenseMatrix coefficients = augmented.view(0, 0, augmented.getRows(), n);
+        double[] b = new double[augmented.getRows()];
+        for (int r = 0; r < b.length; r++) b[r] = augmented.get(r, n);
+        if (augmented.getRows() >= n) {
+            QRDecomposition qr = new QRDecomposition(coefficients);
+            if (qr.isFullRank()) return qr.solve(b);
+        }
+        return new SingularValueDecomposition(coefficients).solve(b);
+    }
+
+    /**
+     * @return an orthonormal basis of the null space of a coefficient matrix, one vector per row,
+     * computed from its singular value decomposition rather than a rounded echelon form
+     */
+    public static DenseMatrix findNullSpace(DenseMatrix coefficients) {
+        return new SingularValueDecomposition(coefficients).getNullSpace();
+    }
+
+    /**
+     * Solution space of an augmented matrix [A | b] in the layout of {@link #findSolutionSpace(DenseMatrix)},
+     * computed from the singular value decomposition of A: row 0 is the solution of least norm, the following rows
+     * are an orthonormal basis of the null space. For an inconsistent system row 0 is the least squares solution,
+     * check {@link #existsSolution(DenseMatrix)} on the reduced matrix to tell the two apart.
+     */
+    public static DenseMatrix findOrthonormalSolutionSpace(DenseMatrix augmented) {
+        final int n = augmented.getCols() - 1;
+        SingularValueDecomposition svd = new SingularValueDecomposition(augmented.view(0, 0, augmented.getRows(), n));
+        double[] b = new double[augmented.getRows()];
+        for (int r = 0; r < b.length; r++) b[r] = augmented.get(r, n);
+        DenseMatrix nullSpace = svd.getNullSpace();
+        DenseMatrix space = new DenseMatrix(1 + nullSpace.getRows(), n);
+        double[] x = svd.solve(b);
+        for (int c = 0; c < n; c++) space.set(0, c, x[c]);
+        nullSpace.copyTo(space.view(1, 0, nullSpace.getRows(), n));
+        return space;
+    }
+
     /**
      * Create a deep copy of a matrix
      */
@@ -276,134 +977,315 @@ public class LinearSolver {
      * subsequent entries are linearly independent vectors in the null space, each obtained by having a different free variable set to one.
      */
     public static ArrayList<ArrayList<Double>> findSolutionSpace(ArrayList<ArrayList<Double>> RREFmatrix) {
-        final int NumCols = RREFmatrix.get(0).size();
-        ArrayList<Integer> pivotCols = new ArrayList<>();
-        ArrayList<Integer> freeCols = new ArrayList<>();
+        return findSolutionSpace(DenseMatrix.fromList(RREFmatrix)).toList();
+    }
+
+    /**
+     * Find the solution space to a dense matrix in reduced row echelon form that has at least one solution
+     *
+     * @return a dense matrix with the same layout as the list version: row 0 is the base solution,
+     * subsequent rows are the null space vectors.
+     */
+    public static DenseMatrix findSolutionSpace(DenseMatrix RREFmatrix) {
+        final int NumCols = RREFmatrix.getCols();
+        int[] pivotCols = new int[NumCols - 1];
+        int[] freeCols = new int[NumCols - 1];
+        int numPivots = 0;
+        int numFree = 0;
 
         // find initial solution by setting all free variables to zero
-        ArrayList<Double> baseSolution = new ArrayList<>();
+        double[] baseSolution = new double[NumCols - 1];
         int row = 0;
         boolean lastRow = false;
         for (int col = 0; col < NumCols - 1; col++) {
-            if (RREFmatrix.get(row).get(col) == 1 && !lastRow) {
+            if (RREFmatrix.get(row, col) == 1 && !lastRow) {
                 // pivot variable's value = constant
-                baseSolution.add(RREFmatrix.get(row).get(NumCols - 1));
-                pivotCols.add(col); // record location
-                if (row < RREFmatrix.size() - 1) {
+                baseSolution[col] = RREFmatrix.get(row, NumCols - 1);
+                pivotCols[numPivots++] = col; // record location
+                if (row < RREFmatrix.getRows() - 1) {
                     row++; // move onto next row
                 } else {
                     lastRow = true; // there is no other pivot in this row
                 }
             } else {
                 // free variable's value = 0
-                baseSolution.add(0.0);
-                freeCols.add(col); // record location
+                freeCols[numFree++] = col; // record location
             }
         }
-        ArrayList<ArrayList<Double>> solutionSpace = new ArrayList<>(List.of(baseSolution));
+        DenseMatrix solutionSpace = new DenseMatrix(1 + numFree, NumCols - 1);
+        System.arraycopy(baseSolution, 0, solutionSpace.getData(), 0, NumCols - 1);
 
         // calculate null space
-        for (final int freeVarCol : freeCols) {
-            // initialize solution with all zero values
-            ArrayList<Double> solution = new ArrayList<>();
-            for (int i = 0; i < NumCols - 1; i++) solution.add(0.0);
-            solution.set(freeVarCol, 1.0); // one free variable is 1, others are 0
+        for (int i = 0; i < numFree; i++) {
+            final int freeVarCol = freeCols[i];
+            // one free variable is 1, others are 0
+            solutionSpace.set(i + 1, freeVarCol, 1.0);
 
-            for (int r = 0; r < pivotCols.size(); r++) {
+            for (int r = 0; r < numPivots; r++) {
                 // pivot + free variable = 0
-                double varI = RREFmatrix.get(r).get(freeVarCol);
+                double varI = RREFmatrix.get(r, freeVarCol);
                 double pivotValue = -varI;
                 if (pivotValue == -0.0) pivotValue = 0.0;
 
-                solution.set(pivotCols.get(r), pivotValue); // update pivot value
+                solutionSpace.set(i + 1, pivotCols[r], pivotValue); // update pivot value
+            }
+        }
+        return solutionSpace;
+    }
+
+    /**
+     * Find the solution space of a reduced matrix given the pivot column of each pivot row, as returned by
+     * {@link #getPivotColumns()}. Any row order works, as long as every pivot column is zero outside its pivot row,
+     * which also covers the result of complete pivoting.
+     *
+     * @throws ArithmeticException a pivot lies in the constants column, so there is no solution
+     */
+    public static DenseMatrix findSolutionSpace(DenseMatrix reduced, int[] pivotColumns) {
+        final int numVars = reduced.getCols() - 1;
+        boolean[] isPivot = new boolean[numVars];
+        for (int pivotCol : pivotColumns) {
+            if (pivotCol == numVars) throw new ArithmeticException("System has no solution");
+            isPivot[pivotCol] = true;
+        }
+        int numFree = numVars - pivotColumns.length;
+        DenseMatrix solutionSpace = new DenseMatrix(1 + numFree, numVars);
+        // pivot variable's value = constant, free variables are zero
+        for (int r = 0; r < pivotColumns.length; r++) solutionSpace.set(0, pivotColumns[r], reduced.get(r, numVars));
+        // one free variable is 1, others are 0
+        int i = 1;
+        for (int freeVarCol = 0; freeVarCol < numVars; freeVarCol++) {
+            if (isPivot[freeVarCol]) continue;
+            solutionSpace.set(i, freeVarCol, 1.0);
+            for (int r = 0; r < pivotColumns.length; r++) {
+                // pivot + free variable = 0
+                double pivotValue = -reduced.get(r, freeVarCol);
+                if (pivotValue == -0.0) pivotValue = 0.0;
+                solutionSpace.set(i, pivotColumns[r], pivotValue);
             }
-            // add null space vector to solution space
-            solutionSpace.add(solution);
+            i++;
         }
         return solutionSpace;
     }
 
-    private static void printSolutionSpace(ArrayList<ArrayList<Double>> solutionSpace) {
-        System.out.println(solutionSpace.get(0));
+    /**
+     * {@link #findSolutionSpace(ArrayList)}, timed as the solution space phase when metrics are enabled
+     */
+    public ArrayList<ArrayList<Double>> solutionSpace(ArrayList<ArrayList<Double>> RREFmatrix) {
+        return solutionSpace(DenseMatrix.fromList(RREFmatrix)).toList();
+    }
+
+    /**
+     * {@link #findSolutionSpace(DenseMatrix)}, timed as the solution space phase when metrics are enabled.
+     * If the matrix is unchanged since this solver reduced it, the recorded pivot columns are used.
+     */
+    public DenseMatrix solutionSpace(DenseMatrix RREFmatrix) {
+        long time = metrics == null ? 0 : System.nanoTime();
+        //the pivots recorded while reducing this matrix spare a scan for them
+        DenseMatrix solutionSpace = hasPivotsFor(RREFmatrix)
+                ? findSolutionSpace(RREFmatrix, pivotColumns) : findSolutionSpace(RREFmatrix);
+        lap(metrics, SolverMetrics.Phase.SOLUTION_SPACE, time);
+        return solutionSpace;
+    }
+
+    /**
+     * Check whether a sparse augmented matrix [A | b] has a solution, using sparse elimination
+     */
+    public static boolean existsSolution(SparseMatrix augmented) {
+        final int n = augmented.getCols() - 1;
+        return new SparseLU(augmented.columns(0, n)).existsSolution(augmented.getColumn(n));
+    }
+
+    /**
+     * Find the solution space of a sparse augmented matrix [A | b] without converting it to dense form.
+     * The layout matches {@link #findSolutionSpace(ArrayList)}, but the free variables are chosen by the
+     * fill-reducing column order of {@link SparseLU}, so the null space basis may differ from the dense one.
+     *
+     * @throws ArithmeticException the system has no solution
+     */
+    public static ArrayList<ArrayList<Double>> findSolutionSpace(SparseMatrix augmented) {
+        final int n = augmented.getCols() - 1;
+        return new SparseLU(augmented.columns(0, n)).findSolutionSpace(augmented.getColumn(n));
+    }
+
+    private static void printSolutionSpace(DenseMatrix solutionSpace) {
+        System.out.println(Arrays.toString(solutionSpace.getRow(0)));
         String scalarStr = "";
-        for (int i = 1; i < solutionSpace.size(); i++) {
+        for (int i = 1; i < solutionSpace.getRows(); i++) {
             char c = (char) (96 + i); // get lowercase letter
             scalarStr += c + ", ";
-            System.out.println("+ " + c + solutionSpace.get(i));
+            System.out.println("+ " + c + Arrays.toString(solutionSpace.getRow(i)));
         }
-        if (solutionSpace.size() > 1) {
+        if (solutionSpace.getRows() > 1) {
             System.out.println("For any scalars " + scalarStr.substring(0, scalarStr.length() - 2));
         }
     }
 
     /**
-     * Main method gathers user input and solves the given system of linear equations
+     * Solve systems typed in row by row, or with a file argument every system in that file.
+     * An optional second argument names a directory that receives the results as binary matrix files.
      */
     public static void main(String[] args) {
-        // initialize an empty system of equations
-        ArrayList<ArrayList<Double>> matrix = new ArrayList<ArrayList<Double>>();
-
+        if (args.length > 0) {
+            solveFile(Path.of(args[0]), args.length > 1 ? Path.of(args[1]) : null);
+            return;
+        }
         System.out.println("Welcome! Keep typing in equations, then type 'END' when you are done.\n" +
-                "When typing 'END', you can also include a '-l' tag to log each row operation.");
-        Scanner input = new Scanner(System.in);
-        int columnSize = -1;
-        String in = input.nextLine();
+                "When typing 'END', you can also include a '-l' tag to log each row operation,\n" +
+                "a '-t' tag to record them to a trace file for OperationReplay,\n" +
+                "or a '-e' tag to solve with exact fractions.");
+        MatrixReader input = new MatrixReader(System.in);
         // repeatedly get user input until user types "END"
-        while (!in.startsWith("END")) {
-            ArrayList<String> inputRow = new ArrayList<>(List.of(in.split(" ")));
+        while (true) {
             try {
-                // convert the input into numbers, add to matrix
-                ArrayList<Double> numberRow = new ArrayList<>();
-                for (String elem : inputRow) numberRow.add(Double.parseDouble(elem));
-
-                if (columnSize == -1) columnSize = numberRow.size(); //update # columns in matrix
-                if (numberRow.size() != columnSize) throw new IOException("Wrong number of columns");
-
-                matrix.add(numberRow); // add valid row to matrix
+                if (!input.readRow()) break; // add valid row to matrix
             } catch (IOException e) {
-                System.out.println("Each row of your matrix needs to be size " + columnSize + " (# of items in first row)");
+                System.out.println("Each row of your matrix needs to be size " + input.getColumnCount() + " (# of items in first row)");
             } catch (Exception e) {
-                System.out.println("Please input numbers, separated with spaces");
+                System.out.println("Please input numbers, separated with spaces or commas");
+            }
+        }
+        solveAndPrint(input.finishMatrix(), input.getTerminator(), null, "system");
+    }
+
+    /**
+     * Batch mode. A binary matrix file holds a single system, a text file is memory mapped and each system
+     * in it, ended by an END line, is solved in turn.
+     *
+     * @param output directory for the result files, or null to only print the results
+     */
+    private static void solveFile(Path file, Path output) {
+        try {
+            if (output != null) Files.createDirectories(output);
+            if (MatrixFile.isMatrixFile(file)) {
+                MatrixFile.Header header = MatrixFile.readHeader(file);
+                if (!header.isSparse() && 8 * header.getRows() * header.getCols() > Runtime.getRuntime().maxMemory() / 4) {
+                    solveOutOfCore(file, output == null ? file.toAbsolutePath().getParent() : output, "system-1");
+                    return;
+                }
+                solveAndPrint(MatrixFile.readDense(file), null, output, "system-1");
+                return;
+            }
+            try (MatrixReader input = MatrixReader.open(file)) {
+                int count = 0;
+                for (DenseMatrix system = input.readMatrix(); system != null; system = input.readMatrix()) {
+                    System.out.println("\n==== System #" + ++count + " ====");
+                    solveAndPrint(system, input.getTerminator(), output, "system-" + count);
+                }
             }
-            in = input.nextLine();
+        } catch (IOException e) {
+            System.out.println("Could not read " + file + ": " + e.getMessage());
         }
+    }
 
+    /**
+     * Solve a dense matrix file too large for the heap with an {@link OutOfCoreSolver}, writing the reduced matrix
+     * and the solution space to files instead of printing them
+     */
+    private static void solveOutOfCore(Path file, Path output, String name) throws IOException {
+        System.out.println("The matrix is too large for the heap, solving it out of core");
+        OutOfCoreSolver solver = new OutOfCoreSolver();
+        Path reducedFile = output.resolve(name + "-rref.lsm");
+        MappedMatrix reduced = solver.reduce(file, reducedFile);
+        System.out.println("Simplified matrix written to " + reducedFile + ", rank " + solver.getPivotColumns().length);
+        if (solver.existsSolution(reduced)) {
+            Path solution = output.resolve(name + "-solution.lsm");
+            MappedMatrix space = solver.findSolutionSpace(reduced, solution);
+            System.out.println("There exists a solution to the matrix, " + (space.getRows() - 1) + " free variables. Solution space written to " + solution);
+        } else {
+            System.out.println("There is no solution for this system of linear equations.");
+        }
+    }
+
+    /**
+     * @param flags  the END line of the system, '-l' logs each row operation, '-t' records them to a trace file
+     *               and '-e' solves with exact fractions
+     * @param output directory for the reduced matrix, solution space, inverse and trace, or null to only print them
+     * @param name   prefix of the result file names
+     */
+    private static void solveAndPrint(DenseMatrix matrix, String flags, Path output, String name) {
+        if (matrix.getRows() == 0) {
+            System.out.println("The matrix is empty.");
+            return;
+        }
         //print original matrix
         System.out.println("\nOriginal Matrix:");
         printMatrix(matrix);
         //save original matrix for later
-        ArrayList<ArrayList<Double>> originalMatrix = deepCopy(matrix);
+        DenseMatrix originalMatrix = matrix.copy();
 
         LinearSolver solver = new LinearSolver();
-        if (in.contains("-l")) solver.enableLogging();
-        if (in.contains("-l")) System.out.println();
+        boolean logging = flags != null && flags.contains("-l");
+        if (logging) solver.enableLogging();
+        if (logging) System.out.println();
+        OperationRecorder recorder = null;
+        Path trace = (output == null ? Path.of("") : output).resolve(name + ".trace");
+        if (flags != null && flags.contains("-t")) {
+            try {
+                recorder = new OperationRecorder(1024, trace);
+                solver.enableRecording(recorder);
+            } catch (IOException e) {
+                System.out.println("Could not create " + trace + ": " + e.getMessage());
+            }
+        }
+        boolean exact = flags != null && flags.contains("-e");
+        solver.setExact(exact);
         solver.solveMatrix(matrix);
+        if (recorder != null) {
+            try {
+                recorder.close();
+                System.out.println("\n" + recorder.size() + " row operations recorded, replay them with: java main.OperationReplay " + trace);
+            } catch (IOException e) {
+                System.out.println("Could not write " + trace + ": " + e.getMessage());
+            }
+        }
 
         // print simplified matrix
         System.out.println("\nSimplified Matrix:");
         printMatrix(matrix);
+        saveResult(output, name + "-rref", matrix);
 
         if (existsSolution(matrix)) {
             System.out.println("There exists a solution to the matrix:");
-            printSolutionSpace(findSolutionSpace(matrix));
+            DenseMatrix solutionSpace = findSolutionSpace(matrix);
+            printSolutionSpace(solutionSpace);
+            if (exact) {
+                System.out.println("Exact solution space:");
+                printFractions(new ExactSolver(originalMatrix).findSolutionSpace());
+            }
+            saveResult(output, name + "-solution", solutionSpace);
         } else {
             System.out.println("There is no solution for this system of linear equations.");
         }
 
-        if (originalMatrix.size() == originalMatrix.get(0).size()) {
-            double determinant = calcDeterminant(originalMatrix);
-            System.out.println("The matrix is square, it's determinant is " + determinant);
-            if (determinant != 0) {
+        if (originalMatrix.getRows() == originalMatrix.getCols()) {
+            Determinant determinant = Determinant.of(originalMatrix);
+            System.out.println("The matrix is square, it's determinant is " + determinant.getValue());
+            if (exact) System.out.println("Exactly, it is " + ExactSolver.determinant(originalMatrix));
+            if (!determinant.isZero()) {
                 //invert the original matrix
-                ArrayList<ArrayList<Double>> inverted = invertMatrix(originalMatrix);
+                DenseMatrix inverted = invertMatrix(originalMatrix);
                 roundMatrix(inverted);
                 System.out.println("The matrix is invertible. Inverse matrix:");
                 printMatrix(inverted, false);
+                if (exact) printFractions(ExactSolver.invert(originalMatrix));
+                saveResult(output, name + "-inverse", inverted);
             } else {
                 System.out.println("The matrix is not invertible");
             }
         }
+    }
+
+    private static void printFractions(Fraction[][] matrix) {
+        for (Fraction[] row : matrix) System.out.println(Arrays.toString(row));
+    }
 
-        input.close();
+    private static void saveResult(Path output, String name, DenseMatrix matrix) {
+        if (output == null) return;
+        Path file = output.resolve(name + ".lsm");
+        try {
+            MatrixFile.write(file, matrix);
+        } catch (IOException e) {
+            System.out.println("Could not write " + file + ": " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
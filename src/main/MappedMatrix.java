@@ -0,0 +1,117 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Dense matrix whose elements live in a memory-mapped matrix file rather than on the heap.
+ * Mapping costs the same for any file size, pages are only read from disk when first touched,
+ * and a read-write mapping writes changes straight back to the file.
+ * <p>
+ * A single mapping is limited to 2GB, so the file is mapped as consecutive blocks of whole rows.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class MappedMatrix implements LinearOperator {
+    // largest number of bytes in one mapped block of rows
+    static final long BLOCK_BYTES = 1L << 30;
+
+    private final int rows;
+    private final int cols;
+    private final int rowsPerBlock;
+    private final MappedByteBuffer[] mappings;
+    private final DoubleBuffer[] blocks;
+
+    /**
+     * Map rows * cols little-endian doubles starting at offset of an open file.
+     * The mapping stays valid after the channel is closed.
+     */
+    MappedMatrix(FileChannel channel, FileChannel.MapMode mode, long offset, int rows, int cols) throws IOException {
+        if (8L * cols > BLOCK_BYTES) throw new IOException("Rows of " + cols + " columns are too long to map");
+        this.rows = rows;
+        this.cols = cols;
+        this.rowsPerBlock = cols == 0 ? Math.max(rows, 1) : (int) Math.min(Math.max(rows, 1), BLOCK_BYTES / (8L * cols));
+        final int numBlocks = (rows + rowsPerBlock - 1) / rowsPerBlock;
+        this.mappings = new MappedByteBuffer[numBlocks];
+        this.blocks = new DoubleBuffer[numBlocks];
+        for (int b = 0; b < numBlocks; b++) {
+            long firstRow = (long) b * rowsPerBlock;
+            long blockRows = Math.min(rowsPerBlock, rows - firstRow);
+            mappings[b] = channel.map(mode, offset + 8 * firstRow * cols, 8 * blockRows * cols);
+            blocks[b] = mappings[b].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public double get(int row, int col) {
+        return blocks[row / rowsPerBlock].get((row % rowsPerBlock) * cols + col);
+    }
+
+    /**
+     * @throws java.nio.ReadOnlyBufferException the file was mapped read-only
+     */
+    public void set(int row, int col, double value) {
+        blocks[row / rowsPerBlock].put((row % rowsPerBlock) * cols + col, value);
+    }
+
+    /**
+     * Copy one row into target[offset .. offset + cols - 1]
+     */
+    public void getRow(int row, double[] target, int offset) {
+        blocks[row / rowsPerBlock].get((row % rowsPerBlock) * cols, target, offset, cols);
+    }
+
+    /**
+     * Overwrite one row with source[offset .. offset + cols - 1]
+     */
+    public void setRow(int row, double[] source, int offset) {
+        blocks[row / rowsPerBlock].put((row % rowsPerBlock) * cols, source, offset, cols);
+    }
+
+    /**
+     * y = this * x, streaming through the file once
+     */
+    @Override
+    public void multiply(double[] x, double[] y) {
+        for (int b = 0; b < blocks.length; b++) {
+            DoubleBuffer block = blocks[b];
+            final int firstRow = b * rowsPerBlock;
+            final int blockRows = Math.min(rowsPerBlock, rows - firstRow);
+            for (int r = 0; r < blockRows; r++) {
+                int base = r * cols;
+                double sum = 0;
+                for (int c = 0; c < cols; c++) sum += block.get(base + c) * x[c];
+                y[firstRow + r] = sum;
+            }
+        }
+    }
+
+    /**
+     * Copy the whole matrix onto the heap, for algorithms that work on DenseMatrix storage
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix dense = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) getRow(r, dense.getData(), r * cols);
+        return dense;
+    }
+
+    /**
+     * Write any changes made through a read-write mapping back to the storage device
+     */
+    public void force() {
+        for (MappedByteBuffer mapping : mappings) mapping.force();
+    }
+}
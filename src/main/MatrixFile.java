@@ -0,0 +1,326 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Compact binary matrix files. Every file starts with a 32 byte little-endian header:
+ * <pre>
+ *  0  int   magic "LESM"
+ *  4  short version
+ *  6  byte  dtype, 1 = float64
+ *  7  byte  layout, 0 = dense, 1 = sparse
+ *  8  long  rows
+ * 16  long  cols
+ * 24  long  nonzeros, 0 for dense files
+ * </pre>
+ * A dense body is rows * cols little-endian doubles in row-major order. A sparse body is the CSR form of the
+ * matrix: rows + 1 row pointers and nonzeros column indices as little-endian ints, padded to a multiple of
+ * 8 bytes, then nonzeros little-endian doubles. The body of a dense file always starts 8-byte aligned, so it
+ * can be memory mapped and read in place by {@link #map(Path)}.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class MatrixFile {
+    static final int MAGIC = 0x4D53454C; // "LESM" read as a little-endian int
+    static final short VERSION = 1;
+    static final byte FLOAT64 = 1;
+    static final byte DENSE = 0;
+    static final byte SPARSE = 1;
+    static final int HEADER_SIZE = 32;
+    // size of the staging buffer used to write sparse files
+    static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private MatrixFile() {
+    }
+
+    /**
+     * Dimensions and layout of a matrix file
+     */
+    public static final class Header {
+        private final boolean sparse;
+        private final long rows;
+        private final long cols;
+        private final long nonZeros;
+
+        Header(boolean sparse, long rows, long cols, long nonZeros) {
+            this.sparse = sparse;
+            this.rows = rows;
+            this.cols = cols;
+            this.nonZeros = nonZeros;
+        }
+
+        public boolean isSparse() {
+            return sparse;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getCols() {
+            return cols;
+        }
+
+        /**
+         * @return number of stored entries, rows * cols for dense files
+         */
+        public long getNonZeros() {
+            return sparse ? nonZeros : rows * cols;
+        }
+    }
+
+    /**
+     * @return true if the file starts with the magic number of this format
+     */
+    public static boolean isMatrixFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) return false;
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(magic, 0);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    public static Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * @throws IOException the header is invalid or the file is shorter than its header says
+     */
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("File is too short for a matrix header");
+        }
+        return parseHeader(header, channel.size());
+    }
+
+    /**
+     * @param size length of the whole file
+     */
+    private static Header parseHeader(ByteBuffer header, long size) throws IOException {
+        if (header.getInt(0) != MAGIC) throw new IOException("Not a matrix file");
+        if (header.getShort(4) != VERSION) throw new IOException("Unsupported matrix file version " + header.getShort(4));
+        if (header.get(6) != FLOAT64) throw new IOException("Unsupported element type " + header.get(6));
+        byte layout = header.get(7);
+        if (layout != DENSE && layout != SPARSE) throw new IOException("Unknown matrix layout " + layout);
+        long rows = header.getLong(8);
+        long cols = header.getLong(16);
+        long nonZeros = header.getLong(24);
+        if (rows < 0 || cols < 0 || nonZeros < 0) throw new IOException("Negative matrix dimensions");
+        Header result = new Header(layout == SPARSE, rows, cols, nonZeros);
+        if (size < bodyOffset(result) + 8 * result.getNonZeros()) throw new IOException("Matrix file is truncated");
+        return result;
+    }
+
+    /**
+     * Read a whole matrix file held in memory, such as a request body, sparse files are expanded
+     *
+     * @throws IOException the bytes are not a matrix file
+     */
+    public static DenseMatrix readDense(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER_SIZE) throw new IOException("File is too short for a matrix header");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        Header header = parseHeader(buffer, bytes.length);
+        final int rows = toInt(header.getRows());
+        final int cols = toInt(header.getCols());
+        if (!header.isSparse()) {
+            DenseMatrix matrix = new DenseMatrix(rows, cols);
+            buffer.position(HEADER_SIZE);
+            buffer.asDoubleBuffer().get(matrix.getData());
+            return matrix;
+        }
+        final int nonZeros = toInt(header.getNonZeros());
+        int[] rowPtr = new int[rows + 1];
+        int[] colIdx = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        buffer.position(HEADER_SIZE);
+        buffer.asIntBuffer().get(rowPtr).get(colIdx);
+        buffer.position(toInt(bodyOffset(header)));
+        buffer.asDoubleBuffer().get(values);
+        checkRowPointers(rowPtr, nonZeros);
+        return new SparseMatrix(rows, cols, rowPtr, colIdx, values).toDense();
+    }
+
+    /**
+     * @return position of the first double in the file
+     */
+    static long bodyOffset(Header header) {
+        if (!header.isSparse()) return HEADER_SIZE;
+        long indexBytes = 4 * (header.getRows() + 1 + header.getNonZeros());
+        return HEADER_SIZE + (indexBytes + 7) / 8 * 8;
+    }
+
+    private static ByteBuffer header(byte layout, long rows, long cols, long nonZeros) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).put(FLOAT64).put(layout).putLong(rows).putLong(cols).putLong(nonZeros);
+        return header.flip();
+    }
+
+    /**
+     * Map a dense matrix file without copying it, the returned matrix reads straight from the page cache
+     *
+     * @throws IOException the file is sparse or not a matrix file
+     */
+    public static MappedMatrix map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.isSparse()) throw new IOException("Only dense matrix files can be mapped");
+            return new MappedMatrix(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, toInt(header.getRows()), toInt(header.getCols()));
+        }
+    }
+
+    /**
+     * Create a zero-filled dense matrix file of the given size and map it for writing
+     */
+    public static MappedMatrix create(Path file, int rows, int cols) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(DENSE, rows, cols, 0), 0);
+            //extend the file to its full length, the body reads as zeros
+            long length = HEADER_SIZE + 8L * rows * cols;
+            if (length > HEADER_SIZE) writeFully(channel, ByteBuffer.allocate(1), length - 1);
+            return new MappedMatrix(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, rows, cols);
+        }
+    }
+
+    /**
+     * Read any matrix file onto the heap, sparse files are expanded
+     */
+    public static DenseMatrix readDense(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.isSparse()) return readSparse(channel, header).toDense();
+            return new MappedMatrix(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, toInt(header.getRows()), toInt(header.getCols())).toDense();
+        }
+    }
+
+    /**
+     * Read any matrix file onto the heap in CSR form, zeros of dense files are dropped
+     */
+    public static SparseMatrix readSparse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (!header.isSparse()) {
+                return SparseMatrix.fromDense(new MappedMatrix(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                        toInt(header.getRows()), toInt(header.getCols())).toDense());
+            }
+            return readSparse(channel, header);
+        }
+    }
+
+    private static SparseMatrix readSparse(FileChannel channel, Header header) throws IOException {
+        final int rows = toInt(header.getRows());
+        final int nonZeros = toInt(header.getNonZeros());
+        ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, 4L * (rows + 1 + nonZeros))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int[] rowPtr = new int[rows + 1];
+        int[] colIdx = new int[nonZeros];
+        body.asIntBuffer().get(rowPtr).get(colIdx);
+        double[] values = new double[nonZeros];
+        long valuesOffset = bodyOffset(header);
+        for (int done = 0; done < nonZeros; ) {
+            //stay below the 2GB limit of a single mapping
+            int count = Math.min(nonZeros - done, 1 << 27);
+            channel.map(FileChannel.MapMode.READ_ONLY, valuesOffset + 8L * done, 8L * count)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, done, count);
+            done += count;
+        }
+        checkRowPointers(rowPtr, nonZeros);
+        return new SparseMatrix(rows, toInt(header.getCols()), rowPtr, colIdx, values);
+    }
+
+    private static void checkRowPointers(int[] rowPtr, int nonZeros) throws IOException {
+        final int rows = rowPtr.length - 1;
+        if (rowPtr[0] != 0 || rowPtr[rows] != nonZeros) throw new IOException("Corrupt row pointers");
+        for (int r = 0; r < rows; r++) {
+            if (rowPtr[r] > rowPtr[r + 1]) throw new IOException("Corrupt row pointers");
+        }
+    }
+
+    /**
+     * Write a dense matrix, such as a reduced row echelon form, an inverse or a solution space
+     */
+    public static void write(Path file, DenseMatrix matrix) throws IOException {
+        MappedMatrix target = create(file, matrix.getRows(), matrix.getCols());
+        for (int r = 0; r < matrix.getRows(); r++) {
+            target.setRow(r, matrix.getData(), matrix.index(r, 0));
+        }
+        target.force();
+    }
+
+    /**
+     * Write a list of rows, such as the results of solveMatrix, invertMatrix or findSolutionSpace
+     */
+    public static void write(Path file, List<? extends List<Double>> matrix) throws IOException {
+        final int rows = matrix.size();
+        final int cols = rows == 0 ? 0 : matrix.get(0).size();
+        MappedMatrix target = create(file, rows, cols);
+        double[] row = new double[cols];
+        for (int r = 0; r < rows; r++) {
+            List<Double> source = matrix.get(r);
+            if (source.size() != cols) throw new IllegalArgumentException("Row #" + r + " has the wrong number of columns");
+            for (int c = 0; c < cols; c++) row[c] = source.get(c);
+            target.setRow(r, row, 0);
+        }
+        target.force();
+    }
+
+    public static void write(Path file, SparseMatrix matrix) throws IOException {
+        final int rows = matrix.getRows();
+        final int nonZeros = matrix.getNonZeros();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            writeFully(channel, header(SPARSE, rows, matrix.getCols(), nonZeros), 0);
+            ByteBuffer staging = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long position = HEADER_SIZE;
+            position = writeInts(channel, staging, matrix.getRowPointers(), rows + 1, position);
+            position = writeInts(channel, staging, matrix.getColumnIndices(), nonZeros, position);
+            if (position % 8 != 0) position = writeFully(channel, ByteBuffer.allocate(4), position);
+            double[] values = matrix.getValues();
+            for (int done = 0; done < nonZeros; ) {
+                int count = Math.min(nonZeros - done, WRITE_BUFFER_SIZE / 8);
+                staging.clear();
+                staging.asDoubleBuffer().put(values, done, count);
+                staging.limit(8 * count);
+                position = writeFully(channel, staging, position);
+                done += count;
+            }
+        }
+    }
+
+    private static long writeInts(FileChannel channel, ByteBuffer staging, int[] values, int length, long position) throws IOException {
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, WRITE_BUFFER_SIZE / 4);
+            staging.clear();
+            staging.asIntBuffer().put(values, done, count);
+            staging.limit(4 * count);
+            position = writeFully(channel, staging, position);
+            done += count;
+        }
+        return position;
+    }
+
+    /**
+     * @return the position after the written bytes
+     */
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+        return position;
+    }
+
+    private static int toInt(long size) throws IOException {
+        if (size > Integer.MAX_VALUE - 8) throw new IOException("Matrix dimension " + size + " is too large");
+        return (int) size;
+    }
+}
@@ -0,0 +1,131 @@
+package main;
+
+/**
+ * Inverts n by n matrices using storage allocated only once, so inverting many matrices of the same
+ * size in a loop creates no garbage. Inputs are never modified unless the in-place mode is requested.
+ * An inverter holds mutable workspace and must not be shared between threads.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class MatrixInverter {
+    private final int n;
+    // [matrix | I] for Gauss-Jordan, also reused as the triangular solve workspace for the LU mode
+    private final double[] workspace;
+    // LU storage, allocated the first time the LU mode is used
+    private LUDecomposition lu = null;
+
+    public MatrixInverter(int n) {
+        this.n = n;
+        this.workspace = new double[2 * n * n];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Invert by reducing [matrix | I] to [I | inverse] with partial pivoting
+     *
+     * @param result receives the inverse, may be the same object as matrix
+     * @return false if the matrix is singular, in which case result is left unchanged
+     */
+    public boolean invertGaussJordan(DenseMatrix matrix, DenseMatrix result) {
+        checkSize(matrix);
+        checkSize(result);
+        final int width = 2 * n;
+        final double[] data = matrix.getData();
+        double maxAbs = 0;
+        //creates augmented matrix
+        for (int r = 0; r < n; r++) {
+            final int start = r * width;
+            System.arraycopy(data, matrix.index(r, 0), workspace, start, n);
+            for (int c = 0; c < n; c++) {
+                maxAbs = Math.max(maxAbs, Math.abs(workspace[start + c]));
+                workspace[start + n + c] = r == c ? 1.0 : 0.0;
+            }
+        }
+        final double tolerance = n * Math.ulp(maxAbs);
+
+        for (int col = 0; col < n; col++) {
+            //search for the largest pivot in this column
+            int pivotRow = col;
+            double pivotAbs = Math.abs(workspace[col * width + col]);
+            for (int row = col + 1; row < n; row++) {
+                double value = Math.abs(workspace[row * width + col]);
+                if (value > pivotAbs) {
+                    pivotAbs = value;
+                    pivotRow = row;
+                }
+            }
+            if (pivotAbs <= tolerance) return false;
+            final int pivotStart = col * width;
+            if (pivotRow != col) {
+                final int otherStart = pivotRow * width;
+                RowKernels.SELECTED.swap(workspace, pivotStart + col, otherStart + col, width - col);
+            }
+            //scale the pivot to 1, columns left of the pivot are already zero
+            final double scalar = 1 / workspace[pivotStart + col];
+            RowKernels.SELECTED.scale(workspace, pivotStart + col, width - col, scalar);
+            //eliminate the pivot column from every other row
+            for (int row = 0; row < n; row++) {
+                if (row == col) continue;
+                final int rowStart = row * width;
+                final double c0 = -workspace[rowStart + col];
+                if (c0 == 0) continue;
+                RowKernels.SELECTED.axpy(workspace, rowStart + col, pivotStart + col, width - col, c0);
+            }
+        }
+
+        //separates the second half of the rref matrix
+        final double[] resultData = result.getData();
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(workspace, r * width + n, resultData, result.index(r, 0), n);
+        }
+        return true;
+    }
+
+    /**
+     * Replace a matrix with its inverse, using Gauss-Jordan on this inverter's n by 2n buffer
+     *
+     * @return false if the matrix is singular, in which case it is left unchanged
+     */
+    public boolean invertInPlace(DenseMatrix matrix) {
+        return invertGaussJordan(matrix, matrix);
+    }
+
+    /**
+     * Invert by factoring into this inverter's LU storage and solving against the identity.
+     * The storage is allocated by the first call and reused after that.
+     *
+     * @param result receives the inverse, may be the same object as matrix
+     * @return false if the matrix is singular, in which case result is left unchanged
+     */
+    public boolean invertLU(DenseMatrix matrix, DenseMatrix result) {
+        checkSize(matrix);
+        if (lu == null) lu = new LUDecomposition(n);
+        lu.factor(matrix);
+        return invert(lu, result);
+    }
+
+    /**
+     * Invert from an existing factorization, such as one kept from an earlier solve
+     *
+     * @return false if the factored matrix is singular, in which case result is left unchanged
+     */
+    public boolean invert(LUDecomposition factors, DenseMatrix result) {
+        if (factors.size() != n) throw new IllegalArgumentException("Expected a factorization of size " + n);
+        checkSize(result);
+        if (factors.isSingular()) return false;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) result.set(r, c, r == c ? 1.0 : 0.0);
+        }
+        factors.solve(result, workspace);
+        return true;
+    }
+
+    private void checkSize(DenseMatrix matrix) {
+        if (matrix.getRows() != n || matrix.getCols() != n)
+            throw new IllegalArgumentException("Expected a " + n + "x" + n + " matrix");
+    }
+}
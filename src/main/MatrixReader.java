@@ -0,0 +1,338 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for systems of equations written one row per line.
+ * Numbers are parsed straight out of a byte buffer into primitive row storage, so reading a matrix
+ * creates no String or boxed Double per entry. Entries may be separated by any mix of spaces, tabs and commas.
+ * <p>
+ * A system ends with a line starting with "END" (the rest of that line is kept as its terminator,
+ * e.g. "END -l") or at the end of the input, and the next system starts on the following line.
+ * Blank lines are ignored. Every row of a system must have as many entries as its first row.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class MatrixReader implements Closeable {
+    static final int BUFFER_SIZE = 64 * 1024;
+    // files are mapped in windows of this size, a single mapping cannot exceed 2GB
+    static final long MAP_WINDOW = 1L << 30;
+    // tokens longer than this cannot be a number
+    static final int MAX_TOKEN_LENGTH = 1024;
+
+    // powers of ten that are exact doubles, 10^22 is the largest
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private static final int END_OF_INPUT = -1;
+
+    // exactly one of stream and channel is set
+    private final InputStream stream;
+    private final FileChannel channel;
+    private final byte[] streamBuffer;
+    private ByteBuffer buffer;
+    private long mappedUpTo;
+
+    private final byte[] token = new byte[MAX_TOKEN_LENGTH];
+    // character that ended the last token
+    private int next;
+    private int lineNumber = 0;
+
+    // rows of the system being read, row-major
+    private double[] data = new double[256];
+    private int rows = 0;
+    private int cols = -1;
+    private String terminator = null;
+    private boolean endOfInput = false;
+
+    /**
+     * Read from a stream, such as System.in, through an internal buffer
+     */
+    public MatrixReader(InputStream in) {
+        this.stream = in;
+        this.channel = null;
+        this.streamBuffer = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(streamBuffer, 0, 0);
+    }
+
+    private MatrixReader(FileChannel channel) {
+        this.stream = null;
+        this.channel = channel;
+        this.streamBuffer = null;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Read a file through memory mapping, the file is never copied onto the heap
+     */
+    public static MatrixReader open(Path file) throws IOException {
+        return new MatrixReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Parse the next row of the current system and append it.
+     * A row that fails to parse is skipped up to the end of its line and the system is left unchanged,
+     * so reading may continue with the next line.
+     *
+     * @return false if the system has ended, at an END line or the end of the input
+     * @throws NumberFormatException an entry is not a number
+     * @throws IOException           the row does not have as many entries as the first row
+     */
+    public boolean readRow() throws IOException {
+        while (true) {
+            int c = skipSeparators(read());
+            if (c == END_OF_INPUT) {
+                endOfInput = true;
+                terminator = null;
+                return false;
+            }
+            lineNumber++;
+            if (isLineEnd(c)) continue; //blank line
+            if (c == 'E' && readTerminator()) return false;
+
+            final int start = rows * Math.max(cols, 0);
+            int count = 0;
+            while (true) {
+                int length = readToken(c);
+                c = length < token.length ? skipSeparators(next) : skipLine();
+                double value;
+                try {
+                    value = parseToken(length);
+                } catch (NumberFormatException e) {
+                    if (!isLineEnd(c) && c != END_OF_INPUT) skipLine();
+                    throw new NumberFormatException("Line " + lineNumber + ": " + e.getMessage());
+                }
+                if (start + count == data.length) data = Arrays.copyOf(data, 2 * data.length);
+                data[start + count++] = value;
+                if (isLineEnd(c) || c == END_OF_INPUT) break;
+            }
+            if (cols == -1) cols = count; //the first row sets the number of columns
+            if (count != cols) {
+                throw new IOException("Line " + lineNumber + ": wrong number of columns, expected " + cols + " but found " + count);
+            }
+            rows++;
+            return true;
+        }
+    }
+
+    /**
+     * @return the rows read since the last call as a new matrix, then start a new system
+     */
+    public DenseMatrix finishMatrix() {
+        final int width = Math.max(cols, 0);
+        DenseMatrix matrix = new DenseMatrix(rows, width, Arrays.copyOf(data, rows * width), 0, width);
+        rows = 0;
+        cols = -1;
+        return matrix;
+    }
+
+    /**
+     * Batch mode, read a whole system. Any malformed row stops reading.
+     *
+     * @return the next system, or null when the input holds no more rows
+     * @throws IOException a row is malformed, the message gives its line number
+     */
+    public DenseMatrix readMatrix() throws IOException {
+        try {
+            while (readRow()) ;
+        } catch (NumberFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (rows == 0 && terminator == null) return null;
+        return finishMatrix();
+    }
+
+    /**
+     * @return the END line that closed the last system, or null if it was closed by the end of the input
+     */
+    public String getTerminator() {
+        return terminator;
+    }
+
+    /**
+     * @return number of entries per row of the current system, -1 before its first row
+     */
+    public int getColumnCount() {
+        return cols;
+    }
+
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+
+    /**
+     * @return number of lines read so far
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream != null) stream.close();
+        if (channel != null) channel.close();
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) return END_OF_INPUT;
+        return buffer.get() & 0xFF;
+    }
+
+    private boolean refill() throws IOException {
+        if (stream != null) {
+            int count = stream.read(streamBuffer);
+            if (count <= 0) return false;
+            buffer = ByteBuffer.wrap(streamBuffer, 0, count);
+            return true;
+        }
+        long size = channel.size();
+        if (mappedUpTo >= size) return false;
+        long length = Math.min(MAP_WINDOW, size - mappedUpTo);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, mappedUpTo, length);
+        mappedUpTo += length;
+        return true;
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == ',' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isLineEnd(int c) {
+        return c == '\n';
+    }
+
+    private int skipSeparators(int c) throws IOException {
+        while (isSeparator(c)) c = read();
+        return c;
+    }
+
+    /**
+     * @return the line end or END_OF_INPUT that stopped skipping
+     */
+    private int skipLine() throws IOException {
+        int c = read();
+        while (c != END_OF_INPUT && !isLineEnd(c)) c = read();
+        return c;
+    }
+
+    /**
+     * Copy a token starting with c into the token array, the character after it is left in next
+     *
+     * @return the token length, the token array length if the token was too long
+     */
+    private int readToken(int c) throws IOException {
+        int length = 0;
+        while (c != END_OF_INPUT && !isSeparator(c) && !isLineEnd(c)) {
+            if (length == token.length) return length;
+            token[length++] = (byte) c;
+            c = read();
+        }
+        next = c;
+        return length;
+    }
+
+    /**
+     * Check whether the line starting with 'E' is an END line, if so read it as the terminator.
+     * Otherwise the 'E' is pushed back to be parsed, and rejected, as a number.
+     */
+    private boolean readTerminator() throws IOException {
+        int n = read();
+        int d = n == 'N' ? read() : -2;
+        if (n == 'N' && d == 'D') {
+            StringBuilder line = new StringBuilder("END");
+            for (int c = read(); c != END_OF_INPUT && !isLineEnd(c); c = read()) line.append((char) c);
+            int length = line.length();
+            while (length > 0 && line.charAt(length - 1) == '\r') length--;
+            terminator = line.substring(0, length);
+            return true;
+        }
+        //the line is not a terminator, skip it
+        int c = d == -2 ? n : d;
+        if (c != END_OF_INPUT && !isLineEnd(c)) skipLine();
+        throw new NumberFormatException("Line " + lineNumber + ": not a number");
+    }
+
+    /**
+     * Parse a decimal number of at most 19 significant digits and an exponent. When the digits and the
+     * power of ten are both exact doubles a single multiplication or division is correctly rounded, otherwise
+     * and for every other form Double.parseDouble decides.
+     */
+    private double parseToken(int length) {
+        if (length == token.length) throw new NumberFormatException("entry is too long");
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (token[i] == '-' || token[i] == '+')) negative = token[i++] == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        //18 digits always fit in a long, a 19th could overflow it
+        while (i < length && token[i] >= '0' && token[i] <= '9') {
+            anyDigit = true;
+            if (digits < 18) {
+                mantissa = 10 * mantissa + (token[i] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+            }
+            i++;
+        }
+        if (i < length && token[i] == '.') {
+            i++;
+            while (i < length && token[i] >= '0' && token[i] <= '9') {
+                anyDigit = true;
+                if (digits < 18) {
+                    mantissa = 10 * mantissa + (token[i] - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                }
+                i++;
+            }
+        }
+        if (anyDigit && i < length && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (token[i] == '-' || token[i] == '+')) negativeExponent = token[i++] == '-';
+            int explicit = 0;
+            boolean exponentDigit = false;
+            while (i < length && token[i] >= '0' && token[i] <= '9') {
+                exponentDigit = true;
+                if (explicit < 100000) explicit = 10 * explicit + (token[i] - '0');
+                i++;
+            }
+            if (!exponentDigit) return slowParse(length);
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (!anyDigit || i != length) return slowParse(length);
+
+        //2^53, largest range of exactly representable integers
+        if (mantissa < (1L << 53) && Math.abs(exponent) < POWERS_OF_TEN.length) {
+            double value = mantissa;
+            value = exponent >= 0 ? value * POWERS_OF_TEN[exponent] : value / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return slowParse(length);
+    }
+
+    private double slowParse(int length) {
+        String text = new String(token, 0, length, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("\"" + text + "\" is not a number");
+        }
+    }
+}
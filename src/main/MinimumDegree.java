@@ -0,0 +1,110 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Minimum degree ordering of the columns of a sparse matrix.
+ * The column graph is eliminated one column at a time, always picking a column with the fewest
+ * remaining neighbours, and the neighbours of each eliminated column are joined into a clique
+ * exactly as elimination would fill them in. Picking the cheapest column first keeps fill-in far
+ * below that of a banded ordering on grid and network matrices.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class MinimumDegree {
+    private MinimumDegree() {
+    }
+
+    /**
+     * @return order[k] = the original column placed at position k
+     */
+    public static int[] order(SparseMatrix matrix) {
+        int[][] graph = ReverseCuthillMcKee.columnGraph(matrix);
+        final int n = graph.length;
+        int[][] adjacency = new int[n][];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            adjacency[v] = graph[v];
+            size[v] = graph[v].length;
+        }
+
+        //columns bucketed by degree in doubly linked lists
+        int[] head = new int[n + 1];
+        int[] next = new int[n];
+        int[] previous = new int[n];
+        int[] degree = new int[n];
+        Arrays.fill(head, -1);
+        for (int v = 0; v < n; v++) {
+            degree[v] = size[v];
+            insert(head, next, previous, v, degree[v]);
+        }
+
+        boolean[] eliminated = new boolean[n];
+        int[] mark = new int[n];
+        int stamp = 0;
+        int[] neighbours = new int[n];
+        int[] order = new int[n];
+        int minDegree = 0;
+        for (int k = 0; k < n; k++) {
+            while (head[minDegree] == -1) minDegree++;
+            final int v = head[minDegree];
+            remove(head, next, previous, v, degree[v]);
+            eliminated[v] = true;
+            order[k] = v;
+
+            //remaining neighbours of v
+            int count = 0;
+            for (int i = 0; i < size[v]; i++) {
+                int u = adjacency[v][i];
+                if (!eliminated[u]) neighbours[count++] = u;
+            }
+            adjacency[v] = null;
+
+            //join the neighbours into a clique, dropping eliminated columns as we go
+            for (int i = 0; i < count; i++) {
+                final int u = neighbours[i];
+                stamp++;
+                int[] list = adjacency[u];
+                int kept = 0;
+                for (int j = 0; j < size[u]; j++) {
+                    int w = list[j];
+                    if (!eliminated[w] && mark[w] != stamp) {
+                        mark[w] = stamp;
+                        list[kept++] = w;
+                    }
+                }
+                mark[u] = stamp;
+                for (int j = 0; j < count; j++) {
+                    int w = neighbours[j];
+                    if (mark[w] != stamp) {
+                        mark[w] = stamp;
+                        if (kept == list.length) list = Arrays.copyOf(list, Math.max(4, 2 * kept));
+                        list[kept++] = w;
+                    }
+                }
+                adjacency[u] = list;
+                size[u] = kept;
+
+                remove(head, next, previous, u, degree[u]);
+                degree[u] = kept;
+                insert(head, next, previous, u, kept);
+                minDegree = Math.min(minDegree, kept);
+            }
+        }
+        return order;
+    }
+
+    private static void insert(int[] head, int[] next, int[] previous, int v, int degree) {
+        next[v] = head[degree];
+        previous[v] = -1;
+        if (head[degree] != -1) previous[head[degree]] = v;
+        head[degree] = v;
+    }
+
+    private static void remove(int[] head, int[] next, int[] previous, int v, int degree) {
+        if (previous[v] != -1) next[previous[v]] = next[v];
+        else head[degree] = next[v];
+        if (next[v] != -1) previous[next[v]] = previous[v];
+    }
+}
@@ -0,0 +1,307 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves square systems with an LU factorization in single precision, which halves the memory traffic of the
+ * O(n^3) factorization and fits twice as many elements in each SIMD register, then recovers double precision by
+ * iterative refinement: the residual r = b - Ax is computed in double against the original matrix, the correction
+ * solves the float factors for r, and x += correction, until the residual is as small as a double precision solve
+ * would leave it.
+ * <p>
+ * Refinement converges when A is not too ill-conditioned for float, roughly cond(A) below 10^7. When the correction
+ * stops shrinking, or after {@link #MAX_ITERATIONS}, the system is solved again with a double precision
+ * {@link LUDecomposition}, factored the first time it is needed. The same happens for every right-hand side when
+ * the matrix does not fit in floats or its float factors are singular, see {@link #isUsable()}.
+ * <p>
+ * A MixedPrecisionSolver is immutable apart from its counters and the lazily factored fallback, and may be
+ * shared between threads.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class MixedPrecisionSolver {
+    // refinement steps before falling back to double precision
+    public static final int MAX_ITERATIONS = 30;
+    // each correction must be at most this fraction of the previous one, or refinement has stalled
+    static final double STALL_RATIO = 0.5;
+
+    private final int n;
+    private final DenseMatrix matrix;
+    // L (unit lower, diagonal not stored) and U packed row-major, in single precision
+    private final float[] lu;
+    // row i of the factored matrix is row perm[i] of the original matrix
+    private final int[] perm;
+    private final boolean usable;
+    // infinity norm of the matrix, for the convergence test
+    private final double norm;
+    private volatile LUDecomposition fallback = null;
+    private final AtomicLong solves = new AtomicLong();
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * Factor a square matrix in single precision, the matrix is copied for computing residuals
+     */
+    public MixedPrecisionSolver(DenseMatrix matrix) {
+        this.n = matrix.getRows();
+        if (matrix.getCols() != n) throw new IllegalArgumentException("Matrix is not square");
+        this.matrix = matrix.copy();
+        this.lu = new float[n * n];
+        this.perm = new int[n];
+        double maxRowSum = 0;
+        boolean fits = true;
+        for (int r = 0; r < n; r++) {
+            double rowSum = 0;
+            for (int c = 0; c < n; c++) {
+                final double value = this.matrix.get(r, c);
+                rowSum += Math.abs(value);
+                lu[r * n + c] = (float) value;
+                if (Math.abs(value) > Float.MAX_VALUE) fits = false;
+            }
+            maxRowSum = Math.max(maxRowSum, rowSum);
+            perm[r] = r;
+        }
+        this.norm = maxRowSum;
+        this.usable = fits && factor();
+    }
+
+    /**
+     * Blocked elimination with partial pivoting, the same panels and tiles as {@link LUDecomposition} with tiles
+     * twice as wide, since a float takes half the space
+     *
+     * @return false if a pivot is zero within float rounding error
+     */
+    private boolean factor() {
+        float maxAbs = 0;
+        for (float value : lu) maxAbs = Math.max(maxAbs, Math.abs(value));
+        // pivots this small relative to the largest entry are indistinguishable from rounding error
+        final float tolerance = n * Math.ulp(maxAbs);
+        for (int k = 0; k < n; k += LUDecomposition.PANEL_SIZE) {
+            int panelEnd = Math.min(k + LUDecomposition.PANEL_SIZE, n);
+            if (!factorPanel(k, panelEnd, tolerance)) return false;
+            if (panelEnd < n) {
+                solveUpperPanel(k, panelEnd);
+                updateTrailingMatrix(k, panelEnd);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unblocked elimination of columns [start, end), swapping whole rows but only updating the panel's own columns
+     */
+    private boolean factorPanel(int start, int end, float tolerance) {
+        for (int j = start; j < end; j++) {
+            int pivotRow = j;
+            float pivotAbs = Math.abs(lu[j * n + j]);
+            for (int row = j + 1; row < n; row++) {
+                float value = Math.abs(lu[row * n + j]);
+                if (value > pivotAbs) {
+                    pivotAbs = value;
+                    pivotRow = row;
+                }
+            }
+            if (pivotAbs <= tolerance) return false;
+            if (pivotRow != j) {
+                for (int c = 0; c < n; c++) {
+                    float temp = lu[j * n + c];
+                    lu[j * n + c] = lu[pivotRow * n + c];
+                    lu[pivotRow * n + c] = temp;
+                }
+                int tempIndex = perm[j];
+                perm[j] = perm[pivotRow];
+                perm[pivotRow] = tempIndex;
+            }
+            final float pivot = lu[j * n + j];
+            final int pivotStart = j * n;
+            for (int row = j + 1; row < n; row++) {
+                final int rowStart = row * n;
+                final float multiplier = lu[rowStart + j] / pivot;
+                lu[rowStart + j] = multiplier;
+                if (multiplier == 0) continue;
+                for (int c = j + 1; c < end; c++) lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * U12 = inverse(L11) * A12 for the rows of the panel and the columns to the right of it
+     */
+    private void solveUpperPanel(int start, int end) {
+        for (int j = start; j < end; j++) {
+            final int pivotStart = j * n;
+            for (int row = j + 1; row < end; row++) {
+                final int rowStart = row * n;
+                final float multiplier = lu[rowStart + j];
+                if (multiplier == 0) continue;
+                for (int c = end; c < n; c++) lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+            }
+        }
+    }
+
+    /**
+     * A22 = A22 - L21 * U12, one column tile at a time so the tile of U12 stays in cache
+     */
+    private void updateTrailingMatrix(int start, int end) {
+        final int tileSize = 2 * LUDecomposition.TILE_SIZE;
+        for (int tileStart = end; tileStart < n; tileStart += tileSize) {
+            final int tileEnd = Math.min(tileStart + tileSize, n);
+            for (int row = end; row < n; row++) {
+                final int rowStart = row * n;
+                for (int p = start; p < end; p++) {
+                    final float multiplier = lu[rowStart + p];
+                    if (multiplier == 0) continue;
+                    final int pivotStart = p * n;
+                    for (int c = tileStart; c < tileEnd; c++) lu[rowStart + c] -= multiplier * lu[pivotStart + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if every solve goes straight to double precision, because the matrix does not fit in floats
+     * or is singular to float precision
+     */
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Solve the float factors for a double right-hand side, rounding it to float
+     */
+    private void solveFloat(double[] b, float[] work, double[] x) {
+        //forward substitution, Ly = Pb
+        for (int i = 0; i < n; i++) {
+            final int rowStart = i * n;
+            float sum = (float) b[perm[i]];
+            for (int p = 0; p < i; p++) sum -= lu[rowStart + p] * work[p];
+            work[i] = sum;
+        }
+        //back substitution, Ux = y
+        for (int i = n - 1; i >= 0; i--) {
+            final int rowStart = i * n;
+            float sum = work[i];
+            for (int p = i + 1; p < n; p++) sum -= lu[rowStart + p] * work[p];
+            work[i] = sum / lu[rowStart + i];
+        }
+        for (int i = 0; i < n; i++) x[i] = work[i];
+    }
+
+    private static double maxAbs(double[] vector) {
+        double max = 0;
+        for (double value : vector) max = Math.max(max, Math.abs(value));
+        return max;
+    }
+
+    /**
+     * Solve Ax = b to double precision into a caller supplied array, b and x must not be the same array
+     *
+     * @return refinement steps taken, including those before a fallback
+     * @throws ArithmeticException the matrix is singular in double precision as well
+     */
+    public int solve(double[] b, double[] x) {
+        if (b.length != n || x.length != n) throw new IllegalArgumentException("Expected vectors of length " + n);
+        solves.incrementAndGet();
+        if (!usable) {
+            solveDouble(b, x);
+            return 0;
+        }
+        float[] work = new float[n];
+        double[] residual = new double[n];
+        double[] correction = new double[n];
+        solveFloat(b, work, x);
+        // stop once the residual is as small as a backward stable double solve leaves it, sqrt(n) * eps * |A| * |x|
+        final double epsilon = Math.ulp(1.0) * Math.sqrt(n);
+        double previous = Double.POSITIVE_INFINITY;
+        for (int step = 0; ; step++) {
+            //r = b - Ax in double
+            matrix.multiply(x, residual);
+            for (int i = 0; i < n; i++) residual[i] = b[i] - residual[i];
+            final double xNorm = maxAbs(x);
+            if (!(xNorm < Double.POSITIVE_INFINITY)) return fallBack(b, x, step); // the float solve overflowed
+            if (maxAbs(residual) <= epsilon * norm * xNorm) {
+                iterations.addAndGet(step);
+                return step;
+            }
+            if (step == MAX_ITERATIONS) return fallBack(b, x, step);
+            solveFloat(residual, work, correction);
+            final double size = maxAbs(correction);
+            if (!(size <= STALL_RATIO * previous)) return fallBack(b, x, step);
+            previous = size;
+            for (int i = 0; i < n; i++) x[i] += correction[i];
+        }
+    }
+
+    /**
+     * @return a new array holding x
+     */
+    public double[] solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        return x;
+    }
+
+    /**
+     * Solve AX = B for every column of B, overwriting B with X
+     *
+     * @return refinement steps taken for each column
+     */
+    public int[] solve(DenseMatrix rhs) {
+        if (rhs.getRows() != n) throw new IllegalArgumentException("Expected " + n + " rows of right-hand sides");
+        final int k = rhs.getCols();
+        int[] steps = new int[k];
+        double[] b = new double[n];
+        double[] x = new double[n];
+        for (int j = 0; j < k; j++) {
+            for (int r = 0; r < n; r++) b[r] = rhs.get(r, j);
+            steps[j] = solve(b, x);
+            for (int r = 0; r < n; r++) rhs.set(r, j, x[r]);
+        }
+        return steps;
+    }
+
+    private int fallBack(double[] b, double[] x, int steps) {
+        iterations.addAndGet(steps);
+        solveDouble(b, x);
+        return steps;
+    }
+
+    private void solveDouble(double[] b, double[] x) {
+        fallbacks.incrementAndGet();
+        LUDecomposition factors = fallback;
+        if (factors == null) {
+            synchronized (this) {
+                if (fallback == null) fallback = new LUDecomposition(matrix);
+                factors = fallback;
+            }
+        }
+        factors.solve(b, x);
+    }
+
+    /**
+     * @return number of right-hand sides solved
+     */
+    public long getSolves() {
+        return solves.get();
+    }
+
+    /**
+     * @return refinement steps taken over all solves
+     */
+    public long getIterations() {
+        return iterations.get();
+    }
+
+    /**
+     * @return number of solves that fell back to double precision
+     */
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+}
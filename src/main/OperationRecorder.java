@@ -0,0 +1,271 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every elementary row operation of a solve as a compact record (operation, rows, scalar)
+ * instead of printing the matrix after each one, so an audit trail costs a few array writes per operation.
+ * <p>
+ * Records go to a preallocated ring buffer that keeps the most recent capacity operations, and optionally to
+ * a binary trace file that keeps all of them. Together with the matrix passed to {@link #begin(DenseMatrix)}
+ * the operations rebuild any intermediate matrix, see {@link #replay(long)} and {@link OperationReplay}.
+ * <p>
+ * Trace file layout, little-endian: the int magic "LEST", an int version, then records of
+ * {@value #RECORD_SIZE} bytes (int operation, int row, int source row, double scalar). A BEGIN record holds the
+ * matrix dimensions in its row fields and is followed by the matrix itself, rows * cols doubles in row-major order.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class OperationRecorder implements Closeable {
+    static final int TRACE_MAGIC = 0x5453454C; // "LEST" read as a little-endian int
+    static final int TRACE_VERSION = 1;
+    static final int RECORD_SIZE = 20;
+    static final int BEGIN = 0;
+    static final int TRACE_BUFFER_SIZE = 64 * 1024;
+
+    public enum Operation {
+        // row 1 <-> row 2
+        SWAP,
+        // row *= scalar
+        SCALE,
+        // row += scalar * source row
+        ADD,
+        // every element rounded to 5 decimal places
+        ROUND;
+
+        int code() {
+            return ordinal() + 1;
+        }
+
+        static Operation of(int code) {
+            return values()[code - 1];
+        }
+    }
+
+    private final int capacity;
+    private final byte[] operations;
+    private final int[] rows;
+    private final int[] sources;
+    private final double[] scalars;
+    // operations recorded since the last begin, the last capacity of which are still in the ring
+    private long count = 0;
+    private DenseMatrix initial = null;
+
+    private final FileChannel trace;
+    private final ByteBuffer traceBuffer;
+
+    /**
+     * Record into a ring buffer only
+     *
+     * @param capacity number of most recent operations kept
+     */
+    public OperationRecorder(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        this.operations = new byte[capacity];
+        this.rows = new int[capacity];
+        this.sources = new int[capacity];
+        this.scalars = new double[capacity];
+        this.trace = null;
+        this.traceBuffer = null;
+    }
+
+    /**
+     * Record into a ring buffer and append every operation to a trace file, which is overwritten
+     */
+    public OperationRecorder(int capacity, Path traceFile) throws IOException {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        this.operations = new byte[capacity];
+        this.rows = new int[capacity];
+        this.sources = new int[capacity];
+        this.scalars = new double[capacity];
+        this.trace = FileChannel.open(traceFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.traceBuffer = ByteBuffer.allocateDirect(TRACE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        traceBuffer.putInt(TRACE_MAGIC).putInt(TRACE_VERSION);
+    }
+
+    /**
+     * Start recording a new solve of the given matrix, a copy of which is kept as the starting point of replays
+     */
+    public void begin(DenseMatrix matrix) throws IOException {
+        initial = matrix.copy();
+        count = 0;
+        if (trace == null) return;
+        writeRecord(BEGIN, matrix.getRows(), matrix.getCols(), 0);
+        double[] data = initial.getData();
+        for (int i = 0; i < data.length; i++) {
+            if (!traceBuffer.hasRemaining()) flushTrace();
+            traceBuffer.putDouble(data[i]);
+        }
+    }
+
+    void swap(int row1, int row2) {
+        record(Operation.SWAP, row1, row2, 0);
+    }
+
+    void scale(int row, double scalar) {
+        record(Operation.SCALE, row, row, scalar);
+    }
+
+    void add(int row, int source, double scalar) {
+        record(Operation.ADD, row, source, scalar);
+    }
+
+    void round() {
+        record(Operation.ROUND, 0, 0, 0);
+    }
+
+    private void record(Operation operation, int row, int source, double scalar) {
+        final int slot = (int) (count % capacity);
+        operations[slot] = (byte) operation.code();
+        rows[slot] = row;
+        sources[slot] = source;
+        scalars[slot] = scalar;
+        count++;
+        if (trace != null) {
+            try {
+                writeRecord(operation.code(), row, source, scalar);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write the operation trace", e);
+            }
+        }
+    }
+
+    private void writeRecord(int operation, int row, int source, double scalar) throws IOException {
+        if (traceBuffer.remaining() < RECORD_SIZE) flushTrace();
+        traceBuffer.putInt(operation).putInt(row).putInt(source).putDouble(scalar);
+    }
+
+    private void flushTrace() throws IOException {
+        traceBuffer.flip();
+        while (traceBuffer.hasRemaining()) trace.write(traceBuffer);
+        traceBuffer.clear();
+    }
+
+    /**
+     * @return number of operations recorded since the last begin
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * @return index of the oldest operation still held in the ring buffer
+     */
+    public long getFirstRetained() {
+        return Math.max(0, count - capacity);
+    }
+
+    public Operation getOperation(long step) {
+        return Operation.of(operations[slot(step)]);
+    }
+
+    /**
+     * @return the row changed by the operation, or the first row of a swap
+     */
+    public int getRow(long step) {
+        return rows[slot(step)];
+    }
+
+    /**
+     * @return the row added by an ADD, or the second row of a swap
+     */
+    public int getSourceRow(long step) {
+        return sources[slot(step)];
+    }
+
+    public double getScalar(long step) {
+        return scalars[slot(step)];
+    }
+
+    /**
+     * @return the operation in the words of the logging mode
+     */
+    public String describe(long step) {
+        return describe(getOperation(step), getRow(step), getSourceRow(step), getScalar(step));
+    }
+
+    static String describe(Operation operation, int row, int source, double scalar) {
+        switch (operation) {
+            case SWAP:
+                return "Swapping rows #" + row + " and #" + source;
+            case SCALE:
+                return "Scaling row #" + row + " by " + scalar;
+            case ADD:
+                return "Row #" + row + " -> row #" + row + " + row #" + source + " * " + scalar;
+            default:
+                return "Rounding to 5 decimal places";
+        }
+    }
+
+    private int slot(long step) {
+        if (step < getFirstRetained() || step >= count) throw new IndexOutOfBoundsException("Operation #" + step + " is not retained");
+        return (int) (step % capacity);
+    }
+
+    /**
+     * Rebuild the matrix as it was after the first steps operations of the current solve
+     *
+     * @throws IllegalStateException some of those operations were already overwritten in the ring buffer,
+     *                               replay the trace file instead
+     */
+    public DenseMatrix replay(long steps) {
+        if (initial == null) throw new IllegalStateException("Nothing has been recorded");
+        if (steps < 0 || steps > count) throw new IndexOutOfBoundsException("Only " + count + " operations were recorded");
+        if (count > capacity) throw new IllegalStateException("The ring buffer only holds the last " + capacity + " operations");
+        DenseMatrix matrix = initial.copy();
+        LinearSolver solver = new LinearSolver();
+        for (long step = 0; step < steps; step++) {
+            apply(solver, matrix, getOperation(step), getRow(step), getSourceRow(step), getScalar(step));
+        }
+        return matrix;
+    }
+
+    /**
+     * Repeat one operation exactly the way the solver performed it
+     */
+    static void apply(LinearSolver solver, DenseMatrix matrix, Operation operation, int row, int source, double scalar) {
+        switch (operation) {
+            case SWAP:
+                solver.swapRows(matrix, row, source);
+                break;
+            case SCALE:
+                try {
+                    solver.scaleRow(matrix, row, scalar);
+                } catch (Exception e) {
+                    // scaling by zero is rejected by scaleRow, so it is never recorded
+                    throw new IllegalStateException(e);
+                }
+                break;
+            case ADD:
+                solver.addRows(matrix, row, source, scalar);
+                break;
+            default:
+                LinearSolver.roundMatrix(matrix);
+        }
+    }
+
+    /**
+     * Write any buffered trace records to the file
+     */
+    public void flush() throws IOException {
+        if (trace != null) flushTrace();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (trace != null) {
+            flushTrace();
+            trace.close();
+        }
+    }
+}
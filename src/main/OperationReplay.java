@@ -0,0 +1,208 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Replays a binary trace written by {@link OperationRecorder} to rebuild the matrix at any step of any recorded solve.
+ * Opening a trace only indexes where each solve starts, operations are read again on every replay,
+ * so traces much larger than memory can be audited.
+ * <p>
+ * Usage: {@code java main.OperationReplay trace [solve [step]]}. Without a solve, lists the recorded solves.
+ * Without a step, lists the operations of the solve. Otherwise prints the matrix after that many operations.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class OperationReplay {
+    private static final int HEADER_SIZE = 8;
+
+    private final Path file;
+    // for each solve, the position of its BEGIN record, its dimensions and number of operations
+    private long[] starts = new long[8];
+    private int[] rows = new int[8];
+    private int[] cols = new int[8];
+    private long[] counts = new long[8];
+    private int solves = 0;
+
+    /**
+     * @throws IOException the file is not a trace
+     */
+    public OperationReplay(Path trace) throws IOException {
+        this.file = trace;
+        try (Cursor cursor = new Cursor(trace, 0)) {
+            if (!cursor.ensure(HEADER_SIZE) || cursor.buffer.getInt() != OperationRecorder.TRACE_MAGIC)
+                throw new IOException("Not an operation trace");
+            if (cursor.buffer.getInt() != OperationRecorder.TRACE_VERSION) throw new IOException("Unsupported trace version");
+            while (cursor.ensure(OperationRecorder.RECORD_SIZE)) {
+                long position = cursor.position();
+                int operation = cursor.buffer.getInt();
+                int row = cursor.buffer.getInt();
+                int source = cursor.buffer.getInt();
+                cursor.buffer.getDouble();
+                if (operation == OperationRecorder.BEGIN) {
+                    if (solves == starts.length) grow();
+                    starts[solves] = position;
+                    rows[solves] = row;
+                    cols[solves] = source;
+                    solves++;
+                    cursor.skip(8L * row * source);
+                } else {
+                    if (solves == 0) throw new IOException("Trace does not start with a matrix");
+                    if (operation > OperationRecorder.Operation.values().length) throw new IOException("Unknown operation " + operation);
+                    counts[solves - 1]++;
+                }
+            }
+        }
+    }
+
+    private void grow() {
+        starts = Arrays.copyOf(starts, 2 * solves);
+        rows = Arrays.copyOf(rows, 2 * solves);
+        cols = Arrays.copyOf(cols, 2 * solves);
+        counts = Arrays.copyOf(counts, 2 * solves);
+    }
+
+    /**
+     * @return number of solves recorded in the trace
+     */
+    public int getSolveCount() {
+        return solves;
+    }
+
+    public long getOperationCount(int solve) {
+        checkSolve(solve);
+        return counts[solve];
+    }
+
+    public DenseMatrix getInitialMatrix(int solve) throws IOException {
+        return replay(solve, 0);
+    }
+
+    /**
+     * Rebuild the matrix of a solve as it was after its first steps operations
+     */
+    public DenseMatrix replay(int solve, long steps) throws IOException {
+        checkSolve(solve);
+        if (steps < 0 || steps > counts[solve]) throw new IndexOutOfBoundsException("Solve #" + solve + " has " + counts[solve] + " operations");
+        DenseMatrix matrix = new DenseMatrix(rows[solve], cols[solve]);
+        double[] data = matrix.getData();
+        LinearSolver solver = new LinearSolver();
+        try (Cursor cursor = new Cursor(file, starts[solve] + OperationRecorder.RECORD_SIZE)) {
+            for (int i = 0; i < data.length; i++) {
+                cursor.ensure(8);
+                data[i] = cursor.buffer.getDouble();
+            }
+            for (long step = 0; step < steps; step++) {
+                cursor.ensure(OperationRecorder.RECORD_SIZE);
+                OperationRecorder.Operation operation = OperationRecorder.Operation.of(cursor.buffer.getInt());
+                int row = cursor.buffer.getInt();
+                int source = cursor.buffer.getInt();
+                double scalar = cursor.buffer.getDouble();
+                OperationRecorder.apply(solver, matrix, operation, row, source, scalar);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * @return the operations of a solve in the words of the logging mode, one per element
+     */
+    public String[] describe(int solve) throws IOException {
+        checkSolve(solve);
+        if (counts[solve] > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many operations to list");
+        String[] descriptions = new String[(int) counts[solve]];
+        long first = starts[solve] + OperationRecorder.RECORD_SIZE + 8L * rows[solve] * cols[solve];
+        try (Cursor cursor = new Cursor(file, first)) {
+            for (int i = 0; i < descriptions.length; i++) {
+                cursor.ensure(OperationRecorder.RECORD_SIZE);
+                OperationRecorder.Operation operation = OperationRecorder.Operation.of(cursor.buffer.getInt());
+                descriptions[i] = OperationRecorder.describe(operation, cursor.buffer.getInt(), cursor.buffer.getInt(),
+                        cursor.buffer.getDouble());
+            }
+        }
+        return descriptions;
+    }
+
+    private void checkSolve(int solve) {
+        if (solve < 0 || solve >= solves) throw new IndexOutOfBoundsException("The trace holds " + solves + " solves");
+    }
+
+    /**
+     * Sequential reader over the trace file through a small buffer
+     */
+    private static class Cursor implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OperationRecorder.TRACE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        // file position of the end of the buffered bytes
+        private long filePosition;
+
+        Cursor(Path file, long position) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.filePosition = position;
+            buffer.limit(0);
+        }
+
+        long position() {
+            return filePosition - buffer.remaining();
+        }
+
+        /**
+         * @return false if fewer than bytes bytes are left in the file
+         */
+        boolean ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return true;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, filePosition);
+                if (read <= 0) break;
+                filePosition += read;
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+
+        void skip(long bytes) {
+            if (bytes <= buffer.remaining()) {
+                buffer.position(buffer.position() + (int) bytes);
+            } else {
+                filePosition += bytes - buffer.remaining();
+                buffer.limit(0);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: java main.OperationReplay trace [solve [step]]");
+            return;
+        }
+        OperationReplay replay = new OperationReplay(Path.of(args[0]));
+        if (args.length == 1) {
+            for (int solve = 0; solve < replay.getSolveCount(); solve++) {
+                System.out.println("Solve #" + solve + ": " + replay.rows[solve] + "x" + replay.cols[solve] + " matrix, "
+                        + replay.getOperationCount(solve) + " operations");
+            }
+            return;
+        }
+        int solve = Integer.parseInt(args[1]);
+        if (args.length == 2) {
+            String[] descriptions = replay.describe(solve);
+            for (int step = 0; step < descriptions.length; step++) System.out.println(step + 1 + ": " + descriptions[step]);
+            return;
+        }
+        long step = Long.parseLong(args[2]);
+        System.out.println("Matrix after " + step + " operations:");
+        System.out.print(replay.replay(solve, step));
+    }
+}
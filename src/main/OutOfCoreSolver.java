@@ -0,0 +1,309 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Gauss-Jordan elimination of systems too large for the heap, read from and written to memory-mapped
+ * {@link MatrixFile}s. The heap only holds a bounded working set, sized from a memory budget:
+ * <ul>
+ *     <li>a panel of up to {@link #MAX_PANEL} columns of the rows below the pivots found so far, in which the next
+ *     pivots are chosen by partial pivoting, the same choice Gaussian elimination of the whole matrix would make</li>
+ *     <li>the new pivot rows, turned into rows of the reduced matrix by inverting the small pivot block</li>
+ *     <li>a tile of rows, streamed through to subtract multiples of the pivot rows</li>
+ * </ul>
+ * Each panel therefore costs one pass over the file, and pages are read and written back by the operating system
+ * as the passes touch them. The reduced matrix is rounded like {@link LinearSolver#solveMatrix(DenseMatrix)} rounds it,
+ * and {@link #findSolutionSpace(MappedMatrix, Path)} writes the same layout as
+ * {@link LinearSolver#findSolutionSpace(DenseMatrix)}, so results can be read by anything that reads either.
+ * <p>
+ * An instance keeps the pivots of its last reduction, so each thread should use its own.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class OutOfCoreSolver {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    // widest column panel, wider panels mean fewer passes but a larger pivot block to invert
+    static final int MAX_PANEL = 64;
+
+    // relative size below which entries count as zero when choosing pivots
+    public static final double DEFAULT_EPSILON = 1e-12;
+
+    private final long memoryBudget;
+    private double epsilon = DEFAULT_EPSILON;
+    private int panelWidth = 0;
+    private int tileRows = 0;
+    private int passes = 0;
+    private int[] pivotColumns = new int[0];
+
+    public OutOfCoreSolver() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param memoryBudget bytes of heap the working set may take, panels and tiles shrink to fit, down to one column
+     *                     and one row
+     */
+    public OutOfCoreSolver(long memoryBudget) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Memory budget must be positive");
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Treat entries with |x| <= epsilon * (largest |entry| of the matrix) as zero when choosing pivots,
+     * which decides the rank. Block updates leave rounding residue where exact elimination leaves zeros,
+     * so unlike {@link LinearSolver#setEpsilon(double)} the default is not 0 but {@link #DEFAULT_EPSILON}.
+     */
+    public void setEpsilon(double epsilon) {
+        if (!(epsilon >= 0)) throw new IllegalArgumentException("Epsilon must not be negative");
+        this.epsilon = epsilon;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * @return the pivot column of each pivot row of the last reduction, its length is the rank
+     */
+    public int[] getPivotColumns() {
+        return pivotColumns.clone();
+    }
+
+    /**
+     * @return columns per panel of the last reduction
+     */
+    public int getPanelWidth() {
+        return panelWidth;
+    }
+
+    /**
+     * @return rows per streamed tile of the last reduction
+     */
+    public int getTileRows() {
+        return tileRows;
+    }
+
+    /**
+     * @return passes over the file made by the last reduction, including the copy and the rounding
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Reduce the augmented system in a dense matrix file to reduced row echelon form, written to a new file.
+     * The input file is only read.
+     *
+     * @return the reduced matrix, mapped from its file
+     * @throws IOException the input is not a dense matrix file, or a file could not be read or written
+     */
+    public MappedMatrix reduce(Path system, Path reduced) throws IOException {
+        MappedMatrix input = MatrixFile.map(system);
+        final int rows = input.getRows();
+        final int cols = input.getCols();
+        final long width = Math.max(rows, cols);
+        panelWidth = (int) Math.max(1, Math.min(Math.min(MAX_PANEL, cols), memoryBudget / (16 * Math.max(width, 1))));
+        tileRows = (int) Math.max(1, Math.min(rows, (memoryBudget - 16L * panelWidth * width) / (8L * Math.max(cols, 1))));
+        passes = 0;
+
+        //copy the input, finding the largest entry for the pivot tolerance on the way
+        MappedMatrix matrix = MatrixFile.create(reduced, rows, cols);
+        // a row interchange borrows the first two rows of the tile
+        double[] tile = new double[Math.max(tileRows, 2) * cols];
+        double maxAbs = 0;
+        for (int first = 0; first < rows; first += tileRows) {
+            final int count = Math.min(tileRows, rows - first);
+            for (int r = 0; r < count; r++) input.getRow(first + r, tile, r * cols);
+            for (int i = 0; i < count * cols; i++) maxAbs = Math.max(maxAbs, Math.abs(tile[i]));
+            for (int r = 0; r < count; r++) matrix.setRow(first + r, tile, r * cols);
+        }
+        passes++;
+        final double tolerance = epsilon * maxAbs;
+
+        int[] pivots = new int[Math.min(rows, cols)];
+        int rank = 0;
+        double[] panel = new double[rows * panelWidth];
+        int[] swaps = new int[panelWidth];
+        int[] panelPivots = new int[panelWidth];
+        for (int k = 0; k < cols && rank < rows; k += panelWidth) {
+            final int panelCols = Math.min(panelWidth, cols - k);
+            final int found = factorPanel(matrix, rank, k, panelCols, panel, swaps, panelPivots, tolerance);
+            if (found == 0) continue;
+            //move the pivot rows up, replaying the interchanges the panel made
+            for (int i = 0; i < found; i++) {
+                if (swaps[i] != i) swapRows(matrix, rank + i, rank + swaps[i], tile);
+            }
+            DenseMatrix pivotRows = reducePivotRows(matrix, rank, found, k, panelPivots);
+            eliminate(matrix, rank, found, k, panelPivots, pivotRows, tile);
+            for (int i = 0; i < found; i++) pivots[rank + i] = k + panelPivots[i];
+            rank += found;
+        }
+        pivotColumns = Arrays.copyOf(pivots, rank);
+
+        //round like LinearSolver, one tile at a time
+        for (int first = 0; first < rows; first += tileRows) {
+            final int count = Math.min(tileRows, rows - first);
+            for (int r = 0; r < count; r++) matrix.getRow(first + r, tile, r * cols);
+            LinearSolver.roundMatrix(new DenseMatrix(count, cols, tile, 0, cols));
+            for (int r = 0; r < count; r++) matrix.setRow(first + r, tile, r * cols);
+        }
+        passes++;
+        matrix.force();
+        return matrix;
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting of the panel of columns [k, k + panelCols) of the rows from
+     * rank down, on a heap copy, to choose the pivot rows. The matrix itself is not changed.
+     *
+     * @param swaps       receives the row interchanges, row i of the panel was swapped with row swaps[i]
+     * @param panelPivots receives the pivot columns, relative to k
+     * @return number of pivots found
+     */
+    private int factorPanel(MappedMatrix matrix, int rank, int k, int panelCols, double[] panel, int[] swaps,
+                            int[] panelPivots, double tolerance) {
+        final int rows = matrix.getRows() - rank;
+        final int width = panelWidth;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < panelCols; c++) panel[r * width + c] = matrix.get(rank + r, k + c);
+        }
+        passes++;
+        int found = 0;
+        for (int c = 0; c < panelCols && found < rows; c++) {
+            int pivotRow = found;
+            double pivotAbs = Math.abs(panel[found * width + c]);
+            for (int r = found + 1; r < rows; r++) {
+                double value = Math.abs(panel[r * width + c]);
+                if (value > pivotAbs) {
+                    pivotAbs = value;
+                    pivotRow = r;
+                }
+            }
+            if (pivotAbs <= tolerance) continue; // free column
+            if (pivotRow != found) {
+                for (int j = 0; j < panelCols; j++) {
+                    double temp = panel[found * width + j];
+                    panel[found * width + j] = panel[pivotRow * width + j];
+                    panel[pivotRow * width + j] = temp;
+                }
+            }
+            swaps[found] = pivotRow;
+            final double pivot = panel[found * width + c];
+            for (int r = found + 1; r < rows; r++) {
+                final double multiplier = panel[r * width + c] / pivot;
+                if (multiplier == 0) continue;
+                for (int j = c; j < panelCols; j++) panel[r * width + j] -= multiplier * panel[found * width + j];
+            }
+            panelPivots[found++] = c;
+        }
+        return found;
+    }
+
+    private static void swapRows(MappedMatrix matrix, int row1, int row2, double[] buffer) {
+        final int cols = matrix.getCols();
+        matrix.getRow(row1, buffer, 0);
+        matrix.getRow(row2, buffer, cols);
+        matrix.setRow(row1, buffer, cols);
+        matrix.setRow(row2, buffer, 0);
+    }
+
+    /**
+     * Multiply the new pivot rows by the inverse of their pivot block, which turns the block into the identity,
+     * and write them back
+     *
+     * @return the reduced pivot rows from column k on
+     */
+    private static DenseMatrix reducePivotRows(MappedMatrix matrix, int rank, int found, int k, int[] panelPivots) {
+        final int cols = matrix.getCols();
+        final int width = cols - k;
+        double[] row = new double[cols];
+        DenseMatrix pivotRows = new DenseMatrix(found, width);
+        DenseMatrix block = new DenseMatrix(found, found);
+        for (int i = 0; i < found; i++) {
+            matrix.getRow(rank + i, row, 0);
+            System.arraycopy(row, k, pivotRows.getData(), i * width, width);
+            for (int j = 0; j < found; j++) block.set(i, j, row[k + panelPivots[j]]);
+        }
+        LUDecomposition lu = new LUDecomposition(block);
+        lu.solve(pivotRows, null);
+        for (int i = 0; i < found; i++) {
+            for (int j = 0; j < found; j++) pivotRows.set(i, panelPivots[j], i == j ? 1.0 : 0.0);
+            matrix.getRow(rank + i, row, 0);
+            System.arraycopy(pivotRows.getData(), i * width, row, k, width);
+            matrix.setRow(rank + i, row, 0);
+        }
+        return pivotRows;
+    }
+
+    /**
+     * Subtract multiples of the reduced pivot rows from every other row, above and below them, one tile at a time
+     */
+    private void eliminate(MappedMatrix matrix, int rank, int found, int k, int[] panelPivots, DenseMatrix pivotRows, double[] tile) {
+        final int rows = matrix.getRows();
+        final int cols = matrix.getCols();
+        final int width = cols - k;
+        final double[] reduced = pivotRows.getData();
+        for (int first = 0; first < rows; first += tileRows) {
+            final int count = Math.min(tileRows, rows - first);
+            for (int r = 0; r < count; r++) matrix.getRow(first + r, tile, r * cols);
+            for (int r = 0; r < count; r++) {
+                final int row = first + r;
+                if (row >= rank && row < rank + found) continue; // a pivot row
+                final int start = r * cols + k;
+                for (int i = 0; i < found; i++) {
+                    final double multiplier = tile[start + panelPivots[i]];
+                    if (multiplier == 0) continue;
+                    final int source = i * width;
+                    for (int c = 0; c < width; c++) tile[start + c] -= multiplier * reduced[source + c];
+                }
+                for (int i = 0; i < found; i++) tile[start + panelPivots[i]] = 0;
+            }
+            for (int r = 0; r < count; r++) matrix.setRow(first + r, tile, r * cols);
+        }
+        passes++;
+    }
+
+    /**
+     * @return false if the last reduction found a pivot in the constants column
+     */
+    public boolean existsSolution(MappedMatrix reduced) {
+        return pivotColumns.length == 0 || pivotColumns[pivotColumns.length - 1] != reduced.getCols() - 1;
+    }
+
+    /**
+     * Write the solution space of a matrix reduced by {@link #reduce(Path, Path)} to a new file, in the layout of
+     * {@link LinearSolver#findSolutionSpace(DenseMatrix)}: row 0 is the base solution, the following rows
+     * are the null space vectors, one per free variable.
+     *
+     * @return the solution space, mapped from its file
+     * @throws ArithmeticException a pivot lies in the constants column, so there is no solution
+     */
+    public MappedMatrix findSolutionSpace(MappedMatrix reduced, Path solution) throws IOException {
+        if (!existsSolution(reduced)) throw new ArithmeticException("System has no solution");
+        final int numVars = reduced.getCols() - 1;
+        boolean[] isPivot = new boolean[numVars];
+        for (int pivotCol : pivotColumns) isPivot[pivotCol] = true;
+        int[] freeCols = new int[numVars - pivotColumns.length];
+        for (int c = 0, i = 0; c < numVars; c++) {
+            if (!isPivot[c]) freeCols[i++] = c;
+        }
+        MappedMatrix space = MatrixFile.create(solution, 1 + freeCols.length, numVars);
+        for (int i = 0; i < freeCols.length; i++) space.set(1 + i, freeCols[i], 1.0);
+        double[] row = new double[reduced.getCols()];
+        for (int r = 0; r < pivotColumns.length; r++) {
+            reduced.getRow(r, row, 0);
+            // pivot variable's value = constant, pivot + free variable = 0
+            space.set(0, pivotColumns[r], row[numVars]);
+            for (int i = 0; i < freeCols.length; i++) {
+                double pivotValue = -row[freeCols[i]];
+                if (pivotValue == -0.0) pivotValue = 0.0;
+                space.set(1 + i, pivotColumns[r], pivotValue);
+            }
+        }
+        space.force();
+        return space;
+    }
+}
@@ -0,0 +1,69 @@
+package main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Eliminates a pivot column from a range of rows of a dense matrix on a ForkJoinPool.
+ * Each row update only reads the pivot row and writes its own row, so the rows are split into
+ * chunks that run independently. Every row receives exactly the same floating-point operations
+ * as in the serial path, so the results are bitwise identical to it (a tolerance of zero).
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+// ForkJoinTask is Serializable, but these tasks only ever run in the pool that solves the matrix
+@SuppressWarnings("serial")
+final class ParallelElimination extends RecursiveAction {
+    // smallest number of elements updated by one task, smaller chunks cost more to schedule than to run
+    static final int MIN_CHUNK_ELEMENTS = 16 * 1024;
+
+    private final DenseMatrix matrix;
+    private final int pivotRow;
+    private final int pivotCol;
+    private final int fromRow;
+    private final int toRow;
+    private final int chunkRows;
+
+    private ParallelElimination(DenseMatrix matrix, int pivotRow, int pivotCol, int fromRow, int toRow, int chunkRows) {
+        this.matrix = matrix;
+        this.pivotRow = pivotRow;
+        this.pivotCol = pivotCol;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * For every row in [fromRow, toRow): row -> row - matrix[row][pivotCol] * pivotRow
+     */
+    static void eliminate(ForkJoinPool pool, DenseMatrix matrix, int pivotRow, int pivotCol, int fromRow, int toRow) {
+        int chunkRows = Math.max(1, MIN_CHUNK_ELEMENTS / Math.max(1, matrix.getCols()));
+        // aim for a few chunks per worker so uneven rows still balance
+        chunkRows = Math.max(chunkRows, (toRow - fromRow) / (4 * pool.getParallelism()));
+        pool.invoke(new ParallelElimination(matrix, pivotRow, pivotCol, fromRow, toRow, chunkRows));
+    }
+
+    @Override
+    protected void compute() {
+        if (toRow - fromRow <= chunkRows) {
+            eliminateRange();
+            return;
+        }
+        int middle = (fromRow + toRow) >>> 1;
+        invokeAll(new ParallelElimination(matrix, pivotRow, pivotCol, fromRow, middle, chunkRows),
+                new ParallelElimination(matrix, pivotRow, pivotCol, middle, toRow, chunkRows));
+    }
+
+    private void eliminateRange() {
+        final double[] data = matrix.getData();
+        final int cols = matrix.getCols();
+        final int pivotStart = matrix.index(pivotRow, 0);
+        for (int row = fromRow; row < toRow; row++) {
+            final int start = matrix.index(row, 0);
+            // same operation as LinearSolver.addRows
+            final double c = -data[start + pivotCol];
+            RowKernels.SELECTED.axpy(data, start, pivotStart, cols, c);
+        }
+    }
+}
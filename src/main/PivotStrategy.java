@@ -0,0 +1,30 @@
+package main;
+
+/**
+ * How {@link LinearSolver#convertToRowEchelon(DenseMatrix)} chooses each pivot
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public enum PivotStrategy {
+    /**
+     * The first nonzero entry at or below the pivot row, the original behaviour. Exact on integer and
+     * rational data, but a tiny pivot amplifies rounding errors on floating-point data.
+     */
+    FIRST_NONZERO,
+    /**
+     * The entry of largest magnitude at or below the pivot row, so every multiplier is at most 1 in magnitude
+     */
+    PARTIAL,
+    /**
+     * The entry largest relative to the largest coefficient of its row, which makes the choice
+     * independent of how each equation happens to be scaled
+     */
+    SCALED_PARTIAL,
+    /**
+     * The entry of largest magnitude among all remaining rows and coefficient columns. Pivot rows are then
+     * no longer in column order, so the result is reduced (every pivot column is a unit vector) but not a
+     * staircase; use the recorded pivot columns to read it.
+     */
+    COMPLETE
+}
@@ -0,0 +1,14 @@
+package main;
+
+/**
+ * Approximate inverse M of a matrix A, used to speed up iterative solvers
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public interface Preconditioner {
+    /**
+     * z = M * r, z must not be the same array as r
+     */
+    void apply(double[] r, double[] z);
+}
@@ -0,0 +1,247 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Householder QR decomposition with column pivoting, AP = QR, of any m by n matrix.
+ * Each step brings the remaining column of largest norm forward, so the diagonal of R decreases and its size
+ * reveals the rank. Q is kept as the Householder vectors below the diagonal of R.
+ * <p>
+ * Storage is row-major like {@link DenseMatrix}, so each reflector is applied to the trailing columns in two sweeps
+ * over the rows, w = v^T A and then A -= tau v w^T, instead of one strided pass per column.
+ * All work arrays are allocated once, and {@link #factor(DenseMatrix)} may be called again without allocating.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class QRDecomposition {
+    private final int m;
+    private final int n;
+    // R on and above the diagonal, Householder vectors (unit first entry not stored) below it
+    private final double[] qr;
+    private final double[] tau;
+    // column j of AP is column perm[j] of A
+    private final int[] perm;
+    // squared norms of the trailing part of each column, and their values when last computed exactly
+    private final double[] norms;
+    private final double[] exactNorms;
+    // v^T A of the current reflector, and Q^T b while solving
+    private final double[] work;
+    private final double[] rhs;
+    private int rank;
+
+    /**
+     * Allocate storage for factoring m by n matrices, call {@link #factor(DenseMatrix)} before solving
+     */
+    public QRDecomposition(int rows, int cols) {
+        this.m = rows;
+        this.n = cols;
+        this.qr = new double[rows * cols];
+        this.tau = new double[Math.min(rows, cols)];
+        this.perm = new int[cols];
+        this.norms = new double[cols];
+        this.exactNorms = new double[cols];
+        this.work = new double[cols];
+        this.rhs = new double[rows];
+    }
+
+    /**
+     * Factor a matrix, the matrix itself is not modified
+     */
+    public QRDecomposition(DenseMatrix matrix) {
+        this(matrix.getRows(), matrix.getCols());
+        factor(matrix);
+    }
+
+    /**
+     * Factor a matrix into this object's storage, replacing any previous factorization
+     */
+    public void factor(DenseMatrix matrix) {
+        if (matrix.getRows() != m || matrix.getCols() != n)
+            throw new IllegalArgumentException("Expected a " + m + "x" + n + " matrix");
+        final double[] data = matrix.getData();
+        for (int r = 0; r < m; r++) System.arraycopy(data, matrix.index(r, 0), qr, r * n, n);
+        Arrays.fill(norms, 0);
+        for (int r = 0; r < m; r++) {
+            for (int c = 0; c < n; c++) norms[c] += qr[r * n + c] * qr[r * n + c];
+        }
+        for (int c = 0; c < n; c++) {
+            perm[c] = c;
+            exactNorms[c] = norms[c];
+        }
+
+        final int steps = Math.min(m, n);
+        for (int k = 0; k < steps; k++) {
+            //bring the column of largest remaining norm forward
+            int pivot = k;
+            for (int c = k + 1; c < n; c++) {
+                if (norms[c] > norms[pivot]) pivot = c;
+            }
+            if (pivot != k) swapColumns(k, pivot);
+            householder(k);
+            updateNorms(k);
+        }
+
+        // diagonal entries this small relative to the largest are indistinguishable from rounding error
+        final double tolerance = steps == 0 ? 0 : Math.max(m, n) * Math.ulp(Math.abs(qr[0]));
+        rank = 0;
+        while (rank < steps && Math.abs(qr[rank * n + rank]) > tolerance) rank++;
+    }
+
+    private void swapColumns(int col1, int col2) {
+        for (int r = 0; r < m; r++) {
+            double temp = qr[r * n + col1];
+            qr[r * n + col1] = qr[r * n + col2];
+            qr[r * n + col2] = temp;
+        }
+        int tempIndex = perm[col1];
+        perm[col1] = perm[col2];
+        perm[col2] = tempIndex;
+        double temp = norms[col1];
+        norms[col1] = norms[col2];
+        norms[col2] = temp;
+        temp = exactNorms[col1];
+        exactNorms[col1] = exactNorms[col2];
+        exactNorms[col2] = temp;
+    }
+
+    /**
+     * Zero column k below the diagonal with H = I - tau v v^T and apply H to the columns after it
+     */
+    private void householder(int k) {
+        double normSquared = 0;
+        for (int r = k; r < m; r++) normSquared += qr[r * n + k] * qr[r * n + k];
+        final double x0 = qr[k * n + k];
+        if (normSquared == 0) {
+            tau[k] = 0;
+            return;
+        }
+        final double beta = -Math.copySign(Math.sqrt(normSquared), x0);
+        tau[k] = (beta - x0) / beta;
+        final double scale = 1 / (x0 - beta);
+        for (int r = k + 1; r < m; r++) qr[r * n + k] *= scale;
+        qr[k * n + k] = beta;
+
+        //w = v^T A, one sweep over the rows
+        for (int c = k + 1; c < n; c++) work[c] = qr[k * n + c];
+        for (int r = k + 1; r < m; r++) {
+            final double v = qr[r * n + k];
+            if (v == 0) continue;
+            final int rowStart = r * n;
+            for (int c = k + 1; c < n; c++) work[c] += v * qr[rowStart + c];
+        }
+        //A -= tau v w^T, another sweep
+        for (int c = k + 1; c < n; c++) work[c] *= tau[k];
+        for (int c = k + 1; c < n; c++) qr[k * n + c] -= work[c];
+        for (int r = k + 1; r < m; r++) {
+            final double v = qr[r * n + k];
+            if (v == 0) continue;
+            final int rowStart = r * n;
+            for (int c = k + 1; c < n; c++) qr[rowStart + c] -= v * work[c];
+        }
+    }
+
+    /**
+     * Remove row k from the trailing norms, recomputing those that lost most of their digits to cancellation
+     */
+    private void updateNorms(int k) {
+        for (int c = k + 1; c < n; c++) {
+            final double entry = qr[k * n + c];
+            norms[c] -= entry * entry;
+            if (norms[c] <= 1e-8 * exactNorms[c]) {
+                double sum = 0;
+                for (int r = k + 1; r < m; r++) sum += qr[r * n + c] * qr[r * n + c];
+                norms[c] = sum;
+                exactNorms[c] = sum;
+            }
+        }
+    }
+
+    public int getRows() {
+        return m;
+    }
+
+    public int getCols() {
+        return n;
+    }
+
+    /**
+     * @return numerical rank, the number of diagonal entries of R above rounding error
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return true if the columns are linearly independent
+     */
+    public boolean isFullRank() {
+        return rank == n;
+    }
+
+    /**
+     * @return the column permutation, column j of AP is column getPermutation()[j] of A. The array is shared.
+     */
+    public int[] getPermutation() {
+        return perm;
+    }
+
+    /**
+     * @return the min(m, n) by n upper triangular factor R, as a new matrix
+     */
+    public DenseMatrix getR() {
+        final int steps = Math.min(m, n);
+        DenseMatrix r = new DenseMatrix(steps, n);
+        for (int i = 0; i < steps; i++) {
+            for (int c = i; c < n; c++) r.set(i, c, qr[i * n + c]);
+        }
+        return r;
+    }
+
+    /**
+     * Overwrite b with Q^T b
+     */
+    private void applyQTranspose(double[] b) {
+        for (int k = 0; k < tau.length; k++) {
+            if (tau[k] == 0) continue;
+            double sum = b[k];
+            for (int r = k + 1; r < m; r++) sum += qr[r * n + k] * b[r];
+            sum *= tau[k];
+            b[k] -= sum;
+            for (int r = k + 1; r < m; r++) b[r] -= sum * qr[r * n + k];
+        }
+    }
+
+    /**
+     * Least squares solution of Ax = b into a caller supplied array: x minimizes |Ax - b|. When the columns are
+     * dependent this is the basic solution, with the variables of the last n - rank pivoted columns set to zero,
+     * which is not the solution of least norm, see {@link SingularValueDecomposition#solve(double[], double[])}.
+     *
+     * @return the norm of the residual Ax - b
+     */
+    public double solve(double[] b, double[] x) {
+        if (b.length != m || x.length != n) throw new IllegalArgumentException("Expected vectors of length " + m + " and " + n);
+        System.arraycopy(b, 0, rhs, 0, m);
+        applyQTranspose(rhs);
+        //back substitution with the leading rank by rank block of R
+        for (int i = rank - 1; i >= 0; i--) {
+            double sum = rhs[i];
+            for (int c = i + 1; c < rank; c++) sum -= qr[i * n + c] * work[c];
+            work[i] = sum / qr[i * n + i];
+        }
+        Arrays.fill(x, 0);
+        for (int j = 0; j < rank; j++) x[perm[j]] = work[j];
+        double residual = 0;
+        for (int r = rank; r < m; r++) residual += rhs[r] * rhs[r];
+        return Math.sqrt(residual);
+    }
+
+    /**
+     * @return a new array holding the least squares solution
+     */
+    public double[] solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        return x;
+    }
+}
@@ -0,0 +1,173 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Reverse Cuthill-McKee ordering of the columns of a sparse matrix.
+ * Numbering the columns breadth-first from a peripheral column keeps the nonzeros near the diagonal,
+ * so elimination only fills in entries within that narrow band instead of across the whole row.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class ReverseCuthillMcKee {
+    private ReverseCuthillMcKee() {
+    }
+
+    /**
+     * @return order[k] = the original column placed at position k
+     */
+    public static int[] order(SparseMatrix matrix) {
+        int[][] graph = columnGraph(matrix);
+        final int n = graph.length;
+        int[] degree = new int[n];
+        for (int v = 0; v < n; v++) degree[v] = graph[v].length;
+        //visit neighbours from the lowest degree up
+        for (int v = 0; v < n; v++) sortByDegree(graph[v], degree);
+        //components are started from their lowest degree column
+        int[] byDegree = new int[n];
+        long[] keyed = new long[n];
+        for (int v = 0; v < n; v++) keyed[v] = ((long) degree[v] << 32) | v;
+        Arrays.sort(keyed);
+        for (int v = 0; v < n; v++) byDegree[v] = (int) keyed[v];
+
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] levels = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(levels, -1);
+        int count = 0;
+        int next = 0;
+        while (count < n) {
+            while (visited[byDegree[next]]) next++;
+            int start = peripheralNode(graph, byDegree[next], degree, levels, queue);
+
+            int head = count;
+            order[count++] = start;
+            visited[start] = true;
+            while (head < count) {
+                int v = order[head++];
+                for (int neighbour : graph[v]) {
+                    if (!visited[neighbour]) {
+                        visited[neighbour] = true;
+                        order[count++] = neighbour;
+                    }
+                }
+            }
+        }
+        //reverse
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        return order;
+    }
+
+    /**
+     * Adjacency of the columns: the pattern of A + A^T for square matrices, otherwise two columns are
+     * adjacent when they share a row (the pattern of A^T A)
+     */
+    static int[][] columnGraph(SparseMatrix matrix) {
+        final int n = matrix.getCols();
+        final int[] rowPtr = matrix.getRowPointers();
+        final int[] colIdx = matrix.getColumnIndices();
+        int[] sizes = new int[n];
+        int[][] edges = new int[n][4];
+        if (matrix.getRows() == n) {
+            for (int r = 0; r < n; r++) {
+                for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) {
+                    int c = colIdx[i];
+                    if (c == r) continue;
+                    edges[r] = append(edges[r], sizes[r]++, c);
+                    edges[c] = append(edges[c], sizes[c]++, r);
+                }
+            }
+        } else {
+            for (int r = 0; r < matrix.getRows(); r++) {
+                for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) {
+                    for (int j = rowPtr[r]; j < rowPtr[r + 1]; j++) {
+                        if (i != j) edges[colIdx[i]] = append(edges[colIdx[i]], sizes[colIdx[i]]++, colIdx[j]);
+                    }
+                }
+            }
+        }
+        //remove duplicate edges
+        int[][] graph = new int[n][];
+        for (int v = 0; v < n; v++) {
+            int[] neighbours = Arrays.copyOf(edges[v], sizes[v]);
+            Arrays.sort(neighbours);
+            int unique = 0;
+            for (int i = 0; i < neighbours.length; i++) {
+                if (i == 0 || neighbours[i] != neighbours[i - 1]) neighbours[unique++] = neighbours[i];
+            }
+            graph[v] = Arrays.copyOf(neighbours, unique);
+        }
+        return graph;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) array = Arrays.copyOf(array, 2 * size);
+        array[size] = value;
+        return array;
+    }
+
+    private static void sortByDegree(int[] neighbours, int[] degree) {
+        long[] keyed = new long[neighbours.length];
+        for (int i = 0; i < neighbours.length; i++) keyed[i] = ((long) degree[neighbours[i]] << 32) | neighbours[i];
+        Arrays.sort(keyed);
+        for (int i = 0; i < neighbours.length; i++) neighbours[i] = (int) keyed[i];
+    }
+
+    /**
+     * George-Liu search: repeatedly jump to a lowest degree column in the deepest breadth-first level
+     * until the number of levels stops growing
+     */
+    private static int peripheralNode(int[][] graph, int start, int[] degree, int[] levels, int[] queue) {
+        int reached = breadthFirst(graph, start, levels, queue);
+        int depth = levels[queue[reached - 1]];
+        while (true) {
+            //the deepest level is at the end of the queue
+            int best = queue[reached - 1];
+            for (int i = reached - 1; i >= 0 && levels[queue[i]] == depth; i--) {
+                if (degree[queue[i]] < degree[best]) best = queue[i];
+            }
+            clearLevels(levels, queue, reached);
+            int newReached = breadthFirst(graph, best, levels, queue);
+            int newDepth = levels[queue[newReached - 1]];
+            if (newDepth <= depth) {
+                clearLevels(levels, queue, newReached);
+                return start;
+            }
+            reached = newReached;
+            start = best;
+            depth = newDepth;
+        }
+    }
+
+    /**
+     * Breadth-first search recording the level of every reached column, levels must be -1 for unvisited columns
+     *
+     * @return number of reached columns, which are stored in queue in visiting order
+     */
+    private static int breadthFirst(int[][] graph, int start, int[] levels, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        levels[start] = 0;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int neighbour : graph[v]) {
+                if (levels[neighbour] == -1) {
+                    levels[neighbour] = levels[v] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private static void clearLevels(int[] levels, int[] queue, int reached) {
+        for (int i = 0; i < reached; i++) levels[queue[i]] = -1;
+    }
+}
@@ -0,0 +1,59 @@
+package main;
+
+/**
+ * The innermost loops of elimination on a flat row-major array: row axpy, row scaling and row swapping.
+ * <p>
+ * {@link #SELECTED} is chosen once at startup. It is the SIMD implementation built on the incubating
+ * Vector API when the JVM runs with {@code --add-modules jdk.incubator.vector} and the hardware has vector
+ * registers wider than one double, otherwise the plain scalar loops. Setting the system property
+ * {@value #VECTOR_PROPERTY} to false forces the scalar loops.
+ * <p>
+ * Every implementation rounds the multiplication and the addition of an axpy separately, never fused,
+ * so all of them produce bitwise identical results.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public interface RowKernels {
+    String VECTOR_PROPERTY = "linearsolver.vector";
+
+    RowKernels SCALAR = new ScalarRowKernels();
+
+    RowKernels SELECTED = select();
+
+    /**
+     * data[target + i] += c * data[source + i] for i in [0, length)
+     */
+    void axpy(double[] data, int target, int source, int length, double c);
+
+    /**
+     * data[start + i] *= scalar for i in [0, length)
+     */
+    void scale(double[] data, int start, int length, double scalar);
+
+    /**
+     * Exchange data[start1 + i] and data[start2 + i] for i in [0, length), the ranges must not overlap
+     */
+    void swap(double[] data, int start1, int start2, int length);
+
+    String name();
+
+    /**
+     * @return the Vector API kernels, or null when they are unavailable on this JVM or hardware
+     */
+    static RowKernels vector() {
+        try {
+            RowKernels kernels = (RowKernels) Class.forName("main.VectorRowKernels").getDeclaredConstructor().newInstance();
+            return VectorRowKernels.isAccelerated() ? kernels : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+            return null;
+        }
+    }
+
+    private static RowKernels select() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) return SCALAR;
+        RowKernels vector = vector();
+        return vector == null ? SCALAR : vector;
+    }
+}
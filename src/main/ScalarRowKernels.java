@@ -0,0 +1,33 @@
+package main;
+
+/**
+ * Plain loops, which the JIT may still auto-vectorize
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+final class ScalarRowKernels implements RowKernels {
+    @Override
+    public void axpy(double[] data, int target, int source, int length, double c) {
+        for (int i = 0; i < length; i++) data[target + i] += c * data[source + i];
+    }
+
+    @Override
+    public void scale(double[] data, int start, int length, double scalar) {
+        for (int i = 0; i < length; i++) data[start + i] *= scalar;
+    }
+
+    @Override
+    public void swap(double[] data, int start1, int start2, int length) {
+        for (int i = 0; i < length; i++) {
+            double temp = data[start1 + i];
+            data[start1 + i] = data[start2 + i];
+            data[start2 + i] = temp;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,225 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Singular value decomposition A = U S V^T of any m by n matrix, by one-sided Jacobi rotations.
+ * Pairs of columns are rotated until every pair is orthogonal, then the column norms are the singular values.
+ * Jacobi is slower than bidiagonalization but simple and accurate even for tiny singular values, which is what
+ * decides the rank and the null space.
+ * <p>
+ * The columns being rotated are stored as rows, so every rotation runs over contiguous memory. A wide matrix is
+ * padded with zero rows to n by n, which leaves the singular values unchanged and yields all n right singular
+ * vectors, so the null space is complete. All work arrays are allocated once, and {@link #factor(DenseMatrix)}
+ * may be called again without allocating.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class SingularValueDecomposition {
+    // sweeps over all column pairs before giving up, Jacobi converges quadratically so far fewer are needed
+    static final int MAX_SWEEPS = 60;
+
+    private final int m;
+    private final int n;
+    // rows of the padded matrix, max(m, n)
+    private final int length;
+    // row j holds column j of AV, which converges to column j of US
+    private final double[] columns;
+    // row j holds column j of V
+    private final double[] vectors;
+    private final double[] singularValues;
+    // singular value j belongs to row order[j] of columns and vectors, largest first
+    private final int[] order;
+    // U^T b while solving
+    private final double[] work;
+    private int rank;
+
+    /**
+     * Allocate storage for decomposing m by n matrices, call {@link #factor(DenseMatrix)} before using it
+     */
+    public SingularValueDecomposition(int rows, int cols) {
+        this.m = rows;
+        this.n = cols;
+        this.length = Math.max(rows, cols);
+        this.columns = new double[cols * length];
+        this.vectors = new double[cols * cols];
+        this.singularValues = new double[cols];
+        this.order = new int[cols];
+        this.work = new double[cols];
+    }
+
+    /**
+     * Decompose a matrix, the matrix itself is not modified
+     */
+    public SingularValueDecomposition(DenseMatrix matrix) {
+        this(matrix.getRows(), matrix.getCols());
+        factor(matrix);
+    }
+
+    /**
+     * Decompose a matrix into this object's storage, replacing any previous decomposition
+     */
+    public void factor(DenseMatrix matrix) {
+        if (matrix.getRows() != m || matrix.getCols() != n)
+            throw new IllegalArgumentException("Expected a " + m + "x" + n + " matrix");
+        Arrays.fill(columns, 0);
+        Arrays.fill(vectors, 0);
+        for (int r = 0; r < m; r++) {
+            for (int c = 0; c < n; c++) columns[c * length + r] = matrix.get(r, c);
+        }
+        for (int c = 0; c < n; c++) vectors[c * n + c] = 1;
+
+        final double epsilon = Math.ulp(1.0);
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean rotated = false;
+            for (int j = 0; j < n - 1; j++) {
+                for (int k = j + 1; k < n; k++) {
+                    rotated |= rotate(j, k, epsilon);
+                }
+            }
+            if (!rotated) break;
+        }
+
+        for (int j = 0; j < n; j++) {
+            double sum = 0;
+            for (int r = 0; r < length; r++) sum += columns[j * length + r] * columns[j * length + r];
+            singularValues[j] = Math.sqrt(sum);
+            order[j] = j;
+        }
+        //insertion sort by decreasing singular value, n is small next to the cost of the sweeps
+        for (int i = 1; i < n; i++) {
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && singularValues[order[j]] < singularValues[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+        // singular values this small relative to the largest are indistinguishable from rounding error
+        final double tolerance = n == 0 ? 0 : length * Math.ulp(singularValues[order[0]]);
+        rank = 0;
+        while (rank < Math.min(m, n) && singularValues[order[rank]] > tolerance) rank++;
+    }
+
+    /**
+     * Rotate columns j and k of AV and of V so they become orthogonal
+     *
+     * @return false if they were already orthogonal to working precision
+     */
+    private boolean rotate(int j, int k, double epsilon) {
+        final int startJ = j * length;
+        final int startK = k * length;
+        double alpha = 0;
+        double beta = 0;
+        double gamma = 0;
+        for (int r = 0; r < length; r++) {
+            final double a = columns[startJ + r];
+            final double b = columns[startK + r];
+            alpha += a * a;
+            beta += b * b;
+            gamma += a * b;
+        }
+        if (gamma == 0 || Math.abs(gamma) <= epsilon * Math.sqrt(alpha * beta)) return false;
+        final double zeta = (beta - alpha) / (2 * gamma);
+        final double t = Math.copySign(1, zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+        final double cos = 1 / Math.sqrt(1 + t * t);
+        final double sin = cos * t;
+        rotateRows(columns, startJ, startK, length, cos, sin);
+        rotateRows(vectors, j * n, k * n, n, cos, sin);
+        return true;
+    }
+
+    private static void rotateRows(double[] data, int start1, int start2, int length, double cos, double sin) {
+        for (int i = 0; i < length; i++) {
+            final double a = data[start1 + i];
+            final double b = data[start2 + i];
+            data[start1 + i] = cos * a - sin * b;
+            data[start2 + i] = sin * a + cos * b;
+        }
+    }
+
+    /**
+     * @return numerical rank, the number of singular values above rounding error
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the min(m, n) singular values, largest first
+     */
+    public double[] getSingularValues() {
+        double[] values = new double[Math.min(m, n)];
+        for (int i = 0; i < values.length; i++) values[i] = singularValues[order[i]];
+        return values;
+    }
+
+    /**
+     * @return the n by n orthogonal matrix V, its columns ordered like the singular values
+     */
+    public DenseMatrix getV() {
+        DenseMatrix v = new DenseMatrix(n, n);
+        for (int j = 0; j < n; j++) {
+            final int start = order[j] * n;
+            for (int r = 0; r < n; r++) v.set(r, j, vectors[start + r]);
+        }
+        return v;
+    }
+
+    /**
+     * @return the m by min(m, n) matrix U, its columns ordered like the singular values.
+     * Columns belonging to zero singular values are left zero.
+     */
+    public DenseMatrix getU() {
+        final int k = Math.min(m, n);
+        DenseMatrix u = new DenseMatrix(m, k);
+        for (int j = 0; j < rank; j++) {
+            final int start = order[j] * length;
+            final double sigma = singularValues[order[j]];
+            for (int r = 0; r < m; r++) u.set(r, j, columns[start + r] / sigma);
+        }
+        return u;
+    }
+
+    /**
+     * @return an orthonormal basis of the null space, one vector per row, n - rank rows
+     */
+    public DenseMatrix getNullSpace() {
+        DenseMatrix basis = new DenseMatrix(n - rank, n);
+        for (int i = rank; i < n; i++) System.arraycopy(vectors, order[i] * n, basis.getData(), (i - rank) * n, n);
+        return basis;
+    }
+
+    /**
+     * Minimum norm least squares solution of Ax = b into a caller supplied array, x = V S^+ U^T b:
+     * of all x that minimize |Ax - b|, the one of smallest norm, which has no component in the null space
+     */
+    public void solve(double[] b, double[] x) {
+        if (b.length != m || x.length != n) throw new IllegalArgumentException("Expected vectors of length " + m + " and " + n);
+        //U^T b / sigma, the columns hold U S so dividing by sigma squared normalizes them
+        for (int j = 0; j < rank; j++) {
+            final int start = order[j] * length;
+            final double sigma = singularValues[order[j]];
+            double sum = 0;
+            for (int r = 0; r < m; r++) sum += columns[start + r] * b[r];
+            work[j] = sum / (sigma * sigma);
+        }
+        Arrays.fill(x, 0);
+        for (int j = 0; j < rank; j++) {
+            final int start = order[j] * n;
+            final double coefficient = work[j];
+            for (int r = 0; r < n; r++) x[r] += coefficient * vectors[start + r];
+        }
+    }
+
+    /**
+     * @return a new array holding the minimum norm least squares solution
+     */
+    public double[] solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        return x;
+    }
+}
@@ -0,0 +1,63 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed for every solve of a solver with metrics enabled.
+ * Creating and committing it is a no-op unless a flight recording with this event enabled is running.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+@Name("main.Solve")
+@Label("Linear System Solve")
+@Category("Linear Solver")
+@Description("One call of LinearSolver.solveMatrix")
+final class SolveEvent extends Event {
+    @Label("Rows")
+    int rows;
+
+    @Label("Columns")
+    int cols;
+
+    @Label("Row Swaps")
+    long rowSwaps;
+
+    @Label("Row Scales")
+    long rowScales;
+
+    @Label("Row Additions")
+    long rowAdds;
+
+    @Label("Estimated Flops")
+    long flops;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Factorization")
+    @Timespan
+    long factorizationNanos;
+
+    @Label("Echelon")
+    @Timespan
+    long echelonNanos;
+
+    @Label("Reduced Echelon")
+    @Timespan
+    long reducedEchelonNanos;
+
+    @Label("Rounding")
+    @Timespan
+    long roundingNanos;
+
+    @Label("Failed")
+    boolean failed;
+}
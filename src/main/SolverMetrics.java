@@ -0,0 +1,282 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in counters and phase timings of a {@link LinearSolver}, enabled with {@link LinearSolver#enableMetrics(SolverMetrics)}.
+ * A solver without metrics only tests one field for null per row operation, so leaving metrics off costs nothing.
+ * <p>
+ * The counters are plain fields updated by the solving thread, so one instance should be attached to one solver
+ * at a time. They can be read at any time with {@link #snapshot()}, through JMX after {@link #register(String)},
+ * and every solve is also committed as a JFR event when a recording is running.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+    public enum Phase {
+        // LU factorization and substitution of square systems with a unique solution
+        FACTORIZATION,
+        ECHELON,
+        REDUCED_ECHELON,
+        ROUNDING,
+        SOLUTION_SPACE
+    }
+
+    // measures bytes allocated by the current thread, null when the JVM does not support it
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    long solves;
+    long errors;
+    long pivotSearches;
+    long rowSwaps;
+    long rowScales;
+    long rowAdds;
+    long flops;
+    long allocatedBytes;
+    final long[] phaseNanos = new long[Phase.values().length];
+    private volatile String lastError;
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) return counter;
+            }
+        } catch (LinkageError | SecurityException e) {
+            // not a HotSpot JVM, allocation counts are unavailable
+        }
+        return null;
+    }
+
+    /**
+     * @return true if allocation counts are recorded on this JVM
+     */
+    public static boolean isAllocationCountingSupported() {
+        return ALLOCATION_COUNTER != null;
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or 0 when unsupported
+     */
+    static long allocatedByThisThread() {
+        return ALLOCATION_COUNTER == null ? 0 : ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+    }
+
+    void addPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void recordError(Exception e) {
+        errors++;
+        lastError = e.toString();
+    }
+
+    public void reset() {
+        solves = 0;
+        errors = 0;
+        pivotSearches = 0;
+        rowSwaps = 0;
+        rowScales = 0;
+        rowAdds = 0;
+        flops = 0;
+        allocatedBytes = 0;
+        Arrays.fill(phaseNanos, 0);
+        lastError = null;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Publish these metrics as an MXBean named "main:type=SolverMetrics,name=" + name
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("main:type=SolverMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public static void unregister(ObjectName name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    @Override
+    public long getSolves() {
+        return solves;
+    }
+
+    @Override
+    public long getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public long getPivotSearches() {
+        return pivotSearches;
+    }
+
+    @Override
+    public long getRowSwaps() {
+        return rowSwaps;
+    }
+
+    @Override
+    public long getRowScales() {
+        return rowScales;
+    }
+
+    @Override
+    public long getRowAdds() {
+        return rowAdds;
+    }
+
+    @Override
+    public long getFlops() {
+        return flops;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getFactorizationNanos() {
+        return phaseNanos[Phase.FACTORIZATION.ordinal()];
+    }
+
+    @Override
+    public long getEchelonNanos() {
+        return phaseNanos[Phase.ECHELON.ordinal()];
+    }
+
+    @Override
+    public long getReducedEchelonNanos() {
+        return phaseNanos[Phase.REDUCED_ECHELON.ordinal()];
+    }
+
+    @Override
+    public long getRoundingNanos() {
+        return phaseNanos[Phase.ROUNDING.ordinal()];
+    }
+
+    @Override
+    public long getSolutionSpaceNanos() {
+        return phaseNanos[Phase.SOLUTION_SPACE.ordinal()];
+    }
+
+    /**
+     * Immutable copy of the metrics at one point in time
+     */
+    public static class Snapshot {
+        private final long solves;
+        private final long errors;
+        private final String lastError;
+        private final long pivotSearches;
+        private final long rowSwaps;
+        private final long rowScales;
+        private final long rowAdds;
+        private final long flops;
+        private final long allocatedBytes;
+        private final long[] phaseNanos;
+
+        Snapshot(SolverMetrics metrics) {
+            this.solves = metrics.solves;
+            this.errors = metrics.errors;
+            this.lastError = metrics.lastError;
+            this.pivotSearches = metrics.pivotSearches;
+            this.rowSwaps = metrics.rowSwaps;
+            this.rowScales = metrics.rowScales;
+            this.rowAdds = metrics.rowAdds;
+            this.flops = metrics.flops;
+            this.allocatedBytes = metrics.allocatedBytes;
+            this.phaseNanos = metrics.phaseNanos.clone();
+        }
+
+        public long getSolves() {
+            return solves;
+        }
+
+        /**
+         * @return number of solves that failed with an exception
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the exception of the last failed solve, or null
+         */
+        public String getLastError() {
+            return lastError;
+        }
+
+        /**
+         * @return number of columns searched for a pivot
+         */
+        public long getPivotSearches() {
+            return pivotSearches;
+        }
+
+        public long getRowSwaps() {
+            return rowSwaps;
+        }
+
+        public long getRowScales() {
+            return rowScales;
+        }
+
+        public long getRowAdds() {
+            return rowAdds;
+        }
+
+        /**
+         * @return estimated floating-point operations, one per multiplication and one per addition
+         */
+        public long getFlops() {
+            return flops;
+        }
+
+        /**
+         * @return bytes allocated by the solving threads, 0 when {@link #isAllocationCountingSupported()} is false
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getPhaseNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long nanos : phaseNanos) total += nanos;
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("solves=").append(solves).append(", errors=").append(errors)
+                    .append(", pivotSearches=").append(pivotSearches).append(", rowSwaps=").append(rowSwaps)
+                    .append(", rowScales=").append(rowScales).append(", rowAdds=").append(rowAdds)
+                    .append(", flops=").append(flops).append(", allocatedBytes=").append(allocatedBytes);
+            for (Phase phase : Phase.values()) {
+                builder.append(", ").append(phase.name().toLowerCase()).append("Nanos=").append(phaseNanos[phase.ordinal()]);
+            }
+            return builder.toString();
+        }
+    }
+}
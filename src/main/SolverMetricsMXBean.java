@@ -0,0 +1,39 @@
+package main;
+
+/**
+ * Management interface of {@link SolverMetrics}, times are in nanoseconds
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public interface SolverMetricsMXBean {
+    long getSolves();
+
+    long getErrors();
+
+    String getLastError();
+
+    long getPivotSearches();
+
+    long getRowSwaps();
+
+    long getRowScales();
+
+    long getRowAdds();
+
+    long getFlops();
+
+    long getAllocatedBytes();
+
+    long getFactorizationNanos();
+
+    long getEchelonNanos();
+
+    long getReducedEchelonNanos();
+
+    long getRoundingNanos();
+
+    long getSolutionSpaceNanos();
+
+    void reset();
+}
@@ -0,0 +1,297 @@
+package main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running HTTP endpoint that solves systems without paying JVM startup for every one.
+ * <p>
+ * POST a system to /solve, either as text rows like the console input (an END line is optional) or as a
+ * {@link MatrixFile}. Every request runs on its own virtual thread, and at most maxPending requests are admitted
+ * at once, the rest are turned away with 503. The response is text: "unique", "infinite" or "none" on the first line,
+ * then the rows of the solution space as findSolutionSpace returns it, the base solution first.
+ * <p>
+ * Requests that arrive within the coalescing window of each other with the same square coefficient matrix share one
+ * LU factorization, the one a {@link LinearSolver} would solve each of them with, so every response is the same as
+ * without coalescing. When a LinearSolver would not use LU factors, because the matrix is structured or singular,
+ * each request is solved by a LinearSolver of its own. LinearSolver instances keep options and the pivots of their
+ * last solve, so they are never shared between requests; the shared factors are only read.
+ * <p>
+ * Usage: {@code java main.SolverServer [port [coalesceMillis [maxPending]]]}, binding to the loopback address.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public final class SolverServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_COALESCE_MILLIS = 2;
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    // largest number of right-hand sides solved by one batch
+    static final int MAX_BATCH = 256;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long coalesceNanos;
+    private final Semaphore admission;
+    // batches still accepting requests, by coefficient matrix
+    private final ConcurrentHashMap<DenseMatrix, Batch> open = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @param port           0 picks a free port, see {@link #getPort()}
+     * @param coalesceMillis how long the first request with a coefficient matrix waits for others to share it, 0 disables coalescing
+     * @param maxPending     requests admitted at once
+     */
+    public SolverServer(int port, long coalesceMillis, int maxPending) throws IOException {
+        if (coalesceMillis < 0) throw new IllegalArgumentException("Coalescing window must not be negative");
+        if (maxPending < 1) throw new IllegalArgumentException("At least one request must be admitted");
+        this.coalesceNanos = TimeUnit.MILLISECONDS.toNanos(coalesceMillis);
+        this.admission = new Semaphore(maxPending);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/solve", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests and wait up to delaySeconds for the admitted ones to finish
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of requests turned away because maxPending requests were already admitted
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return number of batched solves, each of which factored its coefficient matrix once
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * @return number of requests that joined a batch opened by an earlier request
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "POST a system of equations\n");
+                return;
+            }
+            if (!admission.tryAcquire()) {
+                rejected.incrementAndGet();
+                respond(exchange, 503, "Too many pending requests\n");
+                return;
+            }
+            try {
+                requests.incrementAndGet();
+                DenseMatrix system = read(exchange.getRequestBody().readAllBytes());
+                respond(exchange, 200, solve(system));
+            } catch (IOException | IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage() + "\n");
+            } catch (Exception e) {
+                respond(exchange, 500, e + "\n");
+            } finally {
+                admission.release();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @throws IOException the body is neither a matrix file nor text rows of equal length
+     */
+    static DenseMatrix read(byte[] body) throws IOException {
+        DenseMatrix system;
+        if (body.length >= 4 && (body[0] & 0xFF | (body[1] & 0xFF) << 8 | (body[2] & 0xFF) << 16 | body[3] << 24) == MatrixFile.MAGIC) {
+            system = MatrixFile.readDense(body);
+        } else {
+            try (MatrixReader reader = new MatrixReader(new ByteArrayInputStream(body))) {
+                while (reader.readRow()) {
+                    // rows are collected by the reader
+                }
+                system = reader.finishMatrix();
+            } catch (NumberFormatException e) {
+                throw new IOException("Rows must hold numbers separated by spaces or commas");
+            }
+        }
+        if (system.getRows() == 0 || system.getCols() < 2) throw new IOException("Expected at least one equation with one variable");
+        return system;
+    }
+
+    /**
+     * Solve an augmented matrix, coalescing it with concurrent requests that share its coefficients
+     */
+    String solve(DenseMatrix system) throws InterruptedException, ExecutionException {
+        final int n = system.getCols() - 1;
+        //only square systems can share LU factors
+        if (coalesceNanos == 0 || system.getRows() != n) return solveAlone(system);
+        DenseMatrix coefficients = system.view(0, 0, system.getRows(), n).copy();
+        double[] rhs = new double[system.getRows()];
+        for (int r = 0; r < rhs.length; r++) rhs[r] = system.get(r, n);
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Batch batch;
+        boolean leader;
+        while (true) {
+            batch = open.computeIfAbsent(coefficients, Batch::new);
+            synchronized (batch) {
+                if (!batch.closed) {
+                    leader = batch.rhs.isEmpty();
+                    batch.rhs.add(rhs);
+                    batch.results.add(result);
+                    if (batch.rhs.size() == MAX_BATCH) close(batch);
+                    break;
+                }
+            }
+        }
+        if (!leader) {
+            coalesced.incrementAndGet();
+            return solved(result, system);
+        }
+        try {
+            //wait for other requests to join, a virtual thread parks without holding a carrier
+            TimeUnit.NANOSECONDS.sleep(coalesceNanos);
+        } finally {
+            //the requests that joined are waiting on this thread even if it was interrupted
+            synchronized (batch) {
+                close(batch);
+            }
+            solveBatch(batch);
+        }
+        return solved(result, system);
+    }
+
+    /**
+     * @return the response the batch completed, or solve the system on this thread if the batch left it to its request
+     */
+    private static String solved(CompletableFuture<String> result, DenseMatrix system) throws InterruptedException, ExecutionException {
+        String response = result.get();
+        return response != null ? response : solveAlone(system);
+    }
+
+    private void close(Batch batch) {
+        batch.closed = true;
+        open.remove(batch.coefficients, batch);
+    }
+
+    /**
+     * Solve every right-hand side of a closed batch with shared LU factors and complete its results, or complete
+     * them with null to leave each system to its own request when a LinearSolver would not solve it with LU factors
+     */
+    private void solveBatch(Batch batch) {
+        batches.incrementAndGet();
+        try {
+            LUDecomposition lu = LinearSolver.defaultFactors(batch.coefficients);
+            for (int j = 0; j < batch.rhs.size(); j++) {
+                if (lu == null) {
+                    batch.results.get(j).complete(null);
+                    continue;
+                }
+                //the substitution and rounding LinearSolver applies to [I | x]
+                DenseMatrix space = DenseMatrix.fromArray(new double[][]{lu.solve(batch.rhs.get(j))});
+                LinearSolver.roundMatrix(space);
+                batch.results.get(j).complete(format("unique", space));
+            }
+        } catch (RuntimeException e) {
+            for (CompletableFuture<String> result : batch.results) result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Solve one system with a solver confined to the calling thread
+     */
+    static String solveAlone(DenseMatrix system) {
+        LinearSolver solver = new LinearSolver();
+        solver.solveMatrix(system);
+        if (!LinearSolver.existsSolution(system)) return "none\n";
+        DenseMatrix space = solver.solutionSpace(system);
+        return format(space.getRows() == 1 ? "unique" : "infinite", space);
+    }
+
+    private static String format(String kind, DenseMatrix space) {
+        StringBuilder builder = new StringBuilder(kind).append('\n');
+        for (int r = 0; r < space.getRows(); r++) {
+            for (int c = 0; c < space.getCols(); c++) {
+                if (c > 0) builder.append(' ');
+                builder.append(space.get(r, c));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Right-hand sides collected for one coefficient matrix, guarded by its own lock
+     */
+    private static class Batch {
+        private final DenseMatrix coefficients;
+        private final List<double[]> rhs = new ArrayList<>();
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+        private boolean closed = false;
+
+        Batch(DenseMatrix coefficients) {
+            this.coefficients = coefficients;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long coalesceMillis = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_COALESCE_MILLIS;
+        int maxPending = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PENDING;
+        SolverServer server = new SolverServer(port, coalesceMillis, maxPending);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        System.out.println("Solving systems POSTed to http://localhost:" + server.getPort() + "/solve");
+    }
+}
@@ -0,0 +1,351 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Sparse Gaussian elimination of an m by n coefficient matrix, which does not need to be square or full rank.
+ * Columns are first renumbered with a fill-reducing ordering, {@link MinimumDegree} by default or
+ * {@link ReverseCuthillMcKee}, to limit fill-in. Rows are then eliminated
+ * one column at a time, only touching the nonzeros that exist. Any row whose entry is within
+ * PIVOT_THRESHOLD of the largest one in the column may be the pivot: the diagonal row for square
+ * matrices, otherwise the row with the fewest nonzeros. This trades a little stability for much less fill.
+ * <p>
+ * The row operations (L) are kept so any number of right-hand sides can be solved afterwards,
+ * and the result has the same shape as {@link LinearSolver#findSolutionSpace(ArrayList)}.
+ * Because the columns are reordered, the free variables are not always the ones the dense
+ * reduced row echelon form would pick, but the solution space is the same.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class SparseLU {
+    // entries this small relative to the largest entry are treated as zero when deciding rank and consistency
+    static final double EPSILON = 1e-10;
+    // a pivot may be this much smaller than the largest entry in its column if its row is sparser
+    static final double PIVOT_THRESHOLD = 0.1;
+
+    private final int rows;
+    private final int cols;
+    // columnOrder[position] = original column, position[original column] = position
+    private final int[] columnOrder;
+    private final int[] position;
+    // U, one sparse row per pivot in elimination order, using column positions. The pivot is the first entry.
+    private final int[][] upperCols;
+    private final double[][] upperValues;
+    private final int[] pivotRows;
+    private final boolean[] isPivotRow;
+    private final boolean[] isPivotPosition;
+    private final int rank;
+    // L, applied to a right-hand side in order as b[target] -= multiplier * b[source]
+    private int[] lowerTarget = new int[16];
+    private int[] lowerSource = new int[16];
+    private double[] lowerMultiplier = new double[16];
+    private int lowerSize = 0;
+
+    /**
+     * Column orderings applied before elimination
+     */
+    public enum ColumnOrdering {
+        // keep the columns as they are
+        NATURAL,
+        // narrow band, cheap to compute, fill grows with the bandwidth
+        REVERSE_CUTHILL_MCKEE,
+        // least fill on grids and networks
+        MINIMUM_DEGREE
+    }
+
+    /**
+     * Factor the coefficient matrix with a minimum degree column ordering, the matrix is not modified
+     */
+    public SparseLU(SparseMatrix coefficients) {
+        this(coefficients, ColumnOrdering.MINIMUM_DEGREE);
+    }
+
+    /**
+     * Factor the coefficient matrix with the given column ordering, the matrix is not modified
+     */
+    public SparseLU(SparseMatrix coefficients, ColumnOrdering ordering) {
+        this.rows = coefficients.getRows();
+        this.cols = coefficients.getCols();
+        switch (ordering) {
+            case REVERSE_CUTHILL_MCKEE:
+                this.columnOrder = ReverseCuthillMcKee.order(coefficients);
+                break;
+            case MINIMUM_DEGREE:
+                this.columnOrder = MinimumDegree.order(coefficients);
+                break;
+            default:
+                this.columnOrder = new int[cols];
+                for (int k = 0; k < cols; k++) columnOrder[k] = k;
+        }
+        this.position = new int[cols];
+        for (int k = 0; k < cols; k++) position[columnOrder[k]] = k;
+
+        //working copy of every row, with columns renumbered and sorted
+        final int[] rowPtr = coefficients.getRowPointers();
+        final int[] colIdx = coefficients.getColumnIndices();
+        final double[] values = coefficients.getValues();
+        int[][] rowCols = new int[rows][];
+        double[][] rowValues = new double[rows][];
+        int[] rowHead = new int[rows];
+        int[] rowEnd = new int[rows];
+        int[][] colRows = new int[cols][];
+        int[] colSize = new int[cols];
+        for (int c = 0; c < cols; c++) colRows[c] = new int[4];
+        for (int r = 0; r < rows; r++) {
+            int count = rowPtr[r + 1] - rowPtr[r];
+            long[] keyed = new long[count];
+            for (int i = 0; i < count; i++) {
+                keyed[i] = ((long) position[colIdx[rowPtr[r] + i]] << 32) | i;
+            }
+            Arrays.sort(keyed);
+            rowCols[r] = new int[count];
+            rowValues[r] = new double[count];
+            rowEnd[r] = count;
+            for (int i = 0; i < count; i++) {
+                int pos = (int) (keyed[i] >>> 32);
+                rowCols[r][i] = pos;
+                rowValues[r][i] = values[rowPtr[r] + (int) keyed[i]];
+                colRows[pos] = append(colRows[pos], colSize[pos]++, r);
+            }
+        }
+
+        this.upperCols = new int[Math.min(rows, cols)][];
+        this.upperValues = new double[Math.min(rows, cols)][];
+        this.pivotRows = new int[Math.min(rows, cols)];
+        this.isPivotRow = new boolean[rows];
+        this.isPivotPosition = new boolean[cols];
+        final double tolerance = EPSILON * coefficients.maxAbs();
+        int[] scratchCols = new int[16];
+        double[] scratchValues = new double[16];
+        int pivotCount = 0;
+
+        for (int k = 0; k < cols && pivotCount < rows; k++) {
+            //candidate rows are the active rows whose leading entry is in this column
+            int[] candidates = colRows[k];
+            int numCandidates = 0;
+            double maxAbs = 0;
+            for (int i = 0; i < colSize[k]; i++) {
+                int r = candidates[i];
+                if (isPivotRow[r] || rowHead[r] >= rowEnd[r] || rowCols[r][rowHead[r]] != k) continue;
+                candidates[numCandidates++] = r;
+                maxAbs = Math.max(maxAbs, Math.abs(rowValues[r][rowHead[r]]));
+            }
+            colRows[k] = null; // no longer needed
+            if (maxAbs <= tolerance) {
+                //free column, drop the negligible entries
+                for (int i = 0; i < numCandidates; i++) rowHead[candidates[i]]++;
+                continue;
+            }
+
+            //threshold pivoting. For square matrices the diagonal entry keeps the fill the ordering planned for,
+            //otherwise prefer the sparsest row among the large enough entries
+            final int diagonal = rows == cols ? columnOrder[k] : -1;
+            int pivot = -1;
+            for (int i = 0; i < numCandidates; i++) {
+                int r = candidates[i];
+                if (Math.abs(rowValues[r][rowHead[r]]) < PIVOT_THRESHOLD * maxAbs) continue;
+                if (r == diagonal) {
+                    pivot = r;
+                    break;
+                }
+                if (pivot == -1 || rowEnd[r] - rowHead[r] < rowEnd[pivot] - rowHead[pivot]) pivot = r;
+            }
+            final int[] pCols = rowCols[pivot];
+            final double[] pValues = rowValues[pivot];
+            final int pHead = rowHead[pivot];
+            final int pEnd = rowEnd[pivot];
+            final double pivotValue = pValues[pHead];
+
+            for (int i = 0; i < numCandidates; i++) {
+                int r = candidates[i];
+                if (r == pivot) continue;
+                final double multiplier = rowValues[r][rowHead[r]] / pivotValue;
+                recordLower(r, pivot, multiplier);
+
+                //row r = row r - multiplier * pivot row, merging the sorted columns after the leading one
+                int[] cols0 = rowCols[r];
+                double[] values0 = rowValues[r];
+                final int end = rowEnd[r];
+                int a = rowHead[r] + 1;
+                int b = pHead + 1;
+                int maxLength = (end - a) + (pEnd - b);
+                if (scratchCols.length < maxLength) {
+                    scratchCols = new int[2 * maxLength];
+                    scratchValues = new double[2 * maxLength];
+                }
+                int length = 0;
+                while (a < end || b < pEnd) {
+                    if (b >= pEnd || (a < end && cols0[a] < pCols[b])) {
+                        scratchCols[length] = cols0[a];
+                        scratchValues[length++] = values0[a++];
+                    } else if (a >= end || pCols[b] < cols0[a]) {
+                        //fill-in
+                        int col = pCols[b];
+                        colRows[col] = append(colRows[col], colSize[col]++, r);
+                        scratchCols[length] = col;
+                        scratchValues[length++] = -multiplier * pValues[b++];
+                    } else {
+                        scratchCols[length] = cols0[a];
+                        scratchValues[length++] = values0[a++] - multiplier * pValues[b++];
+                    }
+                }
+                //reuse the row's storage unless fill-in outgrew it
+                if (cols0.length < length) {
+                    rowCols[r] = cols0 = new int[length + length / 2];
+                    rowValues[r] = values0 = new double[length + length / 2];
+                }
+                System.arraycopy(scratchCols, 0, cols0, 0, length);
+                System.arraycopy(scratchValues, 0, values0, 0, length);
+                rowHead[r] = 0;
+                rowEnd[r] = length;
+            }
+
+            //the pivot row becomes a row of U
+            upperCols[pivotCount] = Arrays.copyOfRange(pCols, pHead, pEnd);
+            upperValues[pivotCount] = Arrays.copyOfRange(pValues, pHead, pEnd);
+            pivotRows[pivotCount++] = pivot;
+            isPivotRow[pivot] = true;
+            isPivotPosition[k] = true;
+            rowCols[pivot] = null;
+            rowValues[pivot] = null;
+        }
+        this.rank = pivotCount;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) array = Arrays.copyOf(array, Math.max(4, 2 * size));
+        array[size] = value;
+        return array;
+    }
+
+    private void recordLower(int target, int source, double multiplier) {
+        if (lowerSize == lowerTarget.length) {
+            lowerTarget = Arrays.copyOf(lowerTarget, 2 * lowerSize);
+            lowerSource = Arrays.copyOf(lowerSource, 2 * lowerSize);
+            lowerMultiplier = Arrays.copyOf(lowerMultiplier, 2 * lowerSize);
+        }
+        lowerTarget[lowerSize] = target;
+        lowerSource[lowerSize] = source;
+        lowerMultiplier[lowerSize++] = multiplier;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return true unless the matrix is square with full rank
+     */
+    public boolean isSingular() {
+        return rows != cols || rank < cols;
+    }
+
+    /**
+     * @return order[k] = the original column eliminated in step k
+     */
+    public int[] getColumnOrder() {
+        return columnOrder.clone();
+    }
+
+    /**
+     * @return number of nonzeros stored in L and U, a measure of fill-in
+     */
+    public long getFactorNonZeros() {
+        long count = lowerSize;
+        for (int i = 0; i < rank; i++) count += upperCols[i].length;
+        return count;
+    }
+
+    /**
+     * Apply L to a copy of the right-hand side
+     */
+    private double[] forward(double[] constants) {
+        if (constants.length != rows) throw new IllegalArgumentException("Expected " + rows + " constants");
+        double[] y = constants.clone();
+        for (int i = 0; i < lowerSize; i++) y[lowerTarget[i]] -= lowerMultiplier[i] * y[lowerSource[i]];
+        return y;
+    }
+
+    /**
+     * Rows that never became a pivot were eliminated to zero, so their constants must be zero as well
+     */
+    private boolean isConsistent(double[] y) {
+        double maxAbs = 0;
+        for (double value : y) maxAbs = Math.max(maxAbs, Math.abs(value));
+        final double tolerance = EPSILON * maxAbs;
+        for (int r = 0; r < rows; r++) {
+            if (!isPivotRow[r] && Math.abs(y[r]) > tolerance) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Back substitution through U with the free positions already set in x, in column positions
+     */
+    private void backward(double[] y, double[] x) {
+        for (int i = rank - 1; i >= 0; i--) {
+            final int[] uCols = upperCols[i];
+            final double[] uValues = upperValues[i];
+            double sum = y == null ? 0 : y[pivotRows[i]];
+            for (int j = 1; j < uCols.length; j++) sum -= uValues[j] * x[uCols[j]];
+            x[uCols[0]] = sum / uValues[0];
+        }
+    }
+
+    private double[] toOriginalOrder(double[] x) {
+        double[] original = new double[cols];
+        for (int k = 0; k < cols; k++) {
+            double value = x[k];
+            if (value == -0.0) value = 0.0;
+            original[columnOrder[k]] = value;
+        }
+        return original;
+    }
+
+    public boolean existsSolution(double[] constants) {
+        return isConsistent(forward(constants));
+    }
+
+    /**
+     * @return the solution with every free variable set to zero
+     * @throws ArithmeticException the system has no solution
+     */
+    public double[] solve(double[] constants) {
+        double[] y = forward(constants);
+        if (!isConsistent(y)) throw new ArithmeticException("System has no solution");
+        double[] x = new double[cols];
+        backward(y, x);
+        return toOriginalOrder(x);
+    }
+
+    /**
+     * Find the solution space, laid out like {@link LinearSolver#findSolutionSpace(ArrayList)}: the first entry
+     * sets every free variable to zero, each following entry is a null space vector with one free variable
+     * set to one. Null space vectors are ordered by the original index of their free variable.
+     *
+     * @throws ArithmeticException the system has no solution
+     */
+    public ArrayList<ArrayList<Double>> findSolutionSpace(double[] constants) {
+        ArrayList<ArrayList<Double>> solutionSpace = new ArrayList<>();
+        solutionSpace.add(toList(solve(constants)));
+
+        boolean[] isFree = new boolean[cols];
+        for (int k = 0; k < cols; k++) isFree[columnOrder[k]] = !isPivotPosition[k];
+        for (int col = 0; col < cols; col++) {
+            if (!isFree[col]) continue;
+            double[] x = new double[cols];
+            x[position[col]] = 1.0; // one free variable is 1, others are 0
+            backward(null, x);
+            solutionSpace.add(toList(toOriginalOrder(x)));
+        }
+        return solutionSpace;
+    }
+
+    private static ArrayList<Double> toList(double[] vector) {
+        ArrayList<Double> list = new ArrayList<>(vector.length);
+        for (double value : vector) list.add(value);
+        return list;
+    }
+}
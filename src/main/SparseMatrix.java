@@ -0,0 +1,270 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Sparse matrix in compressed sparse row (CSR) form. The nonzeros of row r are
+ * values[rowPtr[r] .. rowPtr[r + 1] - 1], in columns colIdx[rowPtr[r] .. rowPtr[r + 1] - 1], sorted by column.
+ * The transpose of a CSR matrix is the compressed sparse column (CSC) form of the same matrix.
+ * Instances are immutable.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class SparseMatrix implements LinearOperator {
+    private final int rows;
+    private final int cols;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+
+    /**
+     * Wrap existing CSR arrays, no copy is made. Column indices must be sorted within each row.
+     */
+    public SparseMatrix(int rows, int cols, int[] rowPtr, int[] colIdx, double[] values) {
+        if (rowPtr.length != rows + 1) throw new IllegalArgumentException("Row pointer array must have rows + 1 entries");
+        if (colIdx.length < rowPtr[rows] || values.length < rowPtr[rows])
+            throw new IllegalArgumentException("Column index and value arrays are too small");
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+    }
+
+    /**
+     * Build a matrix from (row, column, value) triplets in any order. Duplicate entries are added together
+     * and entries that end up zero are dropped.
+     */
+    public static SparseMatrix fromTriplets(int rows, int cols, int[] rowIndices, int[] colIndices, double[] entries) {
+        final int count = entries.length;
+        if (rowIndices.length != count || colIndices.length != count)
+            throw new IllegalArgumentException("Triplet arrays must have the same length");
+        //counting sort by row
+        int[] rowPtr = new int[rows + 1];
+        for (int i = 0; i < count; i++) {
+            if (rowIndices[i] < 0 || rowIndices[i] >= rows || colIndices[i] < 0 || colIndices[i] >= cols)
+                throw new IndexOutOfBoundsException("Entry (" + rowIndices[i] + ", " + colIndices[i] + ") is outside of the matrix");
+            rowPtr[rowIndices[i] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) rowPtr[r + 1] += rowPtr[r];
+        int[] next = Arrays.copyOf(rowPtr, rows);
+        int[] colIdx = new int[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            int position = next[rowIndices[i]]++;
+            colIdx[position] = colIndices[i];
+            values[position] = entries[i];
+        }
+
+        //sort each row by column and merge duplicates
+        int[] compactPtr = new int[rows + 1];
+        int write = 0;
+        for (int r = 0; r < rows; r++) {
+            int start = rowPtr[r];
+            int end = rowPtr[r + 1];
+            sortRow(colIdx, values, start, end);
+            for (int i = start; i < end; i++) {
+                if (write > compactPtr[r] && colIdx[write - 1] == colIdx[i]) {
+                    values[write - 1] += values[i];
+                } else {
+                    colIdx[write] = colIdx[i];
+                    values[write] = values[i];
+                    write++;
+                }
+            }
+            //drop zeros
+            int kept = compactPtr[r];
+            for (int i = compactPtr[r]; i < write; i++) {
+                if (values[i] != 0) {
+                    colIdx[kept] = colIdx[i];
+                    values[kept] = values[i];
+                    kept++;
+                }
+            }
+            write = kept;
+            compactPtr[r + 1] = write;
+        }
+        return new SparseMatrix(rows, cols, compactPtr, Arrays.copyOf(colIdx, write), Arrays.copyOf(values, write));
+    }
+
+    /**
+     * insertion sort for short rows, otherwise sort an index permutation
+     */
+    private static void sortRow(int[] colIdx, double[] values, int start, int end) {
+        boolean sorted = true;
+        for (int i = start + 1; i < end && sorted; i++) sorted = colIdx[i - 1] <= colIdx[i];
+        if (sorted) return;
+        if (end - start <= 32) {
+            for (int i = start + 1; i < end; i++) {
+                int col = colIdx[i];
+                double value = values[i];
+                int j = i - 1;
+                while (j >= start && colIdx[j] > col) {
+                    colIdx[j + 1] = colIdx[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                colIdx[j + 1] = col;
+                values[j + 1] = value;
+            }
+            return;
+        }
+        long[] keyed = new long[end - start];
+        for (int i = start; i < end; i++) keyed[i - start] = ((long) colIdx[i] << 32) | (i - start);
+        Arrays.sort(keyed);
+        double[] original = Arrays.copyOfRange(values, start, end);
+        for (int i = 0; i < keyed.length; i++) {
+            colIdx[start + i] = (int) (keyed[i] >>> 32);
+            values[start + i] = original[(int) keyed[i]];
+        }
+    }
+
+    /**
+     * Copy the nonzero entries of a dense matrix
+     */
+    public static SparseMatrix fromDense(DenseMatrix matrix) {
+        final int rows = matrix.getRows();
+        final int cols = matrix.getCols();
+        int[] rowPtr = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            int count = 0;
+            for (int c = 0; c < cols; c++) if (matrix.get(r, c) != 0) count++;
+            rowPtr[r + 1] = rowPtr[r] + count;
+        }
+        int[] colIdx = new int[rowPtr[rows]];
+        double[] values = new double[rowPtr[rows]];
+        int position = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                double value = matrix.get(r, c);
+                if (value != 0) {
+                    colIdx[position] = c;
+                    values[position++] = value;
+                }
+            }
+        }
+        return new SparseMatrix(rows, cols, rowPtr, colIdx, values);
+    }
+
+    public DenseMatrix toDense() {
+        DenseMatrix dense = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) dense.set(r, colIdx[i], values[i]);
+        }
+        return dense;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNonZeros() {
+        return rowPtr[rows];
+    }
+
+    /**
+     * @return the row pointer array, shared with this matrix
+     */
+    public int[] getRowPointers() {
+        return rowPtr;
+    }
+
+    /**
+     * @return the column index array, shared with this matrix
+     */
+    public int[] getColumnIndices() {
+        return colIdx;
+    }
+
+    /**
+     * @return the value array, shared with this matrix
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    public double get(int row, int col) {
+        int position = Arrays.binarySearch(colIdx, rowPtr[row], rowPtr[row + 1], col);
+        return position >= 0 ? values[position] : 0.0;
+    }
+
+    /**
+     * y = this * x
+     */
+    @Override
+    public void multiply(double[] x, double[] y) {
+        for (int r = 0; r < rows; r++) {
+            double sum = 0;
+            for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) sum += values[i] * x[colIdx[i]];
+            y[r] = sum;
+        }
+    }
+
+    /**
+     * @return the transpose, which as CSR holds the CSC form of this matrix
+     */
+    public SparseMatrix transpose() {
+        final int nnz = getNonZeros();
+        int[] tPtr = new int[cols + 1];
+        for (int i = 0; i < nnz; i++) tPtr[colIdx[i] + 1]++;
+        for (int c = 0; c < cols; c++) tPtr[c + 1] += tPtr[c];
+        int[] next = Arrays.copyOf(tPtr, cols);
+        int[] tIdx = new int[nnz];
+        double[] tValues = new double[nnz];
+        //rows are visited in order, so each transposed row comes out sorted
+        for (int r = 0; r < rows; r++) {
+            for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) {
+                int position = next[colIdx[i]]++;
+                tIdx[position] = r;
+                tValues[position] = values[i];
+            }
+        }
+        return new SparseMatrix(cols, rows, tPtr, tIdx, tValues);
+    }
+
+    /**
+     * @return a new matrix holding columns [from, to) of this one
+     */
+    public SparseMatrix columns(int from, int to) {
+        if (from < 0 || to > cols || from > to) throw new IndexOutOfBoundsException("Column range is outside of the matrix");
+        int[] newPtr = new int[rows + 1];
+        int[] newIdx = new int[getNonZeros()];
+        double[] newValues = new double[getNonZeros()];
+        int position = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int i = rowPtr[r]; i < rowPtr[r + 1]; i++) {
+                if (colIdx[i] >= from && colIdx[i] < to) {
+                    newIdx[position] = colIdx[i] - from;
+                    newValues[position++] = values[i];
+                }
+            }
+            newPtr[r + 1] = position;
+        }
+        return new SparseMatrix(rows, to - from, newPtr, Arrays.copyOf(newIdx, position), Arrays.copyOf(newValues, position));
+    }
+
+    /**
+     * @return a dense copy of one column
+     */
+    public double[] getColumn(int col) {
+        double[] column = new double[rows];
+        for (int r = 0; r < rows; r++) column[r] = get(r, col);
+        return column;
+    }
+
+    /**
+     * @return the largest absolute value of any entry
+     */
+    public double maxAbs() {
+        double max = 0;
+        for (int i = 0; i < getNonZeros(); i++) max = Math.max(max, Math.abs(values[i]));
+        return max;
+    }
+}
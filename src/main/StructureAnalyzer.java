@@ -0,0 +1,223 @@
+package main;
+
+/**
+ * One pass over a square coefficient matrix to find the structure a cheaper solver can exploit, before
+ * {@link LinearSolver} falls back to general elimination. The pass records how far nonzeros reach below and above
+ * the diagonal and whether the matrix is symmetric, and stops checking symmetry at the first mismatch.
+ * <p>
+ * {@link #solve(double[])} then picks the matching solver: substitution for triangular matrices in O(n^2), the Thomas
+ * algorithm for diagonally dominant tridiagonal ones in O(n), {@link BandedLU} for other narrow bands in O(n * b^2),
+ * and {@link CholeskyDecomposition} for symmetric positive definite ones in half the flops of LU. Symmetric indefinite
+ * matrices are left to the pivoting of general elimination.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+public class StructureAnalyzer {
+    // a band is only worth its own solver when lower + upper bandwidth is at most n / BAND_RATIO
+    static final int BAND_RATIO = 4;
+
+    public enum Structure {
+        DIAGONAL,
+        UPPER_TRIANGULAR,
+        LOWER_TRIANGULAR,
+        TRIDIAGONAL,
+        BANDED,
+        SYMMETRIC,
+        GENERAL
+    }
+
+    private final DenseMatrix matrix;
+    private final int n;
+    // largest distance of a nonzero below and above the diagonal
+    private int lowerBandwidth = 0;
+    private int upperBandwidth = 0;
+    private boolean symmetric = true;
+    private boolean diagonallyDominant = true;
+    private double maxAbs = 0;
+    private final Structure structure;
+
+    /**
+     * Analyze a square matrix, which is read but not copied, so it must not change while this analyzer is used
+     */
+    public StructureAnalyzer(DenseMatrix matrix) {
+        this.n = matrix.getRows();
+        if (matrix.getCols() != n) throw new IllegalArgumentException("Matrix is not square");
+        this.matrix = matrix;
+        final double[] data = matrix.getData();
+        for (int r = 0; r < n; r++) {
+            final int start = matrix.index(r, 0);
+            double offDiagonal = 0;
+            for (int c = 0; c < n; c++) {
+                final double value = data[start + c];
+                if (value == 0) continue;
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+                if (c < r) {
+                    lowerBandwidth = Math.max(lowerBandwidth, r - c);
+                    if (symmetric && value != data[matrix.index(c, r)]) symmetric = false;
+                } else if (c > r) {
+                    upperBandwidth = Math.max(upperBandwidth, c - r);
+                    if (symmetric && value != data[matrix.index(c, r)]) symmetric = false;
+                }
+                if (c != r) offDiagonal += Math.abs(value);
+            }
+            if (Math.abs(data[start + r]) < offDiagonal) diagonallyDominant = false;
+        }
+        this.structure = classify();
+    }
+
+    private Structure classify() {
+        if (lowerBandwidth == 0 && upperBandwidth == 0) return Structure.DIAGONAL;
+        if (lowerBandwidth == 0) return Structure.UPPER_TRIANGULAR;
+        if (upperBandwidth == 0) return Structure.LOWER_TRIANGULAR;
+        if (lowerBandwidth == 1 && upperBandwidth == 1) return Structure.TRIDIAGONAL;
+        if ((long) BAND_RATIO * (lowerBandwidth + upperBandwidth) <= n) return Structure.BANDED;
+        if (symmetric) return Structure.SYMMETRIC;
+        return Structure.GENERAL;
+    }
+
+    public Structure getStructure() {
+        return structure;
+    }
+
+    public int getLowerBandwidth() {
+        return lowerBandwidth;
+    }
+
+    public int getUpperBandwidth() {
+        return upperBandwidth;
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    /**
+     * @return true if every diagonal entry is at least the sum of the other magnitudes in its row
+     */
+    public boolean isDiagonallyDominant() {
+        return diagonallyDominant;
+    }
+
+    /**
+     * @return floating point operations {@link #solve(double[])} takes, 0 for a general matrix
+     */
+    public long getSolveFlops() {
+        final long size = n;
+        switch (structure) {
+            case DIAGONAL:
+                return size;
+            case UPPER_TRIANGULAR:
+            case LOWER_TRIANGULAR:
+                return size * size;
+            case TRIDIAGONAL:
+                return 8 * size;
+            case BANDED:
+                return 2 * size * lowerBandwidth * (lowerBandwidth + upperBandwidth + 1) + 2 * size * (2 * lowerBandwidth + upperBandwidth + 1);
+            case SYMMETRIC:
+                return size * size * size / 3 + 2 * size * size;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Solve Ax = b with the solver for the matrix's structure
+     *
+     * @return x, or null if the matrix is general, singular, symmetric but indefinite, or its structured solver broke down.
+     * The system should then be solved by general elimination.
+     */
+    public double[] solve(double[] b) {
+        if (b.length != n) throw new IllegalArgumentException("Expected a vector of length " + n);
+        // pivots this small relative to the largest entry are indistinguishable from rounding error
+        final double tolerance = n * Math.ulp(maxAbs);
+        switch (structure) {
+            case DIAGONAL:
+            case UPPER_TRIANGULAR:
+                return solveUpperTriangular(matrix, b, tolerance);
+            case LOWER_TRIANGULAR:
+                return solveLowerTriangular(matrix, b, tolerance);
+            case TRIDIAGONAL:
+                //without interchanges the Thomas algorithm is only stable for dominant diagonals
+                if (diagonallyDominant) return solveTridiagonal(matrix, b, tolerance);
+                return solveBanded(1, 1, b);
+            case BANDED:
+                return solveBanded(lowerBandwidth, upperBandwidth, b);
+            case SYMMETRIC:
+                CholeskyDecomposition cholesky = new CholeskyDecomposition(matrix);
+                return cholesky.isPositiveDefinite() ? cholesky.solve(b) : null;
+            default:
+                return null;
+        }
+    }
+
+    private double[] solveBanded(int lower, int upper, double[] b) {
+        BandedLU lu = new BandedLU(matrix, lower, upper);
+        return lu.isSingular() ? null : lu.solve(b);
+    }
+
+    /**
+     * Back substitution, reading only the upper triangle
+     *
+     * @return x, or null if a diagonal entry is zero within tolerance
+     */
+    public static double[] solveUpperTriangular(DenseMatrix matrix, double[] b, double tolerance) {
+        final int n = b.length;
+        final double[] data = matrix.getData();
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            final int start = matrix.index(i, 0);
+            final double diagonal = data[start + i];
+            if (Math.abs(diagonal) <= tolerance) return null;
+            double sum = b[i];
+            for (int c = i + 1; c < n; c++) sum -= data[start + c] * x[c];
+            x[i] = sum / diagonal;
+        }
+        return x;
+    }
+
+    /**
+     * Forward substitution, reading only the lower triangle
+     *
+     * @return x, or null if a diagonal entry is zero within tolerance
+     */
+    public static double[] solveLowerTriangular(DenseMatrix matrix, double[] b, double tolerance) {
+        final int n = b.length;
+        final double[] data = matrix.getData();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            final int start = matrix.index(i, 0);
+            final double diagonal = data[start + i];
+            if (Math.abs(diagonal) <= tolerance) return null;
+            double sum = b[i];
+            for (int c = 0; c < i; c++) sum -= data[start + c] * x[c];
+            x[i] = sum / diagonal;
+        }
+        return x;
+    }
+
+    /**
+     * Thomas algorithm, Gaussian elimination without interchanges on the three diagonals in O(n)
+     *
+     * @return x, or null if a pivot is zero within tolerance
+     */
+    public static double[] solveTridiagonal(DenseMatrix matrix, double[] b, double tolerance) {
+        final int n = b.length;
+        // upper diagonal and right-hand side after eliminating the lower diagonal
+        double[] upper = new double[n];
+        double[] x = new double[n];
+        double previousUpper = 0;
+        double previousRhs = 0;
+        for (int i = 0; i < n; i++) {
+            final double sub = i > 0 ? matrix.get(i, i - 1) : 0;
+            final double pivot = matrix.get(i, i) - sub * previousUpper;
+            if (Math.abs(pivot) <= tolerance) return null;
+            previousUpper = i + 1 < n ? matrix.get(i, i + 1) / pivot : 0;
+            previousRhs = (b[i] - sub * previousRhs) / pivot;
+            upper[i] = previousUpper;
+            x[i] = previousRhs;
+        }
+        for (int i = n - 2; i >= 0; i--) x[i] -= upper[i] * x[i + 1];
+        return x;
+    }
+}
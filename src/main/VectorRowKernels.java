@@ -0,0 +1,69 @@
+package main;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the widest double vectors of the hardware (4 lanes with AVX2, 8 with AVX-512).
+ * Only loaded when jdk.incubator.vector is available, see {@link RowKernels#SELECTED}.
+ *
+ * @author Arthur Zarins
+ * @author Muneeb Chaudhary
+ */
+final class VectorRowKernels implements RowKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * @return false if vectors hold a single double, when the scalar loops are just as fast
+     */
+    static boolean isAccelerated() {
+        return SPECIES.length() > 1;
+    }
+
+    @Override
+    public void axpy(double[] data, int target, int source, int length, double c) {
+        final DoubleVector multiplier = DoubleVector.broadcast(SPECIES, c);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector delta = DoubleVector.fromArray(SPECIES, data, source + i);
+            DoubleVector row = DoubleVector.fromArray(SPECIES, data, target + i);
+            //mul then add, not fma, to round exactly like the scalar loop
+            row.add(delta.mul(multiplier)).intoArray(data, target + i);
+        }
+        for (; i < length; i++) data[target + i] += c * data[source + i];
+    }
+
+    @Override
+    public void scale(double[] data, int start, int length, double scalar) {
+        final DoubleVector multiplier = DoubleVector.broadcast(SPECIES, scalar);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, data, start + i).mul(multiplier).intoArray(data, start + i);
+        }
+        for (; i < length; i++) data[start + i] *= scalar;
+    }
+
+    @Override
+    public void swap(double[] data, int start1, int start2, int length) {
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector row1 = DoubleVector.fromArray(SPECIES, data, start1 + i);
+            DoubleVector row2 = DoubleVector.fromArray(SPECIES, data, start2 + i);
+            row2.intoArray(data, start1 + i);
+            row1.intoArray(data, start2 + i);
+        }
+        for (; i < length; i++) {
+            double temp = data[start1 + i];
+            data[start1 + i] = data[start2 + i];
+            data[start2 + i] = temp;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + "x" + SPECIES.elementSize() + "bit)";
+    }
+}
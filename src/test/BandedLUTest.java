@@ -0,0 +1,51 @@
+package test;
+
+import main.BandedLU;
+import main.DenseMatrix;
+import main.LUDecomposition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for BandedLU
+ */
+class BandedLUTest {
+
+    @Test
+    void matchesDenseLU() {
+        int[][] bandwidths = {{0, 0}, {1, 1}, {2, 5}, {4, 0}, {3, 3}};
+        for (int[] bandwidth : bandwidths) {
+            DenseMatrix matrix = TestMatrices.banded(50, bandwidth[0], bandwidth[1], false, bandwidth[0] * 7L + bandwidth[1]);
+            double[] b = TestMatrices.vector(50, -5, 5, 11);
+            BandedLU lu = new BandedLU(matrix, bandwidth[0], bandwidth[1]);
+            assertFalse(lu.isSingular());
+            assertArrayEquals(new LUDecomposition(matrix).solve(b), lu.solve(b), 1e-9);
+        }
+    }
+
+    @Test
+    void pivotsWithinTheBand() {
+        //zero diagonal forces an interchange at every step, which fills in above the upper band
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {0, 1, 0, 0},
+                {1, 0, 2, 0},
+                {0, 3, 0, 1},
+                {0, 0, 1, 1}});
+        BandedLU lu = new BandedLU(matrix, 1, 1);
+        assertEquals(4, lu.size());
+        double[] x = {1, -2, 3, 0.5};
+        double[] b = new double[4];
+        matrix.multiply(x, b);
+        assertArrayEquals(x, lu.solve(b), 1e-12);
+    }
+
+    @Test
+    void detectSingularMatrix() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 2, 0}, {2, 4, 0}, {0, 1, 1}});
+        BandedLU lu = new BandedLU(matrix, 1, 1);
+        assertTrue(lu.isSingular());
+        assertThrows(ArithmeticException.class, () -> lu.solve(new double[]{1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> new BandedLU(new DenseMatrix(2, 3), 1, 1));
+    }
+}
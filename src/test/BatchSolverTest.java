@@ -0,0 +1,76 @@
+package test;
+
+import main.BatchSolver;
+import main.DenseMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for BatchSolver
+ */
+class BatchSolverTest {
+
+    @Test
+    void solveSquareSystemForSeveralRightHandSides() {
+        DenseMatrix coefficients = DenseMatrix.fromArray(new double[][]{
+                {3, -7, 4},
+                {1, -2, 1},
+                {2, -1, 2}});
+        // the second column is twice the first
+        DenseMatrix rhs = DenseMatrix.fromArray(new double[][]{
+                {10, 20},
+                {3, 6},
+                {6, 12}});
+
+        BatchSolver.BatchSolution solution = new BatchSolver(coefficients).solve(rhs);
+        assertArrayEquals(new double[]{2, 0, 1}, solution.getSolution(0), 1e-12);
+        assertArrayEquals(new double[]{4, 0, 2}, solution.getSolution(1), 1e-12);
+        assertTrue(solution.isConsistent(0));
+        assertTrue(solution.isConsistent(1));
+    }
+
+    @Test
+    void flagInconsistentRightHandSides() {
+        // same coefficients as the vector space test in LinearSolverTest, rank 2
+        DenseMatrix coefficients = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 2, 2},
+                {2, 4, 6, 8},
+                {3, 6, 8, 10}});
+        DenseMatrix rhs = DenseMatrix.fromArray(new double[][]{
+                {1, 1},
+                {5, 5},
+                {6, 7}});
+
+        BatchSolver solver = new BatchSolver(coefficients);
+        assertEquals(2, solver.getRank());
+        assertArrayEquals(new int[]{0, 2}, solver.getPivotColumns());
+
+        BatchSolver.BatchSolution solution = solver.solve(rhs);
+        assertTrue(solution.isConsistent(0));
+        assertFalse(solution.isConsistent(1));
+        // free variables are zero, matching the base solution of findSolutionSpace
+        assertArrayEquals(new double[]{-2, 0, 1.5, 0}, solution.getSolution(0), 1e-12);
+    }
+
+    @Test
+    void solveStreamOfVectors() {
+        DenseMatrix coefficients = DenseMatrix.fromArray(new double[][]{
+                {4, 3},
+                {2, 1}});
+        BatchSolver solver = new BatchSolver(coefficients);
+
+        List<BatchSolver.BatchSolution> batches = solver.solveAll(
+                List.of(new double[]{7, 3}, new double[]{3, 1}, new double[]{4, 2}).stream(), 2)
+                .collect(Collectors.toList());
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(1).size());
+        assertArrayEquals(new double[]{1, 1}, batches.get(0).getSolution(0), 1e-12);
+        assertArrayEquals(new double[]{0, 1}, batches.get(0).getSolution(1), 1e-12);
+        assertArrayEquals(new double[]{1, 0}, batches.get(1).getSolution(0), 1e-12);
+    }
+}
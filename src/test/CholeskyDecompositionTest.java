@@ -0,0 +1,49 @@
+package test;
+
+import main.CholeskyDecomposition;
+import main.DenseMatrix;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for CholeskyDecomposition
+ */
+class CholeskyDecompositionTest {
+
+    private static double[] multiply(DenseMatrix a, double[] x) {
+        double[] y = new double[a.getRows()];
+        a.multiply(x, y);
+        return y;
+    }
+
+    @Test
+    void positiveDefinite() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {4, 12, -16},
+                {12, 37, -43},
+                {-16, -43, 98}});
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(matrix);
+        assertTrue(cholesky.isPositiveDefinite());
+        double[] x = {1, -1, 2};
+        assertArrayEquals(x, cholesky.solve(multiply(matrix, x)), 1e-10);
+    }
+
+    @Test
+    void indefiniteIsNotFactored() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 3},
+                {2, 1, 4},
+                {3, 4, 1}});
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(matrix);
+        assertFalse(cholesky.isPositiveDefinite());
+        assertThrows(ArithmeticException.class, () -> cholesky.solve(new double[]{1, 1, 1}));
+    }
+
+    @Test
+    void zeroPivotIsNotFactored() {
+        //symmetric and nonsingular, but the first pivot is zero
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{0, 1}, {1, 0}});
+        assertFalse(new CholeskyDecomposition(matrix).isPositiveDefinite());
+    }
+}
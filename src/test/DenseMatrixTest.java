@@ -0,0 +1,91 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for DenseMatrix and the dense LinearSolver overloads
+ */
+class DenseMatrixTest {
+
+    @Test
+    void convertToAndFromList() {
+        ArrayList<ArrayList<Double>> matrix = new ArrayList<>();
+        matrix.add(new ArrayList<>(List.of(1.0, 2.0, 3.0)));
+        matrix.add(new ArrayList<>(List.of(4.0, 5.0, 6.0)));
+
+        DenseMatrix dense = DenseMatrix.fromList(matrix);
+        assertEquals(2, dense.getRows());
+        assertEquals(3, dense.getCols());
+        assertEquals(6.0, dense.get(1, 2));
+        assertEquals(matrix, dense.toList());
+    }
+
+    @Test
+    void viewSharesBackingArray() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 3},
+                {4, 5, 6},
+                {7, 8, 9}});
+
+        // bottom right 2x2 block
+        DenseMatrix view = matrix.view(1, 1, 2, 2);
+        assertEquals(5.0, view.get(0, 0));
+        assertEquals(3, view.getStride());
+
+        view.set(1, 1, -1.0);
+        assertEquals(-1.0, matrix.get(2, 2));
+    }
+
+    @Test
+    void solveDenseMatrixWithOneSolution() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {3, -7, 4, 10},
+                {1, -2, 1, 3},
+                {2, -1, 2, 6}});
+
+        DenseMatrix RREFmatrix = DenseMatrix.fromArray(new double[][]{
+                {1, 0, 0, 2},
+                {0, 1, 0, 0},
+                {0, 0, 1, 1}});
+
+        LinearSolver solver = new LinearSolver();
+        solver.solveMatrix(matrix);
+        assertEquals(RREFmatrix, matrix);
+    }
+
+    @Test
+    void denseSolutionSpace() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 2, 2, 1},
+                {2, 4, 6, 8, 5},
+                {3, 6, 8, 10, 6}});
+
+        DenseMatrix solutionSpace = DenseMatrix.fromArray(new double[][]{
+                {-2, 0, 1.5, 0},
+                {-2, 1, 0, 0},
+                {2, 0, -2, 1}});
+
+        LinearSolver solver = new LinearSolver();
+        solver.solveMatrix(matrix);
+        assertTrue(LinearSolver.existsSolution(matrix));
+        assertEquals(solutionSpace, LinearSolver.findSolutionSpace(matrix));
+    }
+
+    @Test
+    void inverseDoesNotModifyInput() {
+        ArrayList<ArrayList<Double>> matrix = new ArrayList<>();
+        matrix.add(new ArrayList<>(List.of(4.0, 3.0)));
+        matrix.add(new ArrayList<>(List.of(2.0, 1.0)));
+        ArrayList<ArrayList<Double>> original = LinearSolver.deepCopy(matrix);
+
+        LinearSolver.invertMatrix(matrix);
+        assertEquals(original, matrix);
+    }
+}
@@ -0,0 +1,55 @@
+package test;
+
+import main.DenseMatrix;
+import main.Determinant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for Determinant
+ */
+class DeterminantTest {
+
+    @Test
+    void exactForIntegerMatrix() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {2, 3, 7, 2},
+                {4, 8, 9, -5},
+                {1, 6, 3, -8},
+                {-7, -6, 3, 4}});
+
+        Determinant determinant = Determinant.of(matrix);
+        assertEquals(-400.0, determinant.getValue());
+        assertEquals(-1, determinant.getSign());
+        assertEquals(Math.log(400), determinant.getLogAbs(), 1e-12);
+    }
+
+    @Test
+    void singularMatrixIsZero() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 3},
+                {4, 5, 6},
+                {7, 8, 9}});
+        assertTrue(Determinant.of(matrix).isZero());
+
+        DenseMatrix fractional = DenseMatrix.fromArray(new double[][]{
+                {0.1, 0.2, 0.3},
+                {0.4, 0.5, 0.6},
+                {0.7, 0.8, 0.9}});
+        assertTrue(Determinant.of(fractional).isZero());
+    }
+
+    @Test
+    void logDeterminantDoesNotOverflow() {
+        // det(1000 * I) = 10^(3 * 200), far beyond the range of a double
+        final int n = 200;
+        DenseMatrix matrix = new DenseMatrix(n, n);
+        for (int i = 0; i < n; i++) matrix.set(i, i, 1000.5);
+
+        Determinant determinant = Determinant.of(matrix);
+        assertEquals(Double.POSITIVE_INFINITY, determinant.getValue());
+        assertEquals(1, determinant.getSign());
+        assertEquals(n * Math.log(1000.5), determinant.getLogAbs(), 1e-9);
+    }
+}
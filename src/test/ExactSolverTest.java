@@ -0,0 +1,243 @@
+package test;
+
+import main.DenseMatrix;
+import main.ExactSolver;
+import main.Fraction;
+import main.LinearSolver;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for ExactSolver and Fraction
+ */
+class ExactSolverTest {
+
+    private static Fraction[][] integers(long[][] values) {
+        Fraction[][] matrix = new Fraction[values.length][];
+        for (int r = 0; r < values.length; r++) {
+            matrix[r] = new Fraction[values[r].length];
+            for (int c = 0; c < values[r].length; c++) matrix[r][c] = Fraction.of(values[r][c]);
+        }
+        return matrix;
+    }
+
+    private static Fraction[][] hilbert(int n) {
+        Fraction[][] matrix = new Fraction[n][n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) matrix[r][c] = Fraction.of(1, r + c + 1);
+        }
+        return matrix;
+    }
+
+    /**
+     * Random integers in [-bound, bound], with the last rows sums of earlier ones to lower the rank
+     */
+    private static long[][] random(int rows, int cols, int bound, int dependent, long seed) {
+        Random random = new Random(seed);
+        long[][] matrix = new long[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                matrix[r][c] = r < rows - dependent ? random.nextInt(2 * bound + 1) - bound : matrix[r - 1][c] + 2 * matrix[0][c];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Textbook Gauss-Jordan elimination on fractions, the reference every result is compared to
+     */
+    private static Fraction[][] naiveReduce(Fraction[][] input) {
+        Fraction[][] matrix = new Fraction[input.length][];
+        for (int r = 0; r < input.length; r++) matrix[r] = input[r].clone();
+        int pivotRow = 0;
+        for (int col = 0; col < (matrix.length == 0 ? 0 : matrix[0].length) && pivotRow < matrix.length; col++) {
+            int row = pivotRow;
+            while (row < matrix.length && matrix[row][col].isZero()) row++;
+            if (row == matrix.length) continue;
+            Fraction[] temp = matrix[row];
+            matrix[row] = matrix[pivotRow];
+            matrix[pivotRow] = temp;
+            Fraction pivot = matrix[pivotRow][col];
+            for (int c = 0; c < matrix[pivotRow].length; c++) matrix[pivotRow][c] = matrix[pivotRow][c].divide(pivot);
+            for (int r = 0; r < matrix.length; r++) {
+                if (r == pivotRow || matrix[r][col].isZero()) continue;
+                Fraction factor = matrix[r][col];
+                for (int c = 0; c < matrix[r].length; c++) {
+                    matrix[r][c] = matrix[r][c].subtract(factor.multiply(matrix[pivotRow][c]));
+                }
+            }
+            pivotRow++;
+        }
+        return matrix;
+    }
+
+    private static Fraction[][] multiply(Fraction[][] a, Fraction[][] b) {
+        Fraction[][] product = new Fraction[a.length][b[0].length];
+        for (int r = 0; r < a.length; r++) {
+            for (int c = 0; c < b[0].length; c++) {
+                Fraction sum = Fraction.ZERO;
+                for (int k = 0; k < b.length; k++) sum = sum.add(a[r][k].multiply(b[k][c]));
+                product[r][c] = sum;
+            }
+        }
+        return product;
+    }
+
+    @Test
+    void fractionsStayInLowestTerms() {
+        assertEquals(Fraction.of(1, 2), Fraction.of(-3, -6));
+        assertEquals("-2/3", Fraction.of(4, -6).toString());
+        assertEquals("5", Fraction.of(10, 2).toString());
+        assertEquals(Fraction.ONE, Fraction.of(1, 3).add(Fraction.of(2, 3)));
+        assertEquals(Fraction.of(-1, 6), Fraction.of(1, 3).subtract(Fraction.of(1, 2)));
+        assertEquals(Fraction.of(2, 9), Fraction.of(1, 3).divide(Fraction.of(3, 2)));
+        assertEquals(Fraction.ZERO, Fraction.of(0, -5));
+        assertTrue(Fraction.of(1, 3).compareTo(Fraction.of(1, 2)) < 0);
+        assertThrows(ArithmeticException.class, () -> Fraction.of(1, 0));
+        assertThrows(ArithmeticException.class, () -> Fraction.ONE.divide(Fraction.ZERO));
+    }
+
+    @Test
+    void doublesConvertAsTyped() {
+        assertEquals(Fraction.of(1, 10), Fraction.valueOf(0.1));
+        assertEquals(Fraction.of(-5, 4), Fraction.valueOf(-1.25));
+        assertEquals(Fraction.of(3000), Fraction.valueOf(3e3));
+        assertEquals(0.1, Fraction.of(1, 10).doubleValue());
+        assertEquals(1.0 / 3, Fraction.of(1, 3).doubleValue());
+        assertEquals(1.0 / 3, Fraction.of(BigInteger.TEN.pow(40), BigInteger.TEN.pow(40).multiply(BigInteger.valueOf(3))).doubleValue());
+        assertThrows(NumberFormatException.class, () -> Fraction.valueOf(Double.NaN));
+    }
+
+    @Test
+    void reducedFormMatchesTextbookElimination() {
+        for (int seed = 0; seed < 20; seed++) {
+            int rows = 2 + seed % 5;
+            int cols = 2 + (seed * 3) % 6;
+            Fraction[][] matrix = integers(random(rows, cols, 9, Math.min(seed % 3, rows - 1), seed));
+            //turn some entries into fractions
+            matrix[0][0] = Fraction.of(seed + 1, 7);
+            matrix[rows - 1][cols - 1] = Fraction.of(-3, seed + 2);
+            ExactSolver solver = new ExactSolver(matrix);
+            Fraction[][] expected = naiveReduce(matrix);
+            assertTrue(Arrays.deepEquals(expected, solver.getReducedRowEchelon()), "seed " + seed);
+            int rank = 0;
+            for (Fraction[] row : expected) {
+                for (Fraction entry : row) {
+                    if (!entry.isZero()) {
+                        rank++;
+                        break;
+                    }
+                }
+            }
+            assertEquals(rank, solver.getRank(), "seed " + seed);
+        }
+    }
+
+    @Test
+    void rankDeficientSystem() {
+        //x + 2y + 3z = 4 twice, and 2x + 4y + 7z = 9
+        ExactSolver solver = new ExactSolver(integers(new long[][]{{1, 2, 3, 4}, {1, 2, 3, 4}, {2, 4, 7, 9}}));
+        assertEquals(2, solver.getRank());
+        assertArrayEquals(new int[]{0, 2}, solver.getPivotColumns());
+        assertTrue(solver.existsSolution());
+        Fraction[][] space = solver.findSolutionSpace();
+        //x = 1 - 2y, z = 1
+        assertTrue(Arrays.deepEquals(integers(new long[][]{{1, 0, 1}, {-2, 1, 0}}), space));
+
+        ExactSolver inconsistent = new ExactSolver(integers(new long[][]{{1, 2, 3}, {2, 4, 7}}));
+        assertFalse(inconsistent.existsSolution());
+        assertThrows(ArithmeticException.class, inconsistent::findSolutionSpace);
+    }
+
+    @Test
+    void solutionSpaceHasTheShapeOfLinearSolver() {
+        DenseMatrix system = DenseMatrix.fromArray(new double[][]{{1, 1, 1, 0, 2}, {0, 0, 2, 4, 6}});
+        Fraction[][] exact = new ExactSolver(system).findSolutionSpace();
+        DenseMatrix reduced = system.copy();
+        new LinearSolver().solveMatrix(reduced);
+        DenseMatrix approximate = LinearSolver.findSolutionSpace(reduced);
+        assertEquals(approximate.getRows(), exact.length);
+        for (int r = 0; r < exact.length; r++) {
+            assertArrayEquals(approximate.getRow(r), ExactSolver.toDense(new Fraction[][]{exact[r]}).getRow(0), 1e-9);
+        }
+    }
+
+    @Test
+    void hilbertDeterminantAndInverse() {
+        Fraction[][] matrix = hilbert(5);
+        assertEquals(Fraction.of(1, 266716800000L), ExactSolver.determinant(matrix));
+        Fraction[][] inverse = ExactSolver.invert(matrix);
+        //the inverse of a Hilbert matrix has integer entries
+        assertEquals(Fraction.of(25), inverse[0][0]);
+        assertEquals(Fraction.of(179200), inverse[3][3]);
+        for (Fraction[] row : inverse) {
+            for (Fraction entry : row) assertTrue(entry.isInteger());
+        }
+        Fraction[][] identity = multiply(matrix, inverse);
+        for (int r = 0; r < 5; r++) {
+            for (int c = 0; c < 5; c++) assertEquals(r == c ? Fraction.ONE : Fraction.ZERO, identity[r][c]);
+        }
+    }
+
+    @Test
+    void determinantSignAndSingularity() {
+        assertEquals(Fraction.of(-2), ExactSolver.determinant(integers(new long[][]{{0, 1}, {2, 5}})));
+        assertEquals(Fraction.of(3), ExactSolver.determinant(DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 8}})));
+        assertEquals(Fraction.ZERO, ExactSolver.determinant(integers(new long[][]{{1, 2}, {2, 4}})));
+        assertThrows(ArithmeticException.class, () -> ExactSolver.invert(integers(new long[][]{{1, 2}, {2, 4}})));
+        assertThrows(IllegalArgumentException.class, () -> ExactSolver.determinant(integers(new long[][]{{1, 2, 3}})));
+    }
+
+    @Test
+    void promotesToBigIntegersOnOverflow() {
+        long[][] values = random(8, 9, 1_000_000_000, 2, 42);
+        Fraction[][] matrix = integers(values);
+        ExactSolver solver = new ExactSolver(matrix);
+        assertTrue(solver.isPromoted());
+        assertTrue(Arrays.deepEquals(naiveReduce(matrix), solver.getReducedRowEchelon()));
+
+        ExactSolver small = new ExactSolver(integers(random(8, 9, 9, 2, 42)));
+        assertFalse(small.isPromoted());
+    }
+
+    @Test
+    void solvesLargeIntegerSystems() {
+        final int n = 200;
+        long[][] values = random(n, n + 1, 9, 0, 7);
+        Fraction[][] matrix = integers(values);
+        long start = System.nanoTime();
+        ExactSolver solver = new ExactSolver(matrix);
+        Fraction[][] space = solver.findSolutionSpace();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(n, solver.getRank());
+        assertEquals(1, space.length);
+        //check A x = b exactly on a few rows
+        for (int r = 0; r < n; r += 37) {
+            Fraction sum = Fraction.ZERO;
+            for (int c = 0; c < n; c++) sum = sum.add(Fraction.of(values[r][c]).multiply(space[0][c]));
+            assertEquals(Fraction.of(values[r][n]), sum);
+        }
+        assertTrue(millis < 30_000, "took " + millis + " ms");
+    }
+
+    @Test
+    void exactModeOfLinearSolver() {
+        //3x + y = 2, 7y = 1 has x = 13/21, y = 1/7, which rounding to 5 decimals would cut short
+        DenseMatrix system = DenseMatrix.fromArray(new double[][]{{3, 1, 2}, {0, 7, 1}});
+        LinearSolver solver = new LinearSolver();
+        solver.setExact(true);
+        assertTrue(solver.isExact());
+        DenseMatrix reduced = system.copy();
+        solver.solveMatrix(reduced);
+        assertArrayEquals(new int[]{0, 1}, solver.getPivotColumns());
+        assertEquals(13.0 / 21, reduced.get(0, 2));
+        assertEquals(1.0 / 7, reduced.get(1, 2));
+        assertEquals(1.0, reduced.get(1, 1));
+        assertArrayEquals(new double[]{13.0 / 21, 1.0 / 7}, LinearSolver.findSolutionSpace(reduced).getRow(0));
+    }
+}
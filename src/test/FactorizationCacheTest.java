@@ -0,0 +1,119 @@
+package test;
+
+import main.DenseMatrix;
+import main.FactorizationCache;
+import main.LinearSolver;
+import main.SolverMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for FactorizationCache
+ */
+class FactorizationCacheTest {
+
+    @Test
+    void cachedSolvesMatchUncachedSolves() {
+        FactorizationCache cache = new FactorizationCache(1 << 20);
+        LinearSolver cached = new LinearSolver();
+        cached.enableCache(cache);
+        LinearSolver plain = new LinearSolver();
+
+        DenseMatrix system = TestMatrices.uniform(12, 13, -5, 5, 1);
+        for (int i = 0; i < 5; i++) {
+            // same coefficients, a new constants column
+            for (int r = 0; r < 12; r++) system.set(r, 12, r * i - 3.5);
+            DenseMatrix expected = system.copy();
+            DenseMatrix actual = system.copy();
+            plain.solveMatrix(expected);
+            cached.solveMatrix(actual);
+            assertEquals(expected, actual);
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.size());
+        assertEquals(0.8, cache.getHitRate(), 1e-12);
+    }
+
+    @Test
+    void hitsSkipTheFactorization() {
+        FactorizationCache cache = new FactorizationCache(1 << 20);
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableCache(cache);
+        solver.enableMetrics(metrics);
+        final int n = 30;
+        solver.solveMatrix(TestMatrices.uniform(n, n + 1, -5, 5, 2));
+        long first = metrics.snapshot().getFlops();
+        solver.solveMatrix(TestMatrices.uniform(n, n + 1, -5, 5, 2));
+        assertEquals(2L * n * n, metrics.snapshot().getFlops() - first);
+    }
+
+    @Test
+    void determinantAndInverse() {
+        FactorizationCache cache = new FactorizationCache(1 << 20);
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{4, 7}, {2, 6.5}});
+        assertEquals(LinearSolver.calcDeterminant(matrix), LinearSolver.calcDeterminant(matrix, cache));
+        assertEquals(LinearSolver.calcDeterminant(matrix), LinearSolver.calcDeterminant(matrix.copy(), cache));
+        assertEquals(LinearSolver.invertMatrix(matrix), LinearSolver.invertMatrix(matrix, cache));
+
+        // the returned inverse is a copy
+        LinearSolver.invertMatrix(matrix, cache).set(0, 0, 100);
+        assertEquals(LinearSolver.invertMatrix(matrix), LinearSolver.invertMatrix(matrix, cache));
+        assertEquals(1, cache.getMisses());
+        assertEquals(4, cache.getHits());
+
+        // integer determinants stay exact
+        DenseMatrix integers = DenseMatrix.fromArray(new double[][]{{2, 3}, {1, 4}});
+        assertEquals(5.0, LinearSolver.calcDeterminant(integers, cache));
+    }
+
+    @Test
+    void singularMatrices() {
+        FactorizationCache cache = new FactorizationCache(1 << 20);
+        DenseMatrix singular = DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {2, 4, 6}, {1, 0, 1}});
+        assertThrows(ArithmeticException.class, () -> LinearSolver.invertMatrix(singular, cache));
+        assertThrows(ArithmeticException.class, () -> LinearSolver.invertMatrix(singular, cache));
+        assertEquals(0.0, LinearSolver.calcDeterminant(singular, cache));
+        FactorizationCache.Factorization entry = cache.factorization(singular);
+        assertEquals(2, entry.getRank());
+        assertArrayEquals(new int[]{0, 1}, entry.getPivotColumns());
+
+        // singular systems still reduce by Gauss-Jordan
+        LinearSolver solver = new LinearSolver();
+        solver.enableCache(cache);
+        DenseMatrix system = DenseMatrix.fromArray(new double[][]{{1, 2, 3, 1}, {2, 4, 6, 2}, {1, 0, 1, 1}});
+        DenseMatrix expected = system.copy();
+        new LinearSolver().solveMatrix(expected);
+        solver.solveMatrix(system);
+        assertEquals(expected, system);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        final int n = 10;
+        // room for two 10x10 matrices with their LU factors
+        long entryBytes = 128 + 8L * n * n * 2 + 4L * n;
+        FactorizationCache cache = new FactorizationCache(2 * entryBytes);
+        LinearSolver solver = new LinearSolver();
+        solver.enableCache(cache);
+        DenseMatrix a = TestMatrices.uniform(n, n + 1, -5, 5, 3);
+        DenseMatrix b = TestMatrices.uniform(n, n + 1, -5, 5, 4);
+        DenseMatrix c = TestMatrices.uniform(n, n + 1, -5, 5, 5);
+        solver.solveMatrix(a.copy());
+        solver.solveMatrix(b.copy());
+        assertEquals(2 * entryBytes, cache.getBytes());
+        solver.solveMatrix(a.copy()); // a is now more recent than b
+        solver.solveMatrix(c.copy()); // evicts b
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        long misses = cache.getMisses();
+        solver.solveMatrix(a.copy());
+        assertEquals(misses, cache.getMisses());
+        solver.solveMatrix(b.copy());
+        assertEquals(misses + 1, cache.getMisses());
+        assertTrue(cache.getBytes() <= cache.getCapacity());
+    }
+}
@@ -0,0 +1,150 @@
+package test;
+
+import main.DenseMatrix;
+import main.IncrementalSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for IncrementalSolver
+ */
+class IncrementalSolverTest {
+
+    private static double[] multiply(DenseMatrix a, double[] x) {
+        double[] y = new double[a.getRows()];
+        a.multiply(x, y);
+        return y;
+    }
+
+    /**
+     * Every row of the solution space solves the system, the base row for b and the others for 0
+     */
+    private static void assertSolves(IncrementalSolver solver, double[] b) {
+        DenseMatrix a = solver.getCoefficients();
+        DenseMatrix space = solver.solve(b);
+        assertEquals(1 + a.getCols() - solver.getRank(), space.getRows());
+        for (int row = 0; row < space.getRows(); row++) {
+            double[] x = new double[a.getCols()];
+            for (int c = 0; c < x.length; c++) x[c] = space.get(row, c);
+            double[] y = multiply(a, x);
+            for (int r = 0; r < y.length; r++) assertEquals(row == 0 ? b[r] : 0, y[r], 1e-8);
+        }
+    }
+
+    @Test
+    void solvesLikeAFreshFactorization() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{1, 2, 1}, {2, 4, 0}, {3, 6, 1}});
+        IncrementalSolver solver = new IncrementalSolver(a);
+        assertEquals(2, solver.getRank());
+        assertArrayEquals(new int[]{0, 2}, solver.getPivotColumns());
+        DenseMatrix space = solver.solve(new double[]{2, 4, 6});
+        assertArrayEquals(new double[]{2, 0, 0}, space.getRow(0), 1e-12);
+        assertArrayEquals(new double[]{-2, 1, 0}, space.getRow(1), 1e-12);
+        assertFalse(solver.existsSolution(new double[]{1, 1, 1}));
+        assertThrows(ArithmeticException.class, () -> solver.solve(new double[]{1, 1, 1}));
+    }
+
+    @Test
+    void shermanMorrisonUpdate() {
+        final int n = 20;
+        IncrementalSolver solver = new IncrementalSolver(TestMatrices.uniform(n, n, -5, 5, 1));
+        for (int i = 0; i < 5; i++) {
+            solver.update(TestMatrices.vector(n, -5, 5, 10 + i), TestMatrices.vector(n, -5, 5, 20 + i));
+            assertSolves(solver, TestMatrices.vector(n, -5, 5, 30 + i));
+        }
+        assertEquals(1, solver.getRefactorCount());
+        IncrementalSolver fresh = new IncrementalSolver(solver.getCoefficients());
+        assertArrayEquals(fresh.getInverse().getData(), solver.getInverse().getData(), 1e-8);
+    }
+
+    @Test
+    void updateToSingularRefactors() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{1, 0}, {0, 1}});
+        IncrementalSolver solver = new IncrementalSolver(a);
+        // subtract the second row, making it zero
+        solver.update(new double[]{0, 1}, new double[]{0, -1});
+        assertEquals(1, solver.getRank());
+        assertEquals(2, solver.getRefactorCount());
+        assertThrows(ArithmeticException.class, solver::getInverse);
+        assertSolves(solver, new double[]{3, 0});
+    }
+
+    @Test
+    void woodburyUpdate() {
+        final int n = 15;
+        IncrementalSolver solver = new IncrementalSolver(TestMatrices.uniform(n, n, -5, 5, 2));
+        solver.update(TestMatrices.uniform(n, 3, -5, 5, 3), TestMatrices.uniform(n, 3, -5, 5, 4));
+        assertEquals(1, solver.getRefactorCount());
+        assertSolves(solver, TestMatrices.vector(n, -5, 5, 5));
+    }
+
+    @Test
+    void appendAndRemoveEquations() {
+        IncrementalSolver solver = new IncrementalSolver(TestMatrices.uniform(3, 5, -5, 5, 6));
+        assertEquals(3, solver.getRank());
+        solver.appendEquation(TestMatrices.vector(5, -5, 5, 7));
+        assertEquals(4, solver.getRank());
+        assertSolves(solver, TestMatrices.vector(4, -5, 5, 8));
+
+        // a combination of existing rows does not add to the rank
+        DenseMatrix a = solver.getCoefficients();
+        double[] dependent = new double[5];
+        for (int c = 0; c < 5; c++) dependent[c] = a.get(0, c) - 2 * a.get(2, c);
+        solver.insertEquation(1, dependent);
+        assertEquals(4, solver.getRank());
+        assertEquals(5, solver.getRows());
+        assertArrayEquals(dependent, solver.getCoefficients().getRow(1));
+        double[] x = TestMatrices.vector(5, -5, 5, 9);
+        assertSolves(solver, multiply(solver.getCoefficients(), x));
+
+        // removing the dependent row keeps the rank, removing another one lowers it
+        solver.removeEquation(1);
+        assertEquals(4, solver.getRank());
+        solver.removeEquation(0);
+        assertEquals(3, solver.getRank());
+        assertSolves(solver, TestMatrices.vector(3, -5, 5, 10));
+        assertEquals(1, solver.getRefactorCount());
+    }
+
+    @Test
+    void appendAndRemoveVariables() {
+        IncrementalSolver solver = new IncrementalSolver(TestMatrices.uniform(4, 2, -5, 5, 11));
+        assertEquals(2, solver.getRank());
+        solver.appendVariable(TestMatrices.vector(4, -5, 5, 12));
+        assertEquals(3, solver.getRank());
+
+        // a combination of existing columns is a free variable
+        DenseMatrix a = solver.getCoefficients();
+        double[] dependent = new double[4];
+        for (int r = 0; r < 4; r++) dependent[r] = a.get(r, 0) + 3 * a.get(r, 2);
+        solver.insertVariable(1, dependent);
+        assertEquals(3, solver.getRank());
+        assertEquals(1, solver.getNullSpace().getRows());
+        assertSolves(solver, multiply(solver.getCoefficients(), TestMatrices.vector(4, -5, 5, 13)));
+
+        // removing a pivot column moves its pivot to the free column
+        solver.removeVariable(0);
+        assertEquals(3, solver.getRank());
+        assertEquals(0, solver.getNullSpace().getRows());
+        assertSolves(solver, multiply(solver.getCoefficients(), TestMatrices.vector(3, -5, 5, 14)));
+        solver.removeVariable(2);
+        assertEquals(2, solver.getRank());
+        assertEquals(1, solver.getRefactorCount());
+    }
+
+    @Test
+    void replaceRowsAndColumnsOfASquareSystem() {
+        final int n = 10;
+        IncrementalSolver solver = new IncrementalSolver(TestMatrices.uniform(n, n, -5, 5, 15));
+        for (int i = 0; i < 4; i++) {
+            solver.replaceEquation(i, TestMatrices.vector(n, -5, 5, 16 + i));
+            solver.replaceVariable(n - 1 - i, TestMatrices.vector(n, -5, 5, 26 + i));
+            assertEquals(n, solver.getRank());
+            assertSolves(solver, TestMatrices.vector(n, -5, 5, 36 + i));
+        }
+        IncrementalSolver fresh = new IncrementalSolver(solver.getCoefficients());
+        assertArrayEquals(fresh.getInverse().getData(), solver.getInverse().getData(), 1e-8);
+        assertEquals(1, solver.getRefactorCount());
+    }
+}
@@ -0,0 +1,145 @@
+package test;
+
+import main.DenseMatrix;
+import main.ILU0Preconditioner;
+import main.IterativeSolver;
+import main.IterativeSolver.IterativeResult;
+import main.JacobiPreconditioner;
+import main.LUDecomposition;
+import main.LinearOperator;
+import main.SparseMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for IterativeSolver and its preconditioners
+ */
+class IterativeSolverTest {
+
+    /**
+     * 5-point convection-diffusion operator on a grid x grid mesh, symmetric when convection is zero
+     */
+    private static SparseMatrix convectionDiffusion(int grid, double convection) {
+        final int n = grid * grid;
+        int[] rows = new int[5 * n];
+        int[] cols = new int[5 * n];
+        double[] values = new double[5 * n];
+        int count = 0;
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int row = i * grid + j;
+                rows[count] = row;
+                cols[count] = row;
+                values[count++] = 4;
+                int[][] neighbours = {{i - 1, j}, {i + 1, j}, {i, j - 1}, {i, j + 1}};
+                double[] weights = {-1, -1, -1 - convection, -1 + convection};
+                for (int k = 0; k < 4; k++) {
+                    int[] neighbour = neighbours[k];
+                    if (neighbour[0] < 0 || neighbour[0] >= grid || neighbour[1] < 0 || neighbour[1] >= grid) continue;
+                    rows[count] = row;
+                    cols[count] = neighbour[0] * grid + neighbour[1];
+                    values[count++] = weights[k];
+                }
+            }
+        }
+        return SparseMatrix.fromTriplets(n, n, Arrays.copyOf(rows, count),
+                Arrays.copyOf(cols, count), Arrays.copyOf(values, count));
+    }
+
+    private static double relativeResidual(LinearOperator matrix, double[] b, double[] x) {
+        double[] ax = new double[b.length];
+        matrix.multiply(x, ax);
+        double residual = 0;
+        double norm = 0;
+        for (int i = 0; i < b.length; i++) {
+            residual += (b[i] - ax[i]) * (b[i] - ax[i]);
+            norm += b[i] * b[i];
+        }
+        return Math.sqrt(residual / norm);
+    }
+
+    @Test
+    void conjugateGradientSolvesLaplacian() {
+        SparseMatrix matrix = convectionDiffusion(30, 0);
+        double[] b = TestMatrices.vector(matrix.getRows(), -0.5, 0.5, 1);
+        IterativeSolver solver = new IterativeSolver(1e-10, 1000);
+        IterativeResult plain = solver.conjugateGradient(matrix, b);
+        assertTrue(plain.isConverged());
+        assertTrue(relativeResidual(matrix, b, plain.getSolution()) < 1e-9);
+        assertEquals(plain.getIterations() + 1, plain.getResidualHistory().length);
+        assertEquals(plain.getFinalResidual(), plain.getResidualHistory()[plain.getIterations()]);
+
+        solver.setPreconditioner(new ILU0Preconditioner(matrix));
+        IterativeResult preconditioned = solver.conjugateGradient(matrix, b);
+        assertTrue(preconditioned.isConverged());
+        assertTrue(relativeResidual(matrix, b, preconditioned.getSolution()) < 1e-9);
+        assertTrue(preconditioned.getIterations() < plain.getIterations());
+    }
+
+    @Test
+    void nonsymmetricSolvers() {
+        SparseMatrix matrix = convectionDiffusion(25, 0.5);
+        double[] b = TestMatrices.vector(matrix.getRows(), -0.5, 0.5, 2);
+        IterativeSolver solver = new IterativeSolver(1e-10, 2000);
+        for (int pass = 0; pass < 3; pass++) {
+            if (pass == 1) solver.setPreconditioner(new JacobiPreconditioner(matrix));
+            if (pass == 2) solver.setPreconditioner(new ILU0Preconditioner(matrix));
+            IterativeResult biCGSTAB = solver.biCGSTAB(matrix, b);
+            assertTrue(biCGSTAB.isConverged());
+            assertTrue(relativeResidual(matrix, b, biCGSTAB.getSolution()) < 1e-9);
+            IterativeResult gmres = solver.gmres(matrix, b);
+            assertTrue(gmres.isConverged());
+            assertTrue(relativeResidual(matrix, b, gmres.getSolution()) < 1e-9);
+        }
+    }
+
+    @Test
+    void gmresResidualIsMonotoneWithinRestart() {
+        SparseMatrix matrix = convectionDiffusion(20, 0.3);
+        double[] b = TestMatrices.vector(matrix.getRows(), -0.5, 0.5, 3);
+        IterativeSolver solver = new IterativeSolver(1e-12, 500);
+        solver.setRestart(500);
+        double[] history = solver.gmres(matrix, b).getResidualHistory();
+        for (int i = 1; i < history.length; i++) assertTrue(history[i] <= history[i - 1] * (1 + 1e-12));
+    }
+
+    @Test
+    void denseMatchesDirectSolve() {
+        DenseMatrix matrix = convectionDiffusion(8, 0.2).toDense();
+        double[] b = TestMatrices.vector(matrix.getRows(), -0.5, 0.5, 4);
+        double[] expected = new LUDecomposition(matrix).solve(b);
+        IterativeSolver solver = new IterativeSolver();
+        solver.setPreconditioner(new ILU0Preconditioner(matrix));
+        assertArrayEquals(expected, solver.gmres(matrix, b).getSolution(), 1e-8);
+        solver.setPreconditioner(new JacobiPreconditioner(matrix));
+        assertArrayEquals(expected, solver.biCGSTAB(matrix, b).getSolution(), 1e-8);
+    }
+
+    @Test
+    void iterationLimitIsReported() {
+        SparseMatrix matrix = convectionDiffusion(30, 0);
+        double[] b = TestMatrices.vector(matrix.getRows(), -0.5, 0.5, 5);
+        IterativeResult result = new IterativeSolver(1e-14, 5).conjugateGradient(matrix, b);
+        assertFalse(result.isConverged());
+        assertEquals(5, result.getIterations());
+        assertTrue(result.getFinalResidual() < result.getResidualHistory()[0]);
+    }
+
+    @Test
+    void zeroRightHandSide() {
+        SparseMatrix matrix = convectionDiffusion(5, 0);
+        IterativeResult result = new IterativeSolver().gmres(matrix, new double[matrix.getRows()]);
+        assertTrue(result.isConverged());
+        assertEquals(0, result.getIterations());
+    }
+
+    @Test
+    void zeroDiagonalIsRejected() {
+        SparseMatrix matrix = SparseMatrix.fromDense(DenseMatrix.fromArray(new double[][]{{0, 1}, {1, 0}}));
+        assertThrows(ArithmeticException.class, () -> new JacobiPreconditioner(matrix));
+        assertThrows(ArithmeticException.class, () -> new ILU0Preconditioner(matrix));
+    }
+}
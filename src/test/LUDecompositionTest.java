@@ -0,0 +1,71 @@
+package test;
+
+import main.DenseMatrix;
+import main.LUDecomposition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for LUDecomposition
+ */
+class LUDecompositionTest {
+
+    @Test
+    void solveSmallSystem() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {3, -7, 4},
+                {1, -2, 1},
+                {2, -1, 2}});
+
+        LUDecomposition lu = new LUDecomposition(matrix);
+        assertFalse(lu.isSingular());
+        assertArrayEquals(new double[]{2, 0, 1}, lu.solve(new double[]{10, 3, 6}), 1e-12);
+    }
+
+    @Test
+    void detectSingularMatrix() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 2, 3},
+                {2, 4, 6},
+                {1, 0, 1}});
+
+        LUDecomposition lu = new LUDecomposition(matrix);
+        assertTrue(lu.isSingular());
+        assertThrows(ArithmeticException.class, () -> lu.solve(new double[]{1, 2, 3}));
+    }
+
+    @Test
+    void solveLargerThanOnePanel() {
+        // large enough to exercise the blocked trailing update
+        final int n = 150;
+        Random random = new Random(42);
+        DenseMatrix matrix = new DenseMatrix(n, n);
+        double[] x = new double[n];
+        for (int r = 0; r < n; r++) {
+            x[r] = random.nextDouble() * 10 - 5;
+            for (int c = 0; c < n; c++) matrix.set(r, c, random.nextDouble() * 2 - 1);
+        }
+        double[] b = new double[n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) b[r] += matrix.get(r, c) * x[c];
+        }
+
+        LUDecomposition lu = new LUDecomposition(matrix);
+        assertArrayEquals(x, lu.solve(b), 1e-9);
+
+        // several right-hand sides at once
+        DenseMatrix rhs = new DenseMatrix(n, 2);
+        for (int r = 0; r < n; r++) {
+            rhs.set(r, 0, b[r]);
+            rhs.set(r, 1, 2 * b[r]);
+        }
+        lu.solve(rhs, null);
+        for (int r = 0; r < n; r++) {
+            assertEquals(x[r], rhs.get(r, 0), 1e-9);
+            assertEquals(2 * x[r], rhs.get(r, 1), 1e-9);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package test;
 
+import main.DenseMatrix;
 import main.LinearSolver;
 import org.junit.jupiter.api.Test;
 
 import java.security.spec.ECField;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -172,4 +175,26 @@ class LinearSolverTest {
         LinearSolver env = new LinearSolver();
         assertEquals(resultMatrix, LinearSolver.invertMatrix(testMatrix));
     }
+
+    @Test
+    void parallelEliminationMatchesSerial() {
+        // wide random system so the LU fast path does not apply
+        Random random = new Random(7);
+        DenseMatrix matrix = new DenseMatrix(120, 161);
+        for (int r = 0; r < matrix.getRows(); r++) {
+            for (int c = 0; c < matrix.getCols(); c++) matrix.set(r, c, random.nextInt(21) - 10);
+        }
+        DenseMatrix serialMatrix = matrix.copy();
+
+        LinearSolver serial = new LinearSolver();
+        serial.solveMatrix(serialMatrix);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        LinearSolver parallel = new LinearSolver();
+        parallel.enableParallelism(pool, 0);
+        parallel.solveMatrix(matrix);
+        pool.shutdown();
+
+        assertEquals(serialMatrix, matrix);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.MappedMatrix;
+import main.MatrixFile;
+import main.SparseMatrix;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for MatrixFile and MappedMatrix
+ */
+class MatrixFileTest {
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("matrix", ".lsm");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void denseRoundTrip() throws IOException {
+        DenseMatrix matrix = TestMatrices.sparse(37, 11, 0.3, 1);
+        MatrixFile.write(file, matrix);
+        assertTrue(MatrixFile.isMatrixFile(file));
+        MatrixFile.Header header = MatrixFile.readHeader(file);
+        assertFalse(header.isSparse());
+        assertEquals(37L, header.getRows());
+        assertEquals(11L, header.getCols());
+        assertEquals(32 + 8L * 37 * 11, Files.size(file));
+        assertEquals(matrix, MatrixFile.readDense(file));
+        assertEquals(matrix, MatrixFile.readSparse(file).toDense());
+    }
+
+    @Test
+    void headerAndBodyAreLittleEndian() throws IOException {
+        MatrixFile.write(file, DenseMatrix.fromArray(new double[][]{{1.5, -2}}));
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals('L', bytes.get(0));
+        assertEquals('M', bytes.get(3));
+        assertEquals(1, bytes.getShort(4));
+        assertEquals(1, bytes.get(6));
+        assertEquals(0, bytes.get(7));
+        assertEquals(1L, bytes.getLong(8));
+        assertEquals(2L, bytes.getLong(16));
+        assertEquals(1.5, bytes.getDouble(32));
+        assertEquals(-2.0, bytes.getDouble(40));
+    }
+
+    @Test
+    void sparseRoundTrip() throws IOException {
+        SparseMatrix matrix = SparseMatrix.fromDense(TestMatrices.sparse(50, 20, 0.3, 2));
+        MatrixFile.write(file, matrix);
+        MatrixFile.Header header = MatrixFile.readHeader(file);
+        assertTrue(header.isSparse());
+        assertEquals((long) matrix.getNonZeros(), header.getNonZeros());
+        SparseMatrix read = MatrixFile.readSparse(file);
+        assertArrayEquals(matrix.getRowPointers(), read.getRowPointers());
+        assertArrayEquals(matrix.getColumnIndices(), read.getColumnIndices());
+        assertArrayEquals(matrix.getValues(), read.getValues());
+        assertEquals(matrix.toDense(), MatrixFile.readDense(file));
+        assertThrows(IOException.class, () -> MatrixFile.map(file));
+    }
+
+    @Test
+    void mappedMatrixReadsInPlace() throws IOException {
+        DenseMatrix matrix = TestMatrices.sparse(64, 64, 0.3, 3);
+        MatrixFile.write(file, matrix);
+        MappedMatrix mapped = MatrixFile.map(file);
+        assertEquals(matrix.get(5, 7), mapped.get(5, 7));
+        double[] x = new double[64];
+        for (int i = 0; i < 64; i++) x[i] = i;
+        double[] expected = new double[64];
+        double[] actual = new double[64];
+        matrix.multiply(x, expected);
+        mapped.multiply(x, actual);
+        assertArrayEquals(expected, actual);
+        assertThrows(java.nio.ReadOnlyBufferException.class, () -> mapped.set(0, 0, 1));
+    }
+
+    @Test
+    void createdMatrixWritesThrough() throws IOException {
+        MappedMatrix created = MatrixFile.create(file, 3, 4);
+        created.set(2, 3, 9);
+        created.setRow(0, new double[]{0, 1, 2, 3, 4}, 1);
+        created.force();
+        DenseMatrix read = MatrixFile.readDense(file);
+        assertEquals(9.0, read.get(2, 3));
+        assertArrayEquals(new double[]{1, 2, 3, 4}, read.getRow(0));
+        assertArrayEquals(new double[4], read.getRow(1));
+    }
+
+    @Test
+    void solverResultsCanBeSaved() throws IOException {
+        ArrayList<ArrayList<Double>> matrix = DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {2, 4, 6}}).toList();
+        new LinearSolver().solveMatrix(matrix);
+        ArrayList<ArrayList<Double>> solutionSpace = LinearSolver.findSolutionSpace(matrix);
+        MatrixFile.write(file, solutionSpace);
+        assertEquals(solutionSpace, MatrixFile.readDense(file).toList());
+    }
+
+    @Test
+    void invalidFilesAreRejected() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3});
+        assertFalse(MatrixFile.isMatrixFile(file));
+        assertThrows(IOException.class, () -> MatrixFile.readDense(file));
+        MatrixFile.write(file, TestMatrices.sparse(10, 10, 0.3, 4));
+        byte[] truncated = Arrays.copyOf(Files.readAllBytes(file), 100);
+        Files.write(file, truncated);
+        assertThrows(IOException.class, () -> MatrixFile.map(file));
+    }
+}
@@ -0,0 +1,81 @@
+package test;
+
+import main.DenseMatrix;
+import main.LUDecomposition;
+import main.MatrixInverter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for MatrixInverter
+ */
+class MatrixInverterTest {
+
+    private static final DenseMatrix MATRIX = DenseMatrix.fromArray(new double[][]{
+            {2, 0, 1},
+            {1, 3, 2},
+            {1, 1, 2}});
+
+    private static void assertInverse(DenseMatrix matrix, DenseMatrix inverse) {
+        // matrix * inverse = I
+        for (int r = 0; r < matrix.getRows(); r++) {
+            for (int c = 0; c < matrix.getCols(); c++) {
+                double sum = 0;
+                for (int k = 0; k < matrix.getCols(); k++) sum += matrix.get(r, k) * inverse.get(k, c);
+                assertEquals(r == c ? 1.0 : 0.0, sum, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void gaussJordanLeavesInputUntouched() {
+        DenseMatrix matrix = MATRIX.copy();
+        DenseMatrix inverse = new DenseMatrix(3, 3);
+        MatrixInverter inverter = new MatrixInverter(3);
+
+        assertTrue(inverter.invertGaussJordan(matrix, inverse));
+        assertEquals(MATRIX, matrix);
+        assertInverse(MATRIX, inverse);
+    }
+
+    @Test
+    void invertInPlace() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {4, 3},
+                {2, 1}});
+        DenseMatrix inverse = DenseMatrix.fromArray(new double[][]{
+                {-0.5, 1.5},
+                {1, -2}});
+
+        assertTrue(new MatrixInverter(2).invertInPlace(matrix));
+        assertEquals(inverse, matrix);
+    }
+
+    @Test
+    void invertThroughLU() {
+        MatrixInverter inverter = new MatrixInverter(3);
+        DenseMatrix inverse = new DenseMatrix(3, 3);
+        assertTrue(inverter.invertLU(MATRIX, inverse));
+        assertInverse(MATRIX, inverse);
+
+        // reuse factors that were computed for something else
+        LUDecomposition lu = new LUDecomposition(MATRIX);
+        DenseMatrix fromFactors = new DenseMatrix(3, 3);
+        assertTrue(inverter.invert(lu, fromFactors));
+        assertInverse(MATRIX, fromFactors);
+    }
+
+    @Test
+    void singularMatrixIsRejected() {
+        DenseMatrix singular = DenseMatrix.fromArray(new double[][]{
+                {1, 2},
+                {2, 4}});
+        DenseMatrix result = new DenseMatrix(2, 2);
+        MatrixInverter inverter = new MatrixInverter(2);
+
+        assertFalse(inverter.invertGaussJordan(singular, result));
+        assertFalse(inverter.invertLU(singular, result));
+        assertEquals(new DenseMatrix(2, 2), result);
+    }
+}
@@ -0,0 +1,110 @@
+package test;
+
+import main.DenseMatrix;
+import main.MatrixReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for MatrixReader
+ */
+class MatrixReaderTest {
+
+    private static MatrixReader reader(String text) {
+        return new MatrixReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void separatorsAndNumberForms() throws IOException {
+        MatrixReader reader = reader("1 2,3\t4\r\n  -0.5 ,1e3, 2.5E-2 +7\n\n.25 1e400 NaN 0x1p3\nEND -l\n");
+        DenseMatrix matrix = reader.readMatrix();
+        assertEquals(DenseMatrix.fromArray(new double[][]{
+                {1, 2, 3, 4},
+                {-0.5, 1000, 0.025, 7},
+                {0.25, Double.POSITIVE_INFINITY, Double.NaN, 8}}), matrix);
+        assertEquals("END -l", reader.getTerminator());
+        assertNull(reader.readMatrix());
+        assertTrue(reader.isEndOfInput());
+    }
+
+    @Test
+    void parsingMatchesParseDouble() throws IOException {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        double[] expected = new double[2000];
+        for (int i = 0; i < expected.length; i++) {
+            String entry;
+            switch (i % 4) {
+                case 0:
+                    entry = Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+                    break;
+                case 1:
+                    entry = String.format("%.6f", random.nextDouble() * 1000 - 500);
+                    break;
+                case 2:
+                    entry = Long.toString(random.nextLong());
+                    break;
+                default:
+                    entry = "0.1234567890123456789012" + random.nextInt(10);
+            }
+            expected[i] = Double.parseDouble(entry);
+            text.append(entry).append(i % 10 == 9 ? "\n" : " ");
+        }
+        DenseMatrix matrix = reader(text.toString()).readMatrix();
+        assertEquals(200, matrix.getRows());
+        assertArrayEquals(expected, matrix.getData());
+
+        //19 significant digits overflow a long mantissa
+        String[] entries = {"0.9999999999999999999", "9999999999999999999", "-9999999999999999999e-3", "123456789012345678.9"};
+        DenseMatrix row = reader(String.join(" ", entries)).readMatrix();
+        for (int i = 0; i < entries.length; i++) assertEquals(Double.parseDouble(entries[i]), row.get(0, i));
+    }
+
+    @Test
+    void interactiveRowsSkipBadLines() throws IOException {
+        MatrixReader reader = reader("1 2 3\n4 5\n4 x 6\nEXIT\n4 5 6\nEND\n");
+        assertTrue(reader.readRow());
+        assertThrows(IOException.class, reader::readRow);
+        assertEquals(3, reader.getColumnCount());
+        assertThrows(NumberFormatException.class, reader::readRow);
+        assertThrows(NumberFormatException.class, reader::readRow);
+        assertTrue(reader.readRow());
+        assertFalse(reader.readRow());
+        assertEquals("END", reader.getTerminator());
+        assertEquals(DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {4, 5, 6}}), reader.finishMatrix());
+    }
+
+    @Test
+    void batchModeReadsEverySystem() throws IOException {
+        Path file = Files.createTempFile("systems", ".txt");
+        try {
+            Files.writeString(file, "1 2\n3 4\nEND\n5,6,7\nEND -l\n8\n");
+            try (MatrixReader reader = MatrixReader.open(file)) {
+                assertEquals(DenseMatrix.fromArray(new double[][]{{1, 2}, {3, 4}}), reader.readMatrix());
+                assertEquals("END", reader.getTerminator());
+                assertEquals(DenseMatrix.fromArray(new double[][]{{5, 6, 7}}), reader.readMatrix());
+                assertEquals("END -l", reader.getTerminator());
+                assertEquals(DenseMatrix.fromArray(new double[][]{{8}}), reader.readMatrix());
+                assertNull(reader.getTerminator());
+                assertNull(reader.readMatrix());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void batchModeRejectsMalformedRows() {
+        IOException e = assertThrows(IOException.class, () -> reader("1 2\n\n3 4 5\n").readMatrix());
+        assertTrue(e.getMessage().startsWith("Line 3"));
+        assertThrows(IOException.class, () -> reader("1 2\n3 four\n").readMatrix());
+    }
+}
@@ -0,0 +1,127 @@
+package test;
+
+import main.BatchSolver;
+import main.DenseMatrix;
+import main.LUDecomposition;
+import main.LinearSolver;
+import main.MixedPrecisionSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for MixedPrecisionSolver
+ */
+class MixedPrecisionSolverTest {
+
+    private static DenseMatrix hilbert(int n) {
+        DenseMatrix matrix = new DenseMatrix(n, n);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) matrix.set(r, c, 1.0 / (r + c + 1));
+        }
+        return matrix;
+    }
+
+    private static double maxRelativeError(double[] expected, double[] actual) {
+        double error = 0;
+        double size = 0;
+        for (int i = 0; i < expected.length; i++) {
+            error = Math.max(error, Math.abs(expected[i] - actual[i]));
+            size = Math.max(size, Math.abs(expected[i]));
+        }
+        return error / size;
+    }
+
+    @Test
+    void refinesToDoublePrecision() {
+        DenseMatrix a = TestMatrices.uniform(200, 200, -1, 1, 1);
+        double[] b = TestMatrices.vector(200, -1, 1, 2);
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(a);
+        assertTrue(solver.isUsable());
+        double[] x = new double[200];
+        int steps = solver.solve(b, x);
+        assertTrue(steps >= 1 && steps < 10, "took " + steps + " steps");
+        assertEquals(0, solver.getFallbacks());
+        assertEquals(steps, solver.getIterations());
+        //a float solve alone is only good to about 1e-4 here, refinement gets to double rounding error
+        assertTrue(maxRelativeError(new LUDecomposition(a).solve(b), x) < 1e-12);
+    }
+
+    @Test
+    void illConditionedMatricesFallBack() {
+        //cond(H_12) is about 1e16, far beyond what float factors can refine
+        DenseMatrix a = hilbert(12);
+        double[] b = new double[12];
+        a.multiply(TestMatrices.vector(12, -1, 1, 3), b);
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(a);
+        double[] x = solver.solve(b);
+        assertEquals(1, solver.getFallbacks());
+        assertArrayEquals(new LUDecomposition(a).solve(b), x, 0);
+    }
+
+    @Test
+    void matricesBeyondFloatRange() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{1e40, 2e40}, {3e40, 1e40}});
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(a);
+        assertFalse(solver.isUsable());
+        double[] x = new double[2];
+        assertEquals(0, solver.solve(new double[]{3e40, 4e40}, x));
+        assertArrayEquals(new double[]{1, 1}, x, 1e-12);
+        assertEquals(1, solver.getFallbacks());
+    }
+
+    @Test
+    void blockOfRightHandSides() {
+        DenseMatrix a = TestMatrices.uniform(50, 50, -1, 1, 4);
+        DenseMatrix rhs = TestMatrices.uniform(50, 6, -1, 1, 5);
+        DenseMatrix solutions = rhs.copy();
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(a);
+        int[] steps = solver.solve(solutions);
+        assertEquals(6, steps.length);
+        assertEquals(6, solver.getSolves());
+        DenseMatrix expected = rhs.copy();
+        new LUDecomposition(a).solve(expected, null);
+        for (int r = 0; r < 50; r++) assertArrayEquals(expected.getRow(r), solutions.getRow(r), 1e-11);
+    }
+
+    @Test
+    void linearSolverOption() {
+        final int n = 80;
+        DenseMatrix system = new DenseMatrix(n, n + 1);
+        TestMatrices.uniform(n, n + 1, -1, 1, 6).copyTo(system);
+        DenseMatrix mixed = system.copy();
+        LinearSolver solver = new LinearSolver();
+        solver.setMixedPrecision(true);
+        assertTrue(solver.isMixedPrecision());
+        solver.solveMatrix(mixed);
+        assertTrue(solver.getRefinementIterations() >= 1);
+
+        DenseMatrix plain = system.copy();
+        new LinearSolver().solveMatrix(plain);
+        for (int r = 0; r < n; r++) assertArrayEquals(plain.getRow(r), mixed.getRow(r), 1e-5);
+
+        //a wide system is not square, so it is eliminated as usual
+        DenseMatrix wide = TestMatrices.uniform(3, 6, -1, 1, 7);
+        solver.solveMatrix(wide);
+        assertEquals(-1, solver.getRefinementIterations());
+    }
+
+    @Test
+    void batchSolverOption() {
+        DenseMatrix a = TestMatrices.uniform(60, 60, -1, 1, 8);
+        DenseMatrix rhs = TestMatrices.uniform(60, 4, -1, 1, 9);
+        BatchSolver.BatchSolution mixed = LinearSolver.solveBatch(a, rhs, true);
+        BatchSolver.BatchSolution plain = LinearSolver.solveBatch(a, rhs);
+        for (int j = 0; j < 4; j++) {
+            assertTrue(mixed.isConsistent(j));
+            assertTrue(mixed.getRefinementIterations(j) >= 1);
+            assertEquals(-1, plain.getRefinementIterations(j));
+            assertArrayEquals(plain.getSolution(j), mixed.getSolution(j), 1e-11);
+        }
+        //a singular matrix still goes through the general path
+        DenseMatrix singular = DenseMatrix.fromArray(new double[][]{{1, 2}, {2, 4}});
+        BatchSolver solver = new BatchSolver(singular, true);
+        assertEquals(1, solver.getRank());
+        assertFalse(solver.solve(DenseMatrix.fromArray(new double[][]{{1}, {3}})).isConsistent(0));
+    }
+}
@@ -0,0 +1,103 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.OperationRecorder;
+import main.OperationReplay;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for OperationRecorder and OperationReplay
+ */
+class OperationRecorderTest {
+
+    @Test
+    void ringBufferReplaysEveryStep() {
+        DenseMatrix matrix = TestMatrices.integers(6, 7, 10, 1);
+        DenseMatrix original = matrix.copy();
+        OperationRecorder recorder = new OperationRecorder(1000);
+        LinearSolver solver = new LinearSolver();
+        solver.enableRecording(recorder);
+        solver.solveMatrix(matrix);
+
+        assertTrue(recorder.size() > 0);
+        assertEquals(OperationRecorder.Operation.ROUND, recorder.getOperation(recorder.size() - 1));
+        assertEquals(original, recorder.replay(0));
+        assertEquals(matrix, recorder.replay(recorder.size()));
+
+        //the solve without recording gives the same answer through the LU path
+        DenseMatrix unrecorded = original.copy();
+        new LinearSolver().solveMatrix(unrecorded);
+        assertEquals(unrecorded, matrix);
+    }
+
+    @Test
+    void operationsAreDescribedLikeTheLog() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{0, 1, 2}, {2, 4, 6}});
+        OperationRecorder recorder = new OperationRecorder(16);
+        LinearSolver solver = new LinearSolver();
+        solver.enableRecording(recorder);
+        solver.solveMatrix(matrix);
+        assertEquals(OperationRecorder.Operation.SWAP, recorder.getOperation(0));
+        assertEquals("Swapping rows #0 and #1", recorder.describe(0));
+        assertEquals("Scaling row #0 by 0.5", recorder.describe(1));
+        assertEquals(DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {0, 1, 2}}), recorder.replay(2));
+    }
+
+    @Test
+    void ringBufferKeepsMostRecentOperations() {
+        DenseMatrix matrix = TestMatrices.integers(10, 11, 10, 2);
+        OperationRecorder recorder = new OperationRecorder(8);
+        LinearSolver solver = new LinearSolver();
+        solver.enableRecording(recorder);
+        solver.solveMatrix(matrix);
+        assertEquals(recorder.size() - 8, recorder.getFirstRetained());
+        assertNotNull(recorder.describe(recorder.size() - 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> recorder.getOperation(0));
+        assertThrows(IllegalStateException.class, () -> recorder.replay(1));
+    }
+
+    @Test
+    void traceReplaysEverySolve() throws IOException {
+        Path trace = Files.createTempFile("operations", ".trace");
+        try {
+            DenseMatrix first = TestMatrices.integers(5, 6, 10, 3);
+            DenseMatrix second = TestMatrices.integers(40, 41, 10, 4);
+            DenseMatrix firstOriginal = first.copy();
+            try (OperationRecorder recorder = new OperationRecorder(4, trace)) {
+                LinearSolver solver = new LinearSolver();
+                solver.enableRecording(recorder);
+                //small threshold so the recorded multipliers of the parallel path are checked as well
+                solver.enableParallelism(new ForkJoinPool(4), 64);
+                solver.solveMatrix(first);
+                solver.solveMatrix(second);
+            }
+            OperationReplay replay = new OperationReplay(trace);
+            assertEquals(2, replay.getSolveCount());
+            assertEquals(firstOriginal, replay.getInitialMatrix(0));
+            assertEquals(first, replay.replay(0, replay.getOperationCount(0)));
+            assertEquals(second, replay.replay(1, replay.getOperationCount(1)));
+            assertEquals(replay.getOperationCount(1), (long) replay.describe(1).length);
+        } finally {
+            Files.delete(trace);
+        }
+    }
+
+    @Test
+    void invalidTraceIsRejected() throws IOException {
+        Path trace = Files.createTempFile("operations", ".trace");
+        try {
+            Files.write(trace, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> new OperationReplay(trace));
+        } finally {
+            Files.delete(trace);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.MappedMatrix;
+import main.MatrixFile;
+import main.OutOfCoreSolver;
+import main.PivotStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for OutOfCoreSolver
+ */
+class OutOfCoreSolverTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("outofcore");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(file);
+        }
+    }
+
+    /**
+     * Random consistent system with small integer entries, the given number of rows repeating earlier ones
+     */
+    private static DenseMatrix system(int rows, int vars, int dependent, long seed) {
+        Random random = new Random(seed);
+        DenseMatrix matrix = new DenseMatrix(rows, vars + 1);
+        double[] x = new double[vars];
+        for (int c = 0; c < vars; c++) x[c] = random.nextInt(11) - 5;
+        for (int r = 0; r < rows; r++) {
+            double sum = 0;
+            for (int c = 0; c < vars; c++) {
+                double value = r >= rows - dependent ? matrix.get(r - 1, c) - matrix.get(0, c) : random.nextInt(9) - 4;
+                matrix.set(r, c, value);
+                sum += value * x[c];
+            }
+            matrix.set(r, vars, sum);
+        }
+        return matrix;
+    }
+
+    /**
+     * Solve a system both in core and out of core with a given budget and compare the results
+     */
+    private OutOfCoreSolver assertMatchesInCore(DenseMatrix system, long budget) throws IOException {
+        Path input = directory.resolve("system.lsm");
+        MatrixFile.write(input, system);
+        OutOfCoreSolver solver = new OutOfCoreSolver(budget);
+        MappedMatrix reduced = solver.reduce(input, directory.resolve("rref.lsm"));
+
+        DenseMatrix expected = system.copy();
+        LinearSolver inCore = new LinearSolver();
+        inCore.setStructureDetection(false);
+        inCore.setPivotStrategy(PivotStrategy.PARTIAL);
+        inCore.setEpsilon(solver.getEpsilon());
+        inCore.solveMatrix(expected);
+        assertArrayEquals(inCore.getPivotColumns(), solver.getPivotColumns());
+        DenseMatrix actual = MatrixFile.readDense(directory.resolve("rref.lsm"));
+        for (int r = 0; r < system.getRows(); r++) assertArrayEquals(expected.getRow(r), actual.getRow(r), 1e-5);
+
+        assertEquals(LinearSolver.existsSolution(expected), solver.existsSolution(reduced));
+        if (solver.existsSolution(reduced)) {
+            solver.findSolutionSpace(reduced, directory.resolve("solution.lsm"));
+            DenseMatrix space = MatrixFile.readDense(directory.resolve("solution.lsm"));
+            DenseMatrix expectedSpace = LinearSolver.findSolutionSpace(expected);
+            assertEquals(expectedSpace.getRows(), space.getRows());
+            for (int r = 0; r < space.getRows(); r++) assertArrayEquals(expectedSpace.getRow(r), space.getRow(r), 1e-5);
+        }
+        return solver;
+    }
+
+    @Test
+    void uniqueSolution() throws IOException {
+        OutOfCoreSolver solver = assertMatchesInCore(system(40, 40, 0, 1), OutOfCoreSolver.DEFAULT_MEMORY_BUDGET);
+        assertEquals(40, solver.getPivotColumns().length);
+        assertEquals(41, solver.getPanelWidth());
+    }
+
+    @Test
+    void smallBudgetUsesNarrowPanelsAndTiles() throws IOException {
+        //enough for a few columns and a few rows at a time
+        OutOfCoreSolver solver = assertMatchesInCore(system(60, 50, 0, 2), 8 * 1024);
+        assertTrue(solver.getPanelWidth() < 51);
+        assertTrue(solver.getTileRows() < 60);
+        assertTrue(solver.getPasses() > 4);
+        assertMatchesInCore(system(30, 30, 0, 3), 1);
+    }
+
+    @Test
+    void infiniteSolutions() throws IOException {
+        OutOfCoreSolver solver = assertMatchesInCore(system(30, 45, 5, 4), 6 * 1024);
+        assertEquals(25, solver.getPivotColumns().length);
+        assertMatchesInCore(system(50, 20, 10, 5), 4 * 1024);
+    }
+
+    @Test
+    void noSolution() throws IOException {
+        DenseMatrix system = system(20, 10, 3, 6);
+        system.set(19, 10, system.get(19, 10) + 1);
+        OutOfCoreSolver solver = assertMatchesInCore(system, 2 * 1024);
+        MappedMatrix reduced = MatrixFile.map(directory.resolve("rref.lsm"));
+        assertFalse(solver.existsSolution(reduced));
+        assertThrows(ArithmeticException.class, () -> solver.findSolutionSpace(reduced, directory.resolve("none.lsm")));
+    }
+
+    @Test
+    void inputIsOnlyRead() throws IOException {
+        DenseMatrix system = system(10, 10, 0, 7);
+        assertMatchesInCore(system, 1024);
+        assertEquals(system, MatrixFile.readDense(directory.resolve("system.lsm")));
+    }
+}
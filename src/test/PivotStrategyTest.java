@@ -0,0 +1,175 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.PivotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for the pivot strategies and zero tolerance of LinearSolver
+ */
+class PivotStrategyTest {
+
+    /**
+     * [A | b] with b = A * (1, 2, ..., n)
+     */
+    private static DenseMatrix withKnownSolution(double[][] coefficients) {
+        final int n = coefficients.length;
+        DenseMatrix matrix = new DenseMatrix(n, n + 1);
+        for (int r = 0; r < n; r++) {
+            double b = 0;
+            for (int c = 0; c < n; c++) {
+                matrix.set(r, c, coefficients[r][c]);
+                b += coefficients[r][c] * (c + 1);
+            }
+            matrix.set(r, n, b);
+        }
+        return matrix;
+    }
+
+    private static double[] solve(DenseMatrix matrix, PivotStrategy strategy) throws Exception {
+        LinearSolver solver = new LinearSolver();
+        solver.setPivotStrategy(strategy);
+        DenseMatrix work = matrix.copy();
+        solver.convertToRowEchelon(work);
+        solver.convertToReducedRowEchelon(work);
+        return LinearSolver.findSolutionSpace(work, solver.getPivotColumns()).getRow(0);
+    }
+
+    @Test
+    void tinyPivotNeedsPivoting() throws Exception {
+        DenseMatrix matrix = withKnownSolution(new double[][]{{1e-17, 1}, {1, 1}});
+        double[] naive = solve(matrix, PivotStrategy.FIRST_NONZERO);
+        assertTrue(Math.abs(naive[0] - 1) > 0.5);
+        for (PivotStrategy strategy : new PivotStrategy[]{PivotStrategy.PARTIAL, PivotStrategy.SCALED_PARTIAL, PivotStrategy.COMPLETE}) {
+            assertArrayEquals(new double[]{1, 2}, solve(matrix, strategy), 1e-12);
+        }
+    }
+
+    @Test
+    void scaledPartialIgnoresRowScaling() throws Exception {
+        //the first equation is scaled up so partial pivoting picks its tiny relative pivot
+        DenseMatrix matrix = withKnownSolution(new double[][]{{1e-3, 1e15}, {1, 1}});
+        assertArrayEquals(new double[]{1, 2}, solve(matrix, PivotStrategy.SCALED_PARTIAL), 1e-12);
+    }
+
+    @Test
+    void strategiesAgreeOnRandomSystems() throws Exception {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 20; trial++) {
+            final int n = 2 + random.nextInt(8);
+            double[][] coefficients = new double[n][n];
+            for (double[] row : coefficients) for (int c = 0; c < n; c++) row[c] = random.nextGaussian();
+            DenseMatrix matrix = withKnownSolution(coefficients);
+            double[] expected = new double[n];
+            for (int i = 0; i < n; i++) expected[i] = i + 1;
+            for (PivotStrategy strategy : PivotStrategy.values()) assertArrayEquals(expected, solve(matrix, strategy), 1e-8);
+        }
+    }
+
+    @Test
+    void completePivotingKeepsColumnOrderOfVariables() throws Exception {
+        //x + 2y + 3z = 6, 2x + 4y + 7z = 13: z = 1 and x = 3 - 2y
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 2, 3, 6}, {2, 4, 7, 13}});
+        LinearSolver solver = new LinearSolver();
+        solver.setPivotStrategy(PivotStrategy.COMPLETE);
+        solver.convertToRowEchelon(matrix);
+        solver.convertToReducedRowEchelon(matrix);
+        int[] pivots = solver.getPivotColumns();
+        assertEquals(2, pivots.length);
+        DenseMatrix solutionSpace = LinearSolver.findSolutionSpace(matrix, pivots);
+        assertEquals(2, solutionSpace.getRows());
+        double[] base = solutionSpace.getRow(0);
+        double[] nullVector = solutionSpace.getRow(1);
+        for (int i = -2; i <= 2; i++) {
+            double x = base[0] + i * nullVector[0];
+            double y = base[1] + i * nullVector[1];
+            double z = base[2] + i * nullVector[2];
+            assertEquals(6, x + 2 * y + 3 * z, 1e-12);
+            assertEquals(13, 2 * x + 4 * y + 7 * z, 1e-12);
+        }
+    }
+
+    @Test
+    void epsilonDecidesRank() throws Exception {
+        //the second row is the first times 3 up to rounding noise
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{0.1, 0.7, 1}, {0.1 * 3, 0.7 * 3 + 1e-15, 3}});
+        LinearSolver exact = new LinearSolver();
+        exact.setPivotStrategy(PivotStrategy.PARTIAL);
+        exact.convertToRowEchelon(matrix.copy());
+        assertEquals(2, exact.getPivotColumns().length);
+
+        LinearSolver tolerant = new LinearSolver();
+        tolerant.setPivotStrategy(PivotStrategy.PARTIAL);
+        tolerant.setEpsilon(1e-12);
+        DenseMatrix work = matrix.copy();
+        tolerant.convertToRowEchelon(work);
+        assertArrayEquals(new int[]{0}, tolerant.getPivotColumns());
+        tolerant.convertToReducedRowEchelon(work);
+        assertEquals(2, tolerant.solutionSpace(work).getRows());
+    }
+
+    @Test
+    void inconsistentSystemHasPivotInConstants() throws Exception {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 1, 1}, {2, 2, 3}});
+        for (PivotStrategy strategy : PivotStrategy.values()) {
+            LinearSolver solver = new LinearSolver();
+            solver.setPivotStrategy(strategy);
+            DenseMatrix work = matrix.copy();
+            solver.convertToRowEchelon(work);
+            int[] pivots = solver.getPivotColumns();
+            assertEquals(2, pivots[pivots.length - 1]);
+            assertThrows(ArithmeticException.class, () -> LinearSolver.findSolutionSpace(work, pivots));
+        }
+    }
+
+    @Test
+    void recordedPivotsMatchScannedPivots() {
+        //the third equation is the sum of the first two
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{2, 4, 1, 3}, {1, 2, 5, 1}, {3, 6, 6, 4}});
+        LinearSolver solver = new LinearSolver();
+        solver.setPivotStrategy(PivotStrategy.PARTIAL);
+        solver.setEpsilon(1e-12);
+        solver.solveMatrix(matrix);
+        assertArrayEquals(new int[]{0, 2}, solver.getPivotColumns());
+        assertEquals(LinearSolver.findSolutionSpace(matrix), solver.solutionSpace(matrix));
+    }
+
+    @Test
+    void epsilonAppliesToSquareSystems() throws Exception {
+        //the fast paths would find a unique solution, but within epsilon the rows are equal
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 1, 2}, {1, 1 + 1e-14, 2}});
+        LinearSolver reference = new LinearSolver();
+        reference.setPivotStrategy(PivotStrategy.PARTIAL);
+        reference.setEpsilon(1e-12);
+        reference.convertToRowEchelon(matrix.copy());
+        assertArrayEquals(new int[]{0}, reference.getPivotColumns());
+
+        LinearSolver solver = new LinearSolver();
+        solver.setPivotStrategy(PivotStrategy.PARTIAL);
+        solver.setEpsilon(1e-12);
+        DenseMatrix work = matrix.copy();
+        solver.solveMatrix(work);
+        assertArrayEquals(new int[]{0}, solver.getPivotColumns());
+        assertEquals(2, solver.solutionSpace(work).getRows());
+    }
+
+    @Test
+    void changedMatrixIsScannedAgain() throws Exception {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {3, 4, 5}});
+        LinearSolver solver = new LinearSolver();
+        solver.convertToRowEchelon(matrix);
+        assertArrayEquals(new int[]{0, 1}, solver.getPivotColumns());
+        //now in echelon form with a single pivot, the recorded second pivot no longer applies
+        matrix.set(1, 1, 0);
+        matrix.set(1, 2, 0);
+        solver.convertToReducedRowEchelon(matrix);
+        assertArrayEquals(new double[]{1, 2, 3}, matrix.getRow(0), 0);
+        assertArrayEquals(new double[]{0, 0, 0}, matrix.getRow(1), 0);
+        assertEquals(LinearSolver.findSolutionSpace(matrix), solver.solutionSpace(matrix));
+    }
+}
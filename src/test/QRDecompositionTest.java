@@ -0,0 +1,102 @@
+package test;
+
+import main.DenseMatrix;
+import main.QRDecomposition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for QRDecomposition
+ */
+class QRDecompositionTest {
+
+    /**
+     * Solution of the normal equations A^T A x = A^T b by Gaussian elimination, the reference least squares solution
+     */
+    static double[] normalEquations(DenseMatrix a, double[] b) {
+        final int n = a.getCols();
+        double[][] system = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= n; j++) {
+                double sum = 0;
+                for (int r = 0; r < a.getRows(); r++) sum += a.get(r, i) * (j < n ? a.get(r, j) : b[r]);
+                system[i][j] = sum;
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = k + 1; i < n; i++) {
+                double factor = system[i][k] / system[k][k];
+                for (int j = k; j <= n; j++) system[i][j] -= factor * system[k][j];
+            }
+        }
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = system[i][n];
+            for (int j = i + 1; j < n; j++) sum -= system[i][j] * x[j];
+            x[i] = sum / system[i][i];
+        }
+        return x;
+    }
+
+    @Test
+    void leastSquaresOfTallSystem() {
+        DenseMatrix a = TestMatrices.uniform(40, 6, -1, 1, 1);
+        double[] b = TestMatrices.vector(40, -1, 1, 2);
+        QRDecomposition qr = new QRDecomposition(a);
+        assertTrue(qr.isFullRank());
+        double[] x = new double[6];
+        double residual = qr.solve(b, x);
+        assertArrayEquals(normalEquations(a, b), x, 1e-9);
+
+        double[] ax = new double[40];
+        a.multiply(x, ax);
+        double sum = 0;
+        for (int r = 0; r < 40; r++) sum += (ax[r] - b[r]) * (ax[r] - b[r]);
+        assertEquals(Math.sqrt(sum), residual, 1e-9);
+    }
+
+    @Test
+    void consistentSquareSystem() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{3, -7, 4}, {1, -2, 1}, {2, -1, 2}});
+        QRDecomposition qr = new QRDecomposition(a);
+        double[] x = new double[3];
+        assertEquals(0, qr.solve(new double[]{10, 3, 6}, x), 1e-12);
+        assertArrayEquals(new double[]{2, 0, 1}, x, 1e-12);
+    }
+
+    @Test
+    void revealsRank() {
+        //third column is the sum of the first two, fourth is zero
+        DenseMatrix a = TestMatrices.uniform(10, 4, -1, 1, 3);
+        for (int r = 0; r < 10; r++) {
+            a.set(r, 2, a.get(r, 0) + a.get(r, 1));
+            a.set(r, 3, 0);
+        }
+        QRDecomposition qr = new QRDecomposition(a);
+        assertEquals(2, qr.getRank());
+        assertFalse(qr.isFullRank());
+        DenseMatrix r = qr.getR();
+        for (int i = 1; i < 4; i++) assertTrue(Math.abs(r.get(i, i)) <= Math.abs(r.get(i - 1, i - 1)));
+        //the basic solution still fits a consistent right-hand side exactly
+        double[] b = new double[10];
+        a.multiply(new double[]{1, 2, 0, 0}, b);
+        double[] x = new double[4];
+        assertEquals(0, qr.solve(b, x), 1e-10);
+        double[] ax = new double[10];
+        a.multiply(x, ax);
+        assertArrayEquals(b, ax, 1e-10);
+    }
+
+    @Test
+    void refactorsWithoutReallocating() {
+        QRDecomposition qr = new QRDecomposition(5, 3);
+        for (int seed = 0; seed < 3; seed++) {
+            DenseMatrix a = TestMatrices.uniform(5, 3, -1, 1, seed);
+            qr.factor(a);
+            double[] b = TestMatrices.vector(5, -1, 1, seed + 10);
+            assertArrayEquals(normalEquations(a, b), qr.solve(b), 1e-9);
+        }
+        assertThrows(IllegalArgumentException.class, () -> qr.factor(new DenseMatrix(3, 5)));
+    }
+}
@@ -0,0 +1,60 @@
+package test;
+
+import main.RowKernels;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for the scalar and vector row kernels
+ */
+class RowKernelsTest {
+
+    private static double[] randomData(int length, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[length];
+        for (int i = 0; i < data.length; i++) data[i] = random.nextDouble() * 200 - 100;
+        return data;
+    }
+
+    @Test
+    void scalarKernels() {
+        double[] data = {1, 2, 3, 4, 5, 6, 7};
+        RowKernels.SCALAR.axpy(data, 0, 3, 3, 2);
+        assertArrayEquals(new double[]{9, 12, 15, 4, 5, 6, 7}, data);
+        RowKernels.SCALAR.scale(data, 3, 4, 0.5);
+        assertArrayEquals(new double[]{9, 12, 15, 2, 2.5, 3, 3.5}, data);
+        RowKernels.SCALAR.swap(data, 0, 4, 3);
+        assertArrayEquals(new double[]{2.5, 3, 3.5, 2, 9, 12, 15}, data);
+    }
+
+    @Test
+    void selectedKernelsAreAvailable() {
+        assertNotNull(RowKernels.SELECTED);
+        if (RowKernels.vector() == null) assertSame(RowKernels.SCALAR, RowKernels.SELECTED);
+    }
+
+    @Test
+    void vectorKernelsMatchScalarBitwise() {
+        RowKernels vector = RowKernels.vector();
+        if (vector == null) return; // jdk.incubator.vector is not available
+        // odd lengths and offsets exercise the scalar tails
+        for (int length : new int[]{1, 3, 8, 17, 100, 1001}) {
+            for (int offset : new int[]{0, 1, 5}) {
+                double[] expected = randomData(2 * length + offset, length);
+                double[] actual = expected.clone();
+                RowKernels.SCALAR.axpy(expected, offset, offset + length, length, -0.3711);
+                vector.axpy(actual, offset, offset + length, length, -0.3711);
+                assertArrayEquals(expected, actual);
+                RowKernels.SCALAR.scale(expected, offset, length, 1 / 3.0);
+                vector.scale(actual, offset, length, 1 / 3.0);
+                assertArrayEquals(expected, actual);
+                RowKernels.SCALAR.swap(expected, offset, offset + length, length);
+                vector.swap(actual, offset, offset + length, length);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+}
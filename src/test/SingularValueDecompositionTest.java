@@ -0,0 +1,110 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.SingularValueDecomposition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for SingularValueDecomposition and the least squares methods of LinearSolver
+ */
+class SingularValueDecompositionTest {
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    private static void assertOrthonormalRows(DenseMatrix basis) {
+        for (int i = 0; i < basis.getRows(); i++) {
+            for (int j = 0; j < basis.getRows(); j++) {
+                assertEquals(i == j ? 1 : 0, dot(basis.getRow(i), basis.getRow(j)), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void reconstructsMatrix() {
+        DenseMatrix a = TestMatrices.uniform(7, 4, -1, 1, 5);
+        SingularValueDecomposition svd = new SingularValueDecomposition(a);
+        DenseMatrix u = svd.getU();
+        DenseMatrix v = svd.getV();
+        double[] sigma = svd.getSingularValues();
+        assertEquals(4, svd.getRank());
+        for (int i = 1; i < sigma.length; i++) assertTrue(sigma[i] <= sigma[i - 1]);
+        for (int r = 0; r < 7; r++) {
+            for (int c = 0; c < 4; c++) {
+                double sum = 0;
+                for (int k = 0; k < 4; k++) sum += u.get(r, k) * sigma[k] * v.get(c, k);
+                assertEquals(a.get(r, c), sum, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void knownSingularValues() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{3, 0}, {4, 5}});
+        //A^T A has eigenvalues 45 and 5
+        assertArrayEquals(new double[]{Math.sqrt(45), Math.sqrt(5)}, new SingularValueDecomposition(a).getSingularValues(), 1e-12);
+    }
+
+    @Test
+    void nullSpaceOfWideMatrix() {
+        DenseMatrix a = DenseMatrix.fromArray(new double[][]{{1, 1, 1, 0}, {0, 0, 2, 4}, {1, 1, 3, 4}});
+        SingularValueDecomposition svd = new SingularValueDecomposition(a);
+        assertEquals(2, svd.getRank());
+        DenseMatrix basis = LinearSolver.findNullSpace(a);
+        assertEquals(2, basis.getRows());
+        assertOrthonormalRows(basis);
+        double[] product = new double[3];
+        for (int i = 0; i < basis.getRows(); i++) {
+            a.multiply(basis.getRow(i), product);
+            assertArrayEquals(new double[3], product, 1e-12);
+        }
+    }
+
+    @Test
+    void minimumNormSolutionOfWideSystem() {
+        //x + y = 2 has least norm solution (1, 1)
+        DenseMatrix system = DenseMatrix.fromArray(new double[][]{{1, 1, 2}});
+        assertArrayEquals(new double[]{1, 1}, LinearSolver.solveLeastSquares(system), 1e-12);
+
+        DenseMatrix space = LinearSolver.findOrthonormalSolutionSpace(system);
+        assertEquals(2, space.getRows());
+        assertArrayEquals(new double[]{1, 1}, space.getRow(0), 1e-12);
+        assertEquals(0, dot(space.getRow(0), space.getRow(1)), 1e-12);
+        assertEquals(1, dot(space.getRow(1), space.getRow(1)), 1e-12);
+    }
+
+    @Test
+    void leastSquaresOfInconsistentSystems() {
+        //fit a line through (0, 1), (1, 2), (2, 2), (3, 4)
+        DenseMatrix tall = DenseMatrix.fromArray(new double[][]{{1, 0, 1}, {1, 1, 2}, {1, 2, 2}, {1, 3, 4}});
+        assertArrayEquals(new double[]{0.9, 0.9}, LinearSolver.solveLeastSquares(tall), 1e-12);
+
+        //rank deficient and inconsistent, x + y = 1 and x + y = 3 is closest at x + y = 2, least norm (1, 1)
+        DenseMatrix deficient = DenseMatrix.fromArray(new double[][]{{1, 1, 1}, {1, 1, 3}, {2, 2, 4}});
+        assertArrayEquals(new double[]{1, 1}, LinearSolver.solveLeastSquares(deficient), 1e-12);
+    }
+
+    @Test
+    void orthonormalSpaceSpansTheSameSolutions() {
+        DenseMatrix system = DenseMatrix.fromArray(new double[][]{{1, 2, 3, 4}, {2, 4, 6, 8}, {1, 0, 1, 1}});
+        DenseMatrix space = LinearSolver.findOrthonormalSolutionSpace(system);
+        DenseMatrix reduced = system.copy();
+        new LinearSolver().solveMatrix(reduced);
+        DenseMatrix echelonSpace = LinearSolver.findSolutionSpace(reduced);
+        assertEquals(echelonSpace.getRows(), space.getRows());
+        DenseMatrix coefficients = system.view(0, 0, 3, 3);
+        double[] product = new double[3];
+        coefficients.multiply(space.getRow(0), product);
+        assertArrayEquals(new double[]{4, 8, 1}, product, 1e-12);
+        //the echelon null space vector is a multiple of the orthonormal one
+        double[] echelon = echelonSpace.getRow(1);
+        double[] orthonormal = space.getRow(1);
+        assertEquals(Math.sqrt(dot(echelon, echelon)), Math.abs(dot(echelon, orthonormal)), 1e-4);
+    }
+}
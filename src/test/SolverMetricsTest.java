@@ -0,0 +1,88 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.SolverMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for SolverMetrics
+ */
+class SolverMetricsTest {
+
+    @Test
+    void countsRowOperations() {
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableMetrics(metrics);
+        //singular, so the Gauss-Jordan path is taken
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{0, 1, 2}, {0, 2, 4}, {1, 1, 1}});
+        solver.solveMatrix(matrix);
+
+        SolverMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1L, snapshot.getSolves());
+        assertEquals(0L, snapshot.getErrors());
+        assertEquals(1L, snapshot.getRowSwaps());
+        //the first pivot is already 1, so only the second row is scaled
+        assertEquals(1L, snapshot.getRowScales());
+        //two additions below the first pivot, one below the second, then one above the second
+        assertEquals(4L, snapshot.getRowAdds());
+        assertEquals(3L + 4 * 2 * 3, snapshot.getFlops());
+        assertTrue(snapshot.getPivotSearches() >= 2);
+        assertTrue(snapshot.getPhaseNanos(SolverMetrics.Phase.ECHELON) > 0);
+        assertTrue(snapshot.getPhaseNanos(SolverMetrics.Phase.REDUCED_ECHELON) > 0);
+        assertTrue(snapshot.getPhaseNanos(SolverMetrics.Phase.ROUNDING) > 0);
+        if (SolverMetrics.isAllocationCountingSupported()) assertTrue(snapshot.getAllocatedBytes() > 0);
+
+        solver.solutionSpace(matrix);
+        assertTrue(metrics.snapshot().getPhaseNanos(SolverMetrics.Phase.SOLUTION_SPACE) > 0);
+        //snapshots do not change afterwards
+        assertEquals(0L, snapshot.getPhaseNanos(SolverMetrics.Phase.SOLUTION_SPACE));
+    }
+
+    @Test
+    void squareSystemsAreTimedAsFactorization() {
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableMetrics(metrics);
+        solver.solveMatrix(DenseMatrix.fromArray(new double[][]{{2, 1, 3}, {1, 3, 5}}));
+        SolverMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(0L, snapshot.getRowAdds());
+        assertTrue(snapshot.getFlops() > 0);
+        assertTrue(snapshot.getPhaseNanos(SolverMetrics.Phase.FACTORIZATION) > 0);
+        assertEquals(0L, snapshot.getPhaseNanos(SolverMetrics.Phase.ECHELON));
+    }
+
+    @Test
+    void errorsAreCounted() {
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableMetrics(metrics);
+        //an infinite entry makes a pivot scale by zero
+        solver.solveMatrix(DenseMatrix.fromArray(new double[][]{{Double.POSITIVE_INFINITY, 1}, {1, 1}, {1, 2}}));
+        assertEquals(1L, metrics.snapshot().getErrors());
+        assertNotNull(metrics.snapshot().getLastError());
+        metrics.reset();
+        assertEquals(0L, metrics.snapshot().getSolves());
+    }
+
+    @Test
+    void publishedThroughJmx() throws Exception {
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableMetrics(metrics);
+        solver.solveMatrix(DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {2, 4, 6}}));
+        ObjectName name = metrics.register("test");
+        try {
+            Object adds = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "RowAdds");
+            assertEquals(metrics.getRowAdds(), adds);
+        } finally {
+            SolverMetrics.unregister(name);
+        }
+    }
+}
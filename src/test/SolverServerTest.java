@@ -0,0 +1,131 @@
+package test;
+
+import main.DenseMatrix;
+import main.MatrixFile;
+import main.SolverServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for SolverServer
+ */
+class SolverServerTest {
+    private SolverServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        // a long window so that concurrent requests always meet
+        server = new SolverServer(0, 200, 64);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpRequest post(byte[] body) {
+        return post(server, body);
+    }
+
+    private static HttpRequest post(SolverServer target, byte[] body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + target.getPort() + "/solve"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    private HttpResponse<String> send(String body) throws Exception {
+        return client.send(post(body.getBytes()), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void solvesTextSystems() throws Exception {
+        HttpResponse<String> response = send("2 1 5\n1 -1 1\nEND\n");
+        assertEquals(200, response.statusCode());
+        assertEquals("unique\n2.0 1.0\n", response.body());
+
+        assertEquals("none\n", send("1 1 1\n1 1 2\n").body());
+
+        // x + y = 2, y free
+        assertEquals("infinite\n2.0 0.0\n-1.0 1.0\n", send("1 1 2\n2 2 4\n").body());
+    }
+
+    @Test
+    void solvesBinarySystems() throws Exception {
+        Path file = Files.createTempFile("system", ".lsm");
+        try {
+            MatrixFile.write(file, DenseMatrix.fromArray(new double[][]{{4, 0, 8}, {0, 2, 6}}));
+            HttpResponse<String> response = client.send(post(Files.readAllBytes(file)), HttpResponse.BodyHandlers.ofString());
+            assertEquals("unique\n2.0 3.0\n", response.body());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void rejectsMalformedSystems() throws Exception {
+        assertEquals(400, send("1 2 3\n4 5\n").statusCode());
+        assertEquals(400, send("").statusCode());
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/solve")).GET().build();
+        assertEquals(405, client.send(get, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void coalescesRequestsWithSharedCoefficients() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // x + y = i, x - y = 0
+            String system = "1 1 " + 2 * i + "\n1 -1 0\n";
+            responses.add(client.sendAsync(post(system.getBytes()), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < 8; i++) {
+            assertEquals("unique\n" + (double) i + " " + (double) i + "\n", responses.get(i).get().body());
+        }
+        assertEquals(8, server.getRequestCount());
+        assertEquals(8, server.getBatchCount() + server.getCoalescedCount());
+        assertTrue(server.getBatchCount() < 8);
+    }
+
+    @Test
+    void coalescingDoesNotChangeResponses() throws Exception {
+        String[] systems = {
+                //tall and inconsistent by 1e-11, which elimination does not round away
+                "1 0 1\n0 1 1\n1 1 2.00000000001\n",
+                //a general square matrix shared by two requests, and a singular one
+                "2 1 3 1\n1 -4 2 5\n5 2 -1 0\n",
+                "2 1 3 7\n1 -4 2 -1\n5 2 -1 2.5\n",
+                "1 2 3\n2 4 6\n",
+                "1 2 3\n2 4 7\n"};
+        SolverServer alone = new SolverServer(0, 0, 64);
+        alone.start();
+        try {
+            List<CompletableFuture<HttpResponse<String>>> coalesced = new ArrayList<>();
+            for (String system : systems) {
+                coalesced.add(client.sendAsync(post(system.getBytes()), HttpResponse.BodyHandlers.ofString()));
+            }
+            for (int i = 0; i < systems.length; i++) {
+                String expected = client.send(post(alone, systems[i].getBytes()), HttpResponse.BodyHandlers.ofString()).body();
+                assertEquals(expected, coalesced.get(i).get().body());
+            }
+            assertEquals("none\n", coalesced.get(0).get().body());
+            assertTrue(server.getCoalescedCount() > 0);
+        } finally {
+            alone.stop(0);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package test;
+
+import main.DenseMatrix;
+import main.LinearSolver;
+import main.SparseLU;
+import main.SparseMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for SparseMatrix and SparseLU
+ */
+class SparseLUTest {
+
+    /**
+     * 5-point finite-difference Laplacian on a grid x grid mesh
+     */
+    private static SparseMatrix laplacian(int grid) {
+        final int n = grid * grid;
+        int[] rows = new int[5 * n];
+        int[] cols = new int[5 * n];
+        double[] values = new double[5 * n];
+        int count = 0;
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int row = i * grid + j;
+                rows[count] = row;
+                cols[count] = row;
+                values[count++] = 4;
+                int[][] neighbours = {{i - 1, j}, {i + 1, j}, {i, j - 1}, {i, j + 1}};
+                for (int[] neighbour : neighbours) {
+                    if (neighbour[0] < 0 || neighbour[0] >= grid || neighbour[1] < 0 || neighbour[1] >= grid) continue;
+                    rows[count] = row;
+                    cols[count] = neighbour[0] * grid + neighbour[1];
+                    values[count++] = -1;
+                }
+            }
+        }
+        return SparseMatrix.fromTriplets(n, n, Arrays.copyOf(rows, count),
+                Arrays.copyOf(cols, count), Arrays.copyOf(values, count));
+    }
+
+    @Test
+    void tripletsAreSortedAndMerged() {
+        SparseMatrix matrix = SparseMatrix.fromTriplets(2, 3,
+                new int[]{1, 0, 0, 1, 1},
+                new int[]{2, 1, 0, 2, 0},
+                new double[]{1, 5, 3, 2, 0});
+        assertEquals(3, matrix.getNonZeros());
+        assertEquals(3.0, matrix.get(0, 0));
+        assertEquals(5.0, matrix.get(0, 1));
+        assertEquals(3.0, matrix.get(1, 2));
+        assertEquals(0.0, matrix.get(1, 0));
+        assertEquals(matrix.toDense(), SparseMatrix.fromDense(matrix.toDense()).toDense());
+        assertEquals(matrix.get(0, 1), matrix.transpose().get(1, 0));
+    }
+
+    @Test
+    void solveGridSystem() {
+        final int grid = 40;
+        SparseMatrix matrix = laplacian(grid);
+        double[] x = new double[grid * grid];
+        for (int i = 0; i < x.length; i++) x[i] = Math.sin(i);
+        double[] b = new double[x.length];
+        matrix.multiply(x, b);
+
+        SparseLU lu = new SparseLU(matrix);
+        assertFalse(lu.isSingular());
+        assertArrayEquals(x, lu.solve(b), 1e-9);
+        // banded fill after reordering is far below the n^2 of a dense factorization
+        assertTrue(lu.getFactorNonZeros() < 40L * grid * grid * 2);
+    }
+
+    @Test
+    void sparseSolutionSpaceMatchesDense() {
+        ArrayList<ArrayList<Double>> matrix = new ArrayList<>();
+        matrix.add(new ArrayList<>(List.of(1.0, 2.0, 2.0, 2.0, 1.0)));
+        matrix.add(new ArrayList<>(List.of(2.0, 4.0, 6.0, 8.0, 5.0)));
+        matrix.add(new ArrayList<>(List.of(3.0, 6.0, 8.0, 10.0, 6.0)));
+        SparseMatrix sparse = SparseMatrix.fromDense(DenseMatrix.fromList(matrix));
+
+        assertTrue(LinearSolver.existsSolution(sparse));
+        ArrayList<ArrayList<Double>> solutionSpace = LinearSolver.findSolutionSpace(sparse);
+        assertEquals(3, solutionSpace.size());
+
+        // every vector must satisfy the system, the base solution with b and the null space with 0
+        for (int v = 0; v < solutionSpace.size(); v++) {
+            for (ArrayList<Double> row : matrix) {
+                double sum = 0;
+                for (int c = 0; c < 4; c++) sum += row.get(c) * solutionSpace.get(v).get(c);
+                assertEquals(v == 0 ? row.get(4) : 0.0, sum, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void detectInconsistentSystem() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {1, 0, 0, 2},
+                {0, 0, 0, 3},
+                {0, 0, 1, 1}});
+        assertFalse(LinearSolver.existsSolution(SparseMatrix.fromDense(matrix)));
+    }
+}
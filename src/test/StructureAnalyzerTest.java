@@ -0,0 +1,144 @@
+package test;
+
+import main.DenseMatrix;
+import main.LUDecomposition;
+import main.LinearSolver;
+import main.SolverMetrics;
+import main.StructureAnalyzer;
+import main.StructureAnalyzer.Structure;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test cases for StructureAnalyzer
+ */
+class StructureAnalyzerTest {
+
+    private static void assertSolvesLikeLU(DenseMatrix matrix, Structure expected) {
+        StructureAnalyzer analyzer = new StructureAnalyzer(matrix);
+        assertEquals(expected, analyzer.getStructure());
+        double[] b = TestMatrices.vector(matrix.getRows(), -5, 5, 3);
+        double[] x = analyzer.solve(b);
+        assertNotNull(x);
+        assertArrayEquals(new LUDecomposition(matrix).solve(b), x, 1e-9);
+    }
+
+    @Test
+    void classifiesStructures() {
+        assertSolvesLikeLU(DenseMatrix.fromArray(new double[][]{{2, 0}, {0, 4}}), Structure.DIAGONAL);
+        assertSolvesLikeLU(TestMatrices.banded(30, 0, 29, true, 1), Structure.UPPER_TRIANGULAR);
+        assertSolvesLikeLU(TestMatrices.banded(30, 29, 0, true, 2), Structure.LOWER_TRIANGULAR);
+        assertSolvesLikeLU(TestMatrices.banded(30, 1, 1, true, 3), Structure.TRIDIAGONAL);
+        assertSolvesLikeLU(TestMatrices.banded(60, 3, 5, false, 4), Structure.BANDED);
+    }
+
+    @Test
+    void generalMatricesAreLeftToElimination() {
+        StructureAnalyzer analyzer = new StructureAnalyzer(TestMatrices.banded(20, 19, 19, false, 5));
+        assertEquals(Structure.GENERAL, analyzer.getStructure());
+        assertNull(analyzer.solve(TestMatrices.vector(20, -5, 5, 1)));
+        assertEquals(0, analyzer.getSolveFlops());
+    }
+
+    @Test
+    void symmetricMatrices() {
+        DenseMatrix a = TestMatrices.banded(25, 24, 24, false, 6);
+        //A^T A + I is symmetric positive definite, A + A^T is indefinite
+        DenseMatrix definite = new DenseMatrix(25, 25);
+        DenseMatrix indefinite = new DenseMatrix(25, 25);
+        for (int r = 0; r < 25; r++) {
+            for (int c = 0; c < 25; c++) {
+                double sum = r == c ? 1 : 0;
+                for (int k = 0; k < 25; k++) sum += a.get(k, r) * a.get(k, c);
+                definite.set(r, c, sum);
+                indefinite.set(r, c, a.get(r, c) + a.get(c, r));
+            }
+        }
+        assertTrue(new StructureAnalyzer(definite).isSymmetric());
+        assertSolvesLikeLU(definite, Structure.SYMMETRIC);
+        StructureAnalyzer analyzer = new StructureAnalyzer(indefinite);
+        assertEquals(Structure.SYMMETRIC, analyzer.getStructure());
+        assertNull(analyzer.solve(TestMatrices.vector(25, -5, 5, 3)));
+        indefinite.set(0, 1, indefinite.get(0, 1) + 1);
+        assertFalse(new StructureAnalyzer(indefinite).isSymmetric());
+    }
+
+    @Test
+    void symmetricIndefiniteIsSolvedByLU() {
+        //a tiny leading pivot, which elimination without interchanges would amplify
+        double[][] system = {
+                {5e-6, 1, -3, -3, 1.999985},
+                {1, 3, 4, 2, -14},
+                {-3, 4, -2, -3, 5},
+                {-3, 2, -3, -3, 10}};
+        DenseMatrix matrix = DenseMatrix.fromArray(system);
+        assertEquals(Structure.SYMMETRIC, new StructureAnalyzer(matrix.view(0, 0, 4, 4)).getStructure());
+        LinearSolver solver = new LinearSolver();
+        solver.solveMatrix(matrix);
+        assertArrayEquals(new double[]{-3, -1, -3, 2}, LinearSolver.findSolutionSpace(matrix).getRow(0));
+    }
+
+    @Test
+    void tridiagonalWithoutDominanceIsPivoted() {
+        //the Thomas algorithm would divide by the zero in the corner
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{
+                {0, 1, 0, 0, 0},
+                {2, 1, 3, 0, 0},
+                {0, 1, 1, 1, 0},
+                {0, 0, 4, 1, 1},
+                {0, 0, 0, 1, 2}});
+        StructureAnalyzer analyzer = new StructureAnalyzer(matrix);
+        assertFalse(analyzer.isDiagonallyDominant());
+        assertSolvesLikeLU(matrix, Structure.TRIDIAGONAL);
+        assertNull(StructureAnalyzer.solveTridiagonal(matrix, new double[5], 0));
+    }
+
+    @Test
+    void singularTriangularMatrices() {
+        DenseMatrix matrix = DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {0, 0, 1}, {0, 0, 2}});
+        StructureAnalyzer analyzer = new StructureAnalyzer(matrix);
+        assertEquals(Structure.UPPER_TRIANGULAR, analyzer.getStructure());
+        assertNull(analyzer.solve(new double[]{1, 2, 3}));
+    }
+
+    @Test
+    void linearSolverResultsAreUnchanged() {
+        DenseMatrix[] systems = {TestMatrices.banded(40, 0, 39, true, 7), TestMatrices.banded(40, 1, 1, true, 8), TestMatrices.banded(200, 2, 3, false, 9),
+                DenseMatrix.fromArray(new double[][]{{4, 1, 2}, {1, 3, 0}, {2, 0, 5}}),
+                DenseMatrix.fromArray(new double[][]{{1, 2, 3}, {0, 0, 1}, {0, 0, 2}})};
+        for (DenseMatrix coefficients : systems) {
+            final int n = coefficients.getRows();
+            DenseMatrix system = new DenseMatrix(n, n + 1);
+            coefficients.copyTo(system.view(0, 0, n, n));
+            double[] b = TestMatrices.vector(n, -5, 5, n);
+            for (int r = 0; r < n; r++) system.set(r, n, b[r]);
+
+            DenseMatrix structured = system.copy();
+            SolverMetrics metrics = new SolverMetrics();
+            LinearSolver solver = new LinearSolver();
+            solver.enableMetrics(metrics);
+            assertTrue(solver.isStructureDetection());
+            solver.solveMatrix(structured);
+
+            DenseMatrix general = system.copy();
+            LinearSolver plain = new LinearSolver();
+            plain.setStructureDetection(false);
+            plain.solveMatrix(general);
+            for (int r = 0; r < n; r++) assertArrayEquals(general.getRow(r), structured.getRow(r), 1e-4);
+            assertArrayEquals(plain.getPivotColumns(), solver.getPivotColumns());
+        }
+    }
+
+    @Test
+    void structuredSolvesCountFewerFlops() {
+        final int n = 300;
+        DenseMatrix system = new DenseMatrix(n, n + 1);
+        TestMatrices.banded(n, 1, 1, true, 10).copyTo(system.view(0, 0, n, n));
+        SolverMetrics metrics = new SolverMetrics();
+        LinearSolver solver = new LinearSolver();
+        solver.enableMetrics(metrics);
+        solver.solveMatrix(system);
+        assertEquals(8L * n, metrics.getFlops());
+    }
+}
@@ -0,0 +1,70 @@
+package test;
+
+import main.DenseMatrix;
+
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Seeded random matrices shared by the test cases, the same seed always gives the same matrix
+ */
+final class TestMatrices {
+
+    private TestMatrices() {
+    }
+
+    /**
+     * Fill a matrix row by row, drawing each entry from a generator seeded once
+     */
+    private static DenseMatrix fill(int rows, int cols, long seed, ToDoubleFunction<Random> entry) {
+        Random random = new Random(seed);
+        DenseMatrix matrix = new DenseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) matrix.set(r, c, entry.applyAsDouble(random));
+        }
+        return matrix;
+    }
+
+    /**
+     * Entries uniformly distributed in [min, max)
+     */
+    static DenseMatrix uniform(int rows, int cols, double min, double max, long seed) {
+        return fill(rows, cols, seed, random -> random.nextDouble() * (max - min) + min);
+    }
+
+    /**
+     * A vector with entries uniformly distributed in [min, max)
+     */
+    static double[] vector(int length, double min, double max, long seed) {
+        return uniform(1, length, min, max, seed).getData();
+    }
+
+    /**
+     * Normally distributed entries with the given probability, zero otherwise
+     */
+    static DenseMatrix sparse(int rows, int cols, double density, long seed) {
+        return fill(rows, cols, seed, random -> random.nextDouble() < density ? random.nextGaussian() : 0);
+    }
+
+    /**
+     * Integer entries in [-bound, bound]
+     */
+    static DenseMatrix integers(int rows, int cols, int bound, long seed) {
+        return fill(rows, cols, seed, random -> random.nextInt(2 * bound + 1) - bound);
+    }
+
+    /**
+     * A square matrix with entries uniform in [-1, 1) within the given bandwidths, and a diagonal that may or may not dominate
+     */
+    static DenseMatrix banded(int n, int lower, int upper, boolean dominant, long seed) {
+        Random random = new Random(seed);
+        DenseMatrix matrix = new DenseMatrix(n, n);
+        for (int r = 0; r < n; r++) {
+            for (int c = Math.max(0, r - lower); c <= Math.min(n - 1, r + upper); c++) {
+                matrix.set(r, c, random.nextDouble() * 2 - 1);
+            }
+            if (dominant) matrix.set(r, r, lower + upper + 1 + random.nextDouble());
+        }
+        return matrix;
+    }
+}